@@ -0,0 +1,80 @@
+package com.manish.finance.benchmarks;
+
+import com.manish.finance.calculators.ExponentialAverageCalculator;
+import com.manish.finance.calculators.MovingAverageCalculator;
+import com.manish.finance.calculators.WindowedAverageCalculator;
+import com.manish.finance.intf.Calculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per tick cost of the BigDecimal calculators over a full window. Run with {@code -prof gc} for the allocation
+ * rate; note that creating the benchmark Tick itself accounts for a Tick and an Instant per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CalculatorBenchmark {
+
+    static final long MEAN_GAP_NANOS = 50_000;
+
+    @Param({"MovingAverage", "ExponentialMovingAverage", "BoundedExponentialMovingAverage", "WindowedAverage"})
+    public String type;
+
+    @Param({"10", "1000", "100000"})
+    public int windowSize;
+
+    private Calculator calculator;
+    private SyntheticTicks ticks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        calculator = create(type, windowSize);
+        ticks = new SyntheticTicks(1 << 16, MEAN_GAP_NANOS, 42);
+        // fill the window so every measured tick also evicts
+        for (int i = 0; i < windowSize; i++) {
+            calculator.calculate(ticks.nextTick());
+        }
+    }
+
+    @Benchmark
+    public BigDecimal calculate() {
+        return calculator.calculate(ticks.nextTick());
+    }
+
+    /**
+     * Creates a calculator of the given type; windowed averages get a duration holding about windowSize ticks.
+     */
+    static Calculator create(String type, int windowSize) {
+        switch (type) {
+            case "MovingAverage":
+                return new MovingAverageCalculator(windowSize);
+            case "ExponentialMovingAverage":
+                return new ExponentialAverageCalculator(windowSize, BigDecimal.valueOf(0.25));
+            case "BoundedExponentialMovingAverage":
+                return new ExponentialAverageCalculator(windowSize, BigDecimal.valueOf(0.25), MathContext.DECIMAL64);
+            case "WindowedAverage":
+                return new WindowedAverageCalculator(Duration.ofNanos(windowSize * MEAN_GAP_NANOS));
+            default:
+                throw new IllegalArgumentException("Unknown calculator type: " + type);
+        }
+    }
+}
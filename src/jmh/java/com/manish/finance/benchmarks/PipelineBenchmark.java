@@ -0,0 +1,116 @@
+package com.manish.finance.benchmarks;
+
+import com.manish.finance.common.Tick;
+import com.manish.finance.intf.AverageListener;
+import com.manish.finance.intf.Calculator;
+import com.manish.finance.intf.TickListener;
+import com.manish.finance.quants.PipelinedTickManager;
+import com.manish.finance.quants.ShardedTickManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * End-to-end throughput over many instruments of {@link ShardedTickManager}, one platform thread per core, against
+ * {@link PipelinedTickManager}, one pipeline and virtual thread per instrument. Every invocation submits a batch of
+ * ticks spread round robin over the instruments and waits until all of their averages were published, so the
+ * reported time per tick includes the hand-off to and the wake-up of the worker threads.
+ *
+ * <p>Run on Java 21 or later: on older runtimes the pipelines fall back to platform threads, and
+ * PipelinedTickManager refuses more than {@link PipelinedTickManager#PLATFORM_THREAD_INSTRUMENT_LIMIT} instruments.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class PipelineBenchmark {
+
+    private static final String TYPE = "MovingAverage";
+    private static final int WINDOW_SIZE = 20;
+    private static final int BATCH_SIZE = 100_000;
+
+    @Param({"10000", "100000"})
+    public int instrumentCount;
+
+    @Param({"sharded", "pipelined"})
+    public String mode;
+
+    private TickListener manager;
+    private final LongAdder published = new LongAdder();
+    private Tick[] ticks;
+    private int next;
+    private long expected;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        Map<String, Supplier<Calculator>> templates = Map.of(TYPE, () -> CalculatorBenchmark.create(TYPE, WINDOW_SIZE));
+        AverageListener counter = new AverageListener() {
+            @Override
+            public void onAverage(String type, BigDecimal avg) {
+                published.increment();
+            }
+        };
+        if ("sharded".equals(mode)) {
+            ShardedTickManager sharded = new ShardedTickManager(templates, Runtime.getRuntime().availableProcessors());
+            sharded.addListener(TYPE, counter);
+            manager = sharded;
+        } else {
+            PipelinedTickManager pipelined = new PipelinedTickManager(templates);
+            pipelined.addListener(TYPE, counter);
+            manager = pipelined;
+        }
+        SyntheticTicks source = new SyntheticTicks(1 << 16, CalculatorBenchmark.MEAN_GAP_NANOS, 42);
+        ticks = new Tick[Math.max(BATCH_SIZE, instrumentCount) * 2];
+        for (int i = 0; i < ticks.length; i++) {
+            Tick tick = source.nextTick();
+            ticks[i] = new Tick(i % instrumentCount, tick.getPrice(), tick.getTimestamp());
+        }
+        // creates the calculators, or pipelines, of every instrument before measuring
+        for (int i = 0; i < instrumentCount; i++) {
+            manager.onTick(ticks[i]);
+        }
+        expected = instrumentCount;
+        awaitPublished();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        ((AutoCloseable) manager).close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void submitAndAwait() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            manager.onTick(ticks[next]);
+            next = next + 1 == ticks.length ? 0 : next + 1;
+        }
+        expected += BATCH_SIZE;
+        awaitPublished();
+    }
+
+    private void awaitPublished() {
+        while (published.sum() < expected) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.manish.finance.benchmarks;
+
+import com.manish.finance.calculators.CompensatedExponentialAverageCalculator;
+import com.manish.finance.calculators.DoubleExponentialAverageCalculator;
+import com.manish.finance.calculators.DoubleMovingAverageCalculator;
+import com.manish.finance.calculators.DoubleWindowedAverageCalculator;
+import com.manish.finance.intf.PrimitiveCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per tick cost of the primitive calculators, the baseline for {@link CalculatorBenchmark}. Expected to report
+ * no allocation under {@code -prof gc}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PrimitiveCalculatorBenchmark {
+
+    @Param({"MovingAverage", "ExponentialMovingAverage", "CompensatedExponentialMovingAverage", "WindowedAverage"})
+    public String type;
+
+    @Param({"10", "1000", "100000"})
+    public int windowSize;
+
+    private static final int BATCH_SIZE = 1000;
+
+    private PrimitiveCalculator calculator;
+    private SyntheticTicks ticks;
+    private final double[] batchPrices = new double[BATCH_SIZE];
+    private final long[] batchTimestamps = new long[BATCH_SIZE];
+    private final double[] batchResults = new double[BATCH_SIZE];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        switch (type) {
+            case "MovingAverage":
+                calculator = new DoubleMovingAverageCalculator(windowSize);
+                break;
+            case "ExponentialMovingAverage":
+                calculator = new DoubleExponentialAverageCalculator(windowSize, 0.25);
+                break;
+            case "CompensatedExponentialMovingAverage":
+                calculator = new CompensatedExponentialAverageCalculator(windowSize, 0.25);
+                break;
+            case "WindowedAverage":
+                calculator = new DoubleWindowedAverageCalculator(Duration.ofNanos(windowSize * CalculatorBenchmark.MEAN_GAP_NANOS));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown calculator type: " + type);
+        }
+        ticks = new SyntheticTicks(1 << 16, CalculatorBenchmark.MEAN_GAP_NANOS, 42);
+        for (int i = 0; i < windowSize; i++) {
+            calculate();
+        }
+    }
+
+    @Benchmark
+    public double calculate() {
+        double price = ticks.nextPrice();
+        return calculator.calculate(price, ticks.lastTimestamp());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public double[] calculateBatch() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batchPrices[i] = ticks.nextPrice();
+            batchTimestamps[i] = ticks.lastTimestamp();
+        }
+        calculator.calculate(batchPrices, batchTimestamps, BATCH_SIZE, batchResults);
+        return batchResults;
+    }
+}
@@ -0,0 +1,126 @@
+package com.manish.finance.benchmarks;
+
+import com.manish.finance.common.FixedPoint;
+import com.manish.finance.common.Tick;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+
+/**
+ * Generates reproducible synthetic market data for the benchmarks: prices follow a random walk with
+ * cent ticks, timestamps arrive in bursts of closely spaced ticks separated by quiet gaps.
+ */
+public final class SyntheticTicks {
+
+    private static final long BURST_GAP_NANOS = 2_000; // spacing of ticks within a burst
+
+    private final double[] prices;
+    private final BigDecimal[] bigDecimalPrices;
+    private final long[] timestamps;
+    private final long span;
+    private long base;
+    private int next;
+
+    /**
+     * Generates a stream of ticks.
+     *
+     * @param count        Number of distinct ticks to generate, the stream cycles through them.
+     * @param meanGapNanos Mean time between two ticks across bursts and gaps.
+     * @param seed         Seed of the random generator.
+     */
+    public SyntheticTicks(int count, long meanGapNanos, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        this.prices = randomWalk(count, random);
+        this.timestamps = bursty(count, meanGapNanos, random);
+        this.bigDecimalPrices = new BigDecimal[count];
+        for (int i = 0; i < count; i++) {
+            bigDecimalPrices[i] = BigDecimal.valueOf(Math.round(prices[i] * 100), 2);
+        }
+        this.span = timestamps[count - 1] + meanGapNanos;
+        this.base = FixedPoint.toEpochNanos(java.time.Instant.parse("2024-01-02T14:30:00Z"));
+    }
+
+    /**
+     * Returns the next Tick, timestamps keep increasing when the stream wraps around.
+     *
+     * @return A new Tick.
+     */
+    public Tick nextTick() {
+        Tick tick = new Tick(bigDecimalPrices[next], FixedPoint.toInstant(base + timestamps[next]));
+        advance();
+        return tick;
+    }
+
+    /**
+     * Returns the price of the next tick; {@link #lastTimestamp()} then returns its timestamp.
+     *
+     * @return The next price.
+     */
+    public double nextPrice() {
+        double price = prices[next];
+        advance();
+        return price;
+    }
+
+    /**
+     * Returns the timestamp, in epoch nanos, of the tick last returned by {@link #nextPrice()}.
+     *
+     * @return The timestamp of the last tick.
+     */
+    public long lastTimestamp() {
+        int last = next == 0 ? timestamps.length - 1 : next - 1;
+        return (next == 0 ? base - span : base) + timestamps[last];
+    }
+
+    /**
+     * Returns the next {@code count} ticks as an array.
+     *
+     * @param count The number of ticks.
+     * @return The ticks.
+     */
+    public Tick[] nextTicks(int count) {
+        Tick[] ticks = new Tick[count];
+        for (int i = 0; i < count; i++) {
+            ticks[i] = nextTick();
+        }
+        return ticks;
+    }
+
+    private void advance() {
+        if (++next == timestamps.length) {
+            next = 0;
+            base += span;
+        }
+    }
+
+    private static double[] randomWalk(int count, SplittableRandom random) {
+        double[] prices = new double[count];
+        double price = 100.0;
+        for (int i = 0; i < count; i++) {
+            price += (random.nextInt(5) - 2) * 0.01; // moves of up to 2 cents per tick
+            price = Math.max(price, 0.01);
+            prices[i] = price;
+        }
+        return prices;
+    }
+
+    private static long[] bursty(int count, long meanGapNanos, SplittableRandom random) {
+        long[] timestamps = new long[count];
+        long now = 0;
+        int burstLeft = 0;
+        int meanBurst = 20;
+        for (int i = 0; i < count; i++) {
+            if (burstLeft == 0) {
+                // quiet gap long enough to keep the overall mean gap, then a new burst
+                burstLeft = 1 + random.nextInt(2 * meanBurst);
+                long quiet = meanGapNanos * meanBurst;
+                now += (long) (-Math.log(1 - random.nextDouble()) * quiet);
+            } else {
+                now += 1 + random.nextLong(BURST_GAP_NANOS);
+            }
+            burstLeft--;
+            timestamps[i] = now;
+        }
+        return timestamps;
+    }
+}
@@ -0,0 +1,81 @@
+package com.manish.finance.benchmarks;
+
+import com.manish.finance.common.Tick;
+import com.manish.finance.intf.Calculator;
+import com.manish.finance.quants.TickManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fan-out cost of {@link TickManager}: N calculators (cycling through the three types, window of 1000 ticks)
+ * times M listeners per calculator, for single ticks and for bulk {@code onTicks} ingestion. Both report the
+ * time per tick.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TickManagerBenchmark {
+
+    private static final String[] TYPES = {"MovingAverage", "ExponentialMovingAverage", "WindowedAverage"};
+    private static final int WINDOW_SIZE = 1000;
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"1", "3", "9"})
+    public int calculatorCount;
+
+    @Param({"0", "1", "8"})
+    public int listenerCount;
+
+    private TickManager tickManager;
+    private SyntheticTicks ticks;
+
+    @Setup(Level.Trial)
+    public void setUp(Blackhole blackhole) {
+        Map<String, Calculator> calculators = new LinkedHashMap<>();
+        for (int i = 0; i < calculatorCount; i++) {
+            String type = TYPES[i % TYPES.length];
+            calculators.put(type + i, CalculatorBenchmark.create(type, WINDOW_SIZE));
+        }
+        tickManager = new TickManager(calculators);
+        for (String type : calculators.keySet()) {
+            for (int i = 0; i < listenerCount; i++) {
+                tickManager.addListener(type, (calculatorType, avg) -> blackhole.consume(avg));
+            }
+        }
+        ticks = new SyntheticTicks(1 << 16, CalculatorBenchmark.MEAN_GAP_NANOS, 42);
+        for (int i = 0; i < WINDOW_SIZE; i++) {
+            tickManager.onTick(ticks.nextTick());
+        }
+    }
+
+    @Benchmark
+    public void onTick() {
+        tickManager.onTick(ticks.nextTick());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void onTicks() {
+        Tick[] batch = ticks.nextTicks(BATCH_SIZE);
+        tickManager.onTicks(batch);
+    }
+}
@@ -0,0 +1,159 @@
+package com.manish.finance.calculators;
+
+import com.manish.finance.common.Tick;
+import com.manish.finance.common.TickHistory;
+import com.manish.finance.intf.Calculator;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * This class calculates Bollinger Bands over the last 'windowSize' Ticks.
+ *
+ * <p>The middle band is the simple moving average of the window, the upper and lower bands lie k population
+ * standard deviations above and below it. {@link #calculate(Tick)} returns the band chosen at construction; all
+ * three bands of the latest tick are available through the getters, so one calculator can feed all of them.</p>
+ */
+public class BollingerBandCalculator implements Calculator {
+    private static final int SCALE = 4;
+
+    /**
+     * The band returned by {@link #calculate(Tick)}.
+     */
+    public enum Band { UPPER, MIDDLE, LOWER }
+
+    private final RollingMoments moments;
+    private final BigDecimal k;
+    private final Band band;
+    private BigDecimal upperBand = BigDecimal.ZERO;
+    private BigDecimal middleBand = BigDecimal.ZERO;
+    private BigDecimal lowerBand = BigDecimal.ZERO;
+    volatile boolean reset;
+    volatile boolean cancel;
+
+    /**
+     * Constructs a BollingerBandCalculator returning the middle band.
+     *
+     * @param windowSize The number of ticks in the window.
+     * @param k          The number of standard deviations between the middle band and the outer bands, usually 2.
+     */
+    public BollingerBandCalculator(int windowSize, BigDecimal k) {
+        this(windowSize, k, Band.MIDDLE);
+    }
+
+    /**
+     * Constructs a BollingerBandCalculator.
+     *
+     * @param windowSize The number of ticks in the window.
+     * @param k          The number of standard deviations between the middle band and the outer bands, usually 2.
+     * @param band       The band returned by {@link #calculate(Tick)}.
+     */
+    public BollingerBandCalculator(int windowSize, BigDecimal k, Band band) {
+        this(new RollingMoments(windowSize), k, band);
+    }
+
+    /**
+     * Constructs a BollingerBandCalculator reading its window from a shared history.
+     *
+     * @param history    The history the ticks are appended to before they are calculated.
+     * @param windowSize The number of ticks in the window.
+     * @param k          The number of standard deviations between the middle band and the outer bands, usually 2.
+     * @param band       The band returned by {@link #calculate(Tick)}.
+     */
+    public BollingerBandCalculator(TickHistory history, int windowSize, BigDecimal k, Band band) {
+        this(new RollingMoments(history, windowSize), k, band);
+    }
+
+    private BollingerBandCalculator(RollingMoments moments, BigDecimal k, Band band) {
+        this.moments = moments;
+        this.k = k;
+        this.band = band;
+        this.reset = false;
+        this.cancel = false;
+    }
+
+    /**
+     * Calculates the bands of the window including the given Tick.
+     *
+     * @param tick The current Tick.
+     * @return The band chosen at construction, with 4 decimal places.
+     */
+    @Override
+    public BigDecimal calculate(Tick tick) {
+        if (cancel) {
+            reset();
+            moments.clear(); // releases the ticks of a shared history right away
+            return BigDecimal.ZERO;
+        }
+        if (reset || !moments.follows(tick)) {
+            reset = false;
+            moments.clear();
+        }
+        moments.add(tick);
+
+        BigDecimal mean = moments.mean(SCALE + 4);
+        BigDecimal width = k.multiply(moments.standardDeviation(SCALE + 4));
+        middleBand = mean.setScale(SCALE, RoundingMode.HALF_UP);
+        upperBand = mean.add(width).setScale(SCALE, RoundingMode.HALF_UP);
+        lowerBand = mean.subtract(width).setScale(SCALE, RoundingMode.HALF_UP);
+        switch (band) {
+            case UPPER:
+                return upperBand;
+            case LOWER:
+                return lowerBand;
+            default:
+                return middleBand;
+        }
+    }
+
+    /**
+     * Returns the upper band of the latest calculated tick.
+     *
+     * @return The upper band, zero before the first tick.
+     */
+    public BigDecimal getUpperBand() {
+        return upperBand;
+    }
+
+    /**
+     * Returns the middle band, the moving average, of the latest calculated tick.
+     *
+     * @return The middle band, zero before the first tick.
+     */
+    public BigDecimal getMiddleBand() {
+        return middleBand;
+    }
+
+    /**
+     * Returns the lower band of the latest calculated tick.
+     *
+     * @return The lower band, zero before the first tick.
+     */
+    public BigDecimal getLowerBand() {
+        return lowerBand;
+    }
+
+    /**
+     * Resets the Bollinger Band calculation.
+     */
+    @Override
+    public void reset() {
+        reset = true;
+    }
+
+    /**
+     * Cancels the Bollinger Band calculation.
+     */
+    @Override
+    public void cancel() {
+        cancel = true;
+    }
+
+    /**
+     * Resumes the Bollinger Band calculation.
+     */
+    @Override
+    public void resume() {
+        cancel = false;
+    }
+}
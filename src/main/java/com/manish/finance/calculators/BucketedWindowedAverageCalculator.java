@@ -0,0 +1,230 @@
+package com.manish.finance.calculators;
+
+import com.manish.finance.common.FixedPoint;
+import com.manish.finance.common.SnapshotIO;
+import com.manish.finance.common.Tick;
+import com.manish.finance.intf.Calculator;
+import com.manish.finance.intf.Snapshottable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * This class calculates the Windowed Average of a series of Ticks over long durations, in memory proportional to
+ * the duration instead of the number of Ticks.
+ *
+ * <p>Time is cut into buckets of a fixed width, aligned to the epoch, and only the sum and count of the prices of
+ * each bucket are kept, in a circular array of ceil(duration / width) + 1 buckets. A 24 hour window with one second
+ * buckets needs 86401 buckets however busy the instrument is.</p>
+ *
+ * <p>The trade-off is at the old edge of the window: buckets are evicted whole, so the bucket holding the cutoff
+ * time is still counted in full and the average can include Ticks up to one bucket width older than the exact
+ * {@link WindowedAverageCalculator} would. Ticks arriving out of order are added to their own bucket as long as it
+ * is still inside the window, older ones are ignored.</p>
+ */
+public class BucketedWindowedAverageCalculator implements Calculator, Snapshottable {
+    private static final long NO_BUCKET = Long.MIN_VALUE;
+    private static final long NO_TICK = Long.MIN_VALUE;
+
+    private final Duration windowDuration;
+    private final long bucketWidthNanos;
+    private final long[] bucketIds;
+    private final long[] counts;
+    private final BigDecimal[] sums;
+    private long latestTimestampNanos;
+    private long evictedBelow; // every bucket before this one has been evicted
+    private long count;
+    private BigDecimal sum;
+    private volatile boolean reset;
+    private volatile boolean cancel;
+
+    /**
+     * Constructs a BucketedWindowedAverageCalculator.
+     *
+     * @param windowDuration The duration of the time window for the average calculation.
+     * @param bucketWidth    The width of a bucket, the precision of the window's old edge.
+     */
+    public BucketedWindowedAverageCalculator(Duration windowDuration, Duration bucketWidth) {
+        if (bucketWidth.isNegative() || bucketWidth.isZero() || bucketWidth.compareTo(windowDuration) > 0) {
+            throw new IllegalArgumentException("Bucket width must be positive and at most the window duration: " + bucketWidth);
+        }
+        this.windowDuration = windowDuration;
+        this.bucketWidthNanos = bucketWidth.toNanos();
+        long bucketCount = (windowDuration.toNanos() + bucketWidthNanos - 1) / bucketWidthNanos + 1;
+        if (bucketCount > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many buckets: " + bucketCount);
+        }
+        this.bucketIds = new long[(int) bucketCount];
+        this.counts = new long[bucketIds.length];
+        this.sums = new BigDecimal[bucketIds.length];
+        clear();
+        this.reset = false;
+        this.cancel = false;
+    }
+
+    /**
+     * Calculates the Windowed Average for the given Tick.
+     *
+     * @param tick The current Tick.
+     * @return The calculated Windowed Average, with 2 decimal places like {@link WindowedAverageCalculator}.
+     */
+    @Override
+    public BigDecimal calculate(Tick tick) {
+        if (cancel) {
+            reset();
+            return BigDecimal.ZERO;
+        }
+
+        if (reset) {
+            reset = false;
+            clear();
+        }
+
+        long timestampNanos = FixedPoint.toEpochNanos(tick.getTimestamp());
+        if (latestTimestampNanos == NO_TICK) {
+            evictedBelow = Math.floorDiv(timestampNanos - windowDuration.toNanos(), bucketWidthNanos);
+        }
+        // A late tick does not move the window back
+        latestTimestampNanos = Math.max(latestTimestampNanos, timestampNanos);
+        // The oldest bucket still touching the window, the one holding the cutoff time
+        long oldestBucket = Math.floorDiv(latestTimestampNanos - windowDuration.toNanos(), bucketWidthNanos);
+
+        // Evict the buckets which fell out of the window, each slot is visited at most once
+        long evictUpTo = Math.min(oldestBucket, evictedBelow + bucketIds.length);
+        for (long expired = evictedBelow; expired < evictUpTo; expired++) {
+            int slot = slot(expired);
+            if (bucketIds[slot] == expired) {
+                evict(slot);
+            }
+        }
+        evictedBelow = Math.max(evictedBelow, oldestBucket);
+
+        long bucket = Math.floorDiv(timestampNanos, bucketWidthNanos);
+        if (bucket >= oldestBucket) {
+            int slot = slot(bucket);
+            if (bucketIds[slot] != bucket) {
+                evict(slot);
+                bucketIds[slot] = bucket;
+            }
+            counts[slot]++;
+            sums[slot] = sums[slot].add(tick.getPrice());
+            count++;
+            sum = sum.add(tick.getPrice());
+        }
+
+        if (count == 0) {
+            return BigDecimal.ZERO;
+        }
+        return sum.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Writes the configuration, flags and buckets of this calculator.
+     *
+     * @param out The output to write to.
+     * @throws IOException if the output cannot be written.
+     */
+    @Override
+    public void writeSnapshot(DataOutput out) throws IOException {
+        out.writeLong(windowDuration.toNanos());
+        out.writeLong(bucketWidthNanos);
+        out.writeBoolean(reset);
+        out.writeBoolean(cancel);
+        out.writeLong(latestTimestampNanos);
+        out.writeLong(evictedBelow);
+        for (int slot = 0; slot < bucketIds.length; slot++) {
+            out.writeLong(bucketIds[slot]);
+            out.writeLong(counts[slot]);
+            SnapshotIO.writeBigDecimal(out, sums[slot]);
+        }
+    }
+
+    /**
+     * Restores a snapshot written by {@link #writeSnapshot(DataOutput)} of a calculator with the same duration and
+     * bucket width.
+     *
+     * @param in The input to read from.
+     * @throws IOException if the input cannot be read or was written with another configuration.
+     */
+    @Override
+    public void readSnapshot(DataInput in) throws IOException {
+        SnapshotIO.checkConfiguration("windowDuration", windowDuration, Duration.ofNanos(in.readLong()));
+        SnapshotIO.checkConfiguration("bucketWidth", bucketWidthNanos, in.readLong());
+        boolean snapshotReset = in.readBoolean();
+        boolean snapshotCancel = in.readBoolean();
+        long snapshotLatestTimestampNanos = in.readLong();
+        long snapshotEvictedBelow = in.readLong();
+        long[] snapshotIds = new long[bucketIds.length];
+        long[] snapshotCounts = new long[bucketIds.length];
+        BigDecimal[] snapshotSums = new BigDecimal[bucketIds.length];
+        for (int slot = 0; slot < bucketIds.length; slot++) {
+            snapshotIds[slot] = in.readLong();
+            snapshotCounts[slot] = in.readLong();
+            snapshotSums[slot] = SnapshotIO.readBigDecimal(in);
+        }
+
+        clear();
+        latestTimestampNanos = snapshotLatestTimestampNanos;
+        evictedBelow = snapshotEvictedBelow;
+        for (int slot = 0; slot < bucketIds.length; slot++) {
+            bucketIds[slot] = snapshotIds[slot];
+            counts[slot] = snapshotCounts[slot];
+            sums[slot] = snapshotSums[slot];
+            count += counts[slot];
+            sum = sum.add(sums[slot]);
+        }
+        reset = snapshotReset;
+        cancel = snapshotCancel;
+    }
+
+    /**
+     * Resets the Windowed Average calculation.
+     */
+    @Override
+    public void reset() {
+        reset = true;
+    }
+
+    /**
+     * Cancels the Windowed Average calculation.
+     */
+    @Override
+    public void cancel() {
+        cancel = true;
+    }
+
+    /**
+     * Resumes the Windowed Average calculation.
+     */
+    @Override
+    public void resume() {
+        cancel = false;
+    }
+
+    private int slot(long bucket) {
+        return (int) Math.floorMod(bucket, (long) bucketIds.length);
+    }
+
+    private void evict(int slot) {
+        count -= counts[slot];
+        sum = sum.subtract(sums[slot]);
+        bucketIds[slot] = NO_BUCKET;
+        counts[slot] = 0;
+        sums[slot] = BigDecimal.ZERO;
+    }
+
+    private void clear() {
+        Arrays.fill(bucketIds, NO_BUCKET);
+        Arrays.fill(counts, 0);
+        Arrays.fill(sums, BigDecimal.ZERO);
+        latestTimestampNanos = NO_TICK;
+        evictedBelow = NO_BUCKET;
+        count = 0;
+        sum = BigDecimal.ZERO;
+    }
+}
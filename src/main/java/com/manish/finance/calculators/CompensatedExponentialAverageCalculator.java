@@ -0,0 +1,152 @@
+package com.manish.finance.calculators;
+
+import com.manish.finance.common.DoubleRingBuffer;
+import com.manish.finance.intf.PrimitiveCalculator;
+import com.manish.finance.intf.TraceSink;
+
+import java.math.BigDecimal;
+
+/**
+ * This class calculates the Exponential Moving Average (EMA) of a series of double prices with compensated
+ * arithmetic.
+ *
+ * <p>It follows the formula and window semantics of {@link DoubleExponentialAverageCalculator}, but keeps the EMA
+ * as the unevaluated sum of two doubles, the value and its rounding error. Each product is split into its rounded
+ * value and exact error with {@link Math#fma}, each sum with Knuth's two-sum, and the errors are carried into the
+ * next tick instead of being dropped. Subtracting the evicted price then no longer cancels digits the plain double
+ * calculator has already lost, for a constant cost of about a dozen floating point operations per tick. The tests
+ * hold the result within 4 units in the last place of the exact windowed EMA at a window of 10,000 ticks.</p>
+ */
+public class CompensatedExponentialAverageCalculator implements PrimitiveCalculator {
+    private final double alpha;
+    private final int windowSize;
+    private final DoubleRingBuffer window;
+    private final double decay;
+
+    // Factor to use to remove impact of an old entry , which is getting evicted from the window: α · (1 − α)^(N−1)
+    private final double evictionFactor;
+
+    // The EMA is emaHigh + emaLow, emaLow holding the rounding error of emaHigh
+    private double emaHigh;
+    private double emaLow;
+    private boolean reset;
+    private boolean cancel;
+    private TraceSink traceSink = TraceSink.NONE;
+
+    /**
+     * Constructs a CompensatedExponentialAverageCalculator with the given window size and alpha value.
+     *
+     * @param windowSize The size of the window for the moving average calculation.
+     * @param alpha      The smoothing factor (0 < alpha <= 1).
+     */
+    public CompensatedExponentialAverageCalculator(int windowSize, double alpha) {
+        this.windowSize = windowSize;
+        this.window = new DoubleRingBuffer(windowSize);
+        this.alpha = alpha;
+        this.decay = 1 - alpha;
+        this.evictionFactor = alpha * Math.pow(1 - alpha, windowSize - 1);
+        this.reset = false;
+        this.cancel = false;
+    }
+
+    /**
+     * Calculates the Exponential Moving Average for the given price.
+     *
+     * @param price          The price of the current tick.
+     * @param timestampNanos The timestamp of the current tick, unused by this calculator.
+     * @return The calculated Exponential Moving Average.
+     */
+    @Override
+    public double calculate(double price, long timestampNanos) {
+        if (cancel) {
+            reset();
+            return 0;
+        }
+
+        if (reset) {
+            emaHigh = 0;
+            emaLow = 0;
+            window.clear();
+            reset = false;
+            if (traceSink.isEnabled(TraceSink.Level.INFO)) {
+                traceSink.trace(TraceSink.Level.INFO, "CompensatedExponentialAverageCalculator", "reset", null, null);
+            }
+        }
+
+        if (window.size() == windowSize) {
+            // Remove the 'impact of oldest price', keeping the error of the product and of the difference
+            double oldestPrice = window.removeFirst();
+            double removed = oldestPrice * evictionFactor;
+            double removedError = Math.fma(oldestPrice, evictionFactor, -removed);
+            double difference = emaHigh - removed;
+            emaLow += twoSumError(emaHigh, -removed, difference) - removedError;
+            emaHigh = difference;
+            if (traceSink.isEnabled(TraceSink.Level.DEBUG)) {
+                traceSink.trace(TraceSink.Level.DEBUG, "CompensatedExponentialAverageCalculator", "evict", BigDecimal.valueOf(oldestPrice), BigDecimal.valueOf(emaHigh));
+            }
+        }
+
+        // ema * (1 - alpha), the low part only needs a plain product
+        double decayed = emaHigh * decay;
+        double low = Math.fma(emaHigh, decay, -decayed) + emaLow * decay;
+
+        // + price * alpha
+        double added = price * alpha;
+        double addedError = Math.fma(price, alpha, -added);
+        double sum = decayed + added;
+        low += twoSumError(decayed, added, sum) + addedError;
+
+        // Renormalize so emaHigh is the double nearest to the EMA
+        emaHigh = sum + low;
+        emaLow = low - (emaHigh - sum);
+        if (traceSink.isEnabled(TraceSink.Level.TRACE)) {
+            traceSink.trace(TraceSink.Level.TRACE, "CompensatedExponentialAverageCalculator", "update", BigDecimal.valueOf(price), BigDecimal.valueOf(emaHigh));
+        }
+
+        window.addLast(price, timestampNanos);
+        return emaHigh;
+    }
+
+    /**
+     * Sets the sink receiving diagnostics of this calculator.
+     *
+     * @param traceSink The sink to use, {@link TraceSink#NONE} to disable tracing.
+     */
+    @Override
+    public void setTraceSink(TraceSink traceSink) {
+        this.traceSink = traceSink;
+    }
+
+    /**
+     * Resets the EMA calculation.
+     */
+    @Override
+    public void reset() {
+        reset = true;
+    }
+
+    /**
+     * Cancels the EMA calculation.
+     */
+    @Override
+    public void cancel() {
+        cancel = true;
+    }
+
+    /**
+     * Resumes the EMA calculation.
+     */
+    @Override
+    public void resume() {
+        cancel = false;
+    }
+
+    /**
+     * Returns the rounding error of sum = a + b, exactly, for any magnitudes of a and b.
+     */
+    private static double twoSumError(double a, double b, double sum) {
+        double bVirtual = sum - a;
+        double aVirtual = sum - bVirtual;
+        return (a - aVirtual) + (b - bVirtual);
+    }
+}
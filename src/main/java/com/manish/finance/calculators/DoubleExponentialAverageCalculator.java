@@ -0,0 +1,185 @@
+package com.manish.finance.calculators;
+
+import com.manish.finance.common.DoubleRingBuffer;
+import com.manish.finance.intf.PrimitiveCalculator;
+import com.manish.finance.intf.TraceSink;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * This class calculates the Exponential Moving Average (EMA) of a series of double prices.
+ *
+ * <p>It is the primitive counterpart of {@link ExponentialAverageCalculator} and follows the same formula and
+ * window semantics: once the window holds 'windowSize' prices, the contribution of the evicted price is removed
+ * before the new price is applied. No object is allocated per tick.</p>
+ */
+public class DoubleExponentialAverageCalculator implements PrimitiveCalculator {
+    private final double alpha;
+    private final int windowSize;
+    private final DoubleRingBuffer window;
+    private double ema;
+
+    // Factor to use to remove impact of an old entry , which is getting evicted from the window.
+    private final double removalFactor;
+    private boolean reset;
+    private boolean cancel;
+    private TraceSink traceSink = TraceSink.NONE;
+
+    /**
+     * Constructs a DoubleExponentialAverageCalculator with the given window size and alpha value.
+     *
+     * @param windowSize The size of the window for the moving average calculation.
+     * @param alpha      The smoothing factor (0 < alpha <= 1).
+     */
+    public DoubleExponentialAverageCalculator(int windowSize, double alpha) {
+        this.windowSize = windowSize;
+        this.window = new DoubleRingBuffer(windowSize);
+        this.alpha = alpha;
+        this.ema = 0;
+        this.removalFactor = Math.pow(1 - alpha, windowSize - 1);
+        this.reset = false;
+        this.cancel = false;
+    }
+
+    /**
+     * Calculates the Exponential Moving Average for the given price.
+     *
+     * @param price          The price of the current tick.
+     * @param timestampNanos The timestamp of the current tick, unused by this calculator.
+     * @return The calculated Exponential Moving Average.
+     */
+    @Override
+    public double calculate(double price, long timestampNanos) {
+        if (cancel) {
+            reset();
+            return 0;
+        }
+
+        if (reset) {
+            ema = 0;
+            window.clear();
+            reset = false;
+            if (traceSink.isEnabled(TraceSink.Level.INFO)) {
+                traceSink.trace(TraceSink.Level.INFO, "DoubleExponentialAverageCalculator", "reset", null, null);
+            }
+        }
+
+        if (window.size() == windowSize) {
+            // Remove the 'impact of oldest price' before applying the new one
+            double oldestPrice = window.removeFirst();
+            double prevEmaWithoutOldest = ema - oldestPrice * alpha * removalFactor;
+            if (traceSink.isEnabled(TraceSink.Level.DEBUG)) {
+                traceSink.trace(TraceSink.Level.DEBUG, "DoubleExponentialAverageCalculator", "evict", BigDecimal.valueOf(oldestPrice), BigDecimal.valueOf(prevEmaWithoutOldest));
+            }
+            ema = prevEmaWithoutOldest * (1 - alpha) + price * alpha;
+        } else if (window.isEmpty()) {
+            // Initialize EMA with the first price
+            ema = price * alpha;
+        } else {
+            ema = ema * (1 - alpha) + price * alpha;
+            if (traceSink.isEnabled(TraceSink.Level.TRACE)) {
+                traceSink.trace(TraceSink.Level.TRACE, "DoubleExponentialAverageCalculator", "update", BigDecimal.valueOf(price), BigDecimal.valueOf(ema));
+            }
+        }
+        window.addLast(price, timestampNanos);
+        return ema;
+    }
+
+    /**
+     * Calculates the Exponential Moving Average for a batch of prices in one pass. The recurrence is split by
+     * where the evicted price comes from, so the steady state loop only reads the price array.
+     *
+     * @param prices     The prices of the ticks.
+     * @param timestamps The timestamps of the ticks.
+     * @param length     The number of ticks to process.
+     * @param results    Receives the Exponential Moving Average after every tick.
+     */
+    @Override
+    public void calculate(double[] prices, long[] timestamps, int length, double[] results) {
+        if (traceSink.isEnabled(TraceSink.Level.DEBUG) || traceSink.isEnabled(TraceSink.Level.TRACE)) {
+            // evictions and updates are traced tick by tick
+            PrimitiveCalculator.super.calculate(prices, timestamps, length, results);
+            return;
+        }
+
+        if (cancel) {
+            reset();
+            Arrays.fill(results, 0, length, 0);
+            return;
+        }
+
+        if (reset) {
+            ema = 0;
+            window.clear();
+            reset = false;
+            if (traceSink.isEnabled(TraceSink.Level.INFO)) {
+                traceSink.trace(TraceSink.Level.INFO, "DoubleExponentialAverageCalculator", "reset", null, null);
+            }
+        }
+
+        double decay = 1 - alpha;
+        double evictionFactor = alpha * removalFactor;
+        int buffered = window.size();
+        int i = 0;
+        if (buffered == 0 && length > 0) {
+            // Initialize EMA with the first price
+            ema = prices[0] * alpha;
+            results[i++] = ema;
+        }
+        // Window not full yet, nothing to evict
+        for (; i < length && buffered + i < windowSize; i++) {
+            ema = ema * decay + prices[i] * alpha;
+            results[i] = ema;
+        }
+        // Evicting prices buffered before this batch
+        for (; i < length && i < windowSize; i++) {
+            ema = (ema - window.priceAt(buffered + i - windowSize) * evictionFactor) * decay + prices[i] * alpha;
+            results[i] = ema;
+        }
+        // Evicting prices of this batch
+        for (; i < length; i++) {
+            ema = (ema - prices[i - windowSize] * evictionFactor) * decay + prices[i] * alpha;
+            results[i] = ema;
+        }
+
+        // Keep the last windowSize prices for the next tick
+        int keptFromBatch = Math.min(length, windowSize);
+        window.removeFirst(Math.max(0, buffered + keptFromBatch - windowSize));
+        window.addAll(prices, timestamps, length - keptFromBatch, length);
+    }
+
+    /**
+     * Sets the sink receiving diagnostics of this calculator.
+     *
+     * @param traceSink The sink to use, {@link TraceSink#NONE} to disable tracing.
+     */
+    @Override
+    public void setTraceSink(TraceSink traceSink) {
+        this.traceSink = traceSink;
+    }
+
+    /**
+     * Resets the EMA calculation.
+     */
+    @Override
+    public void reset() {
+        reset = true;
+    }
+
+    /**
+     * Cancels the EMA calculation.
+     */
+    @Override
+    public void cancel() {
+        cancel = true;
+    }
+
+    /**
+     * Resumes the EMA calculation.
+     */
+    @Override
+    public void resume() {
+        cancel = false;
+    }
+}
@@ -0,0 +1,159 @@
+package com.manish.finance.calculators;
+
+import com.manish.finance.common.DoubleRingBuffer;
+import com.manish.finance.intf.PrimitiveCalculator;
+import com.manish.finance.intf.TraceSink;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * This class calculates the Simple Moving Average (SMA) of a series of double prices.
+ *
+ * <p>It is the primitive counterpart of {@link MovingAverageCalculator}: the window is a preallocated
+ * {@link DoubleRingBuffer} of size 'windowSize' and the running sum is a double, so no object is
+ * allocated per tick.</p>
+ */
+public class DoubleMovingAverageCalculator implements PrimitiveCalculator {
+    private final int windowSize;
+    private final DoubleRingBuffer window;
+    private double sum;
+    private boolean reset;
+    private boolean cancel;
+    private TraceSink traceSink = TraceSink.NONE;
+
+    /**
+     * Constructs a DoubleMovingAverageCalculator with the specified window size.
+     *
+     * @param windowSize The size of the window for the moving average calculation.
+     */
+    public DoubleMovingAverageCalculator(int windowSize) {
+        this.windowSize = windowSize;
+        this.window = new DoubleRingBuffer(windowSize);
+        this.sum = 0;
+        this.reset = false;
+        this.cancel = false;
+    }
+
+    /**
+     * Calculates the Simple Moving Average for the given price.
+     *
+     * @param price          The price of the current tick.
+     * @param timestampNanos The timestamp of the current tick, unused by this calculator.
+     * @return The calculated Simple Moving Average.
+     */
+    @Override
+    public double calculate(double price, long timestampNanos) {
+        if (cancel) {
+            reset(); // Cancelled calculation, reset the window when you resume
+            return 0;
+        }
+
+        if (reset) {
+            reset = false;
+            window.clear();
+            sum = 0;
+        }
+
+        // If the window is full, remove the oldest price before adding the new one
+        if (window.size() == windowSize) {
+            double oldestPrice = window.removeFirst();
+            sum -= oldestPrice;
+            if (traceSink.isEnabled(TraceSink.Level.DEBUG)) {
+                traceSink.trace(TraceSink.Level.DEBUG, "DoubleMovingAverageCalculator", "evict", BigDecimal.valueOf(oldestPrice), BigDecimal.valueOf(sum));
+            }
+        }
+        window.addLast(price, timestampNanos);
+        sum += price;
+
+        return sum / window.size();
+    }
+
+    /**
+     * Calculates the Simple Moving Average for a batch of prices in one pass. The window over the batch is the
+     * buffered prices followed by the batch itself, so once the batch is longer than the window the running sum
+     * is updated from the price array alone, without touching the ring buffer.
+     *
+     * @param prices     The prices of the ticks.
+     * @param timestamps The timestamps of the ticks.
+     * @param length     The number of ticks to process.
+     * @param results    Receives the Simple Moving Average after every tick.
+     */
+    @Override
+    public void calculate(double[] prices, long[] timestamps, int length, double[] results) {
+        if (traceSink.isEnabled(TraceSink.Level.DEBUG)) {
+            // evictions are traced tick by tick
+            PrimitiveCalculator.super.calculate(prices, timestamps, length, results);
+            return;
+        }
+
+        if (cancel) {
+            reset();
+            Arrays.fill(results, 0, length, 0);
+            return;
+        }
+
+        if (reset) {
+            reset = false;
+            window.clear();
+            sum = 0;
+        }
+
+        int buffered = window.size();
+        int i = 0;
+        // Window not full yet, nothing to evict
+        for (; i < length && buffered + i < windowSize; i++) {
+            sum += prices[i];
+            results[i] = sum / (buffered + i + 1);
+        }
+        // Evicting prices buffered before this batch
+        for (; i < length && i < windowSize; i++) {
+            sum += prices[i] - window.priceAt(buffered + i - windowSize);
+            results[i] = sum / windowSize;
+        }
+        // Evicting prices of this batch
+        for (; i < length; i++) {
+            sum += prices[i] - prices[i - windowSize];
+            results[i] = sum / windowSize;
+        }
+
+        // Keep the last windowSize prices for the next tick
+        int keptFromBatch = Math.min(length, windowSize);
+        window.removeFirst(Math.max(0, buffered + keptFromBatch - windowSize));
+        window.addAll(prices, timestamps, length - keptFromBatch, length);
+    }
+
+    /**
+     * Sets the sink receiving diagnostics of this calculator.
+     *
+     * @param traceSink The sink to use, {@link TraceSink#NONE} to disable tracing.
+     */
+    @Override
+    public void setTraceSink(TraceSink traceSink) {
+        this.traceSink = traceSink;
+    }
+
+    /**
+     * Resets the SMA calculation.
+     */
+    @Override
+    public void reset() {
+        reset = true;
+    }
+
+    /**
+     * Cancels the SMA calculation.
+     */
+    @Override
+    public void cancel() {
+        cancel = true;
+    }
+
+    /**
+     * Resumes the SMA calculation.
+     */
+    @Override
+    public void resume() {
+        cancel = false;
+    }
+}
@@ -0,0 +1,161 @@
+package com.manish.finance.calculators;
+
+import com.manish.finance.common.DoubleRingBuffer;
+import com.manish.finance.intf.PrimitiveCalculator;
+import com.manish.finance.intf.TraceSink;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * This class calculates the Windowed Average of a series of double prices.
+ *
+ * <p>It is the primitive counterpart of {@link WindowedAverageCalculator}: prices whose timestamp falls before
+ * 'latest timestamp - windowDuration' are evicted. The window is a {@link DoubleRingBuffer} which only allocates
+ * when it has to grow beyond the largest number of ticks seen so far within one window.</p>
+ */
+public class DoubleWindowedAverageCalculator implements PrimitiveCalculator {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final long windowNanos;
+    private final DoubleRingBuffer window;
+    private double sum;
+    private boolean reset;
+    private boolean cancel;
+    private TraceSink traceSink = TraceSink.NONE;
+
+    /**
+     * Constructs a DoubleWindowedAverageCalculator with the given window duration.
+     *
+     * @param windowDuration The duration of the time window for the average calculation.
+     */
+    public DoubleWindowedAverageCalculator(Duration windowDuration) {
+        this.windowNanos = windowDuration.toNanos();
+        this.window = new DoubleRingBuffer(INITIAL_CAPACITY);
+        this.sum = 0;
+        this.reset = false;
+        this.cancel = false;
+    }
+
+    /**
+     * Calculates the Windowed Average for the given price.
+     *
+     * @param price          The price of the current tick.
+     * @param timestampNanos The timestamp of the current tick in nanoseconds since the epoch.
+     * @return The calculated Windowed Average.
+     */
+    @Override
+    public double calculate(double price, long timestampNanos) {
+        if (cancel) {
+            reset();
+            return 0; // Cancelled, so return zero average
+        }
+
+        if (reset) {
+            reset = false;
+            sum = 0;
+            window.clear();
+        }
+
+        // Add the new price to the window & running sum
+        window.addLast(price, timestampNanos);
+        sum += price;
+
+        // Remove prices that are outside the time window
+        long cutoffTime = timestampNanos - windowNanos;
+        while (!window.isEmpty() && window.firstTimestamp() < cutoffTime) {
+            double evictedPrice = window.removeFirst();
+            sum -= evictedPrice;
+            if (traceSink.isEnabled(TraceSink.Level.DEBUG)) {
+                traceSink.trace(TraceSink.Level.DEBUG, "DoubleWindowedAverageCalculator", "evict", BigDecimal.valueOf(evictedPrice), BigDecimal.valueOf(sum));
+            }
+        }
+
+        return window.isEmpty() ? 0 : sum / window.size();
+    }
+
+    /**
+     * Calculates the Windowed Average for a batch of prices in one pass. The oldest retained tick is tracked as a
+     * position over the buffered ticks followed by the batch, and the ring buffer is only updated once at the end.
+     *
+     * @param prices     The prices of the ticks.
+     * @param timestamps The timestamps of the ticks in nanoseconds since the epoch.
+     * @param length     The number of ticks to process.
+     * @param results    Receives the Windowed Average after every tick.
+     */
+    @Override
+    public void calculate(double[] prices, long[] timestamps, int length, double[] results) {
+        if (traceSink.isEnabled(TraceSink.Level.DEBUG)) {
+            // evictions are traced tick by tick
+            PrimitiveCalculator.super.calculate(prices, timestamps, length, results);
+            return;
+        }
+
+        if (cancel) {
+            reset();
+            Arrays.fill(results, 0, length, 0);
+            return;
+        }
+
+        if (reset) {
+            reset = false;
+            sum = 0;
+            window.clear();
+        }
+
+        int buffered = window.size();
+        int first = 0; // position of the oldest retained tick, buffered ticks first, then the batch
+        for (int i = 0; i < length; i++) {
+            sum += prices[i];
+            long cutoffTime = timestamps[i] - windowNanos;
+            while (first < buffered && window.timestampAt(first) < cutoffTime) {
+                sum -= window.priceAt(first++);
+            }
+            if (first >= buffered) {
+                while (first - buffered <= i && timestamps[first - buffered] < cutoffTime) {
+                    sum -= prices[first++ - buffered];
+                }
+            }
+            int count = buffered + i + 1 - first;
+            results[i] = count == 0 ? 0 : sum / count;
+        }
+
+        window.removeFirst(Math.min(first, buffered));
+        window.addAll(prices, timestamps, Math.max(0, first - buffered), length);
+    }
+
+    /**
+     * Sets the sink receiving diagnostics of this calculator.
+     *
+     * @param traceSink The sink to use, {@link TraceSink#NONE} to disable tracing.
+     */
+    @Override
+    public void setTraceSink(TraceSink traceSink) {
+        this.traceSink = traceSink;
+    }
+
+    /**
+     * Resets the Windowed Average calculation.
+     */
+    @Override
+    public void reset() {
+        reset = true;
+    }
+
+    /**
+     * Cancels the Windowed Average calculation.
+     */
+    @Override
+    public void cancel() {
+        cancel = true;
+    }
+
+    /**
+     * Resumes the Windowed Average calculation.
+     */
+    @Override
+    public void resume() {
+        cancel = false;
+    }
+}
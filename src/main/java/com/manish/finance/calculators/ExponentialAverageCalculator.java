@@ -1,11 +1,21 @@
 package com.manish.finance.calculators;
 
+import com.manish.finance.common.SingleWriterCounter;
+import com.manish.finance.common.SnapshotIO;
 import com.manish.finance.common.Tick;
+import com.manish.finance.common.TickHistory;
+import com.manish.finance.common.TickRingBuffer;
+import com.manish.finance.common.TickWindow;
 import com.manish.finance.intf.Calculator;
+import com.manish.finance.intf.Snapshottable;
+import com.manish.finance.intf.TraceSink;
+import com.manish.finance.intf.WindowStatistics;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.math.BigDecimal;
-import java.util.LinkedList;
-import java.util.List;
+import java.math.MathContext;
 
 
 /**
@@ -20,19 +30,33 @@ import java.util.List;
  *     <li>EMA(t-1) is the previous Exponential Moving Average</li>
  * </ul>
  *
- * <p>This implementation maintains a window of the last N Ticks and adjusts the EMA accordingly.</p>
+ * <p>This implementation maintains a window of the last N Ticks, in a preallocated {@link TickRingBuffer}, and
+ * adjusts the EMA accordingly. Alternatively the window can be read from a {@link TickHistory} shared with the
+ * other calculators of the stream.</p>
+ *
+ * <p>By default every operation is exact, so the scale of the EMA grows with every tick and so does the cost of
+ * the next tick. Given a bounded {@link MathContext}, e.g. {@link MathContext#DECIMAL64}, every operation is
+ * rounded to its precision instead and each tick costs the same. Rounding errors do not accumulate: the error of
+ * each tick is multiplied by (1 - α) on every later tick, so the total error stays within a few units in the last
+ * place divided by α.</p>
  */
-public class ExponentialAverageCalculator implements Calculator {
+public class ExponentialAverageCalculator implements Calculator, Snapshottable, WindowStatistics {
     BigDecimal alpha;
     private int windowSize;
-    private List<Tick> window;
+    private TickWindow window;
     private BigDecimal ema;
 
-    // Factor to use to remove impact of an old entry , which is getting evicted from the window.
-    private BigDecimal removalFactor;
-    private boolean reset;
+    private final MathContext mathContext;
+    private final BigDecimal decay;
+
+    // Factor to use to remove impact of an old entry , which is getting evicted from the window: α · (1 − α)^(N−1)
+    private final BigDecimal evictionFactor;
+    private volatile boolean reset;
 
-    private boolean cancel;
+    private volatile boolean cancel;
+
+    private TraceSink traceSink = TraceSink.NONE;
+    private final SingleWriterCounter evictionCount = new SingleWriterCounter(); // written by the calculating thread
 
 
     /**
@@ -42,11 +66,40 @@ public class ExponentialAverageCalculator implements Calculator {
      * @param alpha      The smoothing factor (0 < alpha <= 1).
      */
     public ExponentialAverageCalculator(int windowSize, BigDecimal alpha) {
+        this(windowSize, alpha, MathContext.UNLIMITED, new TickRingBuffer(windowSize));
+    }
+
+    /**
+     * Constructs an ExponentialAverageCalculator rounding every operation to the given precision, so the cost per
+     * tick does not grow with the number of ticks.
+     *
+     * @param windowSize  The size of the window for the moving average calculation.
+     * @param alpha       The smoothing factor (0 < alpha <= 1).
+     * @param mathContext The precision and rounding of every operation, e.g. {@link MathContext#DECIMAL64}.
+     */
+    public ExponentialAverageCalculator(int windowSize, BigDecimal alpha, MathContext mathContext) {
+        this(windowSize, alpha, mathContext, new TickRingBuffer(windowSize));
+    }
+
+    /**
+     * Constructs an ExponentialAverageCalculator reading its window from a shared history instead of keeping a copy.
+     *
+     * @param history    The history the ticks are appended to before they are calculated.
+     * @param windowSize The size of the window for the moving average calculation.
+     * @param alpha      The smoothing factor (0 < alpha <= 1).
+     */
+    public ExponentialAverageCalculator(TickHistory history, int windowSize, BigDecimal alpha) {
+        this(windowSize, alpha, MathContext.UNLIMITED, history.newView());
+    }
+
+    private ExponentialAverageCalculator(int windowSize, BigDecimal alpha, MathContext mathContext, TickWindow window) {
         this.windowSize = windowSize;
-        window = new LinkedList<>();
+        this.window = window;
         this.alpha = alpha;
         this.ema = BigDecimal.ZERO;
-        this.removalFactor = BigDecimal.ONE.subtract(alpha).pow(windowSize-1);
+        this.mathContext = mathContext;
+        this.decay = BigDecimal.ONE.subtract(alpha, mathContext);
+        this.evictionFactor = alpha.multiply(BigDecimal.ONE.subtract(alpha).pow(windowSize - 1, mathContext), mathContext);
         this.reset = false;
         this.cancel = false;
     }
@@ -63,39 +116,117 @@ public class ExponentialAverageCalculator implements Calculator {
         if (cancel) {
             // Cancel the calculation
             reset();
+            window.clear(); // releases the ticks of a shared history right away
             return BigDecimal.ZERO;
         }
 
-        if (reset) {
+        if (reset || !window.follows(tick)) {
             // Reset the EMA and the window
             ema = BigDecimal.ZERO;
             window.clear();
             reset = false;
-            System.out.println("Resetting EMA and window");
+            if (traceSink.isEnabled(TraceSink.Level.INFO)) {
+                traceSink.trace(TraceSink.Level.INFO, "ExponentialAverageCalculator", "reset", null, null);
+            }
         }
 
-        window.add(tick);
-
-        if (window.size() > windowSize) {
+        if (window.size() == windowSize) {
             // Remove the oldest tick
-            Tick oldestTick = window.remove(0);
+            Tick oldestTick = window.removeFirst();
+            evictionCount.increment();
             // Calculate the previous EMA without the 'impact of oldest tick'
-            BigDecimal prevEmaWithoutOldest = ema.subtract(oldestTick.getPrice().multiply(alpha).multiply(removalFactor));
-            System.out.println("removing oldest tick: " + oldestTick.getPrice() + " from EMA calculation. impact " + prevEmaWithoutOldest);
+            BigDecimal prevEmaWithoutOldest = ema.subtract(oldestTick.getPrice().multiply(evictionFactor, mathContext), mathContext);
+            if (traceSink.isEnabled(TraceSink.Level.DEBUG)) {
+                traceSink.trace(TraceSink.Level.DEBUG, "ExponentialAverageCalculator", "evict", oldestTick.getPrice(), prevEmaWithoutOldest);
+            }
             // Recalculate EMA with the new tick
-            ema = prevEmaWithoutOldest.multiply(BigDecimal.ONE.subtract(alpha)).add(tick.getPrice().multiply(alpha));
-        } else if (window.size() == 1) {
+            ema = prevEmaWithoutOldest.multiply(decay, mathContext).add(tick.getPrice().multiply(alpha, mathContext), mathContext);
+        } else if (window.isEmpty()) {
             // Initialize EMA with the first tick's price
-            ema = tick.getPrice().multiply(alpha);
+            ema = tick.getPrice().multiply(alpha, mathContext);
         } else {
             // Calculate EMA for subsequent ticks
-            ema = ema.multiply(BigDecimal.ONE.subtract(alpha)).add(tick.getPrice().multiply(alpha));
-            System.out.println("EMA latest: " + ema + " with tick's price: " + tick.getPrice());
-
+            ema = ema.multiply(decay, mathContext).add(tick.getPrice().multiply(alpha, mathContext), mathContext);
+            if (traceSink.isEnabled(TraceSink.Level.TRACE)) {
+                traceSink.trace(TraceSink.Level.TRACE, "ExponentialAverageCalculator", "update", tick.getPrice(), ema);
+            }
         }
+        window.addLast(tick);
         return ema;
     }
 
+    /**
+     * Writes the window size, alpha, MathContext, flags, current EMA and window contents of this calculator.
+     *
+     * @param out The output to write to.
+     * @throws IOException if the output cannot be written.
+     */
+    @Override
+    public void writeSnapshot(DataOutput out) throws IOException {
+        out.writeInt(windowSize);
+        SnapshotIO.writeBigDecimal(out, alpha);
+        SnapshotIO.writeMathContext(out, mathContext);
+        out.writeBoolean(reset);
+        out.writeBoolean(cancel);
+        SnapshotIO.writeBigDecimal(out, ema);
+        SnapshotIO.writeWindow(out, window);
+    }
+
+    /**
+     * Restores a snapshot written by {@link #writeSnapshot(DataOutput)} of a calculator with the same window size,
+     * alpha and MathContext.
+     *
+     * @param in The input to read from.
+     * @throws IOException if the input cannot be read or was written with another configuration.
+     */
+    @Override
+    public void readSnapshot(DataInput in) throws IOException {
+        SnapshotIO.checkConfiguration("windowSize", windowSize, in.readInt());
+        BigDecimal snapshotAlpha = SnapshotIO.readBigDecimal(in);
+        if (snapshotAlpha.compareTo(alpha) != 0) {
+            throw new IOException("Snapshot was taken with alpha " + snapshotAlpha + " but calculator has " + alpha);
+        }
+        SnapshotIO.checkConfiguration("mathContext", mathContext, SnapshotIO.readMathContext(in));
+        boolean snapshotReset = in.readBoolean();
+        boolean snapshotCancel = in.readBoolean();
+        BigDecimal snapshotEma = SnapshotIO.readBigDecimal(in);
+        Tick[] ticks = SnapshotIO.readWindow(in, windowSize);
+
+        SnapshotIO.restoreWindow(window, ticks);
+        ema = snapshotEma;
+        reset = snapshotReset;
+        cancel = snapshotCancel;
+    }
+
+    /**
+     * Returns the number of Ticks currently in the window.
+     *
+     * @return The window occupancy.
+     */
+    @Override
+    public int getWindowOccupancy() {
+        return window.size();
+    }
+
+    /**
+     * Returns the number of Ticks evicted from the window since this calculator was created.
+     *
+     * @return The eviction count.
+     */
+    @Override
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * Sets the sink receiving diagnostics of this calculator.
+     *
+     * @param traceSink The sink to use, {@link TraceSink#NONE} to disable tracing.
+     */
+    @Override
+    public void setTraceSink(TraceSink traceSink) {
+        this.traceSink = traceSink;
+    }
 
     /**
      * Resets the EMA calculation.
@@ -0,0 +1,168 @@
+package com.manish.finance.calculators;
+
+import com.manish.finance.common.FixedPoint;
+import com.manish.finance.common.LongRingBuffer;
+import com.manish.finance.intf.FixedPointCalculator;
+import com.manish.finance.intf.TraceSink;
+
+import java.util.Arrays;
+
+/**
+ * This class calculates the Simple Moving Average (SMA) of a series of fixed-point prices.
+ *
+ * <p>Prices and the running sum are longs at a configurable scale, so the sum stays exact like the BigDecimal
+ * sum of {@link MovingAverageCalculator} while no object is allocated per tick. The average is rounded half up
+ * to the calculator's scale. The running sum must fit in a long, i.e. windowSize * max scaled price must stay
+ * below {@link Long#MAX_VALUE}.</p>
+ */
+public class FixedPointMovingAverageCalculator implements FixedPointCalculator {
+    private final int windowSize;
+    private final int scale;
+    private final LongRingBuffer window;
+    private long sum;
+    private boolean reset;
+    private boolean cancel;
+    private TraceSink traceSink = TraceSink.NONE;
+
+    /**
+     * Constructs a FixedPointMovingAverageCalculator with the specified window size and scale.
+     *
+     * @param windowSize The size of the window for the moving average calculation.
+     * @param scale      The number of decimal digits held by the scaled prices.
+     */
+    public FixedPointMovingAverageCalculator(int windowSize, int scale) {
+        FixedPoint.multiplier(scale); // validates the scale
+        this.windowSize = windowSize;
+        this.scale = scale;
+        this.window = new LongRingBuffer(windowSize);
+        this.sum = 0;
+        this.reset = false;
+        this.cancel = false;
+    }
+
+    /**
+     * Calculates the Simple Moving Average for the given scaled price.
+     *
+     * @param scaledPrice    The price of the current tick at this calculator's scale.
+     * @param timestampNanos The timestamp of the current tick, unused by this calculator.
+     * @return The calculated Simple Moving Average at this calculator's scale.
+     */
+    @Override
+    public long calculate(long scaledPrice, long timestampNanos) {
+        if (cancel) {
+            reset(); // Cancelled calculation, reset the window when you resume
+            return 0;
+        }
+
+        if (reset) {
+            reset = false;
+            window.clear();
+            sum = 0;
+        }
+
+        // If the window is full, remove the oldest price before adding the new one
+        if (window.size() == windowSize) {
+            long oldestPrice = window.removeFirst();
+            sum -= oldestPrice;
+            if (traceSink.isEnabled(TraceSink.Level.DEBUG)) {
+                traceSink.trace(TraceSink.Level.DEBUG, "FixedPointMovingAverageCalculator", "evict", FixedPoint.toBigDecimal(oldestPrice, scale), FixedPoint.toBigDecimal(sum, scale));
+            }
+        }
+        window.addLast(scaledPrice, timestampNanos);
+        sum += scaledPrice;
+
+        return FixedPoint.divideHalfUp(sum, window.size());
+    }
+
+    /**
+     * Calculates the Simple Moving Average for a batch of scaled prices in a single pass, keeping only the last
+     * windowSize prices of the batch in the window.
+     *
+     * @param scaledPrices The prices of the ticks at this calculator's scale.
+     * @param timestamps   The timestamps of the ticks, unused by this calculator.
+     * @param length       The number of ticks to process from the start of the arrays.
+     * @param results      Receives the Simple Moving Average after every tick.
+     */
+    @Override
+    public void calculate(long[] scaledPrices, long[] timestamps, int length, long[] results) {
+        if (traceSink.isEnabled(TraceSink.Level.DEBUG)) {
+            // evictions are traced tick by tick
+            FixedPointCalculator.super.calculate(scaledPrices, timestamps, length, results);
+            return;
+        }
+
+        if (cancel) {
+            reset();
+            Arrays.fill(results, 0, length, 0);
+            return;
+        }
+
+        if (reset) {
+            reset = false;
+            window.clear();
+            sum = 0;
+        }
+
+        int buffered = window.size();
+        int i = 0;
+        // Window not full yet, nothing to evict
+        for (; i < length && buffered + i < windowSize; i++) {
+            sum += scaledPrices[i];
+            results[i] = FixedPoint.divideHalfUp(sum, buffered + i + 1);
+        }
+        // Evicting prices buffered before this batch
+        for (; i < length && i < windowSize; i++) {
+            sum += scaledPrices[i] - window.priceAt(buffered + i - windowSize);
+            results[i] = FixedPoint.divideHalfUp(sum, windowSize);
+        }
+        // Evicting prices of this batch
+        for (; i < length; i++) {
+            sum += scaledPrices[i] - scaledPrices[i - windowSize];
+            results[i] = FixedPoint.divideHalfUp(sum, windowSize);
+        }
+
+        // Keep the last windowSize prices for the next tick
+        int keptFromBatch = Math.min(length, windowSize);
+        window.removeFirst(Math.max(0, buffered + keptFromBatch - windowSize));
+        window.addAll(scaledPrices, timestamps, length - keptFromBatch, length);
+    }
+
+    @Override
+    public int getScale() {
+        return scale;
+    }
+
+    /**
+     * Sets the sink receiving diagnostics of this calculator.
+     *
+     * @param traceSink The sink to use, {@link TraceSink#NONE} to disable tracing.
+     */
+    @Override
+    public void setTraceSink(TraceSink traceSink) {
+        this.traceSink = traceSink;
+    }
+
+    /**
+     * Resets the SMA calculation.
+     */
+    @Override
+    public void reset() {
+        reset = true;
+    }
+
+    /**
+     * Cancels the SMA calculation.
+     */
+    @Override
+    public void cancel() {
+        cancel = true;
+    }
+
+    /**
+     * Resumes the SMA calculation.
+     */
+    @Override
+    public void resume() {
+        cancel = false;
+    }
+}
@@ -0,0 +1,119 @@
+package com.manish.finance.calculators;
+
+import com.manish.finance.common.FixedPoint;
+import com.manish.finance.common.LongRingBuffer;
+import com.manish.finance.intf.FixedPointCalculator;
+import com.manish.finance.intf.TraceSink;
+
+import java.time.Duration;
+
+/**
+ * This class calculates the Windowed Average of a series of fixed-point prices.
+ *
+ * <p>It is the fixed-point counterpart of {@link WindowedAverageCalculator}: prices whose timestamp falls before
+ * 'latest timestamp - windowDuration' are evicted, the running sum is an exact long and the average is rounded
+ * half up to the calculator's scale.</p>
+ */
+public class FixedPointWindowedAverageCalculator implements FixedPointCalculator {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final long windowNanos;
+    private final int scale;
+    private final LongRingBuffer window;
+    private long sum;
+    private boolean reset;
+    private boolean cancel;
+    private TraceSink traceSink = TraceSink.NONE;
+
+    /**
+     * Constructs a FixedPointWindowedAverageCalculator with the given window duration and scale.
+     *
+     * @param windowDuration The duration of the time window for the average calculation.
+     * @param scale          The number of decimal digits held by the scaled prices.
+     */
+    public FixedPointWindowedAverageCalculator(Duration windowDuration, int scale) {
+        FixedPoint.multiplier(scale); // validates the scale
+        this.windowNanos = windowDuration.toNanos();
+        this.scale = scale;
+        this.window = new LongRingBuffer(INITIAL_CAPACITY);
+        this.sum = 0;
+        this.reset = false;
+        this.cancel = false;
+    }
+
+    /**
+     * Calculates the Windowed Average for the given scaled price.
+     *
+     * @param scaledPrice    The price of the current tick at this calculator's scale.
+     * @param timestampNanos The timestamp of the current tick in nanoseconds since the epoch.
+     * @return The calculated Windowed Average at this calculator's scale.
+     */
+    @Override
+    public long calculate(long scaledPrice, long timestampNanos) {
+        if (cancel) {
+            reset();
+            return 0; // Cancelled, so return zero average
+        }
+
+        if (reset) {
+            reset = false;
+            sum = 0;
+            window.clear();
+        }
+
+        // Add the new price to the window & running sum
+        window.addLast(scaledPrice, timestampNanos);
+        sum += scaledPrice;
+
+        // Remove prices that are outside the time window
+        long cutoffTime = timestampNanos - windowNanos;
+        while (!window.isEmpty() && window.firstTimestamp() < cutoffTime) {
+            long evictedPrice = window.removeFirst();
+            sum -= evictedPrice;
+            if (traceSink.isEnabled(TraceSink.Level.DEBUG)) {
+                traceSink.trace(TraceSink.Level.DEBUG, "FixedPointWindowedAverageCalculator", "evict", FixedPoint.toBigDecimal(evictedPrice, scale), FixedPoint.toBigDecimal(sum, scale));
+            }
+        }
+
+        return window.isEmpty() ? 0 : FixedPoint.divideHalfUp(sum, window.size());
+    }
+
+    @Override
+    public int getScale() {
+        return scale;
+    }
+
+    /**
+     * Sets the sink receiving diagnostics of this calculator.
+     *
+     * @param traceSink The sink to use, {@link TraceSink#NONE} to disable tracing.
+     */
+    @Override
+    public void setTraceSink(TraceSink traceSink) {
+        this.traceSink = traceSink;
+    }
+
+    /**
+     * Resets the Windowed Average calculation.
+     */
+    @Override
+    public void reset() {
+        reset = true;
+    }
+
+    /**
+     * Cancels the Windowed Average calculation.
+     */
+    @Override
+    public void cancel() {
+        cancel = true;
+    }
+
+    /**
+     * Resumes the Windowed Average calculation.
+     */
+    @Override
+    public void resume() {
+        cancel = false;
+    }
+}
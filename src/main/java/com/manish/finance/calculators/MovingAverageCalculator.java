@@ -1,26 +1,39 @@
 package com.manish.finance.calculators;
 
+import com.manish.finance.common.SingleWriterCounter;
+import com.manish.finance.common.SnapshotIO;
 import com.manish.finance.common.Tick;
+import com.manish.finance.common.TickHistory;
+import com.manish.finance.common.TickRingBuffer;
+import com.manish.finance.common.TickWindow;
 import com.manish.finance.intf.Calculator;
+import com.manish.finance.intf.Snapshottable;
+import com.manish.finance.intf.TraceSink;
+import com.manish.finance.intf.WindowStatistics;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.LinkedList;
-import java.util.List;
 
 /**
  * This class calculates the Simple Moving Average (SMA) of a series of Ticks.
  *
  * <p>The SMA calculates the average price of the last 'windowSize' Ticks.</p>
  *
- * <p>This implementation maintains a window of the last N Ticks and calculates the average of their prices.</p>
+ * <p>This implementation maintains a window of the last N Ticks, in a preallocated {@link TickRingBuffer}, and
+ * calculates the average of their prices. Alternatively the window can be read from a {@link TickHistory}
+ * shared with the other calculators of the stream.</p>
  */
-public class MovingAverageCalculator implements Calculator {
+public class MovingAverageCalculator implements Calculator, Snapshottable, WindowStatistics {
     private int windowSize;
-    private List<Tick> window;
+    private TickWindow window;
     private BigDecimal sum;
-    boolean reset;
-    boolean cancel;
+    volatile boolean reset;
+    volatile boolean cancel;
+    private TraceSink traceSink = TraceSink.NONE;
+    private final SingleWriterCounter evictionCount = new SingleWriterCounter(); // written by the calculating thread
 
     /**
      * Constructs a MovingAverageCalculator with the specified window size.
@@ -28,8 +41,22 @@ public class MovingAverageCalculator implements Calculator {
      * @param windowSize The size of the window for the moving average calculation.
      */
     public MovingAverageCalculator(int windowSize) {
+        this(windowSize, new TickRingBuffer(windowSize));
+    }
+
+    /**
+     * Constructs a MovingAverageCalculator reading its window from a shared history instead of keeping a copy.
+     *
+     * @param history    The history the ticks are appended to before they are calculated.
+     * @param windowSize The size of the window for the moving average calculation.
+     */
+    public MovingAverageCalculator(TickHistory history, int windowSize) {
+        this(windowSize, history.newView());
+    }
+
+    private MovingAverageCalculator(int windowSize, TickWindow window) {
         this.windowSize = windowSize;
-        this.window = new LinkedList<>();
+        this.window = window;
         this.sum = BigDecimal.ZERO;
         this.reset = false;
         this.cancel = false;
@@ -46,28 +73,98 @@ public class MovingAverageCalculator implements Calculator {
         // If calculation is cancelled, return 0 immediately i.e. ignore any tick updates
         if (cancel) {
             reset(); // Cancelled calculation, reset the window when you resume
+            window.clear(); // releases the ticks of a shared history right away
             return BigDecimal.ZERO;  // Cancelled calculation, return 0
         }
 
-        if (reset) {
+        if (reset || !window.follows(tick)) {
             reset = false;
             window.clear();
             sum = BigDecimal.ZERO;
         }
-        // Add the new tick to the window
-        window.add(tick);
-        sum = sum.add(tick.getPrice());
-
         // If the window is full, remove the oldest tick
-        if (window.size() > windowSize) {
-            Tick oldestTick = window.remove(0);
+        if (window.size() == windowSize) {
+            Tick oldestTick = window.removeFirst();
             sum = sum.subtract(oldestTick.getPrice());
+            evictionCount.increment();
+            if (traceSink.isEnabled(TraceSink.Level.DEBUG)) {
+                traceSink.trace(TraceSink.Level.DEBUG, "MovingAverageCalculator", "evict", oldestTick.getPrice(), sum);
+            }
         }
 
+        // Add the new tick to the window
+        window.addLast(tick);
+        sum = sum.add(tick.getPrice());
+
         // Calculate the average
         return sum.divide(BigDecimal.valueOf(window.size()), 4, RoundingMode.HALF_UP);
     }
 
+    /**
+     * Writes the window size, flags, running sum and window contents of this calculator.
+     *
+     * @param out The output to write to.
+     * @throws IOException if the output cannot be written.
+     */
+    @Override
+    public void writeSnapshot(DataOutput out) throws IOException {
+        out.writeInt(windowSize);
+        out.writeBoolean(reset);
+        out.writeBoolean(cancel);
+        SnapshotIO.writeBigDecimal(out, sum);
+        SnapshotIO.writeWindow(out, window);
+    }
+
+    /**
+     * Restores a snapshot written by {@link #writeSnapshot(DataOutput)} of a calculator with the same window size.
+     *
+     * @param in The input to read from.
+     * @throws IOException if the input cannot be read or was written with another window size.
+     */
+    @Override
+    public void readSnapshot(DataInput in) throws IOException {
+        SnapshotIO.checkConfiguration("windowSize", windowSize, in.readInt());
+        boolean snapshotReset = in.readBoolean();
+        boolean snapshotCancel = in.readBoolean();
+        BigDecimal snapshotSum = SnapshotIO.readBigDecimal(in);
+        Tick[] ticks = SnapshotIO.readWindow(in, windowSize);
+
+        SnapshotIO.restoreWindow(window, ticks);
+        sum = snapshotSum;
+        reset = snapshotReset;
+        cancel = snapshotCancel;
+    }
+
+    /**
+     * Returns the number of Ticks currently in the window.
+     *
+     * @return The window occupancy.
+     */
+    @Override
+    public int getWindowOccupancy() {
+        return window.size();
+    }
+
+    /**
+     * Returns the number of Ticks evicted from the window since this calculator was created.
+     *
+     * @return The eviction count.
+     */
+    @Override
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * Sets the sink receiving diagnostics of this calculator.
+     *
+     * @param traceSink The sink to use, {@link TraceSink#NONE} to disable tracing.
+     */
+    @Override
+    public void setTraceSink(TraceSink traceSink) {
+        this.traceSink = traceSink;
+    }
+
     /**
      * Resets the EMA calculation.
      */
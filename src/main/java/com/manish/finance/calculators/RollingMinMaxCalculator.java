@@ -0,0 +1,138 @@
+package com.manish.finance.calculators;
+
+import com.manish.finance.common.Tick;
+import com.manish.finance.common.TickRingBuffer;
+import com.manish.finance.intf.Calculator;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * This class calculates the rolling high or low price over the last 'windowSize' Ticks, or over the Ticks of a
+ * time window.
+ *
+ * <p>Next to the window itself a monotonic deque holds the Ticks which can still become the extreme of the window:
+ * for the high, every Tick in the deque has a higher price than all Ticks after it. A new Tick removes the Ticks it
+ * dominates from the tail of the deque, and the head of the deque is the current extreme. Every Tick enters and
+ * leaves the deque at most once, so each update costs amortized O(1).</p>
+ */
+public class RollingMinMaxCalculator implements Calculator {
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * The extreme returned by the calculator.
+     */
+    public enum Extreme { MIN, MAX }
+
+    private final Extreme extreme;
+    private final int windowSize;
+    private final Duration windowDuration;
+    private final TickRingBuffer window;
+    private final TickRingBuffer deque;
+    volatile boolean reset;
+    volatile boolean cancel;
+
+    /**
+     * Constructs a RollingMinMaxCalculator over the last 'windowSize' Ticks.
+     *
+     * @param windowSize The number of ticks in the window.
+     * @param extreme    Whether to return the lowest or the highest price.
+     */
+    public RollingMinMaxCalculator(int windowSize, Extreme extreme) {
+        this(extreme, windowSize, null, new TickRingBuffer(windowSize), new TickRingBuffer(windowSize));
+    }
+
+    /**
+     * Constructs a RollingMinMaxCalculator over the Ticks within the given duration of the latest Tick.
+     *
+     * @param windowDuration The duration of the time window.
+     * @param extreme        Whether to return the lowest or the highest price.
+     */
+    public RollingMinMaxCalculator(Duration windowDuration, Extreme extreme) {
+        this(extreme, Integer.MAX_VALUE, windowDuration, new TickRingBuffer(INITIAL_CAPACITY), new TickRingBuffer(INITIAL_CAPACITY));
+    }
+
+    private RollingMinMaxCalculator(Extreme extreme, int windowSize, Duration windowDuration, TickRingBuffer window, TickRingBuffer deque) {
+        this.extreme = extreme;
+        this.windowSize = windowSize;
+        this.windowDuration = windowDuration;
+        this.window = window;
+        this.deque = deque;
+        this.reset = false;
+        this.cancel = false;
+    }
+
+    /**
+     * Calculates the high or low of the window including the given Tick.
+     *
+     * @param tick The current Tick.
+     * @return The highest or lowest price in the window.
+     */
+    @Override
+    public BigDecimal calculate(Tick tick) {
+        if (cancel) {
+            reset();
+            return BigDecimal.ZERO;
+        }
+        if (reset) {
+            reset = false;
+            window.clear();
+            deque.clear();
+        }
+
+        if (window.size() == windowSize) {
+            evict();
+        }
+        // Drop the ticks the new one dominates, equal prices are kept so the deque stays in window order
+        while (!deque.isEmpty() && dominates(tick, deque.getLast())) {
+            deque.removeLast();
+        }
+        deque.addLast(tick);
+        window.addLast(tick);
+
+        if (windowDuration != null) {
+            Instant cutoffTime = tick.getTimestamp().minus(windowDuration);
+            while (window.getFirst().getTimestamp().isBefore(cutoffTime)) {
+                evict();
+            }
+        }
+        return deque.getFirst().getPrice();
+    }
+
+    /**
+     * Resets the calculation.
+     */
+    @Override
+    public void reset() {
+        reset = true;
+    }
+
+    /**
+     * Cancels the calculation.
+     */
+    @Override
+    public void cancel() {
+        cancel = true;
+    }
+
+    /**
+     * Resumes the calculation.
+     */
+    @Override
+    public void resume() {
+        cancel = false;
+    }
+
+    private void evict() {
+        // The deque is a subsequence of the window, so the evicted tick can only be its head
+        if (window.removeFirst() == deque.getFirst()) {
+            deque.removeFirst();
+        }
+    }
+
+    private boolean dominates(Tick tick, Tick other) {
+        int comparison = tick.getPrice().compareTo(other.getPrice());
+        return extreme == Extreme.MAX ? comparison > 0 : comparison < 0;
+    }
+}
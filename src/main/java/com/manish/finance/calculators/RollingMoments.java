@@ -0,0 +1,102 @@
+package com.manish.finance.calculators;
+
+import com.manish.finance.common.Tick;
+import com.manish.finance.common.TickHistory;
+import com.manish.finance.common.TickRingBuffer;
+import com.manish.finance.common.TickWindow;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/**
+ * Running sum and sum of squares of the prices in a window of the last N Ticks, shared by the variance, standard
+ * deviation and Bollinger band calculators.
+ *
+ * <p>Both sums are kept exactly in BigDecimal, so adding and evicting a tick is O(1) and never drifts. Welford's
+ * update is the usual answer to the cancellation of the textbook formula in floating point, but it needs a division
+ * per tick, which BigDecimal can only do rounded. With exact sums the textbook formula is exact as well.</p>
+ */
+final class RollingMoments {
+
+    private final int windowSize;
+    private final TickWindow window;
+    private BigDecimal sum = BigDecimal.ZERO;
+    private BigDecimal sumOfSquares = BigDecimal.ZERO;
+
+    RollingMoments(int windowSize) {
+        this(windowSize, new TickRingBuffer(windowSize));
+    }
+
+    RollingMoments(TickHistory history, int windowSize) {
+        this(windowSize, history.newView());
+    }
+
+    private RollingMoments(int windowSize, TickWindow window) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("Window size must be positive: " + windowSize);
+        }
+        this.windowSize = windowSize;
+        this.window = window;
+    }
+
+    /**
+     * Adds a tick to the window, evicting the oldest one if the window is full.
+     */
+    void add(Tick tick) {
+        if (window.size() == windowSize) {
+            BigDecimal oldest = window.removeFirst().getPrice();
+            sum = sum.subtract(oldest);
+            sumOfSquares = sumOfSquares.subtract(oldest.multiply(oldest));
+        }
+        BigDecimal price = tick.getPrice();
+        window.addLast(tick);
+        sum = sum.add(price);
+        sumOfSquares = sumOfSquares.add(price.multiply(price));
+    }
+
+    boolean follows(Tick tick) {
+        return window.follows(tick);
+    }
+
+    void clear() {
+        window.clear();
+        sum = BigDecimal.ZERO;
+        sumOfSquares = BigDecimal.ZERO;
+    }
+
+    int size() {
+        return window.size();
+    }
+
+    BigDecimal mean(int scale) {
+        return sum.divide(BigDecimal.valueOf(window.size()), scale, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Returns the population variance of the window, (n * sumOfSquares - sum^2) / n^2.
+     */
+    BigDecimal variance(int scale) {
+        return varianceNumerator().divide(squaredSize(), scale, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Returns the population standard deviation of the window.
+     */
+    BigDecimal standardDeviation(int scale) {
+        // sqrt(numerator) / n saves a division before the square root
+        BigDecimal root = varianceNumerator().sqrt(MathContext.DECIMAL128);
+        return root.divide(BigDecimal.valueOf(window.size()), scale, RoundingMode.HALF_UP);
+    }
+
+    private BigDecimal varianceNumerator() {
+        BigDecimal n = BigDecimal.valueOf(window.size());
+        // exact arithmetic, never negative
+        return n.multiply(sumOfSquares).subtract(sum.multiply(sum));
+    }
+
+    private BigDecimal squaredSize() {
+        long n = window.size();
+        return BigDecimal.valueOf(n * n);
+    }
+}
@@ -0,0 +1,172 @@
+package com.manish.finance.calculators;
+
+import com.manish.finance.common.Tick;
+import com.manish.finance.common.TickRingBuffer;
+import com.manish.finance.intf.Calculator;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.TreeMap;
+
+/**
+ * This class calculates a rolling quantile of the price, e.g. the median or the 95th percentile, over the last
+ * 'windowSize' Ticks, or over the Ticks of a time window.
+ *
+ * <p>The quantile is the nearest-rank one: the price at rank ceil(q * n) of the n prices in the window, so the
+ * median of an even window is its lower middle price. The prices of the window are split into two sorted
+ * multisets, the lowest ceil(q * n) prices and the rest, so the quantile is always the largest price of the lower
+ * set. Adding or evicting a Tick moves at most a few prices between the sets, which costs O(log n).</p>
+ */
+public class RollingQuantileCalculator implements Calculator {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final double quantile;
+    private final int windowSize;
+    private final Duration windowDuration;
+    private final TickRingBuffer window;
+
+    // Sorted multisets of prices, price to count
+    private final TreeMap<BigDecimal, Integer> lower = new TreeMap<>();
+    private final TreeMap<BigDecimal, Integer> upper = new TreeMap<>();
+    private int lowerSize;
+    volatile boolean reset;
+    volatile boolean cancel;
+
+    /**
+     * Constructs a RollingQuantileCalculator over the last 'windowSize' Ticks.
+     *
+     * @param windowSize The number of ticks in the window.
+     * @param quantile   The quantile to calculate, between 0 and 1, e.g. 0.5 for the median.
+     */
+    public RollingQuantileCalculator(int windowSize, double quantile) {
+        this(quantile, windowSize, null, new TickRingBuffer(windowSize));
+    }
+
+    /**
+     * Constructs a RollingQuantileCalculator over the Ticks within the given duration of the latest Tick.
+     *
+     * @param windowDuration The duration of the time window.
+     * @param quantile       The quantile to calculate, between 0 and 1, e.g. 0.5 for the median.
+     */
+    public RollingQuantileCalculator(Duration windowDuration, double quantile) {
+        this(quantile, Integer.MAX_VALUE, windowDuration, new TickRingBuffer(INITIAL_CAPACITY));
+    }
+
+    private RollingQuantileCalculator(double quantile, int windowSize, Duration windowDuration, TickRingBuffer window) {
+        if (!(quantile >= 0 && quantile <= 1)) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1: " + quantile);
+        }
+        this.quantile = quantile;
+        this.windowSize = windowSize;
+        this.windowDuration = windowDuration;
+        this.window = window;
+        this.reset = false;
+        this.cancel = false;
+    }
+
+    /**
+     * Calculates the quantile of the window including the given Tick.
+     *
+     * @param tick The current Tick.
+     * @return The quantile of the prices in the window.
+     */
+    @Override
+    public BigDecimal calculate(Tick tick) {
+        if (cancel) {
+            reset();
+            return BigDecimal.ZERO;
+        }
+        if (reset) {
+            reset = false;
+            window.clear();
+            lower.clear();
+            upper.clear();
+            lowerSize = 0;
+        }
+
+        if (window.size() == windowSize) {
+            remove(window.removeFirst().getPrice());
+        }
+        window.addLast(tick);
+        add(tick.getPrice());
+
+        if (windowDuration != null) {
+            Instant cutoffTime = tick.getTimestamp().minus(windowDuration);
+            while (window.getFirst().getTimestamp().isBefore(cutoffTime)) {
+                remove(window.removeFirst().getPrice());
+            }
+        }
+        rebalance();
+        return lower.lastKey();
+    }
+
+    /**
+     * Resets the calculation.
+     */
+    @Override
+    public void reset() {
+        reset = true;
+    }
+
+    /**
+     * Cancels the calculation.
+     */
+    @Override
+    public void cancel() {
+        cancel = true;
+    }
+
+    /**
+     * Resumes the calculation.
+     */
+    @Override
+    public void resume() {
+        cancel = false;
+    }
+
+    private void add(BigDecimal price) {
+        if (!lower.isEmpty() && price.compareTo(lower.lastKey()) <= 0) {
+            increment(lower, price);
+            lowerSize++;
+        } else {
+            increment(upper, price);
+        }
+    }
+
+    private void remove(BigDecimal price) {
+        if (!lower.isEmpty() && price.compareTo(lower.lastKey()) <= 0) {
+            decrement(lower, price);
+            lowerSize--;
+        } else {
+            decrement(upper, price);
+        }
+    }
+
+    /**
+     * Moves prices between the sets until the lower set holds exactly the prices up to the quantile's rank.
+     */
+    private void rebalance() {
+        int rank = Math.max(1, (int) Math.ceil(quantile * window.size()));
+        while (lowerSize > rank) {
+            BigDecimal price = lower.lastKey();
+            decrement(lower, price);
+            lowerSize--;
+            increment(upper, price);
+        }
+        while (lowerSize < rank) {
+            BigDecimal price = upper.firstKey();
+            decrement(upper, price);
+            increment(lower, price);
+            lowerSize++;
+        }
+    }
+
+    private static void increment(TreeMap<BigDecimal, Integer> prices, BigDecimal price) {
+        prices.merge(price, 1, Integer::sum);
+    }
+
+    private static void decrement(TreeMap<BigDecimal, Integer> prices, BigDecimal price) {
+        prices.computeIfPresent(price, (key, count) -> count == 1 ? null : count - 1);
+    }
+}
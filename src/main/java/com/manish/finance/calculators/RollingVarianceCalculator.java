@@ -0,0 +1,104 @@
+package com.manish.finance.calculators;
+
+import com.manish.finance.common.Tick;
+import com.manish.finance.common.TickHistory;
+import com.manish.finance.intf.Calculator;
+
+import java.math.BigDecimal;
+
+/**
+ * This class calculates the rolling variance, or standard deviation, of the prices of the last 'windowSize' Ticks.
+ *
+ * <p>The result is the population variance of the window. A running sum and sum of squares are updated as ticks
+ * enter and leave the window, so each tick costs O(1) regardless of the window size.</p>
+ */
+public class RollingVarianceCalculator implements Calculator {
+    private static final int SCALE = 8;
+
+    private final RollingMoments moments;
+    private final boolean standardDeviation;
+    volatile boolean reset;
+    volatile boolean cancel;
+
+    /**
+     * Constructs a RollingVarianceCalculator returning the variance of the window.
+     *
+     * @param windowSize The number of ticks in the window.
+     */
+    public RollingVarianceCalculator(int windowSize) {
+        this(windowSize, false);
+    }
+
+    /**
+     * Constructs a RollingVarianceCalculator.
+     *
+     * @param windowSize        The number of ticks in the window.
+     * @param standardDeviation true to return the standard deviation instead of the variance.
+     */
+    public RollingVarianceCalculator(int windowSize, boolean standardDeviation) {
+        this(new RollingMoments(windowSize), standardDeviation);
+    }
+
+    /**
+     * Constructs a RollingVarianceCalculator reading its window from a shared history.
+     *
+     * @param history           The history the ticks are appended to before they are calculated.
+     * @param windowSize        The number of ticks in the window.
+     * @param standardDeviation true to return the standard deviation instead of the variance.
+     */
+    public RollingVarianceCalculator(TickHistory history, int windowSize, boolean standardDeviation) {
+        this(new RollingMoments(history, windowSize), standardDeviation);
+    }
+
+    private RollingVarianceCalculator(RollingMoments moments, boolean standardDeviation) {
+        this.moments = moments;
+        this.standardDeviation = standardDeviation;
+        this.reset = false;
+        this.cancel = false;
+    }
+
+    /**
+     * Calculates the variance, or standard deviation, of the window including the given Tick.
+     *
+     * @param tick The current Tick.
+     * @return The variance or standard deviation, with 8 decimal places.
+     */
+    @Override
+    public BigDecimal calculate(Tick tick) {
+        if (cancel) {
+            reset();
+            moments.clear(); // releases the ticks of a shared history right away
+            return BigDecimal.ZERO;
+        }
+        if (reset || !moments.follows(tick)) {
+            reset = false;
+            moments.clear();
+        }
+        moments.add(tick);
+        return standardDeviation ? moments.standardDeviation(SCALE) : moments.variance(SCALE);
+    }
+
+    /**
+     * Resets the variance calculation.
+     */
+    @Override
+    public void reset() {
+        reset = true;
+    }
+
+    /**
+     * Cancels the variance calculation.
+     */
+    @Override
+    public void cancel() {
+        cancel = true;
+    }
+
+    /**
+     * Resumes the variance calculation.
+     */
+    @Override
+    public void resume() {
+        cancel = false;
+    }
+}
@@ -0,0 +1,112 @@
+package com.manish.finance.calculators;
+
+import com.manish.finance.common.Tick;
+import com.manish.finance.common.TickHistory;
+import com.manish.finance.common.TickRingBuffer;
+import com.manish.finance.common.TickWindow;
+import com.manish.finance.intf.Calculator;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * This class calculates the Volume Weighted Average Price (VWAP) of the last 'windowSize' Ticks.
+ *
+ * <p>The VWAP is the sum of price times volume divided by the total volume of the window. Both sums are updated
+ * as ticks enter and leave the window, in a preallocated {@link TickRingBuffer} or a view of a shared
+ * {@link TickHistory}, so each tick costs O(1).</p>
+ */
+public class VolumeWeightedAverageCalculator implements Calculator {
+    private final int windowSize;
+    private final TickWindow window;
+    private BigDecimal notional;
+    private BigDecimal volume;
+    volatile boolean reset;
+    volatile boolean cancel;
+
+    /**
+     * Constructs a VolumeWeightedAverageCalculator with the specified window size.
+     *
+     * @param windowSize The number of ticks in the window.
+     */
+    public VolumeWeightedAverageCalculator(int windowSize) {
+        this(windowSize, new TickRingBuffer(windowSize));
+    }
+
+    /**
+     * Constructs a VolumeWeightedAverageCalculator reading its window from a shared history.
+     *
+     * @param history    The history the ticks are appended to before they are calculated.
+     * @param windowSize The number of ticks in the window.
+     */
+    public VolumeWeightedAverageCalculator(TickHistory history, int windowSize) {
+        this(windowSize, history.newView());
+    }
+
+    private VolumeWeightedAverageCalculator(int windowSize, TickWindow window) {
+        this.windowSize = windowSize;
+        this.window = window;
+        this.notional = BigDecimal.ZERO;
+        this.volume = BigDecimal.ZERO;
+        this.reset = false;
+        this.cancel = false;
+    }
+
+    /**
+     * Calculates the VWAP of the window including the given Tick.
+     *
+     * @param tick The current Tick.
+     * @return The VWAP with 4 decimal places, zero while the window holds no volume.
+     */
+    @Override
+    public BigDecimal calculate(Tick tick) {
+        if (cancel) {
+            reset();
+            window.clear(); // releases the ticks of a shared history right away
+            return BigDecimal.ZERO;
+        }
+        if (reset || !window.follows(tick)) {
+            reset = false;
+            window.clear();
+            notional = BigDecimal.ZERO;
+            volume = BigDecimal.ZERO;
+        }
+        if (window.size() == windowSize) {
+            Tick oldestTick = window.removeFirst();
+            notional = notional.subtract(oldestTick.getPrice().multiply(oldestTick.getVolume()));
+            volume = volume.subtract(oldestTick.getVolume());
+        }
+        window.addLast(tick);
+        notional = notional.add(tick.getPrice().multiply(tick.getVolume()));
+        volume = volume.add(tick.getVolume());
+
+        if (volume.signum() == 0) {
+            return BigDecimal.ZERO;
+        }
+        return notional.divide(volume, 4, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Resets the VWAP calculation.
+     */
+    @Override
+    public void reset() {
+        reset = true;
+    }
+
+    /**
+     * Cancels the VWAP calculation.
+     */
+    @Override
+    public void cancel() {
+        cancel = true;
+    }
+
+    /**
+     * Resumes the VWAP calculation.
+     */
+    @Override
+    public void resume() {
+        cancel = false;
+    }
+}
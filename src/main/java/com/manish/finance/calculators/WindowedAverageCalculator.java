@@ -1,13 +1,25 @@
 package com.manish.finance.calculators;
 
+import com.manish.finance.common.SingleWriterCounter;
+import com.manish.finance.common.SnapshotIO;
 import com.manish.finance.common.Tick;
+import com.manish.finance.common.TickHistory;
+import com.manish.finance.common.TickRingBuffer;
+import com.manish.finance.common.TickWindow;
 import com.manish.finance.intf.Calculator;
+import com.manish.finance.intf.Expiring;
+import com.manish.finance.intf.Snapshottable;
+import com.manish.finance.intf.TraceSink;
+import com.manish.finance.intf.WindowStatistics;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.LinkedList;
+import java.util.function.Consumer;
 
 /**
  * This class calculates the Windowed Average of a series of Ticks.
@@ -15,15 +27,35 @@ import java.util.LinkedList;
  * <p>The Windowed Average calculates the average price of all Ticks that occurred within a
  * specified time window. </p>
  *
- * <p>This implementation maintains a window of Ticks and removes older Ticks that fall
- * outside the specified time window.</p>
+ * <p>This implementation maintains a window of Ticks, in a {@link TickRingBuffer} which grows as needed, and
+ * removes older Ticks that fall outside the specified time window. Alternatively the window can be read from a
+ * {@link TickHistory} shared with the other calculators of the stream.</p>
+ *
+ * <p>By default Ticks are expected in timestamp order. Feeds merged from several venues are often slightly out of
+ * order, for them the calculator can run with a watermark: the window ends at the latest timestamp seen so far,
+ * a late Tick is inserted at its place in the window as long as it is at most 'allowedLateness' older than the
+ * latest one, and later Ticks are dropped, counted and handed to a callback. A late Tick never moves the window
+ * back. Inserting costs O(number of newer Ticks), which stays small for lateness of a few milliseconds.</p>
+ *
+ * <p>As an {@link Expiring} calculator its Ticks can also be evicted by the wall clock during quiet periods, see
+ * {@link com.manish.finance.quants.TickManager#enableExpiry}.</p>
  */
-public class WindowedAverageCalculator implements Calculator {
+public class WindowedAverageCalculator implements Calculator, Snapshottable, Expiring, WindowStatistics {
+    private static final int INITIAL_CAPACITY = 64;
+
     private final Duration windowDuration;
-    private final LinkedList<Tick> window;
+    private final TickWindow window;
     private BigDecimal sum;
-    private boolean reset;
-    private boolean cancel;
+    private volatile boolean reset;
+    private volatile boolean cancel;
+    private TraceSink traceSink = TraceSink.NONE;
+    private final SingleWriterCounter evictionCount = new SingleWriterCounter(); // written by the calculating thread
+
+    // Watermark mode only, allowedLateness is null otherwise
+    private final Duration allowedLateness;
+    private final Consumer<Tick> droppedTickHandler;
+    private final SingleWriterCounter droppedTickCount = new SingleWriterCounter(); // written by the calculating thread
+    private Instant maxTimestamp; // the latest timestamp since the last reset, kept when the window is expired
 
     /**
      * Constructs a WindowedAverageCalculator with the given window duration.
@@ -31,8 +63,35 @@ public class WindowedAverageCalculator implements Calculator {
      * @param windowDuration The duration of the time window for the average calculation.
      */
     public WindowedAverageCalculator(Duration windowDuration) {
+        this(windowDuration, new TickRingBuffer(INITIAL_CAPACITY), null, null);
+    }
+
+    /**
+     * Constructs a WindowedAverageCalculator accepting Ticks out of timestamp order.
+     *
+     * @param windowDuration     The duration of the time window for the average calculation.
+     * @param allowedLateness    How much older than the latest Tick a Tick may be and still be added to the window.
+     * @param droppedTickHandler Receives the Ticks dropped for being later than that, on the calculating thread.
+     */
+    public WindowedAverageCalculator(Duration windowDuration, Duration allowedLateness, Consumer<Tick> droppedTickHandler) {
+        this(windowDuration, new TickRingBuffer(INITIAL_CAPACITY), allowedLateness, droppedTickHandler);
+    }
+
+    /**
+     * Constructs a WindowedAverageCalculator reading its window from a shared history instead of keeping a copy.
+     *
+     * @param history        The history the ticks are appended to before they are calculated.
+     * @param windowDuration The duration of the time window for the average calculation.
+     */
+    public WindowedAverageCalculator(TickHistory history, Duration windowDuration) {
+        this(windowDuration, history.newView(), null, null);
+    }
+
+    private WindowedAverageCalculator(Duration windowDuration, TickWindow window, Duration allowedLateness, Consumer<Tick> droppedTickHandler) {
         this.windowDuration = windowDuration;
-        this.window = new LinkedList<>();
+        this.window = window;
+        this.allowedLateness = allowedLateness;
+        this.droppedTickHandler = droppedTickHandler;
         this.sum  = BigDecimal.ZERO;
         this.reset = false;
         this.cancel = false;
@@ -49,31 +108,199 @@ public class WindowedAverageCalculator implements Calculator {
 
         if (cancel) {
             reset();
+            window.clear(); // releases the ticks of a shared history right away
             return BigDecimal.ZERO; // Cancelled, so return zero average
         }
 
-        if (reset) {
+        if (reset || !window.follows(tick)) {
             reset = false;
             sum = BigDecimal.ZERO;
             window.clear();
+            maxTimestamp = null;
         }
 
-        // Add the new tick to the window & running sum
-        window.addLast(tick);
+        if (allowedLateness == null) {
+            // Add the new tick to the window & running sum
+            window.addLast(tick);
+        } else if (!insertInOrder(tick)) {
+            return window.isEmpty() ? BigDecimal.ZERO : sum.divide(BigDecimal.valueOf(window.size()), 2, RoundingMode.HALF_UP);
+        }
         sum = sum.add(tick.getPrice());
 
-        // Remove ticks that are outside the time window
-        Instant cutoffTime = tick.getTimestamp().minus(windowDuration);
+        // Remove ticks that are outside the time window, which ends at the newest tick
+        Instant newest = allowedLateness == null ? window.get(window.size() - 1).getTimestamp() : maxTimestamp;
+        Instant cutoffTime = newest.minus(windowDuration);
+        while (!window.isEmpty() && window.getFirst().getTimestamp().isBefore(cutoffTime)) {
+            BigDecimal evictedPrice = window.removeFirst().getPrice();
+            sum = sum.subtract(evictedPrice);
+            evictionCount.increment();
+            if (traceSink.isEnabled(TraceSink.Level.DEBUG)) {
+                traceSink.trace(TraceSink.Level.DEBUG, "WindowedAverageCalculator", "evict", evictedPrice, sum);
+            }
+        }
+
+        // Calculate the average if we have ticks in the window, a late tick may have been evicted right away
+        return window.isEmpty() ? BigDecimal.ZERO : sum.divide(BigDecimal.valueOf(window.size()), 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Returns the time at which the oldest Tick leaves the window.
+     *
+     * @return The next expiry, or null if the window is empty or about to be reset.
+     */
+    @Override
+    public Instant nextExpiry() {
+        if (reset || cancel || window.isEmpty()) {
+            return null;
+        }
+        // a Tick is evicted once it is strictly before the cutoff
+        return window.getFirst().getTimestamp().plus(windowDuration).plusNanos(1);
+    }
+
+    /**
+     * Evicts the Ticks which are older than the window duration at the given time.
+     *
+     * @param now The current wall clock time.
+     * @return The new average, zero if the window is now empty, or null if no Tick was evicted.
+     */
+    @Override
+    public BigDecimal expire(Instant now) {
+        if (reset || cancel) {
+            return null;
+        }
+        Instant cutoffTime = now.minus(windowDuration);
+        boolean evicted = false;
         while (!window.isEmpty() && window.getFirst().getTimestamp().isBefore(cutoffTime)) {
-            sum = sum.subtract(window.removeFirst().getPrice());
+            BigDecimal evictedPrice = window.removeFirst().getPrice();
+            sum = sum.subtract(evictedPrice);
+            evictionCount.increment();
+            evicted = true;
+            if (traceSink.isEnabled(TraceSink.Level.DEBUG)) {
+                traceSink.trace(TraceSink.Level.DEBUG, "WindowedAverageCalculator", "expire", evictedPrice, sum);
+            }
+        }
+        if (!evicted) {
+            return null;
+        }
+        return window.isEmpty() ? BigDecimal.ZERO : sum.divide(BigDecimal.valueOf(window.size()), 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Returns the number of Ticks dropped in watermark mode for arriving later than the allowed lateness.
+     *
+     * @return The number of dropped Ticks.
+     */
+    public long getDroppedTickCount() {
+        return droppedTickCount.get();
+    }
+
+    /**
+     * Inserts a Tick at its place in the window, which is kept in timestamp order, unless it is too late. The
+     * watermark follows the latest timestamp seen, not the newest Tick left in the window, so a window emptied by
+     * {@link #expire(Instant)} does not let older Ticks back in.
+     *
+     * @return false if the Tick was dropped.
+     */
+    private boolean insertInOrder(Tick tick) {
+        if (maxTimestamp != null && tick.getTimestamp().isBefore(maxTimestamp.minus(allowedLateness))) {
+            droppedTickCount.increment();
+            if (traceSink.isEnabled(TraceSink.Level.INFO)) {
+                traceSink.trace(TraceSink.Level.INFO, "WindowedAverageCalculator", "drop", tick.getPrice(), null);
+            }
+            if (droppedTickHandler != null) {
+                droppedTickHandler.accept(tick);
+            }
+            return false;
+        }
+        if (maxTimestamp == null || tick.getTimestamp().isAfter(maxTimestamp)) {
+            maxTimestamp = tick.getTimestamp();
+        }
+        int position = window.size();
+        while (position > 0 && window.get(position - 1).getTimestamp().isAfter(tick.getTimestamp())) {
+            position--;
+        }
+        // Watermark mode always owns a TickRingBuffer, see the constructor
+        ((TickRingBuffer) window).add(position, tick);
+        return true;
+    }
+
+    /**
+     * Writes the window duration, flags, running sum, window contents, watermark and dropped tick count of this
+     * calculator.
+     *
+     * @param out The output to write to.
+     * @throws IOException if the output cannot be written.
+     */
+    @Override
+    public void writeSnapshot(DataOutput out) throws IOException {
+        out.writeLong(windowDuration.toNanos());
+        out.writeBoolean(reset);
+        out.writeBoolean(cancel);
+        SnapshotIO.writeBigDecimal(out, sum);
+        SnapshotIO.writeWindow(out, window);
+        out.writeBoolean(maxTimestamp != null);
+        if (maxTimestamp != null) {
+            SnapshotIO.writeInstant(out, maxTimestamp);
         }
+        out.writeLong(droppedTickCount.get());
+    }
+
+    /**
+     * Restores a snapshot written by {@link #writeSnapshot(DataOutput)} of a calculator with the same duration.
+     *
+     * @param in The input to read from.
+     * @throws IOException if the input cannot be read or was written with another window duration.
+     */
+    @Override
+    public void readSnapshot(DataInput in) throws IOException {
+        SnapshotIO.checkConfiguration("windowDuration", windowDuration, Duration.ofNanos(in.readLong()));
+        boolean snapshotReset = in.readBoolean();
+        boolean snapshotCancel = in.readBoolean();
+        BigDecimal snapshotSum = SnapshotIO.readBigDecimal(in);
+        Tick[] ticks = SnapshotIO.readWindow(in, Integer.MAX_VALUE);
+        Instant snapshotMaxTimestamp = in.readBoolean() ? SnapshotIO.readInstant(in) : null;
+        long snapshotDroppedTickCount = in.readLong();
+
+        SnapshotIO.restoreWindow(window, ticks);
+        maxTimestamp = snapshotMaxTimestamp;
+        droppedTickCount.set(snapshotDroppedTickCount);
+        sum = snapshotSum;
+        reset = snapshotReset;
+        cancel = snapshotCancel;
+    }
+
+    /**
+     * Returns the number of Ticks currently in the window.
+     *
+     * @return The window occupancy.
+     */
+    @Override
+    public int getWindowOccupancy() {
+        return window.size();
+    }
 
-        // Calculate the average if we have ticks in the window
-        return sum.divide(BigDecimal.valueOf(window.size()), 2, RoundingMode.HALF_UP);
+    /**
+     * Returns the number of Ticks evicted from the window since this calculator was created.
+     *
+     * @return The eviction count.
+     */
+    @Override
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * Sets the sink receiving diagnostics of this calculator.
+     *
+     * @param traceSink The sink to use, {@link TraceSink#NONE} to disable tracing.
+     */
+    @Override
+    public void setTraceSink(TraceSink traceSink) {
+        this.traceSink = traceSink;
     }
 
     /**
-     * Resets the EMA calculation.
+     * Resets the Windowed Average calculation.
      */
     @Override
     public void reset() {
@@ -81,7 +308,7 @@ public class WindowedAverageCalculator implements Calculator {
     }
 
     /**
-     * Cancels the EMA calculation.
+     * Cancels the Windowed Average calculation.
      */
     @Override
     public void cancel() {
@@ -89,7 +316,7 @@ public class WindowedAverageCalculator implements Calculator {
     }
 
     /**
-     * Resumes the EMA calculation.
+     * Resumes the Windowed Average calculation.
      */
     @Override
     public void resume() {
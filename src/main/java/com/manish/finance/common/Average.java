@@ -0,0 +1,92 @@
+package com.manish.finance.common;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Represents one average published by a calculator, together with the tick it was calculated for.
+ *
+ * <p>Listeners receive averages as separate callback arguments; this value class carries them as one element,
+ * e.g. through a {@link java.util.concurrent.Flow} pipeline.</p>
+ */
+public final class Average {
+    private final int instrumentId;
+    private final String type;
+    private final BigDecimal value;
+    private final Instant timestamp;
+
+    /**
+     * Constructs a new Average.
+     *
+     * @param instrumentId The id of the instrument of the tick.
+     * @param type         The type of the calculator which calculated the average.
+     * @param value        The average.
+     * @param timestamp    The timestamp of the tick.
+     */
+    public Average(int instrumentId, String type, BigDecimal value, Instant timestamp) {
+        this.instrumentId = instrumentId;
+        this.type = type;
+        this.value = value;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Retrieves the instrument id of the tick the average was calculated for.
+     *
+     * @return The instrument id, or {@link Tick#NO_INSTRUMENT}.
+     */
+    public int getInstrumentId() {
+        return instrumentId;
+    }
+
+    /**
+     * Retrieves the calculator type, as registered with the TickManager.
+     *
+     * @return The calculator type.
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Retrieves the average.
+     *
+     * @return The average as a BigDecimal.
+     */
+    public BigDecimal getValue() {
+        return value;
+    }
+
+    /**
+     * Retrieves the timestamp of the tick the average was calculated for.
+     *
+     * @return The timestamp as an Instant.
+     */
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Average)) {
+            return false;
+        }
+        Average other = (Average) o;
+        return instrumentId == other.instrumentId && type.equals(other.type) && value.equals(other.value)
+                && Objects.equals(timestamp, other.timestamp);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(instrumentId, type, value, timestamp);
+    }
+
+    @Override
+    public String toString() {
+        return "Average{" + instrumentId + ", " + type + "=" + value + " @ " + timestamp + "}";
+    }
+}
@@ -0,0 +1,39 @@
+package com.manish.finance.common;
+
+import com.manish.finance.intf.TraceSink;
+
+import java.math.BigDecimal;
+
+/**
+ * A TraceSink printing events at or above a minimum level to standard out. Meant for debugging only, printing
+ * serializes all calling threads on the console.
+ */
+public class ConsoleTraceSink implements TraceSink {
+    private final Level minimumLevel;
+
+    /**
+     * Constructs a ConsoleTraceSink.
+     *
+     * @param minimumLevel The least severe level to print.
+     */
+    public ConsoleTraceSink(Level minimumLevel) {
+        this.minimumLevel = minimumLevel;
+    }
+
+    @Override
+    public boolean isEnabled(Level level) {
+        return level.compareTo(minimumLevel) >= 0;
+    }
+
+    @Override
+    public void trace(Level level, String source, String event, BigDecimal first, BigDecimal second) {
+        StringBuilder line = new StringBuilder().append(level).append(' ').append(source).append(' ').append(event);
+        if (first != null) {
+            line.append(' ').append(first);
+        }
+        if (second != null) {
+            line.append(' ').append(second);
+        }
+        System.out.println(line);
+    }
+}
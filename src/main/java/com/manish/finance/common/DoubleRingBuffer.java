@@ -0,0 +1,82 @@
+package com.manish.finance.common;
+
+/**
+ * A circular buffer of primitive (price, timestamp) pairs used as the window of the primitive calculators.
+ *
+ * <p>The buffer is preallocated with the given capacity. Count-based windows never exceed that capacity, so
+ * insertion and eviction touch only the two backing arrays and never allocate. Time-based windows, which do not
+ * know their size up front, let the buffer double its capacity when it is full.</p>
+ */
+public class DoubleRingBuffer extends PairRingBuffer {
+    private double[] prices;
+
+    /**
+     * Constructs a DoubleRingBuffer with the given initial capacity.
+     *
+     * @param capacity The number of entries to preallocate.
+     */
+    public DoubleRingBuffer(int capacity) {
+        super(capacity);
+        this.prices = new double[capacity];
+    }
+
+    /**
+     * Appends an entry at the tail of the buffer, growing the buffer if it is full.
+     *
+     * @param price          The price to append.
+     * @param timestampNanos The timestamp to append.
+     */
+    public void addLast(double price, long timestampNanos) {
+        int tail = appendSlot(timestampNanos); // may replace the price column, so it is read afterwards
+        prices[tail] = price;
+    }
+
+    /**
+     * Removes the oldest entry and returns its price.
+     *
+     * @return The price of the removed entry.
+     */
+    public double removeFirst() {
+        return prices[removeFirstSlot()];
+    }
+
+    /**
+     * Appends the entries in [from, to) of the given columnar arrays at the tail of the buffer.
+     *
+     * @param prices     The prices to append from.
+     * @param timestamps The timestamps to append from.
+     * @param from       The index of the first entry to append.
+     * @param to         The index after the last entry to append.
+     */
+    public void addAll(double[] prices, long[] timestamps, int from, int to) {
+        for (int i = from; i < to; i++) {
+            addLast(prices[i], timestamps[i]);
+        }
+    }
+
+    /**
+     * Returns the price of the oldest entry without removing it.
+     *
+     * @return The oldest price.
+     */
+    public double firstPrice() {
+        return prices[firstSlot()];
+    }
+
+    /**
+     * Returns the price at the given position, 0 being the oldest entry.
+     *
+     * @param i The position in the buffer.
+     * @return The price at that position.
+     */
+    public double priceAt(int i) {
+        return prices[slot(i)];
+    }
+
+    @Override
+    void growPrices(int capacity) {
+        double[] newPrices = new double[capacity];
+        unwrap(prices, newPrices);
+        prices = newPrices;
+    }
+}
@@ -0,0 +1,121 @@
+package com.manish.finance.common;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+
+/**
+ * Conversion helpers between BigDecimal / Instant values and the primitive representation used by
+ * the primitive and fixed-point calculators.
+ *
+ * <p>A fixed-point price with scale {@code s} is a long holding {@code price * 10^s}, e.g. 101.25 at
+ * scale 4 is stored as 1012500.</p>
+ */
+public final class FixedPoint {
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        long power = 1;
+        for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = power;
+            power *= 10;
+        }
+    }
+
+    private FixedPoint() {
+    }
+
+    /**
+     * Returns 10^scale as a long.
+     *
+     * @param scale The scale, between 0 and 18.
+     * @return The multiplier for the given scale.
+     */
+    public static long multiplier(int scale) {
+        if (scale < 0 || scale >= POWERS_OF_TEN.length) {
+            throw new IllegalArgumentException("Scale must be between 0 and " + (POWERS_OF_TEN.length - 1) + ": " + scale);
+        }
+        return POWERS_OF_TEN[scale];
+    }
+
+    /**
+     * Converts a BigDecimal price to its fixed-point representation, rounding half up.
+     *
+     * @param price The price.
+     * @param scale The fixed-point scale.
+     * @return The scaled price.
+     */
+    public static long toScaled(BigDecimal price, int scale) {
+        return price.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converts a double price to its fixed-point representation, rounding half up.
+     *
+     * @param price The price.
+     * @param scale The fixed-point scale.
+     * @return The scaled price.
+     */
+    public static long toScaled(double price, int scale) {
+        return Math.round(price * multiplier(scale));
+    }
+
+    /**
+     * Converts a fixed-point price back to a BigDecimal.
+     *
+     * @param scaledPrice The scaled price.
+     * @param scale       The fixed-point scale.
+     * @return The price as a BigDecimal.
+     */
+    public static BigDecimal toBigDecimal(long scaledPrice, int scale) {
+        return BigDecimal.valueOf(scaledPrice, scale);
+    }
+
+    /**
+     * Converts a fixed-point price back to a double.
+     *
+     * @param scaledPrice The scaled price.
+     * @param scale       The fixed-point scale.
+     * @return The price as a double.
+     */
+    public static double toDouble(long scaledPrice, int scale) {
+        return (double) scaledPrice / multiplier(scale);
+    }
+
+    /**
+     * Divides two longs rounding half up, the same rounding the BigDecimal calculators use.
+     *
+     * @param dividend The dividend.
+     * @param divisor  The divisor, must be positive.
+     * @return The rounded quotient.
+     */
+    public static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (Math.abs(remainder) * 2 >= divisor) {
+            quotient += dividend < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+
+    /**
+     * Converts an Instant to nanoseconds since the epoch.
+     *
+     * @param timestamp The timestamp.
+     * @return The timestamp in epoch nanoseconds.
+     */
+    public static long toEpochNanos(Instant timestamp) {
+        return timestamp.getEpochSecond() * 1_000_000_000L + timestamp.getNano();
+    }
+
+    /**
+     * Converts nanoseconds since the epoch to an Instant.
+     *
+     * @param epochNanos The timestamp in epoch nanoseconds.
+     * @return The timestamp as an Instant.
+     */
+    public static Instant toInstant(long epochNanos) {
+        return Instant.ofEpochSecond(Math.floorDiv(epochNanos, 1_000_000_000L), Math.floorMod(epochNanos, 1_000_000_000L));
+    }
+}
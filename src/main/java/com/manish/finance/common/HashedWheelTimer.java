@@ -0,0 +1,177 @@
+package com.manish.finance.common;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A timer running any number of timeouts on a single thread, for deadlines where a few milliseconds of slack are
+ * fine, such as expiring ticks out of time windows.
+ *
+ * <p>Timeouts are hashed into a wheel of slots by their deadline. The worker thread advances one slot per tick
+ * duration and only looks at the timeouts of that slot, so scheduling and cancelling are O(1) and the cost of a
+ * tick does not depend on how many timeouts are pending further out. A timeout fires up to one tick duration
+ * late. Tasks run on the worker thread and must be short, typically they hand work over to another thread.</p>
+ */
+public class HashedWheelTimer implements AutoCloseable {
+
+    private final long tickNanos;
+    private final List<List<Timeout>> wheel;
+    private final int mask;
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+    private final AtomicLong failedTaskCount = new AtomicLong();
+    private final long startNanos;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    /**
+     * Constructs a HashedWheelTimer and starts its worker thread.
+     *
+     * @param tickDuration The time between two slots, the precision of the timer.
+     * @param wheelSize    The number of slots, rounded up to a power of two.
+     */
+    public HashedWheelTimer(Duration tickDuration, int wheelSize) {
+        if (tickDuration.isNegative() || tickDuration.isZero()) {
+            throw new IllegalArgumentException("Tick duration must be positive: " + tickDuration);
+        }
+        if (wheelSize < 1 || wheelSize > 1 << 30) {
+            throw new IllegalArgumentException("Wheel size must be between 1 and 2^30: " + wheelSize);
+        }
+        int slots = Integer.highestOneBit(wheelSize - 1) << 1;
+        slots = Math.max(slots, 1);
+        this.tickNanos = tickDuration.toNanos();
+        this.mask = slots - 1;
+        this.wheel = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            wheel.add(new ArrayList<>());
+        }
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, "hashed-wheel-timer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Schedules a task to run once after the given delay.
+     *
+     * @param task  The task, run on the timer's thread.
+     * @param delay The delay, a zero or negative delay runs the task at the next tick.
+     * @return The timeout, to cancel the task.
+     */
+    public Timeout schedule(Runnable task, Duration delay) {
+        if (!running) {
+            throw new IllegalStateException("HashedWheelTimer is closed");
+        }
+        long delayNanos = Math.max(0, delay.toNanos());
+        Timeout timeout = new Timeout(task, System.nanoTime() - startNanos + delayNanos);
+        scheduled.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Returns the number of tasks which threw an exception.
+     *
+     * @return The number of failed tasks.
+     */
+    public long getFailedTaskCount() {
+        return failedTaskCount.get();
+    }
+
+    /**
+     * Stops the worker thread. Pending timeouts do not fire. If the calling thread is interrupted while waiting, it
+     * returns right away with its interrupt flag set.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(worker);
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        long tick = 0;
+        while (running) {
+            long tickDeadline = (tick + 1) * tickNanos;
+            long sleepNanos;
+            while (running && (sleepNanos = tickDeadline - (System.nanoTime() - startNanos)) > 0) {
+                LockSupport.parkNanos(sleepNanos);
+            }
+            if (!running) {
+                return;
+            }
+            transferScheduled(tick);
+            expire(wheel.get((int) (tick & mask)), tickDeadline);
+            tick++;
+        }
+    }
+
+    /**
+     * Moves the newly scheduled timeouts into their slot, timeouts already due go into the current slot.
+     */
+    private void transferScheduled(long currentTick) {
+        Timeout timeout;
+        while ((timeout = scheduled.poll()) != null) {
+            if (timeout.cancelled) {
+                continue;
+            }
+            long deadlineTick = Math.max(currentTick, timeout.deadlineNanos / tickNanos);
+            timeout.remainingRounds = (deadlineTick - currentTick) / wheel.size();
+            wheel.get((int) (deadlineTick & mask)).add(timeout);
+        }
+    }
+
+    private void expire(List<Timeout> slot, long tickDeadline) {
+        Iterator<Timeout> timeouts = slot.iterator();
+        while (timeouts.hasNext()) {
+            Timeout timeout = timeouts.next();
+            if (timeout.cancelled) {
+                timeouts.remove();
+            } else if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+            } else if (timeout.deadlineNanos <= tickDeadline) {
+                timeouts.remove();
+                try {
+                    timeout.task.run();
+                } catch (RuntimeException e) {
+                    failedTaskCount.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * A scheduled task, which can be cancelled until it has run.
+     */
+    public static final class Timeout {
+        private final Runnable task;
+        private final long deadlineNanos; // relative to the timer's start
+        private long remainingRounds;     // worker thread only
+        private volatile boolean cancelled;
+
+        private Timeout(Runnable task, long deadlineNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * Cancels the task if it has not run yet.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.manish.finance.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns instrument symbols into compact int ids, so Ticks and per-instrument state can be keyed by an int
+ * instead of a String. Ids are handed out sequentially starting at 1, {@link Tick#NO_INSTRUMENT} is never used.
+ *
+ * <p>This class is thread-safe.</p>
+ */
+public class InstrumentRegistry {
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final List<String> symbols = new ArrayList<>();
+
+    /**
+     * Returns the id of the given symbol, assigning a new id the first time the symbol is seen.
+     *
+     * @param symbol The instrument symbol.
+     * @return The interned instrument id.
+     */
+    public int intern(String symbol) {
+        Integer id = ids.get(symbol);
+        if (id != null) {
+            return id;
+        }
+        synchronized (symbols) {
+            return ids.computeIfAbsent(symbol, s -> {
+                symbols.add(s);
+                return symbols.size();
+            });
+        }
+    }
+
+    /**
+     * Returns the symbol of an interned instrument id.
+     *
+     * @param instrumentId The instrument id.
+     * @return The symbol, or null if the id was never handed out.
+     */
+    public String symbol(int instrumentId) {
+        synchronized (symbols) {
+            return instrumentId > 0 && instrumentId <= symbols.size() ? symbols.get(instrumentId - 1) : null;
+        }
+    }
+
+    /**
+     * Returns the number of interned instruments.
+     *
+     * @return The number of instruments.
+     */
+    public int size() {
+        return ids.size();
+    }
+}
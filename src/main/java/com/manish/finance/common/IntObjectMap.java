@@ -0,0 +1,129 @@
+package com.manish.finance.common;
+
+import java.util.function.Consumer;
+
+/**
+ * A map from int keys to non-null values, for lookups on a hot path.
+ *
+ * <p>Keys and values are kept in two parallel arrays with open addressing and linear probing, so a lookup hashes
+ * the primitive key and scans a few adjacent slots, without boxing the key or following a node. The arrays double
+ * when they are half full. Entries cannot be removed, the map is meant for keys like instrument ids which stay
+ * known once seen. The map is not thread safe.</p>
+ *
+ * @param <V> The type of the values.
+ */
+public final class IntObjectMap<V> {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] keys;
+    private Object[] values; // null marks a free slot
+    private int mask;
+    private int size;
+
+    /**
+     * Constructs an empty IntObjectMap.
+     */
+    public IntObjectMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty IntObjectMap holding the given number of entries before it grows.
+     *
+     * @param expectedSize The expected number of entries.
+     */
+    public IntObjectMap(int expectedSize) {
+        if (expectedSize < 0 || expectedSize > 1 << 29) {
+            throw new IllegalArgumentException("Expected size must be between 0 and 2^29: " + expectedSize);
+        }
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 1) * 2 - 1) << 1;
+        this.keys = new int[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Returns the value of a key.
+     *
+     * @param key The key.
+     * @return The value, or null if the key is not in the map.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        for (int i = index(key); ; i = (i + 1) & mask) {
+            Object value = values[i];
+            if (value == null || keys[i] == key) {
+                return (V) value;
+            }
+        }
+    }
+
+    /**
+     * Associates a value with a key, replacing the previous value of the key.
+     *
+     * @param key   The key.
+     * @param value The value, not null.
+     * @return The previous value, or null if the key was not in the map.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("IntObjectMap does not hold null values");
+        }
+        int i = index(key);
+        for (; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                Object previous = values[i];
+                values[i] = value;
+                return (V) previous;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size * 2 > values.length) {
+            grow();
+        }
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Hands every value to the given action, in no particular order.
+     *
+     * @param action The action to run for each value.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super V> action) {
+        for (Object value : values) {
+            if (value != null) {
+                action.accept((V) value);
+            }
+        }
+    }
+
+    private int index(int key) {
+        int hash = key * 0x9E3779B9; // Fibonacci hashing spreads sequential ids over the table
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new Object[oldValues.length * 2];
+        mask = values.length - 1;
+        for (int j = 0; j < oldValues.length; j++) {
+            if (oldValues[j] != null) {
+                int i = index(oldKeys[j]);
+                while (values[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+}
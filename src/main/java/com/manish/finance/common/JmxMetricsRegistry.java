@@ -0,0 +1,199 @@
+package com.manish.finance.common;
+
+import com.manish.finance.intf.MetricsRegistry;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongSupplier;
+
+/**
+ * A MetricsRegistry exposing every metric as an MBean of the platform MBean server, where JConsole, VisualVM or a
+ * JMX exporter can read it.
+ *
+ * <p>Metrics are registered under {@code <domain>:type=<Counter|Gauge|Histogram>,name=<name>}. The values are
+ * only computed when an attribute is read, so between two reads the registry costs nothing. Counters also expose
+ * their rate per second since the previous read, which turns the Tick count into Ticks per second.</p>
+ *
+ * <pre>
+ * try (JmxMetricsRegistry registry = new JmxMetricsRegistry("com.manish.finance")) {
+ *     tickManager.enableMetrics(registry, "prices");
+ *     ...
+ * }
+ * </pre>
+ */
+public class JmxMetricsRegistry implements MetricsRegistry, AutoCloseable {
+
+    /**
+     * The attributes of a registered counter.
+     */
+    public interface CounterMXBean {
+        long getCount();
+
+        double getRatePerSecond();
+    }
+
+    /**
+     * The attributes of a registered gauge.
+     */
+    public interface GaugeMXBean {
+        long getValue();
+    }
+
+    /**
+     * The attributes of a registered histogram.
+     */
+    public interface HistogramMXBean {
+        long getCount();
+
+        long getMax();
+
+        long get50thPercentile();
+
+        long get99thPercentile();
+
+        long get999thPercentile();
+    }
+
+    private final String domain;
+    private final MBeanServer server;
+    private final List<ObjectName> registered = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructs a JmxMetricsRegistry on the platform MBean server.
+     *
+     * @param domain The JMX domain of the metrics.
+     */
+    public JmxMetricsRegistry(String domain) {
+        this(domain, ManagementFactory.getPlatformMBeanServer());
+    }
+
+    /**
+     * Constructs a JmxMetricsRegistry on the given MBean server.
+     *
+     * @param domain The JMX domain of the metrics.
+     * @param server The server to register the MBeans with.
+     */
+    public JmxMetricsRegistry(String domain, MBeanServer server) {
+        this.domain = domain;
+        this.server = server;
+    }
+
+    @Override
+    public void registerCounter(String name, LongSupplier count) {
+        register("Counter", name, new Counter(count), CounterMXBean.class);
+    }
+
+    @Override
+    public void registerGauge(String name, LongSupplier value) {
+        register("Gauge", name, (GaugeMXBean) value::getAsLong, GaugeMXBean.class);
+    }
+
+    @Override
+    public void registerHistogram(String name, LatencyHistogram histogram) {
+        register("Histogram", name, new Histogram(histogram), HistogramMXBean.class);
+    }
+
+    /**
+     * Returns the name the metric is registered under.
+     *
+     * @param type The type of the metric, Counter, Gauge or Histogram.
+     * @param name The name of the metric.
+     * @return The ObjectName of its MBean.
+     */
+    public ObjectName objectName(String type, String name) {
+        try {
+            return new ObjectName(domain + ":type=" + type + ",name=" + ObjectName.quote(name));
+        } catch (JMException e) {
+            throw new IllegalArgumentException("Invalid metric name " + name, e);
+        }
+    }
+
+    /**
+     * Unregisters every MBean registered through this registry.
+     */
+    @Override
+    public void close() {
+        for (ObjectName name : registered) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                // already unregistered by someone else
+            }
+        }
+        registered.clear();
+    }
+
+    private <T> void register(String type, String name, T bean, Class<T> mxBeanInterface) {
+        ObjectName objectName = objectName(type, name);
+        try {
+            server.registerMBean(new StandardMBean(bean, mxBeanInterface, true), objectName);
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register metric " + objectName, e);
+        }
+        registered.add(objectName);
+    }
+
+    private static final class Counter implements CounterMXBean {
+        private final LongSupplier count;
+        private long previousCount;
+        private long previousNanos = System.nanoTime();
+
+        Counter(LongSupplier count) {
+            this.count = count;
+            this.previousCount = count.getAsLong();
+        }
+
+        @Override
+        public long getCount() {
+            return count.getAsLong();
+        }
+
+        @Override
+        public synchronized double getRatePerSecond() {
+            long now = System.nanoTime();
+            long current = count.getAsLong();
+            double rate = now == previousNanos ? 0 : (current - previousCount) * 1e9 / (now - previousNanos);
+            previousCount = current;
+            previousNanos = now;
+            return rate;
+        }
+    }
+
+    private static final class Histogram implements HistogramMXBean {
+        private final LatencyHistogram histogram;
+
+        Histogram(LatencyHistogram histogram) {
+            this.histogram = histogram;
+        }
+
+        @Override
+        public long getCount() {
+            return histogram.getCount();
+        }
+
+        @Override
+        public long getMax() {
+            return histogram.getMax();
+        }
+
+        @Override
+        public long get50thPercentile() {
+            return histogram.getValueAtPercentile(50);
+        }
+
+        @Override
+        public long get99thPercentile() {
+            return histogram.getValueAtPercentile(99);
+        }
+
+        @Override
+        public long get999thPercentile() {
+            return histogram.getValueAtPercentile(99.9);
+        }
+    }
+}
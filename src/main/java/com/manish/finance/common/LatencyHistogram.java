@@ -0,0 +1,121 @@
+package com.manish.finance.common;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of non-negative long values, typically durations in nanoseconds, with a bounded relative error in
+ * the style of HdrHistogram.
+ *
+ * <p>Values below 32 are counted exactly. Larger values are counted in buckets of 32 sub-buckets per power of two,
+ * so a recorded value is reported within about 3% of its actual value, over the whole range of long. The counts
+ * live in one preallocated array: recording is an index computation and one ordered store, it never allocates and
+ * never takes a lock.</p>
+ *
+ * <p>The histogram has a single writer, the thread recording into it. Any other thread may read it concurrently,
+ * e.g. a monitoring thread, and sees counts which are at most slightly stale.</p>
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = Long.SIZE - SUB_BUCKET_BITS + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT * SUB_BUCKET_COUNT);
+    private volatile long maxValue;
+
+    /**
+     * Records one value. Called from the single writing thread.
+     *
+     * @param value The value, negative values are recorded as zero.
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        int index = index(value);
+        counts.lazySet(index, counts.get(index) + 1);
+        if (value > maxValue) {
+            maxValue = value; // single writer
+        }
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return The total count.
+     */
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Returns the largest recorded value, exactly.
+     *
+     * @return The maximum, zero if nothing was recorded.
+     */
+    public long getMax() {
+        return maxValue;
+    }
+
+    /**
+     * Returns the value below or at which the given percentage of the recorded values fall.
+     *
+     * @param percentile The percentile, between 0 and 100, e.g. 99.9.
+     * @return The highest value equivalent to the value at the percentile, zero if nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        long[] snapshot = new long[counts.length()];
+        long total = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestEquivalentValue(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    /**
+     * Clears all counts. Must be called from the writing thread, or while nothing is recorded.
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        maxValue = 0;
+    }
+
+    private static int index(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        // value >>> shift keeps the top SUB_BUCKET_BITS + 1 bits, between SUB_BUCKET_COUNT and 2 * SUB_BUCKET_COUNT - 1
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) (value >>> shift) - SUB_BUCKET_COUNT;
+    }
+
+    private static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long subBucket = index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        long highest = ((subBucket + 1) << shift) - 1;
+        return highest < 0 ? Long.MAX_VALUE : highest;
+    }
+}
@@ -0,0 +1,102 @@
+package com.manish.finance.common;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free, multi-producer single-consumer queue backed by a ring of preallocated slots.
+ *
+ * <p>Every slot carries a sequence number. A producer claims the next position with a CAS on the tail counter
+ * and publishes its element by advancing the slot's sequence, so producers never take a lock and never wait for
+ * each other, they only retry the CAS when another producer claimed the same position first. The single consumer
+ * reads the slot once its sequence shows it has been published and hands the slot back to producers by advancing
+ * the sequence by the capacity.</p>
+ *
+ * @param <E> The type of the queued elements.
+ */
+public class MpscRingBuffer<E> {
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private long head; // only touched by the consumer
+
+    /**
+     * Constructs an MpscRingBuffer with at least the given capacity, rounded up to a power of two.
+     *
+     * @param capacity The minimum number of elements the buffer can hold.
+     */
+    public MpscRingBuffer(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element to the queue. Safe to call from any number of threads.
+     *
+     * @param element The element to add, must not be null.
+     * @return true if the element was added, false if the queue is full.
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException("element");
+        }
+        while (true) {
+            long position = tail.get();
+            int slot = (int) position & mask;
+            long difference = sequences.get(slot) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(slot, element);
+                    sequences.set(slot, position + 1); // publishes the element to the consumer
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false; // the consumer has not freed this slot yet
+            }
+            // else another producer claimed this position, retry with the new tail
+        }
+    }
+
+    /**
+     * Removes the oldest element. Must only be called from the single consumer thread.
+     *
+     * @return The oldest element, or null if the queue is empty.
+     */
+    public E poll() {
+        int slot = (int) head & mask;
+        if (sequences.get(slot) != head + 1) {
+            return null; // not published yet
+        }
+        E element = elements.get(slot);
+        elements.lazySet(slot, null);
+        sequences.set(slot, head + mask + 1); // hands the slot back to the producers
+        head++;
+        return element;
+    }
+
+    /**
+     * Returns whether the queue currently looks empty. Exact only when called from the consumer thread.
+     *
+     * @return true if no published element is waiting.
+     */
+    public boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
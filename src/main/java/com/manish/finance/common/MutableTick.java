@@ -0,0 +1,74 @@
+package com.manish.finance.common;
+
+import com.manish.finance.intf.TickView;
+
+/**
+ * A reusable TickView which a feed decoder overwrites for every event.
+ *
+ * <pre>
+ * MutableTick tick = new MutableTick(4);
+ * while (decoder.next()) {
+ *     tick.set(decoder.instrument(), decoder.scaledPrice(), decoder.scaledVolume(), decoder.timestampNanos());
+ *     batchTickManager.onTick(tick);
+ * }
+ * </pre>
+ */
+public class MutableTick implements TickView {
+    private final int scale;
+    private int instrumentId;
+    private long scaledPrice;
+    private long scaledVolume;
+    private long timestampNanos;
+
+    /**
+     * Constructs a MutableTick for prices and volumes of the given fixed-point scale.
+     *
+     * @param scale The number of decimal digits of the scaled prices and volumes.
+     */
+    public MutableTick(int scale) {
+        FixedPoint.multiplier(scale); // validates the scale
+        this.scale = scale;
+    }
+
+    /**
+     * Overwrites all fields of this tick.
+     *
+     * @param instrumentId   The instrument id.
+     * @param scaledPrice    The price multiplied by 10^scale.
+     * @param scaledVolume   The traded volume multiplied by 10^scale.
+     * @param timestampNanos The timestamp in nanoseconds since the epoch.
+     * @return This tick, to pass it on directly.
+     */
+    public MutableTick set(int instrumentId, long scaledPrice, long scaledVolume, long timestampNanos) {
+        this.instrumentId = instrumentId;
+        this.scaledPrice = scaledPrice;
+        this.scaledVolume = scaledVolume;
+        this.timestampNanos = timestampNanos;
+        return this;
+    }
+
+    @Override
+    public int instrumentId() {
+        return instrumentId;
+    }
+
+    @Override
+    public long scaledPrice() {
+        return scaledPrice;
+    }
+
+    @Override
+    public long scaledVolume() {
+        return scaledVolume;
+    }
+
+    @Override
+    public int scale() {
+        return scale;
+    }
+
+    @Override
+    public long timestampNanos() {
+        return timestampNanos;
+    }
+}
@@ -0,0 +1,149 @@
+package com.manish.finance.common;
+
+import java.util.NoSuchElementException;
+
+/**
+ * The index arithmetic and timestamp column shared by the circular buffers of (price, timestamp) pairs.
+ *
+ * <p>Subclasses keep the prices in a primitive array of their own type, at the same slot as the timestamp. They
+ * claim and release slots through this class and only have to copy their price column when the buffer grows.</p>
+ */
+abstract class PairRingBuffer {
+    private long[] timestamps;
+    private int head;
+    private int size;
+
+    PairRingBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.timestamps = new long[capacity];
+    }
+
+    /**
+     * Removes the given number of oldest entries.
+     *
+     * @param count The number of entries to remove.
+     */
+    public void removeFirst(int count) {
+        if (count < 0 || count > size) {
+            throw new IndexOutOfBoundsException("Cannot remove " + count + " entries from buffer of size " + size);
+        }
+        head = index(count);
+        size -= count;
+    }
+
+    /**
+     * Returns the timestamp of the oldest entry without removing it.
+     *
+     * @return The oldest timestamp in epoch nanoseconds.
+     */
+    public long firstTimestamp() {
+        return timestamps[firstSlot()];
+    }
+
+    /**
+     * Returns the timestamp at the given position, 0 being the oldest entry.
+     *
+     * @param i The position in the buffer.
+     * @return The timestamp at that position.
+     */
+    public long timestampAt(int i) {
+        return timestamps[slot(i)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int capacity() {
+        return timestamps.length;
+    }
+
+    /**
+     * Removes all entries. The backing arrays are kept for reuse.
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Appends a timestamp at the tail, growing the buffer if it is full.
+     *
+     * @param timestampNanos The timestamp to append.
+     * @return The slot the price of the new entry goes to.
+     */
+    final int appendSlot(long timestampNanos) {
+        if (size == timestamps.length) {
+            grow();
+        }
+        int tail = index(size);
+        timestamps[tail] = timestampNanos;
+        size++;
+        return tail;
+    }
+
+    /**
+     * Removes the oldest entry.
+     *
+     * @return The slot the price of the removed entry is still held in.
+     */
+    final int removeFirstSlot() {
+        int first = firstSlot();
+        head = index(1);
+        size--;
+        return first;
+    }
+
+    final int firstSlot() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return head;
+    }
+
+    final int slot(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Position " + i + " outside buffer of size " + size);
+        }
+        return index(i);
+    }
+
+    /**
+     * Copies a full column into a larger array, oldest entry first.
+     *
+     * @param column The column of this buffer, a primitive array of {@link #capacity()} entries.
+     * @param grown  The array to copy into.
+     */
+    final void unwrap(Object column, Object grown) {
+        int firstPart = timestamps.length - head;
+        System.arraycopy(column, head, grown, 0, firstPart);
+        System.arraycopy(column, 0, grown, firstPart, head);
+    }
+
+    /**
+     * Replaces the price column by one of the given capacity, copied with {@link #unwrap(Object, Object)}.
+     *
+     * @param capacity The new capacity.
+     */
+    abstract void growPrices(int capacity);
+
+    private int index(int offset) {
+        int i = head + offset;
+        return i >= timestamps.length ? i - timestamps.length : i;
+    }
+
+    private void grow() {
+        int capacity = timestamps.length * 2;
+        growPrices(capacity);
+        long[] newTimestamps = new long[capacity];
+        unwrap(timestamps, newTimestamps);
+        timestamps = newTimestamps;
+        head = 0;
+    }
+}
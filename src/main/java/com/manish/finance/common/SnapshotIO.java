@@ -0,0 +1,180 @@
+package com.manish.finance.common;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.Instant;
+
+/**
+ * Binary encoding helpers shared by the calculator snapshots.
+ */
+public final class SnapshotIO {
+
+    private SnapshotIO() {
+    }
+
+    /**
+     * Writes a BigDecimal as its scale followed by its length-prefixed unscaled value.
+     *
+     * @param out   The output to write to.
+     * @param value The value to write.
+     * @throws IOException if the output cannot be written.
+     */
+    public static void writeBigDecimal(DataOutput out, BigDecimal value) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.writeInt(value.scale());
+        out.writeInt(unscaled.length);
+        out.write(unscaled);
+    }
+
+    /**
+     * Reads a BigDecimal written by {@link #writeBigDecimal(DataOutput, BigDecimal)}.
+     *
+     * @param in The input to read from.
+     * @return The value read.
+     * @throws IOException if the input cannot be read.
+     */
+    public static BigDecimal readBigDecimal(DataInput in) throws IOException {
+        int scale = in.readInt();
+        int length = in.readInt();
+        if (length < 1) {
+            throw new IOException("Corrupt snapshot, invalid BigDecimal length " + length);
+        }
+        byte[] unscaled = new byte[length];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    /**
+     * Writes a MathContext as its precision and rounding mode.
+     *
+     * @param out         The output to write to.
+     * @param mathContext The value to write.
+     * @throws IOException if the output cannot be written.
+     */
+    public static void writeMathContext(DataOutput out, MathContext mathContext) throws IOException {
+        out.writeInt(mathContext.getPrecision());
+        out.writeByte(mathContext.getRoundingMode().ordinal());
+    }
+
+    /**
+     * Reads a MathContext written by {@link #writeMathContext(DataOutput, MathContext)}.
+     *
+     * @param in The input to read from.
+     * @return The value read.
+     * @throws IOException if the input cannot be read or holds no valid MathContext.
+     */
+    public static MathContext readMathContext(DataInput in) throws IOException {
+        int precision = in.readInt();
+        int roundingMode = in.readUnsignedByte();
+        if (precision < 0 || roundingMode >= RoundingMode.values().length) {
+            throw new IOException("Corrupt snapshot, invalid MathContext " + precision + "/" + roundingMode);
+        }
+        return new MathContext(precision, RoundingMode.values()[roundingMode]);
+    }
+
+    /**
+     * Writes an Instant as epoch seconds and nanos.
+     *
+     * @param out       The output to write to.
+     * @param timestamp The value to write.
+     * @throws IOException if the output cannot be written.
+     */
+    public static void writeInstant(DataOutput out, Instant timestamp) throws IOException {
+        out.writeLong(timestamp.getEpochSecond());
+        out.writeInt(timestamp.getNano());
+    }
+
+    /**
+     * Reads an Instant written by {@link #writeInstant(DataOutput, Instant)}.
+     *
+     * @param in The input to read from.
+     * @return The value read.
+     * @throws IOException if the input cannot be read.
+     */
+    public static Instant readInstant(DataInput in) throws IOException {
+        return Instant.ofEpochSecond(in.readLong(), in.readInt());
+    }
+
+    /**
+     * Writes the ticks of a window, oldest first, prefixed by their count.
+     *
+     * @param out    The output to write to.
+     * @param window The window to write.
+     * @throws IOException if the output cannot be written or the window is a view of a shared history.
+     */
+    public static void writeWindow(DataOutput out, TickWindow window) throws IOException {
+        checkOwned(window);
+        out.writeInt(window.size());
+        for (int i = 0; i < window.size(); i++) {
+            Tick tick = window.get(i);
+            out.writeInt(tick.getInstrumentId());
+            writeBigDecimal(out, tick.getPrice());
+            writeBigDecimal(out, tick.getVolume());
+            writeInstant(out, tick.getTimestamp());
+        }
+    }
+
+    /**
+     * Reads the ticks of a window written by {@link #writeWindow(DataOutput, TickWindow)}.
+     *
+     * @param in       The input to read from.
+     * @param maxTicks The largest number of ticks the restoring window can hold.
+     * @return The ticks read, oldest first.
+     * @throws IOException if the input cannot be read or holds more than maxTicks ticks.
+     */
+    public static Tick[] readWindow(DataInput in, int maxTicks) throws IOException {
+        int size = in.readInt();
+        if (size < 0 || size > maxTicks) {
+            throw new IOException("Snapshot window of " + size + " ticks does not fit a window of " + maxTicks);
+        }
+        Tick[] ticks = new Tick[size];
+        for (int i = 0; i < size; i++) {
+            int instrumentId = in.readInt();
+            BigDecimal price = readBigDecimal(in);
+            BigDecimal volume = readBigDecimal(in);
+            ticks[i] = new Tick(instrumentId, price, volume, readInstant(in));
+        }
+        return ticks;
+    }
+
+    /**
+     * Replaces the contents of a window with the ticks read by {@link #readWindow(DataInput, int)}.
+     *
+     * @param window The window to restore.
+     * @param ticks  The ticks, oldest first.
+     * @throws IOException if the window is a view of a shared history, which is left untouched.
+     */
+    public static void restoreWindow(TickWindow window, Tick[] ticks) throws IOException {
+        checkOwned(window);
+        window.clear();
+        for (Tick tick : ticks) {
+            window.addLast(tick);
+        }
+    }
+
+    // A view only refers to ticks of its TickHistory, which is not part of the calculator's snapshot
+    private static void checkOwned(TickWindow window) throws IOException {
+        if (window instanceof TickHistory.View) {
+            throw new IOException("Calculators reading a shared TickHistory do not support snapshots");
+        }
+    }
+
+    /**
+     * Checks a configuration value read from a snapshot against the restoring calculator's value.
+     *
+     * @param name     The name of the configuration value, for the error message.
+     * @param expected The restoring calculator's value.
+     * @param actual   The value read from the snapshot.
+     * @throws IOException if the values differ.
+     */
+    public static void checkConfiguration(String name, Object expected, Object actual) throws IOException {
+        if (!expected.equals(actual)) {
+            throw new IOException("Snapshot was taken with " + name + " " + actual + " but calculator has " + expected);
+        }
+    }
+}
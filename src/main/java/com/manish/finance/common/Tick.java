@@ -4,11 +4,22 @@ import java.math.BigDecimal;
 import java.time.Instant;
 
 /**
- * Represents a financial tick with price and timestamp information.
+ * Represents a financial tick with instrument, price and timestamp information.
+ *
+ * <p>Instruments are identified by an int id, see {@link InstrumentRegistry} for interning symbols into ids.
+ * Ticks created without an instrument belong to {@link #NO_INSTRUMENT}. Ticks created without a volume have a
+ * volume of one, so volume weighted averages of such ticks are plain averages.</p>
  */
 public class Tick {
 
+    /**
+     * Instrument id of ticks which are not associated with any instrument.
+     */
+    public static final int NO_INSTRUMENT = 0;
+
+    private final int instrumentId;
     private final BigDecimal price;
+    private final BigDecimal volume;
     private final Instant timestamp;
 
     /**
@@ -18,10 +29,44 @@ public class Tick {
      * @param timestamp The timestamp of the tick as an Instant.
      */
     public Tick(BigDecimal price, Instant timestamp) {
+        this(NO_INSTRUMENT, price, timestamp);
+    }
+
+    /**
+     * Constructs a new Tick object for the given instrument with the specified price and timestamp.
+     *
+     * @param instrumentId The id of the instrument, as handed out by an {@link InstrumentRegistry}.
+     * @param price        The price of the tick as a BigDecimal.
+     * @param timestamp    The timestamp of the tick as an Instant.
+     */
+    public Tick(int instrumentId, BigDecimal price, Instant timestamp) {
+        this(instrumentId, price, BigDecimal.ONE, timestamp);
+    }
+
+    /**
+     * Constructs a new Tick object for the given instrument with the specified price, traded volume and timestamp.
+     *
+     * @param instrumentId The id of the instrument, as handed out by an {@link InstrumentRegistry}.
+     * @param price        The price of the tick as a BigDecimal.
+     * @param volume       The volume traded at this price as a BigDecimal.
+     * @param timestamp    The timestamp of the tick as an Instant.
+     */
+    public Tick(int instrumentId, BigDecimal price, BigDecimal volume, Instant timestamp) {
+        this.instrumentId = instrumentId;
         this.price = price;
+        this.volume = volume;
         this.timestamp = timestamp;
     }
 
+    /**
+     * Retrieves the instrument id of the tick.
+     *
+     * @return The instrument id, or {@link #NO_INSTRUMENT}.
+     */
+    public int getInstrumentId() {
+        return instrumentId;
+    }
+
     /**
      * Retrieves the price of the tick.
      *
@@ -31,6 +76,15 @@ public class Tick {
         return price;
     }
 
+    /**
+     * Retrieves the volume of the tick.
+     *
+     * @return The volume as a BigDecimal.
+     */
+    public BigDecimal getVolume() {
+        return volume;
+    }
+
     /**
      * Retrieves the timestamp of the tick.
      *
@@ -0,0 +1,190 @@
+package com.manish.finance.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * The ticks of one stream, appended once and read by the windows of every calculator of that stream.
+ *
+ * <p>Without a shared history each calculator keeps its own copy of the same window, so memory and insertion cost
+ * grow with the number of calculators. Here the single writer, usually a {@link com.manish.finance.quants.TickManager},
+ * appends each tick once, and every calculator reads it through its own {@link View}: a pair of sequence numbers
+ * marking the calculator's window of the history. Adding another calculator then only costs its aggregate state.</p>
+ *
+ * <p>The history retains the ticks still inside at least one view and drops the others when it runs out of space,
+ * so it only ever holds the largest window. Ticks must be passed to the calculators in the order they were
+ * appended, right after appending them. A cancelled calculator clears its view at the first tick it is given, so
+ * it does not hold ticks back while cancelled. Like a calculator, the history and its views are confined to the
+ * thread delivering the ticks.</p>
+ */
+public class TickHistory {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private Tick[] ticks;
+    private int mask;
+    private long first; // sequence of the oldest retained tick
+    private long next;  // sequence of the next appended tick
+    private final List<View> views = new ArrayList<>();
+
+    public TickHistory() {
+        this.ticks = new Tick[INITIAL_CAPACITY];
+        this.mask = INITIAL_CAPACITY - 1;
+    }
+
+    /**
+     * Appends a tick, dropping ticks which are no longer inside any view if the history is full.
+     *
+     * @param tick The tick to append.
+     * @return The sequence number of the tick.
+     */
+    public long append(Tick tick) {
+        if (next - first == ticks.length) {
+            trim();
+            if (next - first == ticks.length) {
+                grow();
+            }
+        }
+        ticks[(int) next & mask] = tick;
+        return next++;
+    }
+
+    /**
+     * Returns the tick with the given sequence number.
+     *
+     * @param sequence The sequence number, as returned by {@link #append(Tick)}.
+     * @return The tick.
+     */
+    public Tick get(long sequence) {
+        if (sequence < first || sequence >= next) {
+            throw new IndexOutOfBoundsException("Tick " + sequence + " is not retained, history holds " + first + " to " + next);
+        }
+        return ticks[(int) sequence & mask];
+    }
+
+    /**
+     * Returns the sequence number the next appended tick will get.
+     *
+     * @return The number of ticks appended so far.
+     */
+    public long nextSequence() {
+        return next;
+    }
+
+    /**
+     * Returns the number of ticks currently retained.
+     *
+     * @return The retained ticks, at least the size of the largest view.
+     */
+    public int retained() {
+        return (int) (next - first);
+    }
+
+    /**
+     * Creates a new empty window over this history for a calculator.
+     *
+     * @return The view.
+     */
+    public View newView() {
+        View view = new View();
+        views.add(view);
+        return view;
+    }
+
+    private void trim() {
+        long oldest = next;
+        for (View view : views) {
+            if (view.anchored) {
+                oldest = Math.min(oldest, view.start);
+            }
+        }
+        for (long sequence = first; sequence < oldest; sequence++) {
+            ticks[(int) sequence & mask] = null; // let the Tick be collected
+        }
+        first = oldest;
+    }
+
+    private void grow() {
+        Tick[] newTicks = new Tick[ticks.length * 2];
+        int newMask = newTicks.length - 1;
+        for (long sequence = first; sequence < next; sequence++) {
+            newTicks[(int) sequence & newMask] = ticks[(int) sequence & mask];
+        }
+        ticks = newTicks;
+        mask = newMask;
+    }
+
+    /**
+     * A calculator's window of the history, the ticks from sequence start up to, excluding, end.
+     *
+     * <p>{@link #addLast(Tick)} does not store anything, it only moves the end of the window over the next tick of
+     * the history. A cleared view is not anchored anywhere, so it does not keep the history from dropping ticks, and
+     * is anchored again at the next tick it is given. A view given a later tick than the next one, because its
+     * calculator skipped ticks, cannot hold the gap and is anchored again at that tick as well, see
+     * {@link #follows(Tick)}.</p>
+     */
+    public final class View implements TickWindow {
+        private long start;
+        private long end;
+        private boolean anchored;
+
+        private View() {
+        }
+
+        @Override
+        public void addLast(Tick tick) {
+            if (anchored && follows(tick)) {
+                end++;
+                return;
+            }
+            // anchor at the latest appended tick, which is the one being calculated
+            if (next == first || ticks[(int) (next - 1) & mask] != tick) {
+                throw new IllegalStateException("Tick was not appended to the TickHistory");
+            }
+            start = next - 1;
+            end = next;
+            anchored = true;
+        }
+
+        @Override
+        public boolean follows(Tick tick) {
+            return !anchored || (end < next && ticks[(int) end & mask] == tick);
+        }
+
+        @Override
+        public Tick removeFirst() {
+            Tick tick = getFirst();
+            start++;
+            return tick;
+        }
+
+        @Override
+        public Tick getFirst() {
+            if (size() == 0) {
+                throw new NoSuchElementException();
+            }
+            return ticks[(int) start & mask];
+        }
+
+        @Override
+        public Tick get(int i) {
+            if (i < 0 || i >= size()) {
+                throw new IndexOutOfBoundsException("Position " + i + " outside window of size " + size());
+            }
+            return ticks[(int) (start + i) & mask];
+        }
+
+        @Override
+        public int size() {
+            return (int) (end - start);
+        }
+
+        @Override
+        public void clear() {
+            start = 0;
+            end = 0;
+            anchored = false;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.manish.finance.common;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A circular buffer of Ticks used as the window of the BigDecimal calculators.
+ *
+ * <p>Unlike a LinkedList it keeps the Ticks in one preallocated array, so adding and evicting a Tick does not
+ * allocate a node per tick. Count-based windows are created with their window size as capacity and never grow;
+ * time-based windows let the buffer double its capacity when it is full.</p>
+ */
+public class TickRingBuffer implements TickWindow {
+    private Tick[] ticks;
+    private int head;
+    private int size;
+
+    /**
+     * Constructs a TickRingBuffer with the given initial capacity.
+     *
+     * @param capacity The number of Ticks to preallocate.
+     */
+    public TickRingBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.ticks = new Tick[capacity];
+    }
+
+    /**
+     * Appends a Tick at the tail of the buffer, growing the buffer if it is full.
+     *
+     * @param tick The Tick to append.
+     */
+    @Override
+    public void addLast(Tick tick) {
+        if (size == ticks.length) {
+            grow();
+        }
+        ticks[index(size)] = tick;
+        size++;
+    }
+
+    /**
+     * Inserts a Tick at the given position, 0 being the oldest Tick, shifting the newer Ticks towards the tail.
+     * Costs O(size - position), so it suits inserting close to the tail.
+     *
+     * @param position The position of the inserted Tick, between 0 and size.
+     * @param tick     The Tick to insert.
+     */
+    public void add(int position, Tick tick) {
+        if (position < 0 || position > size) {
+            throw new IndexOutOfBoundsException("Position " + position + " outside buffer of size " + size);
+        }
+        if (size == ticks.length) {
+            grow();
+        }
+        for (int i = size; i > position; i--) {
+            ticks[index(i)] = ticks[index(i - 1)];
+        }
+        ticks[index(position)] = tick;
+        size++;
+    }
+
+    /**
+     * Removes and returns the oldest Tick.
+     *
+     * @return The removed Tick.
+     */
+    @Override
+    public Tick removeFirst() {
+        Tick tick = getFirst();
+        ticks[head] = null; // let the Tick be collected
+        head = index(1);
+        size--;
+        return tick;
+    }
+
+    /**
+     * Returns the oldest Tick without removing it.
+     *
+     * @return The oldest Tick.
+     */
+    @Override
+    public Tick getFirst() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return ticks[head];
+    }
+
+    /**
+     * Removes and returns the newest Tick, for using the buffer as a deque.
+     *
+     * @return The removed Tick.
+     */
+    public Tick removeLast() {
+        Tick tick = getLast();
+        ticks[index(size - 1)] = null;
+        size--;
+        return tick;
+    }
+
+    /**
+     * Returns the newest Tick without removing it.
+     *
+     * @return The newest Tick.
+     */
+    public Tick getLast() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return ticks[index(size - 1)];
+    }
+
+    /**
+     * Returns the Tick at the given position, 0 being the oldest Tick.
+     *
+     * @param i The position in the buffer.
+     * @return The Tick at that position.
+     */
+    @Override
+    public Tick get(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Position " + i + " outside buffer of size " + size);
+        }
+        return ticks[index(i)];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int capacity() {
+        return ticks.length;
+    }
+
+    /**
+     * Removes all Ticks. The backing array is kept for reuse.
+     */
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            ticks[index(i)] = null;
+        }
+        head = 0;
+        size = 0;
+    }
+
+    private int index(int offset) {
+        int i = head + offset;
+        return i >= ticks.length ? i - ticks.length : i;
+    }
+
+    private void grow() {
+        int capacity = ticks.length;
+        Tick[] newTicks = new Tick[capacity * 2];
+        int firstPart = capacity - head;
+        System.arraycopy(ticks, head, newTicks, 0, firstPart);
+        System.arraycopy(ticks, 0, newTicks, firstPart, head);
+        ticks = newTicks;
+        head = 0;
+    }
+}
@@ -0,0 +1,62 @@
+package com.manish.finance.common;
+
+/**
+ * The window of Ticks a calculator maintains, oldest Tick first.
+ *
+ * <p>A calculator either owns its window, a {@link TickRingBuffer}, or reads a window of a {@link TickHistory}
+ * shared with the other calculators of the same stream.</p>
+ */
+public interface TickWindow {
+
+    /**
+     * Appends a Tick at the tail of the window.
+     *
+     * @param tick The Tick to append.
+     */
+    void addLast(Tick tick);
+
+    /**
+     * Returns whether the Tick directly follows the Ticks of this window. A window owned by its calculator accepts
+     * any Tick, a window over a {@link TickHistory} only the Tick appended after its newest one: it cannot hold
+     * gaps, so a calculator which skipped Ticks of the history has to restart its window.
+     *
+     * @param tick The Tick about to be appended.
+     * @return false if appending the Tick restarts the window at it.
+     */
+    default boolean follows(Tick tick) {
+        return true;
+    }
+
+    /**
+     * Removes and returns the oldest Tick.
+     *
+     * @return The removed Tick.
+     */
+    Tick removeFirst();
+
+    /**
+     * Returns the oldest Tick without removing it.
+     *
+     * @return The oldest Tick.
+     */
+    Tick getFirst();
+
+    /**
+     * Returns the Tick at the given position, 0 being the oldest Tick.
+     *
+     * @param i The position in the window.
+     * @return The Tick at that position.
+     */
+    Tick get(int i);
+
+    int size();
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Removes all Ticks.
+     */
+    void clear();
+}
@@ -0,0 +1,61 @@
+package com.manish.finance.common;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Creates virtual threads on runtimes which support them (Java 21 and later), and daemon platform threads otherwise.
+ *
+ * <p>The project is compiled for Java 17, so the virtual thread builder is looked up reflectively, once. Code using
+ * this factory runs unchanged on both runtimes and gets cheap, blocking-friendly threads wherever it can.</p>
+ */
+public final class VirtualThreads {
+    private static final Method OF_VIRTUAL = lookup("java.lang.Thread", "ofVirtual");
+    private static final Method NAME = lookup("java.lang.Thread$Builder", "name", String.class, long.class);
+    private static final Method FACTORY = lookup("java.lang.Thread$Builder", "factory");
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Returns whether the running JVM supports virtual threads.
+     *
+     * @return true on Java 21 and later.
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null && NAME != null && FACTORY != null;
+    }
+
+    /**
+     * Returns a factory of threads named {@code <prefix>-<n>}, virtual threads if supported and daemon platform
+     * threads otherwise.
+     *
+     * @param prefix The prefix of the thread names.
+     * @return The thread factory.
+     */
+    public static ThreadFactory newFactory(String prefix) {
+        if (isSupported()) {
+            try {
+                Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), prefix + "-", 0L);
+                return (ThreadFactory) FACTORY.invoke(builder);
+            } catch (ReflectiveOperationException e) {
+                // fall back to platform threads
+            }
+        }
+        AtomicLong counter = new AtomicLong();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static Method lookup(String className, String name, Class<?>... parameterTypes) {
+        try {
+            return Class.forName(className).getMethod(name, parameterTypes);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -14,4 +14,30 @@ public interface AverageListener {
      * @param avg The calculated average value.
      */
     void onAverage(String type, BigDecimal avg);
-}
\ No newline at end of file
+
+    /**
+     * Called when an average calculation is completed for a specific instrument. Listeners which care about the
+     * instrument should override this method, by default it is forwarded to {@link #onAverage(String, BigDecimal)}.
+     *
+     * @param instrumentId The id of the instrument the average was calculated for.
+     * @param type         The type or category of the average calculation.
+     * @param avg          The calculated average value.
+     */
+    default void onAverage(int instrumentId, String type, BigDecimal avg) {
+        onAverage(type, avg);
+    }
+
+    /**
+     * Called when averages for a batch of ticks have been calculated, see {@link TickListener#onTicks}. By default
+     * every average is forwarded to {@link #onAverage(String, BigDecimal)}, listeners override this method to
+     * handle the whole batch in one call.
+     *
+     * @param type The type or category of the average calculation.
+     * @param avgs The calculated averages, one per tick and in tick order.
+     */
+    default void onAverages(String type, BigDecimal[] avgs) {
+        for (BigDecimal avg : avgs) {
+            onAverage(type, avg);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.manish.finance.intf;
+
+/**
+ * Listener interface for receiving the averages of a whole batch of ticks at once, as calculated by the primitive
+ * calculators. Register it with a {@link com.manish.finance.quants.BatchTickManager}.
+ */
+public interface BatchAverageListener {
+    /**
+     * Called when the averages of a batch have been calculated. The array is reused for the next batch, listeners
+     * must copy the values they want to keep.
+     *
+     * @param type     The type or category of the average calculation.
+     * @param averages The calculated averages, one per tick and in tick order.
+     * @param length   The number of valid entries in averages.
+     */
+    void onAverages(String type, double[] averages, int length);
+}
@@ -30,4 +30,12 @@ public interface Calculator {
      * Resumes the calculation process after it has been cancelled.
      */
     void resume();
+
+    /**
+     * Sets the sink receiving diagnostics of this calculator. Calculators without diagnostics ignore it.
+     *
+     * @param traceSink The sink to use, {@link TraceSink#NONE} to disable tracing.
+     */
+    default void setTraceSink(TraceSink traceSink) {
+    }
 }
@@ -0,0 +1,26 @@
+package com.manish.finance.intf;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Implemented by time-windowed calculators whose ticks can age out of the window by the wall clock alone, so that
+ * a manager can evict them and republish the average during quiet periods instead of waiting for the next tick.
+ * Like {@link Calculator#calculate}, both methods must be called from the thread delivering the ticks.
+ */
+public interface Expiring {
+    /**
+     * Returns the time at which the oldest tick of the window leaves it.
+     *
+     * @return The next expiry, or null if the window is empty.
+     */
+    Instant nextExpiry();
+
+    /**
+     * Evicts the ticks which left the window by the given time.
+     *
+     * @param now The current wall clock time.
+     * @return The new average, zero if the window is now empty, or null if no tick was evicted.
+     */
+    BigDecimal expire(Instant now);
+}
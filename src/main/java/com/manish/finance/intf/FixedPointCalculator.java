@@ -0,0 +1,65 @@
+package com.manish.finance.intf;
+
+/**
+ * Fixed-point counterpart of {@link Calculator}. Prices are longs holding the price multiplied by
+ * 10^scale (see {@link com.manish.finance.common.FixedPoint}), so running sums stay exact without
+ * using BigDecimal. Results are returned at the same scale.
+ */
+public interface FixedPointCalculator {
+    /**
+     * Calculates a result based on the provided scaled price and timestamp.
+     *
+     * @param scaledPrice    The price of the tick multiplied by 10^{@link #getScale()}.
+     * @param timestampNanos The timestamp of the tick in nanoseconds since the epoch.
+     * @return The calculated result at the calculator's scale, or 0 when no result can be calculated.
+     */
+    long calculate(long scaledPrice, long timestampNanos);
+
+    /**
+     * Calculates the results for a batch of ticks given as columnar arrays. The result for the i-th tick is the
+     * same {@link #calculate(long, long)} would return when called for the ticks one by one, only reset and
+     * cancel requests are applied at batch boundaries. This default implementation simply loops, calculators
+     * override it with a tighter single pass over the arrays.
+     *
+     * @param scaledPrices The prices of the ticks multiplied by 10^{@link #getScale()}.
+     * @param timestamps   The timestamps of the ticks in nanoseconds since the epoch.
+     * @param length       The number of ticks to process from the start of the arrays.
+     * @param results      Receives the result for every tick at the calculator's scale, must hold at least length
+     *                     entries.
+     */
+    default void calculate(long[] scaledPrices, long[] timestamps, int length, long[] results) {
+        for (int i = 0; i < length; i++) {
+            results[i] = calculate(scaledPrices[i], timestamps[i]);
+        }
+    }
+
+    /**
+     * Returns the number of decimal digits represented by the scaled prices of this calculator.
+     *
+     * @return The fixed-point scale.
+     */
+    int getScale();
+
+    /**
+     * Resets the calculator to its initial state , primarily it resets the 'moving' sum to calculations start fresh.
+     */
+    void reset();
+
+    /**
+     * Cancels the calculation process and return zero value till it's resumed.
+     */
+    void cancel();
+
+    /**
+     * Resumes the calculation process after it has been cancelled.
+     */
+    void resume();
+
+    /**
+     * Sets the sink receiving diagnostics of this calculator. Calculators without diagnostics ignore it.
+     *
+     * @param traceSink The sink to use, {@link TraceSink#NONE} to disable tracing.
+     */
+    default void setTraceSink(TraceSink traceSink) {
+    }
+}
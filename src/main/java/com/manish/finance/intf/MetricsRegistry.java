@@ -0,0 +1,40 @@
+package com.manish.finance.intf;
+
+import com.manish.finance.common.LatencyHistogram;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Publishes the metrics of the tick processing to a monitoring system, see
+ * {@link com.manish.finance.common.JmxMetricsRegistry} for the default implementation.
+ *
+ * <p>The instrumented code owns its metrics and records into them without going through the registry, which is
+ * only called once per metric when it is registered. A registry therefore adds no cost to the hot path, it only
+ * decides how and when the metrics are read.</p>
+ */
+public interface MetricsRegistry {
+
+    /**
+     * Registers a monotonically increasing count, e.g. the number of processed Ticks.
+     *
+     * @param name  The name of the metric, unique within the registry.
+     * @param count Reads the current count, called from the monitoring thread.
+     */
+    void registerCounter(String name, LongSupplier count);
+
+    /**
+     * Registers a value which can go up and down, e.g. the number of Ticks in a window.
+     *
+     * @param name  The name of the metric, unique within the registry.
+     * @param value Reads the current value, called from the monitoring thread.
+     */
+    void registerGauge(String name, LongSupplier value);
+
+    /**
+     * Registers a histogram of durations, e.g. the time of every calculation.
+     *
+     * @param name      The name of the metric, unique within the registry.
+     * @param histogram The histogram the instrumented code records into.
+     */
+    void registerHistogram(String name, LatencyHistogram histogram);
+}
@@ -0,0 +1,57 @@
+package com.manish.finance.intf;
+
+/**
+ * Primitive counterpart of {@link Calculator} for callers that do not need arbitrary precision.
+ * Prices are plain doubles and timestamps are epoch nanoseconds, so implementations can run
+ * without allocating anything per tick.
+ */
+public interface PrimitiveCalculator {
+    /**
+     * Calculates a result based on the provided price and timestamp.
+     *
+     * @param price          The price of the tick.
+     * @param timestampNanos The timestamp of the tick in nanoseconds since the epoch.
+     * @return The calculated result, or 0 when no result can be calculated.
+     */
+    double calculate(double price, long timestampNanos);
+
+    /**
+     * Calculates the results for a batch of ticks given as columnar arrays. The result for the i-th tick is the
+     * same {@link #calculate(double, long)} would return when called for the ticks one by one, only reset and
+     * cancel requests are applied at batch boundaries. This default implementation simply loops, calculators
+     * override it with a tighter single pass over the arrays.
+     *
+     * @param prices     The prices of the ticks.
+     * @param timestamps The timestamps of the ticks in nanoseconds since the epoch.
+     * @param length     The number of ticks to process from the start of the arrays.
+     * @param results    Receives the result for every tick, must hold at least length entries.
+     */
+    default void calculate(double[] prices, long[] timestamps, int length, double[] results) {
+        for (int i = 0; i < length; i++) {
+            results[i] = calculate(prices[i], timestamps[i]);
+        }
+    }
+
+    /**
+     * Resets the calculator to its initial state , primarily it resets the 'moving' sum to calculations start fresh.
+     */
+    void reset();
+
+    /**
+     * Cancels the calculation process and return zero value till it's resumed.
+     */
+    void cancel();
+
+    /**
+     * Resumes the calculation process after it has been cancelled.
+     */
+    void resume();
+
+    /**
+     * Sets the sink receiving diagnostics of this calculator. Calculators without diagnostics ignore it.
+     *
+     * @param traceSink The sink to use, {@link TraceSink#NONE} to disable tracing.
+     */
+    default void setTraceSink(TraceSink traceSink) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.manish.finance.intf;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Implemented by calculators whose state can be saved to and restored from a compact binary snapshot, so that a
+ * restarted process does not need to replay a full window of ticks before its averages are meaningful again.
+ */
+public interface Snapshottable {
+    /**
+     * Writes the complete state of the calculator: its window contents, running aggregates and flags.
+     *
+     * @param out The output to write to.
+     * @throws IOException if the output cannot be written.
+     */
+    void writeSnapshot(DataOutput out) throws IOException;
+
+    /**
+     * Replaces the state of the calculator with a snapshot written by {@link #writeSnapshot(DataOutput)}. The
+     * snapshot must come from a calculator with the same configuration, e.g. the same window size. If reading
+     * fails the calculator keeps its previous state.
+     *
+     * @param in The input to read from.
+     * @throws IOException if the input cannot be read or does not match this calculator.
+     */
+    void readSnapshot(DataInput in) throws IOException;
+}
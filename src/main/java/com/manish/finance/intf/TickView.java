@@ -0,0 +1,70 @@
+package com.manish.finance.intf;
+
+import com.manish.finance.common.FixedPoint;
+import com.manish.finance.common.Tick;
+
+/**
+ * A read-only view of one tick, exposing its fields as primitives.
+ *
+ * <p>Unlike {@link Tick}, a view is meant to be reused: a feed decoder points the same view at every incoming
+ * event, so decoding allocates nothing. The fields are therefore only valid during the call the view is passed
+ * to. Consumers copy the primitive values they need, e.g. into the ring buffers of the primitive and fixed-point
+ * calculators, and must never keep a reference to the view. Use {@link #toTick()} where a Tick has to be
+ * retained, such as in the windows of the BigDecimal calculators.</p>
+ */
+public interface TickView {
+
+    /**
+     * Returns the instrument id of the tick.
+     *
+     * @return The instrument id, or {@link Tick#NO_INSTRUMENT}.
+     */
+    int instrumentId();
+
+    /**
+     * Returns the price multiplied by 10^{@link #scale()}.
+     *
+     * @return The fixed-point price.
+     */
+    long scaledPrice();
+
+    /**
+     * Returns the traded volume multiplied by 10^{@link #scale()}.
+     *
+     * @return The fixed-point volume.
+     */
+    long scaledVolume();
+
+    /**
+     * Returns the number of decimal digits of {@link #scaledPrice()} and {@link #scaledVolume()}.
+     *
+     * @return The fixed-point scale.
+     */
+    int scale();
+
+    /**
+     * Returns the timestamp of the tick.
+     *
+     * @return The timestamp in nanoseconds since the epoch.
+     */
+    long timestampNanos();
+
+    /**
+     * Returns the price as a double, for the primitive calculators.
+     *
+     * @return The price.
+     */
+    default double price() {
+        return FixedPoint.toDouble(scaledPrice(), scale());
+    }
+
+    /**
+     * Copies the current fields into a new Tick, which may be retained.
+     *
+     * @return The tick.
+     */
+    default Tick toTick() {
+        return new Tick(instrumentId(), FixedPoint.toBigDecimal(scaledPrice(), scale()),
+                FixedPoint.toBigDecimal(scaledVolume(), scale()), FixedPoint.toInstant(timestampNanos()));
+    }
+}
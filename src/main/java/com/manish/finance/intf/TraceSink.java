@@ -0,0 +1,57 @@
+package com.manish.finance.intf;
+
+import java.math.BigDecimal;
+
+/**
+ * Optional diagnostics hook for calculators. A calculator only builds and emits a trace event after checking
+ * {@link #isEnabled(Level)}, so with the default {@link #NONE} sink tracing costs a single, inlinable check and
+ * no string concatenation or I/O on the hot path.
+ */
+public interface TraceSink {
+
+    /**
+     * Verbosity of a trace event, from the most to the least frequent.
+     */
+    enum Level {
+        /** Emitted for every tick, e.g. the updated EMA. */
+        TRACE,
+        /** Emitted when ticks are evicted from a window. */
+        DEBUG,
+        /** Emitted on state changes such as a reset. */
+        INFO
+    }
+
+    /**
+     * A sink which is never enabled. Used by calculators unless another sink is set.
+     */
+    TraceSink NONE = new TraceSink() {
+        @Override
+        public boolean isEnabled(Level level) {
+            return false;
+        }
+
+        @Override
+        public void trace(Level level, String source, String event, BigDecimal first, BigDecimal second) {
+        }
+    };
+
+    /**
+     * Checks whether events of the given level are wanted. Callers must check this before calling
+     * {@link #trace(Level, String, String, BigDecimal, BigDecimal)}.
+     *
+     * @param level The level of the event about to be emitted.
+     * @return true if the event should be emitted.
+     */
+    boolean isEnabled(Level level);
+
+    /**
+     * Emits a trace event with up to two values. Values are passed as is, formatting is left to the sink.
+     *
+     * @param level  The level of the event.
+     * @param source The emitting calculator, e.g. its simple class name.
+     * @param event  A short event name, e.g. "evict".
+     * @param first  The first value of the event, may be null.
+     * @param second The second value of the event, may be null.
+     */
+    void trace(Level level, String source, String event, BigDecimal first, BigDecimal second);
+}
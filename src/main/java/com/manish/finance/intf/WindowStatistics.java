@@ -0,0 +1,22 @@
+package com.manish.finance.intf;
+
+/**
+ * Exposes the state of a calculator's window for monitoring. The values are written by the calculating thread and
+ * may be read from any thread, where they can be slightly stale.
+ */
+public interface WindowStatistics {
+
+    /**
+     * Returns the number of Ticks currently in the window.
+     *
+     * @return The window occupancy.
+     */
+    int getWindowOccupancy();
+
+    /**
+     * Returns the number of Ticks evicted from the window since the calculator was created.
+     *
+     * @return The eviction count.
+     */
+    long getEvictionCount();
+}
@@ -0,0 +1,301 @@
+package com.manish.finance.listners;
+
+import com.manish.finance.common.Tick;
+import com.manish.finance.intf.AverageListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Decorates an AverageListener so it is called on its own thread instead of inside the tick loop.
+ *
+ * <p>Averages are put into a bounded queue owned by this listener and delivered to the wrapped listener by a
+ * dedicated consumer thread, so a slow consumer only delays itself. What happens when the queue is full is set
+ * by an {@link OverflowPolicy}. Lag and drop counters are exposed for monitoring.</p>
+ *
+ * <pre>
+ * tickManager.addListener("EMA", new AsyncAverageListener(slowListener, 1024, OverflowPolicy.CONFLATE));
+ * </pre>
+ */
+public class AsyncAverageListener implements AverageListener, AutoCloseable {
+
+    /**
+     * What to do with a new average when the queue is full.
+     */
+    public enum OverflowPolicy {
+        /** Block the tick thread until the consumer frees a slot. Nothing is lost. */
+        BLOCK,
+        /** Discard the oldest queued average to make room. */
+        DROP_OLDEST,
+        /**
+         * Keep only the latest pending average per calculator type and instrument. A new average replaces the
+         * pending one of the same type in place; a new type arriving at a full queue discards the oldest one.
+         */
+        CONFLATE
+    }
+
+    /**
+     * One queued average, with the time it was enqueued to measure lag.
+     */
+    private record Update(int instrumentId, boolean instrumentAware, String type, BigDecimal avg, long enqueuedNanos) {
+    }
+
+    private final AverageListener delegate;
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final ArrayDeque<Update> queue;
+    private final LinkedHashMap<AverageKey, Update> conflated;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Thread consumer;
+    private boolean running = true;
+
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong conflatedCount = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile long lastLagNanos;
+    private volatile long maxLagNanos;
+
+    /**
+     * Constructs an AsyncAverageListener delivering on a new daemon platform thread.
+     *
+     * @param delegate The listener to call asynchronously.
+     * @param capacity The maximum number of queued averages.
+     * @param policy   What to do when the queue is full.
+     */
+    public AsyncAverageListener(AverageListener delegate, int capacity, OverflowPolicy policy) {
+        this(delegate, capacity, policy, runnable -> {
+            Thread thread = new Thread(runnable, "async-listener");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Constructs an AsyncAverageListener delivering on a thread created by the given factory, e.g. a virtual
+     * thread factory on runtimes which support them.
+     *
+     * @param delegate      The listener to call asynchronously.
+     * @param capacity      The maximum number of queued averages.
+     * @param policy        What to do when the queue is full.
+     * @param threadFactory Creates the consumer thread.
+     */
+    public AsyncAverageListener(AverageListener delegate, int capacity, OverflowPolicy policy, ThreadFactory threadFactory) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.delegate = delegate;
+        this.capacity = capacity;
+        this.policy = policy;
+        this.queue = policy == OverflowPolicy.CONFLATE ? null : new ArrayDeque<>(capacity);
+        this.conflated = policy == OverflowPolicy.CONFLATE ? new LinkedHashMap<>() : null;
+        this.consumer = threadFactory.newThread(this::consume);
+        this.consumer.start();
+    }
+
+    @Override
+    public void onAverage(String type, BigDecimal avg) {
+        enqueue(new Update(Tick.NO_INSTRUMENT, false, type, avg, System.nanoTime()));
+    }
+
+    @Override
+    public void onAverage(int instrumentId, String type, BigDecimal avg) {
+        enqueue(new Update(instrumentId, true, type, avg, System.nanoTime()));
+    }
+
+    /**
+     * Returns the number of averages waiting to be delivered.
+     *
+     * @return The current queue size.
+     */
+    public int getQueueSize() {
+        lock.lock();
+        try {
+            return pending();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of averages handed to the wrapped listener, including the ones it failed on.
+     *
+     * @return The number of delivered averages.
+     */
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    /**
+     * Returns the number of averages discarded because the queue was full.
+     *
+     * @return The number of dropped averages.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Returns the number of averages replaced by a newer average of the same type before being delivered.
+     *
+     * @return The number of conflated averages.
+     */
+    public long getConflatedCount() {
+        return conflatedCount.get();
+    }
+
+    /**
+     * Returns the number of averages for which the wrapped listener threw an exception.
+     *
+     * @return The number of failed deliveries.
+     */
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * Returns the time the last delivered average spent between being enqueued and being delivered.
+     *
+     * @return The lag in nanoseconds.
+     */
+    public long getLagNanos() {
+        return lastLagNanos;
+    }
+
+    /**
+     * Returns the largest lag observed so far.
+     *
+     * @return The maximum lag in nanoseconds.
+     */
+    public long getMaxLagNanos() {
+        return maxLagNanos;
+    }
+
+    /**
+     * Delivers the averages already queued and stops the consumer thread. If the calling thread is interrupted
+     * while waiting, it returns right away with its interrupt flag set and the consumer finishes on its own.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            running = false;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void enqueue(Update update) {
+        lock.lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("AsyncAverageListener is closed");
+            }
+            switch (policy) {
+                case BLOCK:
+                    while (queue.size() == capacity && running) {
+                        notFull.awaitUninterruptibly();
+                    }
+                    if (!running) {
+                        throw new IllegalStateException("AsyncAverageListener was closed while waiting");
+                    }
+                    queue.addLast(update);
+                    break;
+                case DROP_OLDEST:
+                    if (queue.size() == capacity) {
+                        queue.removeFirst();
+                        dropped.incrementAndGet();
+                    }
+                    queue.addLast(update);
+                    break;
+                case CONFLATE:
+                    AverageKey key = new AverageKey(update.instrumentId(), update.type());
+                    if (conflated.replace(key, update) != null) {
+                        conflatedCount.incrementAndGet();
+                    } else {
+                        if (conflated.size() == capacity) {
+                            Iterator<Update> oldest = conflated.values().iterator();
+                            oldest.next();
+                            oldest.remove();
+                            dropped.incrementAndGet();
+                        }
+                        conflated.put(key, update);
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown policy " + policy);
+            }
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void consume() {
+        while (true) {
+            Update update;
+            lock.lock();
+            try {
+                while (pending() == 0 && running) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                if (pending() == 0) {
+                    return; // closed and drained
+                }
+                update = take();
+                notFull.signal();
+            } finally {
+                lock.unlock();
+            }
+            deliver(update);
+        }
+    }
+
+    private int pending() {
+        return queue != null ? queue.size() : conflated.size();
+    }
+
+    private Update take() {
+        if (queue != null) {
+            return queue.removeFirst();
+        }
+        Iterator<Map.Entry<AverageKey, Update>> oldest = conflated.entrySet().iterator();
+        Update update = oldest.next().getValue();
+        oldest.remove();
+        return update;
+    }
+
+    private void deliver(Update update) {
+        try {
+            if (update.instrumentAware()) {
+                delegate.onAverage(update.instrumentId(), update.type(), update.avg());
+            } else {
+                delegate.onAverage(update.type(), update.avg());
+            }
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+        }
+        long lag = System.nanoTime() - update.enqueuedNanos();
+        lastLagNanos = lag;
+        if (lag > maxLagNanos) {
+            maxLagNanos = lag; // single writer, the consumer thread
+        }
+        delivered.incrementAndGet();
+    }
+}
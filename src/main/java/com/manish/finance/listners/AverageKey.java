@@ -0,0 +1,8 @@
+package com.manish.finance.listners;
+
+/**
+ * Identifies the stream of averages of one calculator type for one instrument, used by the listener decorators
+ * which keep only the latest average per stream.
+ */
+record AverageKey(int instrumentId, String type) {
+}
@@ -0,0 +1,135 @@
+package com.manish.finance.listners;
+
+import com.manish.finance.common.Tick;
+import com.manish.finance.intf.AverageListener;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decorates an AverageListener so it only receives the latest average per calculator type and instrument, at a
+ * limited rate instead of once per tick.
+ *
+ * <p>Incoming averages only overwrite the latest value of their stream. The latest values are published to the
+ * wrapped listener either on a fixed timer, or on the calling thread after every N incoming averages. Streams
+ * without a new average since the last publication are not published again. An exception thrown by the wrapped
+ * listener is counted, see {@link #getFailedCount()}, and does not stop the publication of the other averages nor
+ * the timer.</p>
+ *
+ * <pre>
+ * // UI refresh at 4 updates per second
+ * tickManager.addListener("EMA", new ConflatingAverageListener(uiListener, scheduler, Duration.ofMillis(250)));
+ * </pre>
+ */
+public class ConflatingAverageListener implements AverageListener, AutoCloseable {
+
+    private record Latest(boolean instrumentAware, BigDecimal avg) {
+    }
+
+    private final AverageListener delegate;
+    private final Map<AverageKey, Latest> latest = new ConcurrentHashMap<>();
+    private final int publishEvery;
+    private final AtomicInteger received = new AtomicInteger();
+    private final AtomicLong failed = new AtomicLong();
+    private final ScheduledFuture<?> timer;
+
+    /**
+     * Constructs a ConflatingAverageListener publishing on a fixed timer.
+     *
+     * @param delegate  The listener receiving the conflated averages, called on the scheduler's thread.
+     * @param scheduler The scheduler running the publication, can be shared by many listeners.
+     * @param period    The time between two publications.
+     */
+    public ConflatingAverageListener(AverageListener delegate, ScheduledExecutorService scheduler, Duration period) {
+        this.delegate = delegate;
+        this.publishEvery = 0;
+        long periodNanos = period.toNanos();
+        this.timer = scheduler.scheduleAtFixedRate(this::publish, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Constructs a ConflatingAverageListener publishing after every N incoming averages.
+     *
+     * @param delegate     The listener receiving the conflated averages, called on the thread delivering the Nth
+     *                     average.
+     * @param publishEvery The number of incoming averages between two publications.
+     */
+    public ConflatingAverageListener(AverageListener delegate, int publishEvery) {
+        if (publishEvery < 1) {
+            throw new IllegalArgumentException("publishEvery must be positive: " + publishEvery);
+        }
+        this.delegate = delegate;
+        this.publishEvery = publishEvery;
+        this.timer = null;
+    }
+
+    @Override
+    public void onAverage(String type, BigDecimal avg) {
+        update(new AverageKey(Tick.NO_INSTRUMENT, type), new Latest(false, avg));
+    }
+
+    @Override
+    public void onAverage(int instrumentId, String type, BigDecimal avg) {
+        update(new AverageKey(instrumentId, type), new Latest(true, avg));
+    }
+
+    /**
+     * Returns the number of averages the wrapped listener threw an exception for.
+     *
+     * @return The number of failed publications.
+     */
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * Publishes the latest averages received since the previous publication to the wrapped listener.
+     */
+    public synchronized void publish() {
+        Iterator<Map.Entry<AverageKey, Latest>> entries = latest.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<AverageKey, Latest> entry = entries.next();
+            AverageKey key = entry.getKey();
+            Latest value = entry.getValue();
+            // only remove the value we publish, a newer one stays for the next publication
+            if (latest.remove(key, value)) {
+                try {
+                    if (value.instrumentAware()) {
+                        delegate.onAverage(key.instrumentId(), key.type(), value.avg());
+                    } else {
+                        delegate.onAverage(key.type(), value.avg());
+                    }
+                } catch (RuntimeException e) {
+                    // a failure escaping to scheduleAtFixedRate would silently cancel all later publications
+                    failed.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops the timer, if any, and publishes the averages still pending.
+     */
+    @Override
+    public void close() {
+        if (timer != null) {
+            timer.cancel(false);
+        }
+        publish();
+    }
+
+    private void update(AverageKey key, Latest value) {
+        latest.put(key, value);
+        if (publishEvery > 0 && received.incrementAndGet() % publishEvery == 0) {
+            publish();
+        }
+    }
+}
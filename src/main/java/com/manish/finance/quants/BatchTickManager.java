@@ -0,0 +1,178 @@
+package com.manish.finance.quants;
+
+import com.manish.finance.common.FixedPoint;
+import com.manish.finance.common.Tick;
+import com.manish.finance.intf.BatchAverageListener;
+import com.manish.finance.intf.PrimitiveCalculator;
+import com.manish.finance.intf.TickListener;
+import com.manish.finance.intf.TickView;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * This class manages batch calculation of averages with the primitive calculators.
+ *
+ * <p>Ticks are handed over as columnar arrays of prices and timestamps. Every calculator processes the whole batch
+ * in a single pass into its own output array, and each registered {@link BatchAverageListener} is called once per
+ * calculator and batch. Output arrays are reused, so steady state batches do not allocate. As in
+ * {@link TickManager}, the calculators run in the order of their type names and the listeners are kept in a
+ * copy-on-write plan of plain arrays.</p>
+ *
+ * <p>Feed decoders can also hand over single ticks as a reused {@link TickView}, which is copied into the scratch
+ * columns, so the whole path from the raw feed buffer to the averages is free of allocation.</p>
+ */
+public class BatchTickManager implements TickListener {
+
+    private final String[] types;
+    private final PrimitiveCalculator[] calculators;
+    private double[][] outputs;
+
+    /**
+     * The listeners by calculator slot. The arrays are never modified: registering a listener builds a new plan
+     * and swaps it in, so the tick thread walks plain arrays without locking or iterators.
+     */
+    private volatile BatchAverageListener[][] dispatchPlan;
+
+    // Scratch columns used to convert Tick objects into a batch
+    private double[] prices = new double[0];
+    private long[] timestamps = new long[0];
+
+    /**
+     * Constructs a new BatchTickManager instance.
+     *
+     * @param calculators A map of calculators, where the key is the calculator type and the value is the calculator
+     *                    instance. Calculators are run in the order of the type names.
+     */
+    public BatchTickManager(Map<String, PrimitiveCalculator> calculators) {
+        this.types = calculators.keySet().toArray(new String[0]);
+        Arrays.sort(types);
+        this.calculators = new PrimitiveCalculator[types.length];
+        this.outputs = new double[types.length][0];
+        BatchAverageListener[][] plan = new BatchAverageListener[types.length][];
+        for (int i = 0; i < types.length; i++) {
+            this.calculators[i] = calculators.get(types[i]);
+            plan[i] = new BatchAverageListener[0];
+        }
+        this.dispatchPlan = plan;
+    }
+
+    /**
+     * Adds a BatchAverageListener for a specific calculator type. Safe to call from any thread while batches are
+     * flowing, the listener receives the averages from the next batch on.
+     *
+     * @param calculatorType The type of calculator to register the listener for.
+     * @param listener       The BatchAverageListener to be added.
+     */
+    public synchronized void addListener(String calculatorType, BatchAverageListener listener) {
+        int slot = Arrays.binarySearch(types, calculatorType);
+        if (slot < 0) {
+            throw new IllegalArgumentException("Unknown calculator type: " + calculatorType);
+        }
+        BatchAverageListener[][] plan = dispatchPlan.clone();
+        BatchAverageListener[] slotListeners = Arrays.copyOf(plan[slot], plan[slot].length + 1);
+        slotListeners[slotListeners.length - 1] = listener;
+        plan[slot] = slotListeners;
+        dispatchPlan = plan;
+    }
+
+    /**
+     * Handles a batch of ticks given as columnar arrays.
+     *
+     * @param prices     The prices of the ticks.
+     * @param timestamps The timestamps of the ticks in nanoseconds since the epoch.
+     * @param length     The number of ticks to process from the start of the arrays.
+     */
+    public void onTicks(double[] prices, long[] timestamps, int length) {
+        BatchAverageListener[][] plan = dispatchPlan;
+        for (int c = 0; c < calculators.length; c++) {
+            if (outputs[c].length < length) {
+                outputs[c] = new double[length];
+            }
+            double[] averages = outputs[c];
+            calculators[c].calculate(prices, timestamps, length, averages);
+            BatchAverageListener[] slotListeners = plan[c];
+            for (int l = 0; l < slotListeners.length; l++) {
+                slotListeners[l].onAverages(types[c], averages, length);
+            }
+        }
+    }
+
+    /**
+     * Handles a batch of Tick objects by converting them to columns first.
+     *
+     * @param ticks An array of Tick objects to be processed.
+     */
+    @Override
+    public void onTicks(Tick[] ticks) {
+        ensureScratch(ticks.length);
+        for (int i = 0; i < ticks.length; i++) {
+            prices[i] = ticks[i].getPrice().doubleValue();
+            timestamps[i] = FixedPoint.toEpochNanos(ticks[i].getTimestamp());
+        }
+        onTicks(prices, timestamps, ticks.length);
+    }
+
+    /**
+     * Handles a single tick given as a view, as a batch of one. Only the price and timestamp are copied, the view
+     * is not retained and can be reused for the next tick.
+     *
+     * @param tick The view of the received tick.
+     */
+    public void onTick(TickView tick) {
+        ensureScratch(1);
+        prices[0] = tick.price();
+        timestamps[0] = tick.timestampNanos();
+        onTicks(prices, timestamps, 1);
+    }
+
+    /**
+     * Handles a single Tick as a batch of one, copied into the scratch columns like a {@link TickView}.
+     *
+     * @param tick The received Tick object.
+     */
+    @Override
+    public void onTick(Tick tick) {
+        ensureScratch(1);
+        prices[0] = tick.getPrice().doubleValue();
+        timestamps[0] = FixedPoint.toEpochNanos(tick.getTimestamp());
+        onTicks(prices, timestamps, 1);
+    }
+
+    /**
+     * Cancels the calculation for all calculators.
+     */
+    @Override
+    public void onCancel() {
+        for (PrimitiveCalculator calculator : calculators) {
+            calculator.cancel();
+        }
+    }
+
+    /**
+     * Resumes the calculation for all calculators.
+     */
+    @Override
+    public void onResume() {
+        for (PrimitiveCalculator calculator : calculators) {
+            calculator.resume();
+        }
+    }
+
+    /**
+     * Resets all calculators.
+     */
+    @Override
+    public void onReset() {
+        for (PrimitiveCalculator calculator : calculators) {
+            calculator.reset();
+        }
+    }
+
+    private void ensureScratch(int length) {
+        if (prices.length < length) {
+            prices = new double[length];
+            timestamps = new long[length];
+        }
+    }
+}
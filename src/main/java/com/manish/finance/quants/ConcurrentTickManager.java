@@ -0,0 +1,321 @@
+package com.manish.finance.quants;
+
+import com.manish.finance.common.HashedWheelTimer;
+import com.manish.finance.common.MpscRingBuffer;
+import com.manish.finance.common.SingleWriterCounter;
+import com.manish.finance.common.Tick;
+import com.manish.finance.intf.AverageListener;
+import com.manish.finance.intf.MetricsRegistry;
+import com.manish.finance.intf.TickListener;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A multi-producer front end for a {@link TickManager}.
+ *
+ * <p>Feed handlers on any number of threads call {@link #onTick(Tick)} and the control signals, which only enqueue
+ * the event into a lock-free {@link MpscRingBuffer}. A single consumer thread drains the buffer into the wrapped
+ * TickManager, so the calculators keep running on one thread and producers never block each other. Ticks and
+ * control signals share the same queue, hence a cancel, resume or reset takes effect exactly between the ticks
+ * enqueued before and after it.</p>
+ *
+ * <p>When the buffer is full producers spin until the consumer frees a slot, which applies backpressure to the
+ * feed instead of buffering without bound.</p>
+ *
+ * <p>An exception thrown by a calculator or listener is counted, see {@link #getFailedEventCount()}, and the
+ * consumer carries on with the next event. Should the consumer thread die nevertheless, producers and callers
+ * waiting for it fail with an IllegalStateException instead of blocking forever.</p>
+ */
+public class ConcurrentTickManager implements TickListener, AutoCloseable {
+
+    /**
+     * Control signals travelling through the queue alongside the Ticks.
+     */
+    private enum Signal { CANCEL, RESUME, RESET }
+
+    private static final int SPINS_BEFORE_PARK = 100;
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final TickManager tickManager;
+    private final MpscRingBuffer<Object> queue;
+    private final Thread consumer;
+    private final Executor expiryExecutor = this::scheduleExpiry;
+
+    /**
+     * Expiries handed over by the timer thread. They bypass the bounded queue so the timer, which may be shared
+     * with other managers, never spins on a full queue.
+     */
+    private final Queue<Runnable> expiries = new ConcurrentLinkedQueue<>();
+    private volatile boolean running;
+    private final SingleWriterCounter failedEventCount = new SingleWriterCounter(); // written by the consumer thread
+
+    /**
+     * Constructs a ConcurrentTickManager and starts its consumer thread.
+     *
+     * @param tickManager The TickManager whose calculators will be fed by the consumer thread.
+     * @param capacity    The capacity of the ingestion queue, rounded up to a power of two.
+     */
+    public ConcurrentTickManager(TickManager tickManager, int capacity) {
+        this.tickManager = tickManager;
+        this.queue = new MpscRingBuffer<>(capacity);
+        this.running = true;
+        this.consumer = new Thread(this::consume, "tick-consumer");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    /**
+     * Adds an AverageListener to the wrapped TickManager. Safe to call while ticks are flowing, the listener
+     * receives averages from the next tick the consumer processes.
+     *
+     * @param calculatorType The type of calculator to register the listener for.
+     * @param listener       The AverageListener to be added.
+     */
+    public void addListener(String calculatorType, AverageListener listener) {
+        tickManager.addListener(calculatorType, listener);
+    }
+
+    /**
+     * Enqueues a new Tick for the consumer thread.
+     *
+     * @param tick The received Tick object.
+     */
+    @Override
+    public void onTick(Tick tick) {
+        enqueue(tick);
+    }
+
+    /**
+     * Enqueues a cancel signal, ordered after the ticks already enqueued.
+     */
+    @Override
+    public void onCancel() {
+        enqueue(Signal.CANCEL);
+    }
+
+    /**
+     * Enqueues a resume signal, ordered after the ticks already enqueued.
+     */
+    @Override
+    public void onResume() {
+        enqueue(Signal.RESUME);
+    }
+
+    /**
+     * Enqueues a reset signal, ordered after the ticks already enqueued.
+     */
+    @Override
+    public void onReset() {
+        enqueue(Signal.RESET);
+    }
+
+    /**
+     * Returns the number of events whose processing, including the listeners, threw an exception.
+     *
+     * @return The number of failed events.
+     */
+    public long getFailedEventCount() {
+        return failedEventCount.get();
+    }
+
+    /**
+     * Blocks until every event enqueued before this call has been processed by the consumer thread.
+     *
+     * @throws InterruptedException if the calling thread is interrupted while waiting.
+     */
+    public void flush() throws InterruptedException {
+        try {
+            runOnConsumer(() -> null);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Checkpoints the calculators on the consumer thread, after every event enqueued before this call.
+     *
+     * @param file The checkpoint file.
+     * @throws IOException          if the checkpoint cannot be written.
+     * @throws InterruptedException if the calling thread is interrupted while waiting.
+     * @see TickManager#checkpoint(Path)
+     */
+    public void checkpoint(Path file) throws IOException, InterruptedException {
+        runOnConsumer(() -> {
+            tickManager.checkpoint(file);
+            return null;
+        });
+    }
+
+    /**
+     * Restores the calculators on the consumer thread, after every event enqueued before this call.
+     *
+     * @param file The checkpoint file.
+     * @throws IOException          if the checkpoint cannot be read or does not match the calculators.
+     * @throws InterruptedException if the calling thread is interrupted while waiting.
+     * @see TickManager#restore(Path)
+     */
+    public void restore(Path file) throws IOException, InterruptedException {
+        runOnConsumer(() -> {
+            tickManager.restore(file);
+            return null;
+        });
+    }
+
+    /**
+     * Enables wall clock expiry of the wrapped TickManager's time windows. The timer hands every expiry to the
+     * consumer thread without blocking, and the consumer runs it between two events.
+     *
+     * @param timer The timer scheduling the expiries.
+     * @param clock The wall clock the tick timestamps are compared with.
+     * @throws InterruptedException if the calling thread is interrupted while waiting.
+     * @see TickManager#enableExpiry
+     */
+    public void enableExpiry(HashedWheelTimer timer, Clock clock) throws InterruptedException {
+        try {
+            runOnConsumer(() -> {
+                tickManager.enableExpiry(timer, clock, expiryExecutor);
+                return null;
+            });
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Enables the metrics of the wrapped TickManager on the consumer thread.
+     *
+     * @param registry The registry publishing the metrics.
+     * @param prefix   The prefix of the metric names, to tell managers apart.
+     * @throws InterruptedException if the calling thread is interrupted while waiting.
+     * @see TickManager#enableMetrics
+     */
+    public void enableMetrics(MetricsRegistry registry, String prefix) throws InterruptedException {
+        try {
+            runOnConsumer(() -> {
+                tickManager.enableMetrics(registry, prefix);
+                return null;
+            });
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Processes the events already enqueued and stops the consumer thread. Producers must stop calling this
+     * manager before closing it, events racing with close may be rejected or lost. If the calling thread is
+     * interrupted while waiting, it returns right away with its interrupt flag set and the consumer finishes on its own.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runOnConsumer(Callable<Void> task) throws IOException, InterruptedException {
+        FutureTask<Void> future = new FutureTask<>(task);
+        enqueue(future);
+        try {
+            while (true) {
+                try {
+                    future.get(PARK_NANOS, TimeUnit.NANOSECONDS);
+                    return;
+                } catch (TimeoutException e) {
+                    if (!consumer.isAlive() && !future.isDone()) {
+                        throw new IllegalStateException("Consumer thread stopped before running the task");
+                    }
+                }
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void enqueue(Object event) {
+        if (!running) {
+            throw new IllegalStateException("ConcurrentTickManager is closed");
+        }
+        while (!queue.offer(event)) {
+            // queue full, wait for the consumer to free a slot
+            if (!consumer.isAlive()) {
+                throw new IllegalStateException("Consumer thread stopped, the queue is not drained anymore");
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private void scheduleExpiry(Runnable expiry) {
+        expiries.offer(expiry);
+        LockSupport.unpark(consumer);
+    }
+
+    private void consume() {
+        int idleSpins = 0;
+        while (true) {
+            boolean expired = runExpiries();
+            Object event = queue.poll();
+            if (event != null) {
+                idleSpins = 0;
+                dispatch(event);
+            } else if (expired) {
+                idleSpins = 0;
+            } else if (!running) {
+                // drain whatever was enqueued before close() and stop
+                while ((event = queue.poll()) != null) {
+                    dispatch(event);
+                }
+                return;
+            } else if (++idleSpins < SPINS_BEFORE_PARK) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+    }
+
+    private boolean runExpiries() {
+        boolean expired = false;
+        Runnable expiry;
+        while ((expiry = expiries.poll()) != null) {
+            expired = true;
+            dispatch(expiry);
+        }
+        return expired;
+    }
+
+    private void dispatch(Object event) {
+        try {
+            if (event instanceof Tick) {
+                tickManager.onTick((Tick) event);
+            } else if (event == Signal.CANCEL) {
+                tickManager.onCancel();
+            } else if (event == Signal.RESUME) {
+                tickManager.onResume();
+            } else if (event == Signal.RESET) {
+                tickManager.onReset();
+            } else if (event instanceof Runnable) {
+                ((Runnable) event).run(); // a FutureTask keeps its own exception for the waiting caller
+            }
+        } catch (RuntimeException e) {
+            failedEventCount.increment();
+        }
+    }
+}
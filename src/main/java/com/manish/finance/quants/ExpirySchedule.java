@@ -0,0 +1,67 @@
+package com.manish.finance.quants;
+
+import com.manish.finance.common.HashedWheelTimer;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executor;
+
+/**
+ * Keeps one timeout of a shared {@link HashedWheelTimer} pending for the earliest expiry of a set of calculators.
+ *
+ * <p>The timer thread never touches a calculator: when the timeout fires, the expiry is handed to the executor
+ * of the thread owning the calculators. A timeout is only rescheduled when the earliest expiry moves before the
+ * pending one, which is rare, so ticks do not churn the timer. A timeout firing before the calculators actually
+ * expire anything costs one empty expiry and a new timeout.</p>
+ */
+final class ExpirySchedule {
+
+    private final HashedWheelTimer timer;
+    private final Clock clock;
+    private final Executor owner;
+    private final Runnable expire;
+
+    // Owner thread only
+    private HashedWheelTimer.Timeout pending;
+    private Instant pendingAt;
+
+    /**
+     * @param timer  The shared timer.
+     * @param clock  The wall clock the expiries are compared with.
+     * @param owner  Runs tasks on the thread owning the calculators.
+     * @param expire Expires the calculators and calls {@link #update(Instant)}, run on the owner thread.
+     */
+    ExpirySchedule(HashedWheelTimer timer, Clock clock, Executor owner, Runnable expire) {
+        this.timer = timer;
+        this.clock = clock;
+        this.owner = owner;
+        this.expire = expire;
+    }
+
+    Instant now() {
+        return clock.instant();
+    }
+
+    /**
+     * Makes sure a timeout is pending for the given earliest expiry. Called on the owner thread.
+     *
+     * @param earliestExpiry The earliest expiry of the calculators, null if none has ticks.
+     */
+    void update(Instant earliestExpiry) {
+        if (earliestExpiry == null || (pending != null && !earliestExpiry.isBefore(pendingAt))) {
+            return;
+        }
+        if (pending != null) {
+            pending.cancel();
+        }
+        pendingAt = earliestExpiry;
+        pending = timer.schedule(() -> owner.execute(this::fired), Duration.between(clock.instant(), earliestExpiry));
+    }
+
+    private void fired() {
+        pending = null;
+        pendingAt = null;
+        expire.run();
+    }
+}
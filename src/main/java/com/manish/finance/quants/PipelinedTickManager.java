@@ -0,0 +1,351 @@
+package com.manish.finance.quants;
+
+import com.manish.finance.common.Tick;
+import com.manish.finance.common.VirtualThreads;
+import com.manish.finance.intf.AverageListener;
+import com.manish.finance.intf.Calculator;
+import com.manish.finance.intf.TickListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * This class manages average calculations for many instruments at once, with one pipeline per instrument.
+ *
+ * <p>Where {@link ShardedTickManager} multiplexes many instruments onto a few worker threads, every instrument
+ * here gets its own pipeline: a {@link TickManager} with a fresh set of calculators, a queue of Ticks and control
+ * signals, and a thread draining the queue in order. Pipelines are created lazily the first time an instrument is
+ * seen. An instrument with a slow listener or a burst of Ticks then only delays itself, never the instruments
+ * sharing its shard.</p>
+ *
+ * <p>This only scales to many thousands of instruments with virtual threads, which park on an empty queue for a
+ * few hundred bytes instead of a platform thread's stack. The default thread factory creates virtual threads on
+ * Java 21 and later and falls back to platform threads on older runtimes, see {@link VirtualThreads}; with the
+ * fallback the number of instruments is capped at {@value #PLATFORM_THREAD_INSTRUMENT_LIMIT}, a Tick of a further
+ * instrument is rejected. Use {@link ShardedTickManager} for more instruments on such runtimes.</p>
+ *
+ * <p>Ticks and signals must be delivered from one thread at a time, as for {@link TickManager}. Listeners can
+ * subscribe to a calculator type for all instruments, or for a single instrument, and are called on the
+ * instrument's pipeline thread. Each pipeline's queue is bounded: a producer outrunning an instrument blocks until
+ * the pipeline catches up.</p>
+ */
+public class PipelinedTickManager implements TickListener, AutoCloseable {
+    private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    /**
+     * The maximum number of instruments of the default constructor when pipelines run on platform threads.
+     */
+    public static final int PLATFORM_THREAD_INSTRUMENT_LIMIT = 1_000;
+
+    private enum Signal { CANCEL, RESUME, RESET, STOP }
+
+    /**
+     * Templates to create the calculators of a new instrument.
+     * Key: String representing the calculator type (e.g., "EMA", "MovingAvrage").
+     * Value: Supplier creating a fresh Calculator instance of that type.
+     */
+    private final Map<String, Supplier<Calculator>> templates;
+
+    /**
+     * Listeners registered for a calculator type across all instruments.
+     */
+    private final Map<String, List<AverageListener>> listeners;
+
+    private final Map<Integer, Pipeline> pipelines = new ConcurrentHashMap<>();
+    private final ThreadFactory threadFactory;
+    private final int queueCapacity;
+    private final int maxInstruments;
+    private final AtomicLong failedEvents = new AtomicLong();
+
+    private volatile boolean cancelled; // applied to pipelines created later
+    private volatile boolean closed;
+
+    /**
+     * Constructs a new PipelinedTickManager running its pipelines on virtual threads where supported, and on at most
+     * {@value #PLATFORM_THREAD_INSTRUMENT_LIMIT} platform threads otherwise.
+     *
+     * @param templates A map of calculator templates, where the key is the calculator type and the value creates
+     *                  a new calculator instance for an instrument.
+     */
+    public PipelinedTickManager(Map<String, Supplier<Calculator>> templates) {
+        this(templates, VirtualThreads.newFactory("tick-pipeline"), DEFAULT_QUEUE_CAPACITY,
+                VirtualThreads.isSupported() ? Integer.MAX_VALUE : PLATFORM_THREAD_INSTRUMENT_LIMIT);
+    }
+
+    /**
+     * Constructs a new PipelinedTickManager.
+     *
+     * @param templates      A map of calculator templates, where the key is the calculator type and the value
+     *                       creates a new calculator instance for an instrument.
+     * @param threadFactory  Creates the thread of every pipeline.
+     * @param queueCapacity  The number of Ticks and signals queued per instrument before the producer blocks.
+     * @param maxInstruments The maximum number of instruments, i.e. of threads the factory is asked for.
+     */
+    public PipelinedTickManager(Map<String, Supplier<Calculator>> templates, ThreadFactory threadFactory, int queueCapacity,
+                                int maxInstruments) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be positive: " + queueCapacity);
+        }
+        if (maxInstruments < 1) {
+            throw new IllegalArgumentException("Maximum instrument count must be positive: " + maxInstruments);
+        }
+        this.templates = new LinkedHashMap<>(templates);
+        this.threadFactory = threadFactory;
+        this.queueCapacity = queueCapacity;
+        this.maxInstruments = maxInstruments;
+        this.listeners = new HashMap<>();
+        for (String key : templates.keySet()) {
+            listeners.put(key, new CopyOnWriteArrayList<>());
+        }
+    }
+
+    /**
+     * Adds an AverageListener for a specific calculator type of all instruments.
+     *
+     * @param calculatorType The type of calculator to register the listener for.
+     * @param listener       The AverageListener to be added.
+     */
+    public void addListener(String calculatorType, AverageListener listener) {
+        listenersOf(calculatorType).add(listener);
+    }
+
+    /**
+     * Adds an AverageListener for a specific calculator type of a single instrument, creating its pipeline.
+     *
+     * @param instrumentId   The instrument to register the listener for.
+     * @param calculatorType The type of calculator to register the listener for.
+     * @param listener       The AverageListener to be added.
+     */
+    public void addListener(int instrumentId, String calculatorType, AverageListener listener) {
+        listenersOf(calculatorType); // validates the type
+        pipeline(instrumentId).tickManager.addListener(calculatorType,
+                (type, avg) -> listener.onAverage(instrumentId, type, avg));
+    }
+
+    /**
+     * Handles a new Tick event by queueing it to the pipeline of the Tick's instrument.
+     *
+     * @param tick The received Tick object.
+     * @throws IllegalStateException if the Tick is of a new instrument and the maximum number of instruments is
+     *                               reached.
+     */
+    @Override
+    public void onTick(Tick tick) {
+        pipeline(tick.getInstrumentId()).enqueue(tick);
+    }
+
+    /**
+     * Cancels the calculation for all instruments.
+     */
+    @Override
+    public void onCancel() {
+        cancelled = true;
+        broadcast(Signal.CANCEL);
+    }
+
+    /**
+     * Resumes the calculation for all instruments.
+     */
+    @Override
+    public void onResume() {
+        cancelled = false;
+        broadcast(Signal.RESUME);
+    }
+
+    /**
+     * Resets the calculators of all instruments.
+     */
+    @Override
+    public void onReset() {
+        broadcast(Signal.RESET);
+    }
+
+    /**
+     * Resets the calculators of a single instrument.
+     *
+     * @param instrumentId The instrument to reset.
+     */
+    public void onReset(int instrumentId) {
+        Pipeline pipeline = pipelines.get(instrumentId);
+        if (pipeline != null) {
+            pipeline.enqueue(Signal.RESET);
+        }
+    }
+
+    /**
+     * Blocks until every Tick and signal submitted before this call has been processed by its pipeline.
+     *
+     * @throws InterruptedException if the calling thread is interrupted while waiting.
+     */
+    public void flush() throws InterruptedException {
+        List<Pipeline> snapshot = new ArrayList<>(pipelines.values());
+        CountDownLatch latch = new CountDownLatch(snapshot.size());
+        Runnable barrier = latch::countDown;
+        for (Pipeline pipeline : snapshot) {
+            pipeline.enqueue(barrier);
+        }
+        latch.await();
+    }
+
+    /**
+     * Returns the number of instruments, i.e. pipelines, created so far.
+     *
+     * @return The number of instruments seen so far.
+     */
+    public int instrumentCount() {
+        return pipelines.size();
+    }
+
+    /**
+     * Returns the number of Ticks and signals whose processing, including the listeners, threw an exception. The
+     * pipeline carries on with its next event.
+     *
+     * @return The number of failed events.
+     */
+    public long getFailedEventCount() {
+        return failedEvents.get();
+    }
+
+    /**
+     * Processes the already submitted Ticks and stops the pipelines. Ticks submitted afterwards are rejected. If the
+     * calling thread is interrupted while waiting, it returns right away with its interrupt flag set.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        List<Pipeline> snapshot = new ArrayList<>(pipelines.values());
+        try {
+            for (Pipeline pipeline : snapshot) {
+                pipeline.queue.put(Signal.STOP);
+            }
+            for (Pipeline pipeline : snapshot) {
+                pipeline.thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void broadcast(Signal signal) {
+        for (Pipeline pipeline : pipelines.values()) {
+            pipeline.enqueue(signal);
+        }
+    }
+
+    private Pipeline pipeline(int instrumentId) {
+        Pipeline pipeline = pipelines.get(instrumentId);
+        return pipeline != null ? pipeline : pipelines.computeIfAbsent(instrumentId, this::newPipeline);
+    }
+
+    private Pipeline newPipeline(int instrumentId) {
+        if (closed) {
+            throw new IllegalStateException("PipelinedTickManager is closed");
+        }
+        if (pipelines.size() >= maxInstruments) {
+            throw new IllegalStateException("Cannot start a pipeline for instrument " + instrumentId + ", limited to "
+                    + maxInstruments + " instruments" + (VirtualThreads.isSupported() ? "" : " without virtual threads"));
+        }
+        Map<String, Calculator> calculators = new LinkedHashMap<>();
+        for (Map.Entry<String, Supplier<Calculator>> template : templates.entrySet()) {
+            Calculator calculator = template.getValue().get();
+            if (cancelled) {
+                calculator.cancel();
+            }
+            calculators.put(template.getKey(), calculator);
+        }
+        TickManager tickManager = new TickManager(calculators);
+        for (String type : calculators.keySet()) {
+            List<AverageListener> typeListeners = listeners.get(type);
+            tickManager.addListener(type, (calculatorType, avg) -> publish(instrumentId, calculatorType, avg, typeListeners));
+        }
+        Pipeline pipeline = new Pipeline(tickManager, new LinkedBlockingQueue<>(queueCapacity));
+        pipeline.thread.start();
+        return pipeline;
+    }
+
+    private static void publish(int instrumentId, String type, BigDecimal average, List<AverageListener> typeListeners) {
+        for (AverageListener listener : typeListeners) {
+            listener.onAverage(instrumentId, type, average);
+        }
+    }
+
+    private List<AverageListener> listenersOf(String calculatorType) {
+        List<AverageListener> typeListeners = listeners.get(calculatorType);
+        if (typeListeners == null) {
+            throw new IllegalArgumentException("Unknown calculator type: " + calculatorType);
+        }
+        return typeListeners;
+    }
+
+    /**
+     * The calculators of one instrument and the queue feeding them. The TickManager is only ever accessed from the
+     * pipeline's thread, apart from adding listeners.
+     */
+    private final class Pipeline {
+        private final TickManager tickManager;
+        private final BlockingQueue<Object> queue;
+        private final Thread thread;
+
+        private Pipeline(TickManager tickManager, BlockingQueue<Object> queue) {
+            this.tickManager = tickManager;
+            this.queue = queue;
+            this.thread = threadFactory.newThread(this::run);
+        }
+
+        private void enqueue(Object event) {
+            if (closed) {
+                throw new IllegalStateException("PipelinedTickManager is closed");
+            }
+            try {
+                queue.put(event);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while queueing to a pipeline", e);
+            }
+        }
+
+        private void run() {
+            try {
+                while (true) {
+                    Object event = queue.take();
+                    if (event == Signal.STOP) {
+                        return;
+                    }
+                    try {
+                        dispatch(event);
+                    } catch (RuntimeException e) {
+                        failedEvents.incrementAndGet();
+                    }
+                }
+            } catch (InterruptedException e) {
+                // the pipeline is stopped
+            }
+        }
+
+        private void dispatch(Object event) {
+            if (event instanceof Tick) {
+                tickManager.onTick((Tick) event);
+            } else if (event == Signal.CANCEL) {
+                tickManager.onCancel();
+            } else if (event == Signal.RESUME) {
+                tickManager.onResume();
+            } else if (event == Signal.RESET) {
+                tickManager.onReset();
+            } else {
+                ((Runnable) event).run();
+            }
+        }
+    }
+}
@@ -0,0 +1,514 @@
+package com.manish.finance.quants;
+
+import com.manish.finance.common.HashedWheelTimer;
+import com.manish.finance.common.IntObjectMap;
+import com.manish.finance.common.Tick;
+import com.manish.finance.intf.AverageListener;
+import com.manish.finance.intf.Calculator;
+import com.manish.finance.intf.Expiring;
+import com.manish.finance.intf.TickListener;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * This class manages average calculations for many instruments at once.
+ *
+ * <p>Instead of one calculator instance per type, it keeps one set of calculators per instrument, created lazily
+ * from calculator templates the first time a Tick of that instrument is seen. Instruments are partitioned into
+ * shards by instrument id, and every shard is pinned to its own worker thread, so all Ticks and control signals
+ * of an instrument are processed in order by the same thread and calculators never need synchronization.</p>
+ *
+ * <p>Listeners can subscribe to a calculator type for all instruments, or for a single instrument. They receive
+ * averages through {@link AverageListener#onAverage(int, String, BigDecimal)} on the shard's worker thread.</p>
+ *
+ * <p>Ticks and signals must be delivered from one thread at a time, as for {@link TickManager}. Each shard's queue
+ * is bounded: a producer outrunning a shard blocks until the shard catches up.</p>
+ *
+ * <p>With {@link #enableExpiry} the ticks of time-windowed calculators also age out by the wall clock, driven by
+ * one timer shared by all instruments and handed to the owning shard's thread.</p>
+ */
+public class ShardedTickManager implements TickListener, AutoCloseable {
+    private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private enum Signal { CANCEL, RESUME, RESET, EXPIRE, STOP }
+
+    /**
+     * Templates to create the calculators of a new instrument.
+     * Key: String representing the calculator type (e.g., "EMA", "MovingAvrage").
+     * Value: Supplier creating a fresh Calculator instance of that type.
+     */
+    private final Map<String, Supplier<Calculator>> templates;
+
+    /**
+     * The calculator types in slot order, and the slot of every type.
+     */
+    private final String[] types;
+    private final Map<String, Integer> slotsByType;
+
+    private final Shard[] shards;
+
+    /**
+     * Listeners registered for a calculator type across all instruments, by calculator slot. The arrays are never
+     * modified: registering a listener builds a new plan and publishes it, as in {@link TickManager}.
+     */
+    private volatile AverageListener[][] dispatchPlan;
+
+    /**
+     * Listeners registered for a calculator type of a single instrument.
+     * Key: instrument id. Value: listeners by calculator slot, replaced as a whole when a listener is added.
+     * Only read off the hot path: the shard copies the plan into the instrument when the instrument is created
+     * and when a listener is added.
+     */
+    private final Map<Integer, AverageListener[][]> instrumentPlans;
+
+    private final AtomicLong failedEvents = new AtomicLong();
+    private volatile boolean closed;
+
+    /**
+     * The timer and clock of the wall clock expiry, null until enabled.
+     */
+    private volatile HashedWheelTimer expiryTimer;
+    private volatile Clock expiryClock;
+
+    /**
+     * Constructs a new ShardedTickManager queueing up to 1024 Ticks and signals per shard.
+     *
+     * @param templates  A map of calculator templates, where the key is the calculator type and the value creates
+     *                   a new calculator instance for an instrument.
+     * @param shardCount The number of shards, i.e. worker threads.
+     */
+    public ShardedTickManager(Map<String, Supplier<Calculator>> templates, int shardCount) {
+        this(templates, shardCount, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Constructs a new ShardedTickManager.
+     *
+     * @param templates     A map of calculator templates, where the key is the calculator type and the value
+     *                      creates a new calculator instance for an instrument.
+     * @param shardCount    The number of shards, i.e. worker threads.
+     * @param queueCapacity The number of Ticks and signals queued per shard before the producer blocks.
+     */
+    public ShardedTickManager(Map<String, Supplier<Calculator>> templates, int shardCount, int queueCapacity) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be positive: " + shardCount);
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be positive: " + queueCapacity);
+        }
+        this.templates = new LinkedHashMap<>(templates);
+        this.types = this.templates.keySet().toArray(new String[0]);
+        this.slotsByType = new HashMap<>();
+        for (int i = 0; i < types.length; i++) {
+            slotsByType.put(types[i], i);
+        }
+        this.dispatchPlan = emptyPlan(types.length);
+        this.instrumentPlans = new ConcurrentHashMap<>();
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, queueCapacity);
+        }
+        for (Shard shard : shards) {
+            shard.thread.start();
+        }
+    }
+
+    /**
+     * Adds an AverageListener for a specific calculator type of all instruments.
+     *
+     * @param calculatorType The type of calculator to register the listener for.
+     * @param listener       The AverageListener to be added.
+     */
+    public synchronized void addListener(String calculatorType, AverageListener listener) {
+        dispatchPlan = withListener(dispatchPlan, slotOf(calculatorType), listener);
+    }
+
+    /**
+     * Adds an AverageListener for a specific calculator type of a single instrument. The listener receives the
+     * averages of the Ticks submitted after this call.
+     *
+     * @param instrumentId   The instrument to register the listener for.
+     * @param calculatorType The type of calculator to register the listener for.
+     * @param listener       The AverageListener to be added.
+     */
+    public void addListener(int instrumentId, String calculatorType, AverageListener listener) {
+        int slot = slotOf(calculatorType);
+        instrumentPlans.compute(instrumentId,
+                (id, plan) -> withListener(plan != null ? plan : emptyPlan(types.length), slot, listener));
+        Shard shard = shardOf(instrumentId);
+        shard.enqueue((Runnable) () -> {
+            Instrument instrument = shard.instruments.get(instrumentId);
+            if (instrument != null) {
+                instrument.ownPlan = instrumentPlans.get(instrumentId);
+            }
+        });
+    }
+
+    /**
+     * Handles a new Tick event by queueing it to the shard owning the Tick's instrument, blocking while the shard's
+     * queue is full.
+     *
+     * @param tick The received Tick object.
+     */
+    @Override
+    public void onTick(Tick tick) {
+        shardOf(tick.getInstrumentId()).enqueue(tick);
+    }
+
+    /**
+     * Cancels the calculation for all instruments.
+     */
+    @Override
+    public void onCancel() {
+        broadcast(Signal.CANCEL);
+    }
+
+    /**
+     * Resumes the calculation for all instruments.
+     */
+    @Override
+    public void onResume() {
+        broadcast(Signal.RESUME);
+    }
+
+    /**
+     * Resets the calculators of all instruments.
+     */
+    @Override
+    public void onReset() {
+        broadcast(Signal.RESET);
+    }
+
+    /**
+     * Resets the calculators of a single instrument.
+     *
+     * @param instrumentId The instrument to reset.
+     */
+    public void onReset(int instrumentId) {
+        Shard shard = shardOf(instrumentId);
+        shard.enqueue((Runnable) () -> {
+            Instrument instrument = shard.instruments.get(instrumentId);
+            if (instrument != null) {
+                for (Calculator calculator : instrument.calculators) {
+                    calculator.reset();
+                }
+            }
+        });
+    }
+
+    /**
+     * Enables wall clock expiry: whenever the oldest tick of an {@link Expiring} calculator of an instrument leaves
+     * its window, the tick is evicted and the new average is published, also if no tick of the instrument arrives.
+     * Takes effect for each instrument at its next tick.
+     *
+     * @param timer The timer scheduling the expiries, can be shared with other managers.
+     * @param clock The wall clock the tick timestamps are compared with.
+     * @see TickManager#enableExpiry
+     */
+    public void enableExpiry(HashedWheelTimer timer, Clock clock) {
+        this.expiryClock = clock;
+        this.expiryTimer = timer;
+    }
+
+    /**
+     * Blocks until every Tick and signal submitted before this call has been processed by its shard.
+     *
+     * @throws InterruptedException if the calling thread is interrupted while waiting.
+     */
+    public void flush() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(shards.length);
+        Runnable barrier = latch::countDown;
+        for (Shard shard : shards) {
+            shard.enqueue(barrier);
+        }
+        latch.await();
+    }
+
+    /**
+     * Returns the number of instruments for which calculators have been created.
+     *
+     * @return The number of instruments seen so far.
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the shards.
+     */
+    public int instrumentCount() throws InterruptedException {
+        flush();
+        int count = 0;
+        for (Shard shard : shards) {
+            count += shard.instruments.size();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of Ticks, signals and expiries whose processing, including the listeners, threw an
+     * exception. The shard carries on with its next event.
+     *
+     * @return The number of failed events.
+     */
+    public long getFailedEventCount() {
+        return failedEvents.get();
+    }
+
+    /**
+     * Processes the already submitted Ticks and stops the worker threads. Ticks submitted afterwards are rejected.
+     * If the calling thread is interrupted while waiting, it returns right away with its interrupt flag set.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            for (Shard shard : shards) {
+                shard.queue.put(Signal.STOP);
+            }
+            for (Shard shard : shards) {
+                shard.thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void broadcast(Signal signal) {
+        for (Shard shard : shards) {
+            shard.enqueue(signal);
+        }
+    }
+
+    private Shard shardOf(int instrumentId) {
+        return shards[Math.floorMod(Integer.hashCode(instrumentId), shards.length)];
+    }
+
+    private int slotOf(String calculatorType) {
+        Integer slot = slotsByType.get(calculatorType);
+        if (slot == null) {
+            throw new IllegalArgumentException("Unknown calculator type: " + calculatorType);
+        }
+        return slot;
+    }
+
+    private static AverageListener[][] emptyPlan(int slots) {
+        AverageListener[][] plan = new AverageListener[slots][];
+        Arrays.fill(plan, new AverageListener[0]);
+        return plan;
+    }
+
+    private static AverageListener[][] withListener(AverageListener[][] plan, int slot, AverageListener listener) {
+        AverageListener[][] updated = plan.clone();
+        AverageListener[] slotListeners = Arrays.copyOf(plan[slot], plan[slot].length + 1);
+        slotListeners[slotListeners.length - 1] = listener;
+        updated[slot] = slotListeners;
+        return updated;
+    }
+
+    /**
+     * The calculators of one instrument with the listeners and expiry schedule of its own. Only ever accessed from
+     * the worker thread of the instrument's shard.
+     */
+    private final class Instrument {
+        private final int id;
+        private final Calculator[] calculators;
+        private final Runnable expire = this::expire;
+        private AverageListener[][] ownPlan;
+        private ExpirySchedule schedule;
+
+        private Instrument(int id, Calculator[] calculators) {
+            this.id = id;
+            this.calculators = calculators;
+            this.ownPlan = instrumentPlans.get(id);
+        }
+
+        private void process(Tick tick) {
+            AverageListener[][] plan = dispatchPlan;
+            for (int i = 0; i < types.length; i++) {
+                publish(i, calculators[i].calculate(tick), plan);
+            }
+        }
+
+        private void expire() {
+            Instant now = schedule.now();
+            AverageListener[][] plan = dispatchPlan;
+            for (int i = 0; i < types.length; i++) {
+                if (calculators[i] instanceof Expiring) {
+                    BigDecimal average = ((Expiring) calculators[i]).expire(now);
+                    if (average != null) {
+                        publish(i, average, plan);
+                    }
+                }
+            }
+            schedule.update(earliestExpiry());
+        }
+
+        private void publish(int slot, BigDecimal average, AverageListener[][] plan) {
+            String type = types[slot];
+            for (AverageListener listener : plan[slot]) {
+                listener.onAverage(id, type, average);
+            }
+            if (ownPlan != null) {
+                for (AverageListener listener : ownPlan[slot]) {
+                    listener.onAverage(id, type, average);
+                }
+            }
+        }
+
+        private Instant earliestExpiry() {
+            Instant earliest = null;
+            for (Calculator calculator : calculators) {
+                if (calculator instanceof Expiring) {
+                    Instant expiry = ((Expiring) calculator).nextExpiry();
+                    if (expiry != null && (earliest == null || expiry.isBefore(earliest))) {
+                        earliest = expiry;
+                    }
+                }
+            }
+            return earliest;
+        }
+    }
+
+    /**
+     * The instruments of a subset of instrument ids and the queue feeding them. The instruments are only ever
+     * accessed from the shard's worker thread.
+     */
+    private final class Shard {
+        private final BlockingQueue<Object> queue;
+        private final Thread thread;
+        private final IntObjectMap<Instrument> instruments = new IntObjectMap<>();
+        private final Executor expiryExecutor = this::scheduleExpiry;
+        private final Consumer<Instrument> cancel = instrument -> cancel(instrument, true);
+        private final Consumer<Instrument> resume = instrument -> cancel(instrument, false);
+        private final Consumer<Instrument> reset = instrument -> {
+            for (Calculator calculator : instrument.calculators) {
+                calculator.reset();
+            }
+        };
+        private boolean cancelled;
+
+        /**
+         * Expiries handed over by the timer thread. They bypass the bounded queue so the timer never blocks on a
+         * busy shard; at most one per instrument is pending.
+         */
+        private final Queue<Runnable> expiries = new ConcurrentLinkedQueue<>();
+
+        private Shard(int index, int queueCapacity) {
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.thread = new Thread(this::run, "tick-shard-" + index);
+            thread.setDaemon(true);
+        }
+
+        private void enqueue(Object event) {
+            if (closed) {
+                throw new IllegalStateException("ShardedTickManager is closed");
+            }
+            try {
+                queue.put(event);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while queueing to a shard", e);
+            }
+        }
+
+        /**
+         * Hands an expiry over from the timer thread. If the queue is full, the worker is busy and runs the expiry
+         * after its next event anyway.
+         */
+        private void scheduleExpiry(Runnable expiry) {
+            expiries.offer(expiry);
+            queue.offer(Signal.EXPIRE);
+        }
+
+        private void run() {
+            try {
+                while (true) {
+                    Object event = queue.take();
+                    if (event == Signal.STOP) {
+                        return;
+                    }
+                    try {
+                        dispatch(event);
+                    } catch (RuntimeException e) {
+                        failedEvents.incrementAndGet();
+                    }
+                    Runnable expiry;
+                    while ((expiry = expiries.poll()) != null) {
+                        try {
+                            expiry.run();
+                        } catch (RuntimeException e) {
+                            failedEvents.incrementAndGet();
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                // the shard is stopped
+            }
+        }
+
+        private void dispatch(Object event) {
+            if (event instanceof Tick) {
+                process((Tick) event);
+            } else if (event == Signal.CANCEL) {
+                cancelled = true;
+                instruments.forEach(cancel);
+            } else if (event == Signal.RESUME) {
+                cancelled = false;
+                instruments.forEach(resume);
+            } else if (event == Signal.RESET) {
+                instruments.forEach(reset);
+            } else if (event != Signal.EXPIRE) {
+                ((Runnable) event).run();
+            }
+        }
+
+        private void process(Tick tick) {
+            int instrumentId = tick.getInstrumentId();
+            Instrument instrument = instruments.get(instrumentId);
+            if (instrument == null) {
+                instrument = new Instrument(instrumentId, newCalculators());
+                instruments.put(instrumentId, instrument);
+            }
+            instrument.process(tick);
+            HashedWheelTimer timer = expiryTimer;
+            if (timer != null) {
+                if (instrument.schedule == null) {
+                    instrument.schedule = new ExpirySchedule(timer, expiryClock, expiryExecutor, instrument.expire);
+                }
+                instrument.schedule.update(instrument.earliestExpiry());
+            }
+        }
+
+        private Calculator[] newCalculators() {
+            Calculator[] calculators = new Calculator[types.length];
+            for (int i = 0; i < types.length; i++) {
+                calculators[i] = templates.get(types[i]).get();
+                if (cancelled) {
+                    calculators[i].cancel();
+                }
+            }
+            return calculators;
+        }
+
+        private void cancel(Instrument instrument, boolean cancel) {
+            for (Calculator calculator : instrument.calculators) {
+                if (cancel) {
+                    calculator.cancel();
+                } else {
+                    calculator.resume();
+                }
+            }
+        }
+    }
+}
@@ -1,21 +1,54 @@
 package com.manish.finance.quants;
 
+import com.manish.finance.common.HashedWheelTimer;
+import com.manish.finance.common.LatencyHistogram;
+import com.manish.finance.common.SingleWriterCounter;
 import com.manish.finance.common.Tick;
+import com.manish.finance.common.TickHistory;
 import com.manish.finance.intf.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
-import java.util.ArrayList;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * This class manages the calculation and distribution of averages for different types of calculators.
  * It subscribes to Tick events and delegates the calculation to the appropriate Calculator
  * instances. It also notifies registered listeners with the calculated averages.
+ *
+ * <p>Ticks must be delivered from one thread at a time, see {@link ConcurrentTickManager} for multiple producers.
+ * Listeners can be registered from any thread, also while ticks are flowing.</p>
+ *
+ * <p>When constructed with a {@link TickHistory}, every tick is appended to the history before the calculators
+ * see it, so calculators created on that history share one copy of the window.</p>
+ *
+ * <p>Time-windowed calculators only evict when a tick arrives. With {@link #enableExpiry} their ticks also age out
+ * by the wall clock during quiet periods, and the updated averages are republished to the listeners.</p>
+ *
+ * <p>With {@link #enableMetrics} the manager records the Tick count, the latency of every calculation and listener
+ * dispatch, and the window occupancy and evictions of the calculators, and publishes them to a
+ * {@link MetricsRegistry}.</p>
  */
 public class TickManager implements TickListener {
 
+    private static final int CHECKPOINT_MAGIC = 0x544D4350; // "TMCP"
+    // 2: window ticks carry their volume, the EMA its MathContext, the windowed average its watermark
+    private static final int CHECKPOINT_VERSION = 2;
+
     /**
      * A map to store the different types of calculators.
      * Key: String representing the calculator type (e.g., "EMA", "MovingAvrage").
@@ -24,12 +57,34 @@ public class TickManager implements TickListener {
     private final Map<String, Calculator> calculators;
 
     /**
-     * A map to store listeners for each calculator type.
-     * Key: String representing the calculator type.(e.g., "EMA", "MovingAvrage")
-     * IMPORTANT : This key needs to be matching to one of the key in the other map which stores calculators.
-     * Value: List of AverageListeners registered for that calculator type.
+     * The calculator types and calculators by slot, sorted by type so the dispatch order does not depend on the
+     * iteration order of the map the manager was constructed with.
+     */
+    private final String[] types;
+    private final Calculator[] slots;
+
+    /**
+     * The listeners by calculator slot. The arrays are never modified: registering a listener builds a new plan
+     * and swaps it in, so the tick thread walks plain arrays without locking, hashing or iterators.
+     */
+    private volatile AverageListener[][] dispatchPlan;
+
+    /**
+     * The history shared by the calculators, null if every calculator keeps its own window.
      */
-    private final Map<String, List<AverageListener>> listeners;
+    private final TickHistory history;
+
+    /**
+     * The wall clock expiry of the {@link Expiring} calculators, null until enabled.
+     */
+    private ExpirySchedule expirySchedule;
+
+    /**
+     * The latency of the calculations and listener dispatches by calculator slot, null until metrics are enabled.
+     */
+    private LatencyHistogram[] calculateNanos;
+    private LatencyHistogram[] dispatchNanos;
+    private final SingleWriterCounter tickCount = new SingleWriterCounter(); // written by the tick thread
 
     /**
      * Constructs a new TickManager instance.
@@ -37,39 +92,256 @@ public class TickManager implements TickListener {
      * @param calculators A map of calculators, where the key is the calculator type and the value is the calculator instance.
      */
     public TickManager(Map<String, Calculator> calculators) {
+        this(calculators, null);
+    }
+
+    /**
+     * Constructs a new TickManager instance appending every tick to a shared history before calculating it.
+     *
+     * @param calculators A map of calculators, where the key is the calculator type and the value is the calculator instance.
+     * @param history     The history the calculators were created on.
+     */
+    public TickManager(Map<String, Calculator> calculators, TickHistory history) {
         this.calculators = calculators;
-        this.listeners = new HashMap<>();
-        for (String key : calculators.keySet()) {
-            listeners.put(key, new ArrayList<>());
+        this.history = history;
+        this.types = calculators.keySet().toArray(new String[0]);
+        Arrays.sort(types);
+        this.slots = new Calculator[types.length];
+        AverageListener[][] plan = new AverageListener[types.length][];
+        for (int i = 0; i < types.length; i++) {
+            slots[i] = calculators.get(types[i]);
+            plan[i] = new AverageListener[0];
         }
+        this.dispatchPlan = plan;
     }
 
     /**
-     * Adds an AverageListener to the list of listeners for a specific calculator type.
+     * Returns the calculator types of this manager, in dispatch order.
+     *
+     * @return The calculator types, sorted by name.
+     */
+    public List<String> getCalculatorTypes() {
+        return List.of(types);
+    }
+
+    /**
+     * Adds an AverageListener to the list of listeners for a specific calculator type. Safe to call from any
+     * thread while ticks are flowing, the listener receives the averages from the next tick on.
      *
      * @param calculatorType The type of calculator to register the listener for.
      * @param listener The AverageListener to be added.
      */
-    public void addListener(String calculatorType, AverageListener listener) {
-        listeners.get(calculatorType).add(listener);
+    public synchronized void addListener(String calculatorType, AverageListener listener) {
+        int slot = slotOf(calculatorType);
+        AverageListener[][] plan = dispatchPlan.clone();
+        AverageListener[] slotListeners = Arrays.copyOf(plan[slot], plan[slot].length + 1);
+        slotListeners[slotListeners.length - 1] = listener;
+        plan[slot] = slotListeners;
+        dispatchPlan = plan;
+    }
+
+    /**
+     * Removes an AverageListener added for a specific calculator type. Safe to call from any thread while ticks
+     * are flowing, the listener receives no averages of the ticks processed after the removal.
+     *
+     * @param calculatorType The type of calculator the listener was registered for.
+     * @param listener       The AverageListener to be removed.
+     * @return true if the listener was registered for that type.
+     */
+    public synchronized boolean removeListener(String calculatorType, AverageListener listener) {
+        int slot = slotOf(calculatorType);
+        AverageListener[] slotListeners = dispatchPlan[slot];
+        for (int i = 0; i < slotListeners.length; i++) {
+            if (slotListeners[i] == listener) {
+                AverageListener[] remaining = new AverageListener[slotListeners.length - 1];
+                System.arraycopy(slotListeners, 0, remaining, 0, i);
+                System.arraycopy(slotListeners, i + 1, remaining, i, remaining.length - i);
+                AverageListener[][] plan = dispatchPlan.clone();
+                plan[slot] = remaining;
+                dispatchPlan = plan;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int slotOf(String calculatorType) {
+        int slot = Arrays.binarySearch(types, calculatorType);
+        if (slot < 0) {
+            throw new IllegalArgumentException("Unknown calculator type: " + calculatorType);
+        }
+        return slot;
     }
 
     /**
      * Handles a new Tick event.
-     * Calculates the average for each calculator type and notifies the registered listeners.
+     * Calculates the average for each calculator type, in the order of the type names, and notifies the
+     * registered listeners.
      *
      * @param tick The received Tick object.
      */
     @Override
     public void onTick(Tick tick) {
-        for (Map.Entry<String, Calculator> entry : calculators.entrySet()) {
-            String type = entry.getKey();
-            Calculator calculator = entry.getValue();
-            BigDecimal average = calculator.calculate(tick);
-            for (AverageListener listener : listeners.get(type)) {
-                listener.onAverage(type, average);
+        if (history != null) {
+            history.append(tick);
+        }
+        AverageListener[][] plan = dispatchPlan;
+        if (calculateNanos == null) {
+            for (int c = 0; c < slots.length; c++) {
+                BigDecimal average = slots[c].calculate(tick);
+                AverageListener[] slotListeners = plan[c];
+                for (int l = 0; l < slotListeners.length; l++) {
+                    slotListeners[l].onAverage(types[c], average);
+                }
+            }
+        } else {
+            onTickMeasured(tick, plan);
+        }
+        if (expirySchedule != null) {
+            expirySchedule.update(earliestExpiry());
+        }
+    }
+
+    /**
+     * Handles a batch of Tick events. The calculators process the batch tick by tick and their listeners are
+     * notified once with all averages of the batch through {@link AverageListener#onAverages}, instead of once
+     * per tick.
+     *
+     * @param ticks An array of Tick objects to be processed.
+     */
+    @Override
+    public void onTicks(Tick[] ticks) {
+        BigDecimal[][] averages = new BigDecimal[slots.length][ticks.length];
+        // tick by tick, so a shared history only has to retain the ticks of the windows
+        for (int i = 0; i < ticks.length; i++) {
+            if (history != null) {
+                history.append(ticks[i]);
+            }
+            for (int c = 0; c < slots.length; c++) {
+                if (calculateNanos == null) {
+                    averages[c][i] = slots[c].calculate(ticks[i]);
+                } else {
+                    long start = System.nanoTime();
+                    averages[c][i] = slots[c].calculate(ticks[i]);
+                    calculateNanos[c].record(System.nanoTime() - start);
+                }
+            }
+        }
+        AverageListener[][] plan = dispatchPlan;
+        for (int c = 0; c < slots.length; c++) {
+            long start = dispatchNanos == null ? 0 : System.nanoTime();
+            for (AverageListener listener : plan[c]) {
+                listener.onAverages(types[c], averages[c]);
+            }
+            if (dispatchNanos != null) {
+                dispatchNanos[c].record(System.nanoTime() - start);
+            }
+        }
+        if (calculateNanos != null) {
+            tickCount.add(ticks.length);
+        }
+        if (expirySchedule != null) {
+            expirySchedule.update(earliestExpiry());
+        }
+    }
+
+    /**
+     * Same as the plain loop of {@link #onTick(Tick)}, timing every calculation and listener dispatch.
+     */
+    private void onTickMeasured(Tick tick, AverageListener[][] plan) {
+        for (int c = 0; c < slots.length; c++) {
+            long start = System.nanoTime();
+            BigDecimal average = slots[c].calculate(tick);
+            long calculated = System.nanoTime();
+            AverageListener[] slotListeners = plan[c];
+            for (int l = 0; l < slotListeners.length; l++) {
+                slotListeners[l].onAverage(types[c], average);
+            }
+            long dispatched = System.nanoTime();
+            calculateNanos[c].record(calculated - start);
+            dispatchNanos[c].record(dispatched - calculated);
+        }
+        tickCount.increment();
+    }
+
+    /**
+     * Enables the metrics of this manager and registers them as {@code <prefix>.ticks} and
+     * {@code <prefix>.<calculator type>.<metric>}: the histograms {@code calculateNanos} and {@code dispatchNanos},
+     * and for calculators implementing {@link WindowStatistics} the gauge {@code windowOccupancy} and the counter
+     * {@code evictions}. Recording costs a few clock reads per calculator and Tick, and nothing while disabled.
+     * Must be called from the thread delivering the ticks.
+     *
+     * @param registry The registry publishing the metrics.
+     * @param prefix   The prefix of the metric names, to tell managers apart.
+     */
+    public void enableMetrics(MetricsRegistry registry, String prefix) {
+        LatencyHistogram[] calculate = new LatencyHistogram[slots.length];
+        LatencyHistogram[] dispatch = new LatencyHistogram[slots.length];
+        registry.registerCounter(prefix + ".ticks", tickCount::get);
+        for (int c = 0; c < slots.length; c++) {
+            String name = prefix + "." + types[c];
+            calculate[c] = new LatencyHistogram();
+            dispatch[c] = new LatencyHistogram();
+            registry.registerHistogram(name + ".calculateNanos", calculate[c]);
+            registry.registerHistogram(name + ".dispatchNanos", dispatch[c]);
+            if (slots[c] instanceof WindowStatistics) {
+                WindowStatistics statistics = (WindowStatistics) slots[c];
+                registry.registerGauge(name + ".windowOccupancy", statistics::getWindowOccupancy);
+                registry.registerCounter(name + ".evictions", statistics::getEvictionCount);
+            }
+        }
+        this.dispatchNanos = dispatch;
+        this.calculateNanos = calculate;
+    }
+
+    /**
+     * Enables wall clock expiry: whenever the oldest tick of an {@link Expiring} calculator leaves its window, the
+     * tick is evicted and the new average is published to the listeners, also if no tick arrives. One timer can be
+     * shared by any number of managers. Must be called from the thread delivering the ticks.
+     *
+     * @param timer      The timer scheduling the expiries.
+     * @param clock      The wall clock the tick timestamps are compared with.
+     * @param tickThread Runs a task on the thread delivering the ticks, which is where the expiry is done.
+     */
+    public void enableExpiry(HashedWheelTimer timer, Clock clock, Executor tickThread) {
+        expirySchedule = new ExpirySchedule(timer, clock, tickThread, this::expire);
+        expirySchedule.update(earliestExpiry());
+    }
+
+    /**
+     * Evicts the ticks which aged out of the windows of the {@link Expiring} calculators by now and publishes the
+     * changed averages. Must be called from the thread delivering the ticks.
+     */
+    public void expire() {
+        if (expirySchedule == null) {
+            throw new IllegalStateException("Expiry is not enabled");
+        }
+        Instant now = expirySchedule.now();
+        AverageListener[][] plan = dispatchPlan;
+        for (int c = 0; c < slots.length; c++) {
+            if (slots[c] instanceof Expiring) {
+                BigDecimal average = ((Expiring) slots[c]).expire(now);
+                if (average != null) {
+                    for (AverageListener listener : plan[c]) {
+                        listener.onAverage(types[c], average);
+                    }
+                }
+            }
+        }
+        expirySchedule.update(earliestExpiry());
+    }
+
+    private Instant earliestExpiry() {
+        Instant earliest = null;
+        for (Calculator calculator : slots) {
+            if (calculator instanceof Expiring) {
+                Instant expiry = ((Expiring) calculator).nextExpiry();
+                if (expiry != null && (earliest == null || expiry.isBefore(earliest))) {
+                    earliest = expiry;
+                }
             }
         }
+        return earliest;
     }
 
     /**
@@ -77,7 +349,7 @@ public class TickManager implements TickListener {
      */
     @Override
     public void onCancel() {
-        for (Calculator calculator : calculators.values()) {
+        for (Calculator calculator : slots) {
             calculator.cancel();
         }
     }
@@ -87,7 +359,7 @@ public class TickManager implements TickListener {
      */
     @Override
     public void onResume() {
-        for (Calculator calculator : calculators.values()) {
+        for (Calculator calculator : slots) {
             calculator.resume();
         }
     }
@@ -97,8 +369,95 @@ public class TickManager implements TickListener {
      */
     @Override
     public void onReset() {
-        for (Calculator calculator : calculators.values()) {
+        for (Calculator calculator : slots) {
             calculator.reset();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Writes a snapshot of every calculator to the given file. The checkpoint is first written to a temporary file
+     * next to it and then moved into place, so the file always holds either the previous or the new checkpoint.
+     * Must be called from the thread delivering the ticks, every calculator must be {@link Snapshottable}.
+     *
+     * @param file The checkpoint file.
+     * @throws IOException if the checkpoint cannot be written.
+     */
+    public void checkpoint(Path file) throws IOException {
+        Path absolute = file.toAbsolutePath();
+        Path temporary = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream stream = Files.newOutputStream(temporary)) {
+                stream.write(snapshot());
+            }
+            Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Restores every calculator from a checkpoint written by {@link #checkpoint(Path)}. The restore is all or
+     * nothing: the checkpoint must hold exactly the calculator types of this manager, and if any calculator fails
+     * to restore, all calculators are rolled back to their state before the call.
+     * Must be called from the thread delivering the ticks.
+     *
+     * @param file The checkpoint file.
+     * @throws IOException if the checkpoint cannot be read or does not match the calculators.
+     */
+    public void restore(Path file) throws IOException {
+        byte[] backup = snapshot();
+        try {
+            restore(Files.readAllBytes(file));
+        } catch (IOException | RuntimeException e) {
+            restore(backup);
+            throw e;
+        }
+    }
+
+    private byte[] snapshot() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(CHECKPOINT_MAGIC);
+        out.writeInt(CHECKPOINT_VERSION);
+        out.writeInt(calculators.size());
+        for (Map.Entry<String, Calculator> entry : calculators.entrySet()) {
+            ByteArrayOutputStream calculatorBytes = new ByteArrayOutputStream();
+            snapshottable(entry.getKey()).writeSnapshot(new DataOutputStream(calculatorBytes));
+            out.writeUTF(entry.getKey());
+            out.writeInt(calculatorBytes.size());
+            calculatorBytes.writeTo(out);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private void restore(byte[] checkpoint) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(checkpoint));
+        if (in.readInt() != CHECKPOINT_MAGIC || in.readInt() != CHECKPOINT_VERSION) {
+            throw new IOException("Not a TickManager checkpoint");
+        }
+        // Read all sections first, so a checkpoint of another calculator set is rejected before touching any state
+        int count = in.readInt();
+        Map<String, byte[]> sections = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            String type = in.readUTF();
+            byte[] section = new byte[in.readInt()];
+            in.readFully(section);
+            sections.put(type, section);
+        }
+        if (!sections.keySet().equals(calculators.keySet())) {
+            throw new IOException("Checkpoint holds calculators " + sections.keySet() + " but manager has " + calculators.keySet());
+        }
+        for (Map.Entry<String, byte[]> section : sections.entrySet()) {
+            snapshottable(section.getKey()).readSnapshot(new DataInputStream(new ByteArrayInputStream(section.getValue())));
+        }
+    }
+
+    private Snapshottable snapshottable(String type) {
+        Calculator calculator = calculators.get(type);
+        if (!(calculator instanceof Snapshottable)) {
+            throw new IllegalStateException("Calculator " + type + " does not support snapshots");
+        }
+        return (Snapshottable) calculator;
+    }
+}
@@ -0,0 +1,269 @@
+package com.manish.finance.quants;
+
+import com.manish.finance.common.Average;
+import com.manish.finance.common.Tick;
+import com.manish.finance.intf.AverageListener;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Exposes a {@link TickManager} as a {@link Flow.Processor} of Ticks to Averages, with backpressure in both
+ * directions.
+ *
+ * <p>Every Tick yields one Average per calculator type, so the processor only requests as many Ticks from upstream
+ * as are needed to cover the demand its subscriber signalled with {@link Flow.Subscription#request}. Requests are
+ * batched: at most {@code batchSize} Ticks are outstanding, and more are only requested once half of them have
+ * arrived, unless the demand is smaller than that. At most one Tick's worth of Averages beyond the demand is
+ * buffered, so a slow subscriber slows down the Tick source instead of growing a queue.</p>
+ *
+ * <p>The processor has a single subscriber. The TickManager must only be fed by the processor and must not have
+ * wall clock expiry enabled, as averages published outside of a Tick would not be accounted for. Cancelling the
+ * subscription removes the processor's listeners from the TickManager.</p>
+ *
+ * <pre>
+ * TickManagerProcessor processor = new TickManagerProcessor(tickManager, 256);
+ * tickPublisher.subscribe(processor);
+ * processor.subscribe(averageSubscriber);
+ * </pre>
+ */
+public class TickManagerProcessor implements Flow.Processor<Tick, Average> {
+    private static final int DEFAULT_BATCH_SIZE = 256;
+
+    private final TickManager tickManager;
+    private final List<String> types;
+    private final AverageListener[] listeners; // by calculator type
+    private final int typeCount;
+    private final long batchSize;
+    private final long replenishThreshold;
+
+    private final Queue<Average> buffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger buffered = new AtomicInteger();
+    private final AtomicLong requested = new AtomicLong(); // Averages demanded by the subscriber, not yet delivered
+    private final AtomicLong outstanding = new AtomicLong(); // Ticks requested from upstream, not yet received
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicReference<Flow.Subscriber<? super Average>> downstream = new AtomicReference<>();
+
+    private volatile Flow.Subscription upstream;
+    private volatile boolean done;
+    private volatile Throwable error;
+    private volatile boolean cancelled;
+    private boolean terminated; // drain loop only
+
+    private Tick current; // upstream thread only, the Tick being calculated
+
+    /**
+     * Constructs a TickManagerProcessor requesting up to 256 Ticks at a time.
+     *
+     * @param tickManager The manager calculating the averages, fed by this processor only.
+     */
+    public TickManagerProcessor(TickManager tickManager) {
+        this(tickManager, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructs a TickManagerProcessor.
+     *
+     * @param tickManager The manager calculating the averages, fed by this processor only.
+     * @param batchSize   The maximum number of Ticks requested from upstream but not yet received.
+     */
+    public TickManagerProcessor(TickManager tickManager, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        if (tickManager.getCalculatorTypes().isEmpty()) {
+            throw new IllegalArgumentException("TickManager has no calculators");
+        }
+        this.tickManager = tickManager;
+        this.types = tickManager.getCalculatorTypes();
+        this.typeCount = types.size();
+        this.batchSize = batchSize;
+        this.replenishThreshold = Math.max(1, batchSize / 2);
+        this.listeners = new AverageListener[typeCount];
+        for (int i = 0; i < typeCount; i++) {
+            listeners[i] = (calculatorType, avg) -> {
+                buffer.offer(new Average(current.getInstrumentId(), calculatorType, avg, current.getTimestamp()));
+                buffered.incrementAndGet();
+            };
+            tickManager.addListener(types.get(i), listeners[i]);
+        }
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Average> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        if (!downstream.compareAndSet(null, subscriber)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("TickManagerProcessor allows a single subscriber"));
+            return;
+        }
+        subscriber.onSubscribe(new AverageSubscription());
+        drain();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        Objects.requireNonNull(subscription, "subscription");
+        if (upstream != null || cancelled) {
+            subscription.cancel();
+            return;
+        }
+        upstream = subscription;
+        drain();
+    }
+
+    @Override
+    public void onNext(Tick tick) {
+        Objects.requireNonNull(tick, "tick");
+        if (done || cancelled) {
+            return;
+        }
+        outstanding.decrementAndGet();
+        current = tick;
+        tickManager.onTick(tick);
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        Objects.requireNonNull(throwable, "throwable");
+        error = throwable;
+        done = true;
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        done = true;
+        drain();
+    }
+
+    /**
+     * Delivers buffered Averages up to the demand, completes the subscriber once upstream is done and the buffer is
+     * drained, and requests more Ticks. Only ever runs on one thread at a time; calls arriving meanwhile make the
+     * running thread loop again.
+     */
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            Flow.Subscriber<? super Average> subscriber = downstream.get();
+            if (terminated) {
+                return;
+            }
+            if (cancelled) {
+                buffer.clear();
+                return;
+            }
+            if (subscriber != null) {
+                long demand = requested.get();
+                long emitted = 0;
+                while (emitted != demand) {
+                    Average average = buffer.poll();
+                    if (average == null) {
+                        break;
+                    }
+                    buffered.decrementAndGet();
+                    subscriber.onNext(average);
+                    emitted++;
+                    if (cancelled) {
+                        buffer.clear();
+                        return;
+                    }
+                }
+                if (emitted != 0 && demand != Long.MAX_VALUE) {
+                    requested.addAndGet(-emitted);
+                }
+                if (done && buffer.isEmpty()) {
+                    terminated = true;
+                    Throwable failure = error;
+                    if (failure != null) {
+                        subscriber.onError(failure);
+                    } else {
+                        subscriber.onComplete();
+                    }
+                    return;
+                }
+                replenish();
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * Requests the Ticks needed to cover the demand not yet covered by buffered Averages or outstanding Ticks.
+     */
+    private void replenish() {
+        Flow.Subscription subscription = upstream;
+        if (subscription == null || done) {
+            return;
+        }
+        long demand = requested.get();
+        long uncovered = demand == Long.MAX_VALUE ? Long.MAX_VALUE : demand - buffered.get();
+        if (uncovered <= 0) {
+            return;
+        }
+        long ticks = Math.min(batchSize, (uncovered - 1) / typeCount + 1);
+        long inFlight = outstanding.get();
+        long missing = ticks - inFlight;
+        if (missing >= replenishThreshold || (inFlight == 0 && missing > 0)) {
+            outstanding.addAndGet(missing);
+            subscription.request(missing);
+        }
+    }
+
+    /**
+     * The subscriber's view of the processor.
+     */
+    private final class AverageSubscription implements Flow.Subscription {
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                // the rule 3.9 violation ends the stream: drop what is buffered and signal the error
+                error = new IllegalArgumentException("Requested a non-positive number of averages: " + n);
+                done = true;
+                buffer.clear();
+                Flow.Subscription subscription = upstream;
+                if (subscription != null) {
+                    subscription.cancel();
+                }
+                drain();
+                return;
+            }
+            requested.getAndUpdate(r -> r + n < 0 ? Long.MAX_VALUE : r + n);
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            Flow.Subscription subscription = upstream;
+            if (subscription != null) {
+                subscription.cancel();
+            }
+            for (int i = 0; i < typeCount; i++) {
+                tickManager.removeListener(types.get(i), listeners[i]);
+            }
+            drain();
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.manish.finance.server;
+
+import com.manish.finance.common.Average;
+import com.manish.finance.common.FixedPoint;
+import com.manish.finance.common.Tick;
+import com.manish.finance.intf.AverageListener;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static com.manish.finance.server.TickWireProtocol.*;
+
+/**
+ * A blocking client of {@link TickIngestServer}, sending ticks and control signals and receiving averages.
+ *
+ * <p>Ticks are encoded into a direct buffer and only written when it is full or on {@link #flush()}, so a feed
+ * sends many ticks per write. The client also serves as load generator, see {@link #generateLoad} and
+ * {@link #main(String[])}. A client is not thread safe.</p>
+ */
+public class TickFeedClient implements AutoCloseable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final SocketChannel channel;
+    private final ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE).order(BYTE_ORDER);
+    private final ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_SIZE).order(BYTE_ORDER);
+    private final int scale;
+
+    /**
+     * Connects to a server and reads its greeting.
+     *
+     * @param address An {@link InetSocketAddress} for TCP or a {@link UnixDomainSocketAddress}.
+     * @throws IOException if the server cannot be reached or does not speak the protocol.
+     */
+    public TickFeedClient(SocketAddress address) throws IOException {
+        this.channel = SocketChannel.open(address);
+        try {
+            if (address instanceof InetSocketAddress) {
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            }
+            in.flip(); // start empty, in read mode
+            ensure(HELLO_FRAME_SIZE);
+            if (in.get() != HELLO || in.getShort() != VERSION) {
+                throw new IOException("Not a tick ingest server: " + address);
+            }
+            this.scale = in.getShort();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the fixed-point scale of the prices, volumes and averages, as announced by the server.
+     *
+     * @return The scale.
+     */
+    public int getScale() {
+        return scale;
+    }
+
+    /**
+     * Buffers a tick given as primitives.
+     *
+     * @param instrumentId   The instrument of the tick.
+     * @param scaledPrice    The price at the server's scale.
+     * @param scaledVolume   The volume at the server's scale.
+     * @param timestampNanos The timestamp in epoch nanoseconds.
+     * @throws IOException if the buffer has to be written and the connection fails.
+     */
+    public void sendTick(int instrumentId, long scaledPrice, long scaledVolume, long timestampNanos) throws IOException {
+        if (out.remaining() < TICK_FRAME_SIZE) {
+            flush();
+        }
+        out.put(TICK).putInt(instrumentId).putLong(scaledPrice).putLong(scaledVolume).putLong(timestampNanos);
+    }
+
+    /**
+     * Buffers a Tick, converting its price and volume to the server's scale.
+     *
+     * @param tick The tick to send.
+     * @throws IOException if the buffer has to be written and the connection fails.
+     */
+    public void sendTick(Tick tick) throws IOException {
+        sendTick(tick.getInstrumentId(), FixedPoint.toScaled(tick.getPrice(), scale),
+                FixedPoint.toScaled(tick.getVolume(), scale), FixedPoint.toEpochNanos(tick.getTimestamp()));
+    }
+
+    public void sendCancel() throws IOException {
+        sendControl(CANCEL);
+    }
+
+    public void sendResume() throws IOException {
+        sendControl(RESUME);
+    }
+
+    public void sendReset() throws IOException {
+        sendControl(RESET);
+    }
+
+    /**
+     * Writes all buffered frames.
+     *
+     * @throws IOException if the connection fails.
+     */
+    public void flush() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    /**
+     * Subscribes this connection to the averages of all calculators and waits for the server to acknowledge it.
+     * The averages of every tick the server reads after the acknowledgement are sent to this connection.
+     *
+     * @throws IOException if the connection fails.
+     */
+    public void subscribe() throws IOException {
+        sendControl(SUBSCRIBE);
+        flush();
+        ensure(1);
+        byte type = in.get();
+        if (type != SUBSCRIBED) {
+            throw new IOException("Expected subscription acknowledgement but got frame type " + type);
+        }
+    }
+
+    /**
+     * Blocks until the next average has been received.
+     *
+     * @return The average, with the instrument and timestamp of the tick it was calculated for.
+     * @throws IOException if the connection fails or is closed by the server.
+     */
+    public Average receiveAverage() throws IOException {
+        ensure(AVERAGE_HEADER_SIZE);
+        byte type = in.get();
+        if (type != AVERAGE) {
+            throw new IOException("Expected an average but got frame type " + type);
+        }
+        long scaledAverage = in.getLong();
+        int instrumentId = in.getInt();
+        long timestamp = in.getLong();
+        int typeLength = in.get() & 0xFF;
+        ensure(typeLength);
+        byte[] calculatorType = new byte[typeLength];
+        in.get(calculatorType);
+        return new Average(instrumentId, new String(calculatorType, StandardCharsets.UTF_8),
+                FixedPoint.toBigDecimal(scaledAverage, scale), FixedPoint.toInstant(timestamp));
+    }
+
+    /**
+     * Blocks until the given number of averages has been received, handing each to the listener.
+     *
+     * @param count    The number of averages to receive.
+     * @param listener Receives the instrument, the calculator type and the average through
+     *                 {@link AverageListener#onAverage(int, String, BigDecimal)}.
+     * @throws IOException if the connection fails or is closed by the server.
+     */
+    public void receiveAverages(int count, AverageListener listener) throws IOException {
+        for (int i = 0; i < count; i++) {
+            Average average = receiveAverage();
+            listener.onAverage(average.getInstrumentId(), average.getType(), average.getValue());
+        }
+    }
+
+    /**
+     * Sends a random walk of ticks over a number of instruments as fast as possible, one tick per microsecond of
+     * simulated time, each trading between 1 and 100 units.
+     *
+     * @param ticks       The number of ticks to send.
+     * @param instruments The number of instruments, ids 1 to instruments.
+     * @param seed        The seed of the random walk, for repeatable runs.
+     * @return The time it took to send the ticks, in nanoseconds.
+     * @throws IOException if the connection fails.
+     */
+    public long generateLoad(int ticks, int instruments, long seed) throws IOException {
+        Random random = new Random(seed);
+        long multiplier = FixedPoint.multiplier(scale);
+        long[] prices = new long[instruments];
+        for (int i = 0; i < instruments; i++) {
+            prices[i] = 100 * multiplier;
+        }
+        long timestamp = System.currentTimeMillis() * 1_000_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < ticks; i++) {
+            int instrument = random.nextInt(instruments);
+            prices[instrument] = Math.max(1, prices[instrument] + random.nextInt(21) - 10);
+            sendTick(instrument + 1, prices[instrument], (1 + random.nextInt(100)) * multiplier, timestamp + i * 1_000L);
+        }
+        flush();
+        return System.nanoTime() - start;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Runs the load generator against a server.
+     *
+     * <pre>
+     * java -cp ... com.manish.finance.server.TickFeedClient &lt;host:port | socket path&gt; [ticks] [instruments]
+     * </pre>
+     *
+     * @param args The server address, a TCP host:port or the path of a Unix domain socket, then optionally the
+     *             number of ticks (1,000,000) and instruments (100).
+     * @throws IOException if the server cannot be reached.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: TickFeedClient <host:port | socket path> [ticks] [instruments]");
+            System.exit(2);
+        }
+        int separator = args[0].lastIndexOf(':');
+        SocketAddress address = separator > 0
+                ? new InetSocketAddress(args[0].substring(0, separator), Integer.parseInt(args[0].substring(separator + 1)))
+                : UnixDomainSocketAddress.of(args[0]);
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int instruments = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        try (TickFeedClient client = new TickFeedClient(address)) {
+            long nanos = client.generateLoad(ticks, instruments, 42);
+            System.out.printf("Sent %d ticks in %.1f ms, %.0f ticks/s%n", ticks, nanos / 1e6, ticks * 1e9 / nanos);
+        }
+    }
+
+    private void sendControl(byte type) throws IOException {
+        if (!out.hasRemaining()) {
+            flush();
+        }
+        out.put(type);
+    }
+
+    /**
+     * Reads until at least the given number of bytes is available.
+     */
+    private void ensure(int bytes) throws IOException {
+        while (in.remaining() < bytes) {
+            in.compact();
+            int read = channel.read(in);
+            in.flip();
+            if (read < 0) {
+                throw new EOFException("Connection closed by the server");
+            }
+        }
+    }
+}
@@ -0,0 +1,561 @@
+package com.manish.finance.server;
+
+import com.manish.finance.common.FixedPoint;
+import com.manish.finance.common.IntObjectMap;
+import com.manish.finance.common.SingleWriterCounter;
+import com.manish.finance.common.Tick;
+import com.manish.finance.intf.AverageListener;
+import com.manish.finance.quants.TickManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static com.manish.finance.server.TickWireProtocol.*;
+
+/**
+ * A TCP or Unix domain socket endpoint feeding {@link TickManager}s from other processes, see
+ * {@link TickWireProtocol} for the frames and {@link TickFeedClient} for a client.
+ *
+ * <p>A TickManager holds one set of calculators, so the server keeps one TickManager per instrument, created the
+ * first time a tick of the instrument arrives. A server constructed with a single TickManager serves a single
+ * instrument, the one of its first tick, and treats ticks of any other instrument as failing frames. Control
+ * signals apply to all instruments.</p>
+ *
+ * <p>One selector thread serves all connections with non-blocking channels and direct buffers. It decodes the tick
+ * frames of every read straight into {@link TickManager#onTick} or, for consecutive ticks of one instrument,
+ * {@link TickManager#onTicks}, so the calculators keep running on a single thread. The averages are encoded into
+ * the output buffer of every subscribed connection and written once per selector round.</p>
+ *
+ * <p>A subscriber whose output buffer is full, because it does not read fast enough, is disconnected rather than
+ * slowing down the tick processing or buffering without bound. A connection whose frames make the TickManager or
+ * a listener throw, e.g. with a price overflowing the fixed-point scale, is disconnected as well; the failure is
+ * counted and kept for {@link #getLastFailure()}, and the other connections are served on.</p>
+ *
+ * <pre>
+ * try (TickIngestServer server = new TickIngestServer(id -&gt; new TickManager(newCalculators()), new InetSocketAddress(7070), 4)) {
+ *     ...
+ * }
+ * </pre>
+ */
+public class TickIngestServer implements AutoCloseable {
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int DEFAULT_SUBSCRIBER_BUFFER_SIZE = 1024 * 1024;
+
+    private final IntFunction<TickManager> tickManagers;
+    private final int scale;
+    private final int subscriberBufferSize;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final SocketAddress localAddress;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    // Selector thread only
+    private final IntObjectMap<TickManager> managersByInstrument = new IntObjectMap<>();
+    private final List<TickManager> managers = new ArrayList<>();
+    private boolean cancelled;
+    private final List<Connection> subscribers = new ArrayList<>();
+    private final List<Tick> batch = new ArrayList<>();
+    private Tick[] delivering; // the ticks whose averages are being published, null between batches
+
+    private final SingleWriterCounter ticksReceived = new SingleWriterCounter(); // written by the selector thread
+    private final SingleWriterCounter slowSubscriberDisconnects = new SingleWriterCounter();
+    private final SingleWriterCounter failedConnections = new SingleWriterCounter();
+    private volatile RuntimeException lastFailure;
+
+    /**
+     * Constructs a TickIngestServer for a single instrument, binds it and starts its selector thread.
+     *
+     * @param tickManager The manager fed by the server, must not be fed by any other thread.
+     * @param address     An {@link InetSocketAddress} for TCP or a {@link UnixDomainSocketAddress}.
+     * @param scale       The fixed-point scale of the prices, volumes and averages on the wire.
+     * @throws IOException if the address cannot be bound.
+     */
+    public TickIngestServer(TickManager tickManager, SocketAddress address, int scale) throws IOException {
+        this(tickManager, address, scale, DEFAULT_SUBSCRIBER_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructs a TickIngestServer for a single instrument, binds it and starts its selector thread.
+     *
+     * @param tickManager          The manager fed by the server, must not be fed by any other thread.
+     * @param address              An {@link InetSocketAddress} for TCP or a {@link UnixDomainSocketAddress}.
+     * @param scale                The fixed-point scale of the prices, volumes and averages on the wire.
+     * @param subscriberBufferSize The bytes of averages buffered per subscriber before it is disconnected.
+     * @throws IOException if the address cannot be bound.
+     */
+    public TickIngestServer(TickManager tickManager, SocketAddress address, int scale, int subscriberBufferSize) throws IOException {
+        this(new SingleInstrument(tickManager), address, scale, subscriberBufferSize);
+    }
+
+    /**
+     * Constructs a TickIngestServer for any number of instruments, binds it and starts its selector thread.
+     *
+     * @param tickManagers Creates the manager of an instrument, called on the selector thread the first time a tick
+     *                     of the instrument arrives. The managers must not be fed by any other thread.
+     * @param address      An {@link InetSocketAddress} for TCP or a {@link UnixDomainSocketAddress}.
+     * @param scale        The fixed-point scale of the prices, volumes and averages on the wire.
+     * @throws IOException if the address cannot be bound.
+     */
+    public TickIngestServer(IntFunction<TickManager> tickManagers, SocketAddress address, int scale) throws IOException {
+        this(tickManagers, address, scale, DEFAULT_SUBSCRIBER_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructs a TickIngestServer for any number of instruments, binds it and starts its selector thread.
+     *
+     * @param tickManagers         Creates the manager of an instrument, called on the selector thread the first time
+     *                             a tick of the instrument arrives. The managers must not be fed by any other thread.
+     * @param address              An {@link InetSocketAddress} for TCP or a {@link UnixDomainSocketAddress}.
+     * @param scale                The fixed-point scale of the prices, volumes and averages on the wire.
+     * @param subscriberBufferSize The bytes of averages buffered per subscriber before it is disconnected.
+     * @throws IOException if the address cannot be bound.
+     */
+    public TickIngestServer(IntFunction<TickManager> tickManagers, SocketAddress address, int scale, int subscriberBufferSize) throws IOException {
+        FixedPoint.multiplier(scale); // validates the scale
+        if (subscriberBufferSize < HELLO_FRAME_SIZE + AVERAGE_HEADER_SIZE + MAX_TYPE_LENGTH) {
+            throw new IllegalArgumentException("Subscriber buffer too small for one average: " + subscriberBufferSize);
+        }
+        this.tickManagers = tickManagers;
+        this.scale = scale;
+        this.subscriberBufferSize = subscriberBufferSize;
+        this.selector = Selector.open();
+        this.serverChannel = address instanceof UnixDomainSocketAddress
+                ? ServerSocketChannel.open(StandardProtocolFamily.UNIX)
+                : ServerSocketChannel.open();
+        try {
+            serverChannel.bind(address);
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+            this.localAddress = serverChannel.getLocalAddress();
+        } catch (IOException e) {
+            serverChannel.close();
+            selector.close();
+            throw e;
+        }
+        this.worker = new Thread(this::run, "tick-ingest-server");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Returns the bound address, e.g. to find the port when binding port 0.
+     *
+     * @return The local address.
+     */
+    public SocketAddress getLocalAddress() {
+        return localAddress;
+    }
+
+    public long getTicksReceived() {
+        return ticksReceived.get();
+    }
+
+    /**
+     * Returns the number of subscribers disconnected because their output buffer was full.
+     *
+     * @return The number of slow subscribers disconnected.
+     */
+    public long getSlowSubscriberDisconnects() {
+        return slowSubscriberDisconnects.get();
+    }
+
+    /**
+     * Returns the number of connections disconnected because processing their frames threw an exception.
+     *
+     * @return The number of failed connections.
+     */
+    public long getFailedConnections() {
+        return failedConnections.get();
+    }
+
+    /**
+     * Returns the exception which made the server disconnect a connection most recently.
+     *
+     * @return The last failure, or null if no connection failed.
+     */
+    public RuntimeException getLastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * Stops the selector thread and closes all connections. Ticks not yet read from the sockets are lost. If the
+     * calling thread is interrupted while waiting, it returns right away with its interrupt flag set.
+     */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isValid()) {
+                        handle(key);
+                    }
+                }
+                flushSubscribers();
+            }
+        } catch (IOException e) {
+            // selector failed, nothing left to serve
+        } finally {
+            shutdown();
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+        Connection connection = (Connection) key.attachment();
+        try {
+            if (key.isReadable()) {
+                read(connection);
+            }
+            if (key.isValid() && key.isWritable()) {
+                flush(connection);
+            }
+        } catch (IOException e) {
+            disconnect(connection);
+        } catch (RuntimeException e) {
+            // a calculator, listener or encoding failed on this connection's frames, the others are not affected
+            lastFailure = e;
+            failedConnections.increment();
+            disconnect(connection);
+        }
+    }
+
+    private void accept() {
+        SocketChannel channel = null;
+        try {
+            channel = serverChannel.accept();
+            if (channel == null) {
+                return;
+            }
+            channel.configureBlocking(false);
+            if (!(localAddress instanceof UnixDomainSocketAddress)) {
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            }
+            Connection connection = new Connection(channel, subscriberBufferSize);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+            connection.out.put(HELLO).putShort(VERSION).putShort((short) scale);
+            flush(connection);
+        } catch (IOException e) {
+            closeQuietly(channel);
+        }
+    }
+
+    private void read(Connection connection) throws IOException {
+        if (connection.channel.read(connection.in) < 0) {
+            disconnect(connection);
+            return;
+        }
+        ByteBuffer in = connection.in.flip();
+        try {
+            while (in.hasRemaining()) {
+                int position = in.position();
+                byte type = in.get(position);
+                int size = clientFrameSize(type);
+                if (size < 0) {
+                    deliverBatch();
+                    throw new IOException("Unknown frame type " + type);
+                }
+                if (in.remaining() < size) {
+                    break;
+                }
+                if (type == TICK) {
+                    batch.add(new Tick(in.getInt(position + 1),
+                            FixedPoint.toBigDecimal(in.getLong(position + 5), scale),
+                            FixedPoint.toBigDecimal(in.getLong(position + 13), scale),
+                            FixedPoint.toInstant(in.getLong(position + 21))));
+                } else {
+                    deliverBatch(); // keep the control signal between the ticks sent before and after it
+                    control(connection, type);
+                }
+                in.position(position + size);
+            }
+            deliverBatch();
+        } finally {
+            batch.clear();
+            in.compact();
+        }
+    }
+
+    private void control(Connection connection, byte type) throws IOException {
+        switch (type) {
+            case SUBSCRIBE:
+                if (!connection.subscribed) {
+                    connection.subscribed = true;
+                    subscribers.add(connection);
+                }
+                connection.out.put(SUBSCRIBED);
+                flush(connection);
+                break;
+            case CANCEL:
+                cancelled = true;
+                for (TickManager tickManager : managers) {
+                    tickManager.onCancel();
+                }
+                break;
+            case RESUME:
+                cancelled = false;
+                for (TickManager tickManager : managers) {
+                    tickManager.onResume();
+                }
+                break;
+            case RESET:
+                for (TickManager tickManager : managers) {
+                    tickManager.onReset();
+                }
+                break;
+            default:
+                throw new IOException("Unexpected frame type " + type);
+        }
+    }
+
+    private void deliverBatch() {
+        int size = batch.size();
+        if (size == 0) {
+            return;
+        }
+        try {
+            int from = 0;
+            while (from < size) {
+                int instrumentId = batch.get(from).getInstrumentId();
+                int to = from + 1;
+                while (to < size && batch.get(to).getInstrumentId() == instrumentId) {
+                    to++;
+                }
+                deliver(managerOf(instrumentId), batch.subList(from, to));
+                from = to;
+            }
+        } finally {
+            ticksReceived.add(size);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Feeds consecutive ticks of one instrument to the instrument's manager.
+     */
+    private void deliver(TickManager tickManager, List<Tick> ticks) {
+        delivering = ticks.toArray(new Tick[0]);
+        try {
+            if (delivering.length == 1) {
+                tickManager.onTick(delivering[0]);
+            } else {
+                tickManager.onTicks(delivering);
+            }
+        } finally {
+            delivering = null;
+        }
+    }
+
+    private TickManager managerOf(int instrumentId) {
+        TickManager tickManager = managersByInstrument.get(instrumentId);
+        if (tickManager == null) {
+            tickManager = tickManagers.apply(instrumentId);
+            for (String type : tickManager.getCalculatorTypes()) {
+                tickManager.addListener(type, new AveragePublisher(instrumentId, encode(type)));
+            }
+            if (cancelled) {
+                tickManager.onCancel();
+            }
+            managersByInstrument.put(instrumentId, tickManager);
+            managers.add(tickManager);
+        }
+        return tickManager;
+    }
+
+    private static byte[] encode(String type) {
+        byte[] encodedType = type.getBytes(StandardCharsets.UTF_8);
+        if (encodedType.length > MAX_TYPE_LENGTH) {
+            throw new IllegalArgumentException("Calculator type too long for the wire: " + type);
+        }
+        return encodedType;
+    }
+
+    /**
+     * Encodes an average into the output buffer of every subscriber. Called by the TickManager on the selector
+     * thread.
+     *
+     * @param tick The tick the average was calculated for, null if it was not calculated for a tick.
+     */
+    private void publish(byte[] type, int instrumentId, Tick tick, BigDecimal average) {
+        long scaledAverage = FixedPoint.toScaled(average, scale);
+        long timestamp = tick == null ? 0 : FixedPoint.toEpochNanos(tick.getTimestamp());
+        for (int i = 0; i < subscribers.size(); i++) {
+            Connection subscriber = subscribers.get(i);
+            ByteBuffer out = subscriber.out;
+            if (out.remaining() < AVERAGE_HEADER_SIZE + type.length) {
+                subscriber.slow = true;
+                continue;
+            }
+            out.put(AVERAGE).putLong(scaledAverage).putInt(instrumentId).putLong(timestamp)
+                    .put((byte) type.length).put(type);
+        }
+    }
+
+    private void flushSubscribers() {
+        for (int i = subscribers.size() - 1; i >= 0; i--) {
+            Connection subscriber = subscribers.get(i);
+            if (subscriber.slow) {
+                slowSubscriberDisconnects.increment();
+                disconnect(subscriber);
+            } else if (subscriber.out.position() > 0) {
+                try {
+                    flush(subscriber);
+                } catch (IOException e) {
+                    disconnect(subscriber);
+                }
+            }
+        }
+    }
+
+    private void flush(Connection connection) throws IOException {
+        ByteBuffer out = connection.out.flip();
+        try {
+            connection.channel.write(out);
+        } finally {
+            out.compact();
+        }
+        int interest = out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+        if (connection.key.isValid() && connection.key.interestOps() != interest) {
+            connection.key.interestOps(interest);
+        }
+    }
+
+    private void disconnect(Connection connection) {
+        connection.key.cancel();
+        closeQuietly(connection.channel);
+        if (connection.subscribed) {
+            subscribers.remove(connection);
+            connection.subscribed = false;
+        }
+    }
+
+    private void shutdown() {
+        for (SelectionKey key : selector.keys()) {
+            closeQuietly(key.channel());
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            // closing anyway
+        }
+        if (localAddress instanceof UnixDomainSocketAddress) {
+            try {
+                Files.deleteIfExists(((UnixDomainSocketAddress) localAddress).getPath());
+            } catch (IOException e) {
+                // the socket file stays behind
+            }
+        }
+    }
+
+    private static void closeQuietly(Channel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // closing anyway
+            }
+        }
+    }
+
+    /**
+     * Publishes the averages of one calculator type of one instrument, matching them with the ticks being delivered.
+     * Averages published while no tick is delivered, e.g. by a wall clock expiry of the TickManager, are sent
+     * without a timestamp.
+     */
+    private final class AveragePublisher implements AverageListener {
+        private final int instrumentId;
+        private final byte[] type;
+
+        AveragePublisher(int instrumentId, byte[] type) {
+            this.instrumentId = instrumentId;
+            this.type = type;
+        }
+
+        @Override
+        public void onAverage(String calculatorType, BigDecimal avg) {
+            publish(type, instrumentId, delivering == null ? null : delivering[0], avg);
+        }
+
+        @Override
+        public void onAverages(String calculatorType, BigDecimal[] avgs) {
+            for (int i = 0; i < avgs.length; i++) {
+                publish(type, instrumentId, delivering[i], avgs[i]);
+            }
+        }
+    }
+
+    /**
+     * Hands out the manager of a single-instrument server to the first instrument and rejects any other.
+     */
+    private static final class SingleInstrument implements IntFunction<TickManager> {
+        private final TickManager tickManager;
+        private boolean bound;
+
+        SingleInstrument(TickManager tickManager) {
+            for (String type : tickManager.getCalculatorTypes()) {
+                encode(type); // fails construction rather than the first tick
+            }
+            this.tickManager = tickManager;
+        }
+
+        @Override
+        public TickManager apply(int instrumentId) {
+            if (bound) {
+                throw new IllegalArgumentException("Server serves a single instrument, rejecting a tick of instrument " + instrumentId);
+            }
+            bound = true;
+            return tickManager;
+        }
+    }
+
+    /**
+     * The buffers and state of one client connection.
+     */
+    private static final class Connection {
+        final SocketChannel channel;
+        final ByteBuffer in = ByteBuffer.allocateDirect(READ_BUFFER_SIZE).order(BYTE_ORDER);
+        final ByteBuffer out;
+        SelectionKey key;
+        boolean subscribed;
+        boolean slow;
+
+        Connection(SocketChannel channel, int outputSize) {
+            this.channel = channel;
+            this.out = ByteBuffer.allocateDirect(outputSize).order(BYTE_ORDER);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.manish.finance.server;
+
+import java.nio.ByteOrder;
+
+/**
+ * Frames exchanged between {@link TickIngestServer} and {@link TickFeedClient}, all little endian like the tick
+ * store files.
+ *
+ * <p>Every frame starts with a one byte frame type followed by a fixed or length prefixed payload:</p>
+ * <pre>
+ * client to server:
+ *   TICK      int instrument id | long price | long volume (both fixed point at the server's scale)
+ *             | long timestamp (epoch nanos)
+ *   SUBSCRIBE (no payload) receive the averages of all calculators on this connection
+ *   CANCEL, RESUME, RESET (no payload) the TickListener control signals
+ * server to client:
+ *   HELLO      short protocol version | short scale, sent once when the connection is accepted
+ *   SUBSCRIBED (no payload) acknowledges SUBSCRIBE, averages of all later ticks follow
+ *   AVERAGE    long average (fixed point at the server's scale) | int instrument id | long tick timestamp
+ *              (epoch nanos) | byte type length | type (UTF-8); the timestamp is 0 for an average not calculated for
+ *              a tick, e.g. one republished by a wall clock expiry
+ * </pre>
+ * <p>Frames of one connection are processed in order, so control signals take effect exactly between the ticks
+ * sent before and after them.</p>
+ */
+final class TickWireProtocol {
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    static final short VERSION = 3;
+
+    static final byte TICK = 1;
+    static final byte SUBSCRIBE = 2;
+    static final byte CANCEL = 3;
+    static final byte RESUME = 4;
+    static final byte RESET = 5;
+
+    static final byte HELLO = 16;
+    static final byte SUBSCRIBED = 17;
+    static final byte AVERAGE = 18;
+
+    static final int TICK_FRAME_SIZE = 1 + 4 + 8 + 8 + 8;
+    static final int HELLO_FRAME_SIZE = 1 + 2 + 2;
+    static final int AVERAGE_HEADER_SIZE = 1 + 8 + 4 + 8 + 1;
+    static final int MAX_TYPE_LENGTH = 255;
+
+    private TickWireProtocol() {
+    }
+
+    /**
+     * Returns the size of a client to server frame.
+     *
+     * @param type The frame type.
+     * @return The size of the frame including its type byte, or -1 if the type is unknown.
+     */
+    static int clientFrameSize(byte type) {
+        switch (type) {
+            case TICK:
+                return TICK_FRAME_SIZE;
+            case SUBSCRIBE:
+            case CANCEL:
+            case RESUME:
+            case RESET:
+                return 1;
+            default:
+                return -1;
+        }
+    }
+}
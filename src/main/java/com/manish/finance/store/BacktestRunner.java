@@ -0,0 +1,312 @@
+package com.manish.finance.store;
+
+import com.manish.finance.common.Tick;
+import com.manish.finance.intf.Calculator;
+import com.manish.finance.intf.PrimitiveCalculator;
+import com.manish.finance.quants.BatchTickManager;
+import com.manish.finance.quants.TickManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+import java.util.function.LongFunction;
+import java.util.function.LongToIntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Replays historical ticks through the calculators on all cores, one instrument per fork-join task.
+ *
+ * <p>Instruments are independent: each gets its own calculators, created from the templates as in
+ * {@link com.manish.finance.quants.ShardedTickManager}, and fed by its own {@link TickManager}. The source is first
+ * partitioned by instrument in one sequential pass which only records the positions of each instrument's ticks.
+ * The partitions are then replayed in parallel on a {@link ForkJoinPool}, whose work stealing balances instruments
+ * with very different tick counts. Every partition keeps the order of the source, so the averages are exactly the
+ * ones of feeding each instrument's ticks to {@link TickManager#onTick} sequentially, whatever the parallelism.</p>
+ *
+ * <p>The BigDecimal calculators keep the Ticks of their window, so their replay decodes one Tick per record. Primitive
+ * calculators can replay a tick store file through {@link #run(TickStoreReader, Map)} instead, which decodes each
+ * partition straight into the price and timestamp columns of a {@link BatchTickManager} and allocates nothing
+ * per tick.</p>
+ *
+ * <pre>
+ * BacktestRunner runner = new BacktestRunner(Map.of("EMA", () -> new ExponentialAverageCalculator(20, alpha)));
+ * try (TickStoreReader reader = new TickStoreReader(file)) {
+ *     Map&lt;Integer, BacktestRunner.InstrumentAverages&gt; results = runner.run(reader);
+ * }
+ * </pre>
+ */
+public class BacktestRunner {
+
+    private final Map<String, Supplier<Calculator>> templates;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a BacktestRunner on the common fork-join pool.
+     *
+     * @param templates Creates the calculators of each instrument, keyed by calculator type.
+     */
+    public BacktestRunner(Map<String, Supplier<Calculator>> templates) {
+        this(templates, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a BacktestRunner on the given fork-join pool.
+     *
+     * @param templates Creates the calculators of each instrument, keyed by calculator type.
+     * @param pool      The pool running the replay.
+     */
+    public BacktestRunner(Map<String, Supplier<Calculator>> templates, ForkJoinPool pool) {
+        this.templates = templates;
+        this.pool = pool;
+    }
+
+    /**
+     * Replays every tick of a tick store file.
+     *
+     * @param reader The file to replay, read concurrently by the tasks.
+     * @return The averages per instrument, ordered by instrument id.
+     */
+    public Map<Integer, InstrumentAverages> run(TickStoreReader reader) {
+        return run(partition(reader.size(), reader::instrumentAt), reader::tickAt);
+    }
+
+    /**
+     * Replays every tick of a tick store file through primitive calculators, without decoding Tick objects. The
+     * templates of this runner are not used.
+     *
+     * @param reader      The file to replay, read concurrently by the tasks.
+     * @param calculators Creates the primitive calculators of each instrument, keyed by calculator type.
+     * @return The averages per instrument, ordered by instrument id.
+     */
+    public Map<Integer, PrimitiveAverages> run(TickStoreReader reader, Map<String, Supplier<PrimitiveCalculator>> calculators) {
+        Partition[] partitions = partition(reader.size(), reader::instrumentAt);
+        PrimitiveAverages[] results = new PrimitiveAverages[partitions.length];
+        pool.invoke(new ReplayTask(i -> results[i] = replay(partitions[i], reader, calculators), 0, partitions.length));
+        Map<Integer, PrimitiveAverages> byInstrument = new TreeMap<>();
+        for (PrimitiveAverages result : results) {
+            byInstrument.put(result.getInstrumentId(), result);
+        }
+        return byInstrument;
+    }
+
+    /**
+     * Replays a list of ticks of any instruments, in list order.
+     *
+     * @param ticks The ticks to replay.
+     * @return The averages per instrument, ordered by instrument id.
+     */
+    public Map<Integer, InstrumentAverages> run(List<Tick> ticks) {
+        return run(partition(ticks.size(), index -> ticks.get((int) index).getInstrumentId()),
+                index -> ticks.get((int) index));
+    }
+
+    private Map<Integer, InstrumentAverages> run(Partition[] partitions, LongFunction<Tick> source) {
+        InstrumentAverages[] results = new InstrumentAverages[partitions.length];
+        pool.invoke(new ReplayTask(i -> results[i] = replay(partitions[i], source), 0, partitions.length));
+        Map<Integer, InstrumentAverages> byInstrument = new TreeMap<>();
+        for (InstrumentAverages result : results) {
+            byInstrument.put(result.getInstrumentId(), result);
+        }
+        return byInstrument;
+    }
+
+    /**
+     * Records the positions of each instrument's ticks in a single pass over the source.
+     */
+    private static Partition[] partition(long count, LongToIntFunction instrumentAt) {
+        Map<Integer, Partition> partitions = new HashMap<>();
+        Partition last = null;
+        for (long i = 0; i < count; i++) {
+            int instrumentId = instrumentAt.applyAsInt(i);
+            if (last == null || last.instrumentId != instrumentId) {
+                last = partitions.computeIfAbsent(instrumentId, Partition::new);
+            }
+            last.add(i);
+        }
+        return partitions.values().toArray(new Partition[0]);
+    }
+
+    private InstrumentAverages replay(Partition partition, LongFunction<Tick> source) {
+        Map<String, Calculator> calculators = new LinkedHashMap<>();
+        Map<String, List<BigDecimal>> averages = new LinkedHashMap<>();
+        for (Map.Entry<String, Supplier<Calculator>> template : templates.entrySet()) {
+            calculators.put(template.getKey(), template.getValue().get());
+            averages.put(template.getKey(), new ArrayList<>(partition.size));
+        }
+        TickManager tickManager = new TickManager(calculators);
+        for (Map.Entry<String, List<BigDecimal>> entry : averages.entrySet()) {
+            List<BigDecimal> typeAverages = entry.getValue();
+            tickManager.addListener(entry.getKey(), (type, avg) -> typeAverages.add(avg));
+        }
+        for (int i = 0; i < partition.size; i++) {
+            tickManager.onTick(source.apply(partition.indices[i]));
+        }
+        return new InstrumentAverages(partition.instrumentId, averages);
+    }
+
+    private static PrimitiveAverages replay(Partition partition, TickStoreReader reader,
+                                            Map<String, Supplier<PrimitiveCalculator>> templates) {
+        double[] prices = new double[partition.size];
+        long[] timestamps = new long[partition.size];
+        for (int i = 0; i < partition.size; i++) {
+            prices[i] = reader.priceAt(partition.indices[i]);
+            timestamps[i] = reader.timestampAt(partition.indices[i]);
+        }
+        Map<String, PrimitiveCalculator> calculators = new LinkedHashMap<>();
+        for (Map.Entry<String, Supplier<PrimitiveCalculator>> template : templates.entrySet()) {
+            calculators.put(template.getKey(), template.getValue().get());
+        }
+        BatchTickManager manager = new BatchTickManager(calculators);
+        Map<String, double[]> averages = new LinkedHashMap<>();
+        for (String type : calculators.keySet()) {
+            manager.addListener(type, (calculatorType, batch, length) -> averages.put(calculatorType, Arrays.copyOf(batch, length)));
+        }
+        manager.onTicks(prices, timestamps, partition.size);
+        return new PrimitiveAverages(partition.instrumentId, averages);
+    }
+
+    /**
+     * The positions of one instrument's ticks in the source, in source order.
+     */
+    private static final class Partition {
+        final int instrumentId;
+        long[] indices = new long[16];
+        int size;
+
+        Partition(int instrumentId) {
+            this.instrumentId = instrumentId;
+        }
+
+        void add(long index) {
+            if (size == indices.length) {
+                indices = Arrays.copyOf(indices, size * 2);
+            }
+            indices[size++] = index;
+        }
+    }
+
+    /**
+     * Splits a range of partitions in halves until a single partition is left, which is replayed.
+     */
+    private static final class ReplayTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final IntConsumer replay;
+        private final int from;
+        private final int to;
+
+        ReplayTask(IntConsumer replay, int from, int to) {
+            this.replay = replay;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                replay.accept(from);
+            } else if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ReplayTask(replay, from, middle), new ReplayTask(replay, middle, to));
+            }
+        }
+    }
+
+    /**
+     * The averages of one instrument, one per tick of the instrument and calculator type, in tick order.
+     */
+    public static final class InstrumentAverages {
+        private final int instrumentId;
+        private final Map<String, List<BigDecimal>> averages;
+
+        InstrumentAverages(int instrumentId, Map<String, List<BigDecimal>> averages) {
+            this.instrumentId = instrumentId;
+            this.averages = averages;
+        }
+
+        public int getInstrumentId() {
+            return instrumentId;
+        }
+
+        /**
+         * Returns the averages of a calculator type, one per tick of the instrument.
+         *
+         * @param type The calculator type.
+         * @return The averages in tick order.
+         */
+        public List<BigDecimal> getAverages(String type) {
+            List<BigDecimal> typeAverages = averages.get(type);
+            if (typeAverages == null) {
+                throw new IllegalArgumentException("Unknown calculator type " + type);
+            }
+            return Collections.unmodifiableList(typeAverages);
+        }
+
+        /**
+         * Returns the average of a calculator type after the last tick of the instrument.
+         *
+         * @param type The calculator type.
+         * @return The last average.
+         */
+        public BigDecimal getLastAverage(String type) {
+            List<BigDecimal> typeAverages = getAverages(type);
+            return typeAverages.get(typeAverages.size() - 1);
+        }
+    }
+
+    /**
+     * The averages of one instrument replayed through primitive calculators, one per tick of the instrument and
+     * calculator type, in tick order.
+     */
+    public static final class PrimitiveAverages {
+        private final int instrumentId;
+        private final Map<String, double[]> averages;
+
+        PrimitiveAverages(int instrumentId, Map<String, double[]> averages) {
+            this.instrumentId = instrumentId;
+            this.averages = averages;
+        }
+
+        public int getInstrumentId() {
+            return instrumentId;
+        }
+
+        /**
+         * Returns the averages of a calculator type, one per tick of the instrument.
+         *
+         * @param type The calculator type.
+         * @return A copy of the averages in tick order.
+         */
+        public double[] getAverages(String type) {
+            return averagesOf(type).clone();
+        }
+
+        /**
+         * Returns the average of a calculator type after the last tick of the instrument.
+         *
+         * @param type The calculator type.
+         * @return The last average.
+         */
+        public double getLastAverage(String type) {
+            double[] typeAverages = averagesOf(type);
+            return typeAverages[typeAverages.length - 1];
+        }
+
+        private double[] averagesOf(String type) {
+            double[] typeAverages = averages.get(type);
+            if (typeAverages == null) {
+                throw new IllegalArgumentException("Unknown calculator type " + type);
+            }
+            return typeAverages;
+        }
+    }
+}
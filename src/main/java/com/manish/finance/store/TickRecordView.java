@@ -0,0 +1,100 @@
+package com.manish.finance.store;
+
+import com.manish.finance.common.FixedPoint;
+import com.manish.finance.intf.TickView;
+
+import java.nio.ByteBuffer;
+
+import static com.manish.finance.store.TickStoreFormat.*;
+
+/**
+ * A flyweight TickView over one record in a ByteBuffer, in the record layout of {@link TickStoreFormat}.
+ *
+ * <p>The view decodes its fields straight from the buffer on every access, so pointing it at the next record with
+ * {@link #wrap(ByteBuffer, int)} is all a feed decoder has to do per event. The same view reads records of a
+ * memory-mapped tick store file, see {@link TickStoreReader#viewAt(long, TickRecordView)}.</p>
+ */
+public class TickRecordView implements TickView {
+
+    /**
+     * The size of one record in bytes.
+     */
+    public static final int RECORD_BYTES = RECORD_SIZE;
+
+    private final int scale;
+    private ByteBuffer buffer;
+    private int offset;
+
+    /**
+     * Constructs an unwrapped TickRecordView.
+     *
+     * @param scale The fixed-point scale of the prices and volumes in the records.
+     */
+    public TickRecordView(int scale) {
+        FixedPoint.multiplier(scale); // validates the scale
+        this.scale = scale;
+    }
+
+    /**
+     * Points this view at the record starting at the given offset.
+     *
+     * @param buffer The buffer holding the record, in little endian byte order.
+     * @param offset The absolute offset of the record in the buffer.
+     * @return This view, to pass it on directly.
+     */
+    public TickRecordView wrap(ByteBuffer buffer, int offset) {
+        if (buffer.order() != BYTE_ORDER) {
+            throw new IllegalArgumentException("Tick records are " + BYTE_ORDER + ", buffer is " + buffer.order());
+        }
+        if (offset < 0 || offset > buffer.limit() - RECORD_SIZE) {
+            throw new IndexOutOfBoundsException("No record at offset " + offset + " in buffer of limit " + buffer.limit());
+        }
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * Writes a record in the layout read by this view, e.g. to produce test feeds.
+     *
+     * @param buffer         The buffer to write to, in little endian byte order.
+     * @param offset         The absolute offset of the record in the buffer.
+     * @param instrumentId   The instrument of the tick.
+     * @param scaledPrice    The price at the view's scale.
+     * @param scaledVolume   The volume at the view's scale.
+     * @param timestampNanos The timestamp in epoch nanoseconds.
+     */
+    public static void write(ByteBuffer buffer, int offset, int instrumentId, long scaledPrice, long scaledVolume,
+                             long timestampNanos) {
+        buffer.putLong(offset + TIMESTAMP_OFFSET, timestampNanos)
+                .putLong(offset + PRICE_OFFSET, scaledPrice)
+                .putLong(offset + VOLUME_OFFSET, scaledVolume)
+                .putInt(offset + INSTRUMENT_OFFSET, instrumentId)
+                .putInt(offset + INSTRUMENT_OFFSET + 4, 0);
+    }
+
+    @Override
+    public int instrumentId() {
+        return buffer.getInt(offset + INSTRUMENT_OFFSET);
+    }
+
+    @Override
+    public long scaledPrice() {
+        return buffer.getLong(offset + PRICE_OFFSET);
+    }
+
+    @Override
+    public long scaledVolume() {
+        return buffer.getLong(offset + VOLUME_OFFSET);
+    }
+
+    @Override
+    public int scale() {
+        return scale;
+    }
+
+    @Override
+    public long timestampNanos() {
+        return buffer.getLong(offset + TIMESTAMP_OFFSET);
+    }
+}
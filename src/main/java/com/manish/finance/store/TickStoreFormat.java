@@ -0,0 +1,36 @@
+package com.manish.finance.store;
+
+import java.nio.ByteOrder;
+
+/**
+ * Layout of the binary tick store files written by {@link TickStoreWriter} and read by {@link TickStoreReader}.
+ *
+ * <p>A file is a 32 byte header followed by fixed-width 32 byte records, all little endian:</p>
+ * <pre>
+ * header: int magic | short version | short scale | long record count | 16 reserved bytes
+ * record: long timestamp (epoch nanos) | long price | long volume (both fixed point at the header's scale)
+ *         | int instrument id | int reserved
+ * </pre>
+ * <p>Version 1 records had no volume and were 24 bytes; such files are rejected.</p>
+ * <p>Records are sorted by timestamp, which lets readers binary search for a point in time.</p>
+ */
+final class TickStoreFormat {
+    static final int MAGIC = 0x4B434954; // "TICK" in little endian
+    static final short VERSION = 2;
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    static final int HEADER_SIZE = 32;
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int SCALE_OFFSET = 6;
+    static final int COUNT_OFFSET = 8;
+
+    static final int RECORD_SIZE = 32;
+    static final int TIMESTAMP_OFFSET = 0;
+    static final int PRICE_OFFSET = 8;
+    static final int VOLUME_OFFSET = 16;
+    static final int INSTRUMENT_OFFSET = 24;
+
+    private TickStoreFormat() {
+    }
+}
@@ -0,0 +1,263 @@
+package com.manish.finance.store;
+
+import com.manish.finance.common.FixedPoint;
+import com.manish.finance.common.Tick;
+import com.manish.finance.intf.FixedPointCalculator;
+import com.manish.finance.intf.PrimitiveCalculator;
+import com.manish.finance.intf.TickListener;
+import com.manish.finance.quants.BatchTickManager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+import static com.manish.finance.store.TickStoreFormat.*;
+
+/**
+ * Reads a binary tick store file, see {@link TickStoreFormat} for the layout.
+ *
+ * <p>The file is memory-mapped and records are decoded in place with absolute reads, so replaying into the
+ * primitive and fixed-point calculators copies nothing but the primitive fields. Files larger than 2 GB are
+ * mapped in several segments. Because records are sorted by timestamp, {@link #seek(Instant)} finds a point in
+ * time by binary search, e.g. to warm up a windowed calculator from just the tail of the file.</p>
+ *
+ * <p>All read methods only use absolute positions, so one reader can be shared by several threads.</p>
+ */
+public class TickStoreReader implements AutoCloseable {
+
+    /**
+     * Instrument filter value matching the ticks of every instrument.
+     */
+    public static final int ALL_INSTRUMENTS = Integer.MIN_VALUE;
+
+    private static final int RECORDS_PER_SEGMENT = Integer.MAX_VALUE / RECORD_SIZE;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final int scale;
+    private final long count;
+
+    /**
+     * Opens and maps a tick store file.
+     *
+     * @param path The file to read.
+     * @throws IOException if the file cannot be read or is not a complete tick store file.
+     */
+    public TickStoreReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(BYTE_ORDER);
+            if (header.getInt(MAGIC_OFFSET) != MAGIC || header.getShort(VERSION_OFFSET) != VERSION) {
+                throw new IOException("Not a tick store file: " + path);
+            }
+            this.scale = header.getShort(SCALE_OFFSET);
+            this.count = header.getLong(COUNT_OFFSET);
+            if (channel.size() != HEADER_SIZE + count * RECORD_SIZE) {
+                throw new IOException("Tick store file " + path + " is truncated or was not closed properly");
+            }
+            int segmentCount = (int) ((count + RECORDS_PER_SEGMENT - 1) / RECORDS_PER_SEGMENT);
+            this.segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long first = (long) i * RECORDS_PER_SEGMENT;
+                long records = Math.min(RECORDS_PER_SEGMENT, count - first);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * RECORD_SIZE, records * RECORD_SIZE);
+                segments[i].order(BYTE_ORDER);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of ticks in the file.
+     *
+     * @return The number of ticks.
+     */
+    public long size() {
+        return count;
+    }
+
+    /**
+     * Returns the fixed-point scale of the stored prices and volumes.
+     *
+     * @return The scale.
+     */
+    public int getScale() {
+        return scale;
+    }
+
+    public long timestampAt(long index) {
+        return segment(index).getLong(offset(index) + TIMESTAMP_OFFSET);
+    }
+
+    public long scaledPriceAt(long index) {
+        return segment(index).getLong(offset(index) + PRICE_OFFSET);
+    }
+
+    public long scaledVolumeAt(long index) {
+        return segment(index).getLong(offset(index) + VOLUME_OFFSET);
+    }
+
+    public double priceAt(long index) {
+        return FixedPoint.toDouble(scaledPriceAt(index), scale);
+    }
+
+    public int instrumentAt(long index) {
+        return segment(index).getInt(offset(index) + INSTRUMENT_OFFSET);
+    }
+
+    /**
+     * Decodes the tick at the given index into a new Tick object.
+     *
+     * @param index The index of the tick.
+     * @return The tick.
+     */
+    public Tick tickAt(long index) {
+        return new Tick(instrumentAt(index), FixedPoint.toBigDecimal(scaledPriceAt(index), scale),
+                FixedPoint.toBigDecimal(scaledVolumeAt(index), scale), FixedPoint.toInstant(timestampAt(index)));
+    }
+
+    /**
+     * Points a view at the tick at the given index, decoding nothing until its fields are read.
+     *
+     * @param index The index of the tick.
+     * @param view  The view to reuse, created with this store's scale.
+     * @return The view.
+     */
+    public TickRecordView viewAt(long index, TickRecordView view) {
+        if (view.scale() != scale) {
+            throw new IllegalArgumentException("View scale " + view.scale() + " does not match store scale " + scale);
+        }
+        return view.wrap(segment(index), offset(index));
+    }
+
+    /**
+     * Finds the first tick at or after the given time.
+     *
+     * @param timestamp The time to seek to.
+     * @return The index of the first tick not before timestamp, or {@link #size()} if there is none.
+     */
+    public long seek(Instant timestamp) {
+        long target = FixedPoint.toEpochNanos(timestamp);
+        long low = 0;
+        long high = count;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (timestampAt(middle) < target) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Replays the ticks from the given index to the end of the file into a primitive calculator.
+     *
+     * @param from         The index of the first tick to replay.
+     * @param instrumentId The instrument to replay, or {@link #ALL_INSTRUMENTS}.
+     * @param calculator   The calculator to feed.
+     * @return The result of the calculator after the last replayed tick, 0 if no tick was replayed.
+     */
+    public double replay(long from, int instrumentId, PrimitiveCalculator calculator) {
+        double result = 0;
+        for (long i = from; i < count; i++) {
+            if (instrumentId == ALL_INSTRUMENTS || instrumentAt(i) == instrumentId) {
+                result = calculator.calculate(priceAt(i), timestampAt(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Replays the ticks from the given index to the end of the file into a fixed-point calculator of the same scale.
+     *
+     * @param from         The index of the first tick to replay.
+     * @param instrumentId The instrument to replay, or {@link #ALL_INSTRUMENTS}.
+     * @param calculator   The calculator to feed.
+     * @return The result of the calculator after the last replayed tick, 0 if no tick was replayed.
+     */
+    public long replay(long from, int instrumentId, FixedPointCalculator calculator) {
+        if (calculator.getScale() != scale) {
+            throw new IllegalArgumentException("Calculator scale " + calculator.getScale() + " does not match store scale " + scale);
+        }
+        long result = 0;
+        for (long i = from; i < count; i++) {
+            if (instrumentId == ALL_INSTRUMENTS || instrumentAt(i) == instrumentId) {
+                result = calculator.calculate(scaledPriceAt(i), timestampAt(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Replays the ticks from the given index to the end of the file into a TickListener, e.g. a TickManager.
+     * This path decodes every record into a Tick object.
+     *
+     * @param from         The index of the first tick to replay.
+     * @param instrumentId The instrument to replay, or {@link #ALL_INSTRUMENTS}.
+     * @param listener     The listener to feed.
+     */
+    public void replay(long from, int instrumentId, TickListener listener) {
+        for (long i = from; i < count; i++) {
+            if (instrumentId == ALL_INSTRUMENTS || instrumentAt(i) == instrumentId) {
+                listener.onTick(tickAt(i));
+            }
+        }
+    }
+
+    /**
+     * Replays the ticks from the given index to the end of the file into a BatchTickManager, decoding the records
+     * into columnar batches of the given size.
+     *
+     * @param from         The index of the first tick to replay.
+     * @param instrumentId The instrument to replay, or {@link #ALL_INSTRUMENTS}.
+     * @param manager      The manager to feed.
+     * @param batchSize    The maximum number of ticks per batch.
+     */
+    public void replay(long from, int instrumentId, BatchTickManager manager, int batchSize) {
+        double[] prices = new double[batchSize];
+        long[] timestamps = new long[batchSize];
+        int length = 0;
+        for (long i = from; i < count; i++) {
+            if (instrumentId == ALL_INSTRUMENTS || instrumentAt(i) == instrumentId) {
+                prices[length] = priceAt(i);
+                timestamps[length] = timestampAt(i);
+                if (++length == batchSize) {
+                    manager.onTicks(prices, timestamps, length);
+                    length = 0;
+                }
+            }
+        }
+        if (length > 0) {
+            manager.onTicks(prices, timestamps, length);
+        }
+    }
+
+    /**
+     * Closes the file. The mapping itself is released once the reader is garbage collected.
+     *
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private MappedByteBuffer segment(long index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Tick " + index + " outside store of size " + count);
+        }
+        return segments[(int) (index / RECORDS_PER_SEGMENT)];
+    }
+
+    private static int offset(long index) {
+        return (int) (index % RECORDS_PER_SEGMENT) * RECORD_SIZE;
+    }
+}
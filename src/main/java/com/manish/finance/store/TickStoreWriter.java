@@ -0,0 +1,115 @@
+package com.manish.finance.store;
+
+import com.manish.finance.common.FixedPoint;
+import com.manish.finance.common.Tick;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static com.manish.finance.store.TickStoreFormat.*;
+
+/**
+ * Writes ticks into a binary tick store file, see {@link TickStoreFormat} for the layout.
+ *
+ * <p>Records are staged in a direct buffer and written to the file channel in large blocks. Ticks must be written
+ * in timestamp order. The record count in the header is only filled in by {@link #close()}, so a file which was
+ * not closed properly is rejected by the reader.</p>
+ */
+public class TickStoreWriter implements AutoCloseable {
+    private static final int BUFFER_RECORDS = 4096;
+
+    private final FileChannel channel;
+    private final int scale;
+    private final ByteBuffer buffer;
+    private long count;
+    private long lastTimestamp = Long.MIN_VALUE;
+
+    /**
+     * Creates or truncates the given file and writes its header.
+     *
+     * @param path  The file to write.
+     * @param scale The fixed-point scale used to store prices and volumes.
+     * @throws IOException if the file cannot be written.
+     */
+    public TickStoreWriter(Path path, int scale) throws IOException {
+        FixedPoint.multiplier(scale); // validates the scale
+        this.scale = scale;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * RECORD_SIZE).order(BYTE_ORDER);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(BYTE_ORDER);
+        header.putInt(MAGIC_OFFSET, MAGIC).putShort(VERSION_OFFSET, VERSION).putShort(SCALE_OFFSET, (short) scale);
+        channel.write(header);
+    }
+
+    /**
+     * Appends a Tick, converting its price and volume to the store's scale.
+     *
+     * @param tick The tick to write.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(Tick tick) throws IOException {
+        write(tick.getInstrumentId(), FixedPoint.toScaled(tick.getPrice(), scale),
+                FixedPoint.toScaled(tick.getVolume(), scale), FixedPoint.toEpochNanos(tick.getTimestamp()));
+    }
+
+    /**
+     * Appends a tick given as primitives.
+     *
+     * @param instrumentId   The instrument of the tick.
+     * @param scaledPrice    The price at the store's scale.
+     * @param scaledVolume   The volume at the store's scale.
+     * @param timestampNanos The timestamp in epoch nanoseconds, not before the previous tick's timestamp.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(int instrumentId, long scaledPrice, long scaledVolume, long timestampNanos) throws IOException {
+        if (timestampNanos < lastTimestamp) {
+            throw new IllegalArgumentException("Ticks must be written in timestamp order: " + timestampNanos + " < " + lastTimestamp);
+        }
+        lastTimestamp = timestampNanos;
+        if (!buffer.hasRemaining()) {
+            flushBuffer();
+        }
+        int position = buffer.position();
+        TickRecordView.write(buffer, position, instrumentId, scaledPrice, scaledVolume, timestampNanos);
+        buffer.position(position + RECORD_SIZE);
+        count++;
+    }
+
+    /**
+     * Returns the number of ticks written so far.
+     *
+     * @return The number of ticks.
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Writes the staged records, fills in the record count and closes the file.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBuffer();
+            ByteBuffer countBuffer = ByteBuffer.allocate(Long.BYTES).order(BYTE_ORDER).putLong(0, count);
+            channel.write(countBuffer, COUNT_OFFSET);
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,61 @@
+package com.manish.finance.calculators;
+
+import com.manish.finance.common.Tick;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static com.manish.finance.testutils.TestUtilis.assertEqualsBigDecimal;
+
+class BollingerBandCalculatorTest {
+
+    private static final Instant NOW = Instant.now();
+
+    private static Tick tick(String price, int second) {
+        return new Tick(new BigDecimal(price), NOW.plusSeconds(second));
+    }
+
+    @Test
+    void testBands() {
+        BollingerBandCalculator calculator = new BollingerBandCalculator(8, BigDecimal.valueOf(2), BollingerBandCalculator.Band.UPPER);
+        BigDecimal result = BigDecimal.ZERO;
+        String[] prices = {"2", "4", "4", "4", "5", "5", "7", "9"};
+        for (int i = 0; i < prices.length; i++) {
+            result = calculator.calculate(tick(prices[i], i));
+        }
+        // mean 5, standard deviation 2
+        assertEqualsBigDecimal(new BigDecimal("9"), result);
+        assertEqualsBigDecimal(new BigDecimal("9"), calculator.getUpperBand());
+        assertEqualsBigDecimal(new BigDecimal("5"), calculator.getMiddleBand());
+        assertEqualsBigDecimal(new BigDecimal("1"), calculator.getLowerBand());
+    }
+
+    @Test
+    void testMiddleBandIsMovingAverage() {
+        BollingerBandCalculator bands = new BollingerBandCalculator(3, BigDecimal.valueOf(2));
+        MovingAverageCalculator sma = new MovingAverageCalculator(3);
+        String[] prices = {"10.5", "11.25", "9.75", "12", "13.5"};
+        for (int i = 0; i < prices.length; i++) {
+            assertEqualsBigDecimal(sma.calculate(tick(prices[i], i)), bands.calculate(tick(prices[i], i)));
+        }
+    }
+
+    @Test
+    void testLowerBand() {
+        BollingerBandCalculator calculator = new BollingerBandCalculator(2, BigDecimal.ONE, BollingerBandCalculator.Band.LOWER);
+        calculator.calculate(tick("10", 0));
+        // mean 11, standard deviation 1
+        assertEqualsBigDecimal(new BigDecimal("10"), calculator.calculate(tick("12", 1)));
+    }
+
+    @Test
+    void testCancel() {
+        BollingerBandCalculator calculator = new BollingerBandCalculator(2, BigDecimal.ONE);
+        calculator.calculate(tick("10", 0));
+        calculator.cancel();
+        assertEqualsBigDecimal(BigDecimal.ZERO, calculator.calculate(tick("12", 1)));
+        calculator.resume();
+        assertEqualsBigDecimal(new BigDecimal("14"), calculator.calculate(tick("14", 2)));
+    }
+}
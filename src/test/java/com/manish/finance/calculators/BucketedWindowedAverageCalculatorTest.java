@@ -0,0 +1,105 @@
+package com.manish.finance.calculators;
+
+import com.manish.finance.common.Tick;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Random;
+
+import static com.manish.finance.testutils.TestUtilis.assertEqualsBigDecimal;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BucketedWindowedAverageCalculatorTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-02T09:00:00Z");
+
+    private static Tick tick(int price, long millis) {
+        return new Tick(BigDecimal.valueOf(price), NOW.plusMillis(millis));
+    }
+
+    @Test
+    void testMatchesExactWindowWhenTicksAreOnBucketBoundaries() {
+        BucketedWindowedAverageCalculator bucketed = new BucketedWindowedAverageCalculator(Duration.ofSeconds(10), Duration.ofSeconds(1));
+        WindowedAverageCalculator exact = new WindowedAverageCalculator(Duration.ofSeconds(10));
+        Random random = new Random(17);
+        long millis = 0;
+        for (int i = 0; i < 1_000; i++) {
+            millis += 1_000L * random.nextInt(3);
+            Tick tick = tick(100 + random.nextInt(50), millis);
+            assertEquals(exact.calculate(tick), bucketed.calculate(tick), "tick " + i);
+        }
+    }
+
+    @Test
+    void testOldEdgeIsAtMostOneBucketLate() {
+        BucketedWindowedAverageCalculator calculator = new BucketedWindowedAverageCalculator(Duration.ofSeconds(10), Duration.ofSeconds(1));
+        calculator.calculate(tick(10, 0));
+        calculator.calculate(tick(20, 500));
+        // the exact window starts at 0.6s and only holds 20 and 30, the bucket [0s, 1s) is still counted whole
+        assertEqualsBigDecimal(BigDecimal.valueOf(20), calculator.calculate(tick(30, 10_600)));
+        // now the cutoff is past the first bucket
+        assertEqualsBigDecimal(BigDecimal.valueOf(30), calculator.calculate(tick(30, 11_000)));
+    }
+
+    @Test
+    void testLateTicksJoinTheirBucketIfStillInsideTheWindow() {
+        BucketedWindowedAverageCalculator calculator = new BucketedWindowedAverageCalculator(Duration.ofSeconds(10), Duration.ofSeconds(1));
+        calculator.calculate(tick(10, 20_000));
+        // 5 seconds late, still inside the window
+        assertEqualsBigDecimal(BigDecimal.valueOf(15), calculator.calculate(tick(20, 15_000)));
+        // 15 seconds late, outside the window and ignored
+        assertEqualsBigDecimal(BigDecimal.valueOf(15), calculator.calculate(tick(1_000, 5_000)));
+        // the late tick did not move the window back
+        assertEqualsBigDecimal(BigDecimal.valueOf(15), calculator.calculate(tick(15, 20_000)));
+    }
+
+    @Test
+    void testGapLongerThanWindowEvictsEverything() {
+        BucketedWindowedAverageCalculator calculator = new BucketedWindowedAverageCalculator(Duration.ofSeconds(10), Duration.ofSeconds(1));
+        for (int i = 0; i < 20; i++) {
+            calculator.calculate(tick(1_000, i * 300L));
+        }
+        assertEqualsBigDecimal(BigDecimal.valueOf(7), calculator.calculate(tick(7, 3_600_000)));
+    }
+
+    @Test
+    void testResetAndCancel() {
+        BucketedWindowedAverageCalculator calculator = new BucketedWindowedAverageCalculator(Duration.ofMinutes(1), Duration.ofSeconds(1));
+        calculator.calculate(tick(10, 0));
+        calculator.reset();
+        assertEqualsBigDecimal(BigDecimal.valueOf(20), calculator.calculate(tick(20, 1_000)));
+        calculator.cancel();
+        assertEqualsBigDecimal(BigDecimal.ZERO, calculator.calculate(tick(30, 2_000)));
+        calculator.resume();
+        assertEqualsBigDecimal(BigDecimal.valueOf(40), calculator.calculate(tick(40, 3_000)));
+    }
+
+    @Test
+    void testSnapshotRoundTrip() throws IOException {
+        BucketedWindowedAverageCalculator calculator = new BucketedWindowedAverageCalculator(Duration.ofSeconds(10), Duration.ofSeconds(1));
+        calculator.calculate(tick(10, 0));
+        calculator.calculate(tick(20, 4_000));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        calculator.writeSnapshot(new DataOutputStream(bytes));
+
+        BucketedWindowedAverageCalculator restored = new BucketedWindowedAverageCalculator(Duration.ofSeconds(10), Duration.ofSeconds(1));
+        restored.readSnapshot(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(calculator.calculate(tick(30, 12_000)), restored.calculate(tick(30, 12_000)));
+
+        BucketedWindowedAverageCalculator other = new BucketedWindowedAverageCalculator(Duration.ofSeconds(10), Duration.ofMillis(500));
+        assertThrows(IOException.class, () -> other.readSnapshot(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+    }
+
+    @Test
+    void testRejectsBucketWiderThanWindow() {
+        assertThrows(IllegalArgumentException.class, () -> new BucketedWindowedAverageCalculator(Duration.ofSeconds(1), Duration.ofSeconds(2)));
+    }
+}
@@ -0,0 +1,74 @@
+package com.manish.finance.calculators;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompensatedExponentialAverageCalculatorTest {
+
+    private static final double DELTA = 0.00001;
+
+    @Test
+    void shouldCalculateExponentialAverage_N3_Alpha0Point75() {
+        CompensatedExponentialAverageCalculator calculator = new CompensatedExponentialAverageCalculator(3, 0.75);
+
+        // Same expectations as the BigDecimal ExponentialAverageCalculatorTest
+        assertEquals(7.5, calculator.calculate(10.0, 0), DELTA);
+        assertEquals(16.875, calculator.calculate(20.0, 1), DELTA);
+        assertEquals(26.71875, calculator.calculate(30.0, 2), DELTA);
+        assertEquals(36.5625, calculator.calculate(40.0, 3), DELTA);
+        assertEquals(46.40625, calculator.calculate(50.0, 4), DELTA);
+    }
+
+    @Test
+    void shouldCalculateExponentialAverage_after_reset_and_cancel() {
+        CompensatedExponentialAverageCalculator calculator = new CompensatedExponentialAverageCalculator(3, 0.75);
+
+        assertEquals(7.5, calculator.calculate(10.0, 0), DELTA);
+        calculator.reset();
+        assertEquals(15.0, calculator.calculate(20.0, 1), DELTA);
+        calculator.cancel();
+        assertEquals(0.0, calculator.calculate(30.0, 2), DELTA);
+        calculator.resume();
+        assertEquals(22.5, calculator.calculate(30.0, 3), DELTA);
+    }
+
+    @Test
+    void shouldStayWithinAFewUlpsOfExactWindowedEmaAtLargeWindows() {
+        int windowSize = 10_000;
+        double alpha = 0.001;
+        CompensatedExponentialAverageCalculator calculator = new CompensatedExponentialAverageCalculator(windowSize, alpha);
+
+        SplittableRandom random = new SplittableRandom(5);
+        double[] prices = new double[60_000];
+        for (int i = 0; i < prices.length; i++) {
+            // a large offset and small moves, the case where the plain double eviction cancels digits
+            prices[i] = 1_000_000 + random.nextDouble();
+            double ema = calculator.calculate(prices[i], i);
+            if (i % 10_000 == 9_999) {
+                double exact = exactWindowedEma(prices, i, windowSize, alpha);
+                assertTrue(Math.abs(ema - exact) <= 4 * Math.ulp(exact), "tick " + i + " error " + Math.abs(ema - exact));
+            }
+        }
+    }
+
+    /**
+     * Sums α · (1 − α)^k · price(i − k) over the window ending at tick i with the exact values of the doubles.
+     */
+    private static double exactWindowedEma(double[] prices, int i, int windowSize, double alpha) {
+        MathContext reference = new MathContext(60);
+        BigDecimal decay = new BigDecimal(1 - alpha);
+        BigDecimal weight = new BigDecimal(alpha);
+        BigDecimal ema = BigDecimal.ZERO;
+        for (int k = 0; k < windowSize && k <= i; k++) {
+            ema = ema.add(new BigDecimal(prices[i - k]).multiply(weight), reference);
+            weight = weight.multiply(decay, reference);
+        }
+        return ema.doubleValue();
+    }
+}
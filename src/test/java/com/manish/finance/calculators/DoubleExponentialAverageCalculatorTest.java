@@ -0,0 +1,93 @@
+package com.manish.finance.calculators;
+
+import com.manish.finance.intf.TraceSink;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DoubleExponentialAverageCalculatorTest {
+
+    private static final double DELTA = 0.00001;
+
+    @Test
+    void shouldCalculateExponentialAverage_N3_Alpha0Point75() {
+        DoubleExponentialAverageCalculator calculator = new DoubleExponentialAverageCalculator(3, 0.75);
+
+        // Same expectations as the BigDecimal ExponentialAverageCalculatorTest
+        assertEquals(7.5, calculator.calculate(10.0, 0), DELTA);
+        assertEquals(16.875, calculator.calculate(20.0, 1), DELTA);
+        assertEquals(26.71875, calculator.calculate(30.0, 2), DELTA);
+        assertEquals(36.5625, calculator.calculate(40.0, 3), DELTA);
+        assertEquals(46.40625, calculator.calculate(50.0, 4), DELTA);
+    }
+
+    @Test
+    void shouldCalculateExponentialAverage_after_reset_and_cancel() {
+        DoubleExponentialAverageCalculator calculator = new DoubleExponentialAverageCalculator(3, 0.75);
+
+        assertEquals(7.5, calculator.calculate(10.0, 0), DELTA);
+        calculator.reset();
+        assertEquals(15.0, calculator.calculate(20.0, 1), DELTA);
+        calculator.cancel();
+        assertEquals(0.0, calculator.calculate(30.0, 2), DELTA);
+        calculator.resume();
+        assertEquals(22.5, calculator.calculate(30.0, 3), DELTA);
+    }
+
+    @Test
+    void shouldCalculateBatchLikeSingleTicks() {
+        DoubleExponentialAverageCalculator single = new DoubleExponentialAverageCalculator(20, 0.25);
+        DoubleExponentialAverageCalculator batched = new DoubleExponentialAverageCalculator(20, 0.25);
+        SplittableRandom random = new SplittableRandom(7);
+        double[] prices = new double[1000];
+        long[] timestamps = new long[prices.length];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = 100 + random.nextInt(100) / 10.0;
+            timestamps[i] = i * 10L + random.nextLong(10L);
+        }
+        double[] results = new double[prices.length];
+        // batches shorter and longer than the window
+        int[] batchSizes = {1, 2, 7, 40, 300, 650};
+        int from = 0;
+        for (int size : batchSizes) {
+            double[] batchPrices = Arrays.copyOfRange(prices, from, from + size);
+            long[] batchTimestamps = Arrays.copyOfRange(timestamps, from, from + size);
+            batched.calculate(batchPrices, batchTimestamps, size, results);
+            for (int i = 0; i < size; i++) {
+                assertEquals(single.calculate(batchPrices[i], batchTimestamps[i]), results[i], DELTA);
+            }
+            from += size;
+        }
+    }
+
+    @Test
+    void shouldTraceBatchesTickByTickAtEnabledLevel() {
+        List<String> events = new ArrayList<>();
+        DoubleExponentialAverageCalculator calculator = new DoubleExponentialAverageCalculator(2, 0.5);
+        calculator.setTraceSink(new TraceSink() {
+            @Override
+            public boolean isEnabled(Level level) {
+                return level.compareTo(Level.DEBUG) >= 0;
+            }
+
+            @Override
+            public void trace(Level level, String source, String event, BigDecimal first, BigDecimal second) {
+                events.add(level + " " + event + " " + first);
+            }
+        });
+
+        double[] results = new double[3];
+        calculator.calculate(new double[]{10.0, 20.0, 30.0}, new long[]{0, 1, 2}, 3, results);
+        calculator.reset();
+        calculator.calculate(40.0, 3);
+
+        assertEquals(List.of("DEBUG evict 10.0", "INFO reset null"), events);
+        assertEquals(20.0, results[2], DELTA); // (12.5 - 10 * 0.25) * 0.5 + 30 * 0.5
+    }
+}
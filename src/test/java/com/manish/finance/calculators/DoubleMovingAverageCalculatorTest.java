@@ -0,0 +1,80 @@
+package com.manish.finance.calculators;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DoubleMovingAverageCalculatorTest {
+
+    private static final double DELTA = 0.00001;
+    private static final int WINDOW_SIZE = 3;
+
+    private DoubleMovingAverageCalculator calculator;
+
+    @BeforeEach
+    void setUp() {
+        calculator = new DoubleMovingAverageCalculator(WINDOW_SIZE);
+    }
+
+    @Test
+    void testCalculateWithSingleTick() {
+        assertEquals(10.0, calculator.calculate(10.0, 0), DELTA);
+    }
+
+    @Test
+    void testCalculateWithMoreTicksThanWindowSize() {
+        calculator.calculate(10.0, 0);
+        calculator.calculate(20.0, 1);
+        assertEquals(20.0, calculator.calculate(30.0, 2), DELTA);
+        assertEquals(30.0, calculator.calculate(40.0, 3), DELTA);
+        assertEquals(40.0, calculator.calculate(50.0, 4), DELTA);
+    }
+
+    @Test
+    void testCalculateWithMultipleTicksAndReset() {
+        calculator.calculate(10.0, 0);
+        calculator.calculate(20.0, 1);
+        calculator.reset();
+        assertEquals(30.0, calculator.calculate(30.0, 2), DELTA);
+    }
+
+    @Test
+    void testCalculateWithMultipleTicksAndCancel() {
+        calculator.calculate(10.0, 0);
+        calculator.calculate(20.0, 1);
+        calculator.cancel();
+        assertEquals(0.0, calculator.calculate(30.0, 2), DELTA);
+        calculator.resume();
+        assertEquals(30.0, calculator.calculate(30.0, 3), DELTA);
+    }
+
+    @Test
+    void shouldCalculateBatchLikeSingleTicks() {
+        DoubleMovingAverageCalculator single = new DoubleMovingAverageCalculator(20);
+        DoubleMovingAverageCalculator batched = new DoubleMovingAverageCalculator(20);
+        SplittableRandom random = new SplittableRandom(7);
+        double[] prices = new double[1000];
+        long[] timestamps = new long[prices.length];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = 100 + random.nextInt(100) / 10.0;
+            timestamps[i] = i * 10L + random.nextLong(10L);
+        }
+        double[] results = new double[prices.length];
+        // batches shorter and longer than the window
+        int[] batchSizes = {1, 2, 7, 40, 300, 650};
+        int from = 0;
+        for (int size : batchSizes) {
+            double[] batchPrices = Arrays.copyOfRange(prices, from, from + size);
+            long[] batchTimestamps = Arrays.copyOfRange(timestamps, from, from + size);
+            batched.calculate(batchPrices, batchTimestamps, size, results);
+            for (int i = 0; i < size; i++) {
+                assertEquals(single.calculate(batchPrices[i], batchTimestamps[i]), results[i], DELTA);
+            }
+            from += size;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.manish.finance.calculators;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DoubleWindowedAverageCalculatorTest {
+
+    private static final double DELTA = 0.00001;
+    private static final long MINUTE = Duration.ofMinutes(1).toNanos();
+
+    private DoubleWindowedAverageCalculator calculator;
+
+    @BeforeEach
+    void setUp() {
+        calculator = new DoubleWindowedAverageCalculator(Duration.ofMinutes(5));
+    }
+
+    @Test
+    void testCalculateWithMixedTicks() {
+        calculator.calculate(10.0, 0);
+        calculator.calculate(20.0, 2 * MINUTE);
+        calculator.calculate(30.0, 4 * MINUTE);
+        assertEquals(30.0, calculator.calculate(40.0, 6 * MINUTE), DELTA);
+    }
+
+    @Test
+    void testCalculateGrowsBeyondInitialCapacity() {
+        for (int i = 0; i < 1000; i++) {
+            calculator.calculate(i, i);
+        }
+        assertEquals(499.5, calculator.calculate(499.5, 1000), DELTA);
+    }
+
+    @Test
+    void testCalculateWithMultipleTicksAndReset() {
+        calculator.calculate(10.0, 0);
+        calculator.calculate(20.0, MINUTE);
+        calculator.reset();
+        assertEquals(30.0, calculator.calculate(30.0, 2 * MINUTE), DELTA);
+    }
+
+    @Test
+    void shouldCalculateBatchLikeSingleTicks() {
+        DoubleWindowedAverageCalculator single = new DoubleWindowedAverageCalculator(Duration.ofMinutes(5));
+        DoubleWindowedAverageCalculator batched = new DoubleWindowedAverageCalculator(Duration.ofMinutes(5));
+        SplittableRandom random = new SplittableRandom(7);
+        double[] prices = new double[1000];
+        long[] timestamps = new long[prices.length];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = 100 + random.nextInt(100) / 10.0;
+            timestamps[i] = i * MINUTE / 4 + random.nextLong(MINUTE / 4);
+        }
+        double[] results = new double[prices.length];
+        // batches shorter and longer than the window
+        int[] batchSizes = {1, 2, 7, 40, 300, 650};
+        int from = 0;
+        for (int size : batchSizes) {
+            double[] batchPrices = Arrays.copyOfRange(prices, from, from + size);
+            long[] batchTimestamps = Arrays.copyOfRange(timestamps, from, from + size);
+            batched.calculate(batchPrices, batchTimestamps, size, results);
+            for (int i = 0; i < size; i++) {
+                assertEquals(single.calculate(batchPrices[i], batchTimestamps[i]), results[i], DELTA);
+            }
+            from += size;
+        }
+    }
+}
@@ -1,12 +1,26 @@
 package com.manish.finance.calculators;
 
 import com.manish.finance.common.Tick;
+import com.manish.finance.intf.TraceSink;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 
 import static com.manish.finance.testutils.TestUtilis.assertEqualsBigDecimal;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ExponentialAverageCalculatorTest {
 
@@ -111,4 +125,92 @@ class ExponentialAverageCalculatorTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    void shouldTraceEvictionsOnlyAtEnabledLevel() {
+        List<String> events = new ArrayList<>();
+        calculator = new ExponentialAverageCalculator(2, BigDecimal.valueOf(0.5));
+        calculator.setTraceSink(new TraceSink() {
+            @Override
+            public boolean isEnabled(Level level) {
+                return level.compareTo(Level.DEBUG) >= 0;
+            }
+
+            @Override
+            public void trace(Level level, String source, String event, BigDecimal first, BigDecimal second) {
+                events.add(level + " " + event + " " + first);
+            }
+        });
+
+        calculator.calculate(new Tick(BigDecimal.valueOf(10.0), Instant.now()));
+        calculator.calculate(new Tick(BigDecimal.valueOf(20.0), Instant.now()));
+        calculator.calculate(new Tick(BigDecimal.valueOf(30.0), Instant.now()));
+        calculator.reset();
+        calculator.calculate(new Tick(BigDecimal.valueOf(40.0), Instant.now()));
+
+        assertEquals(List.of("DEBUG evict 10.0", "INFO reset null"), events);
+    }
+
+    @Test
+    void shouldCalculateExponentialAverage_N3_Alpha0Point75_Decimal64() {
+        calculator = new ExponentialAverageCalculator(3, BigDecimal.valueOf(0.75), MathContext.DECIMAL64);
+
+        // Same expectations as the exact calculator
+        assertEqualsBigDecimal(BigDecimal.valueOf(7.5), calculator.calculate(new Tick(BigDecimal.valueOf(10.0), Instant.now())));
+        assertEqualsBigDecimal(BigDecimal.valueOf(16.875), calculator.calculate(new Tick(BigDecimal.valueOf(20.0), Instant.now())));
+        assertEqualsBigDecimal(BigDecimal.valueOf(26.71875), calculator.calculate(new Tick(BigDecimal.valueOf(30.0), Instant.now())));
+        assertEqualsBigDecimal(BigDecimal.valueOf(36.5625), calculator.calculate(new Tick(BigDecimal.valueOf(40.0), Instant.now())));
+        assertEqualsBigDecimal(BigDecimal.valueOf(46.40625), calculator.calculate(new Tick(BigDecimal.valueOf(50.0), Instant.now())));
+    }
+
+    @Test
+    void shouldRestoreSnapshotOnlyWithTheSameMathContext() throws IOException {
+        calculator = new ExponentialAverageCalculator(3, BigDecimal.valueOf(0.75), MathContext.DECIMAL64);
+        calculator.calculate(new Tick(BigDecimal.valueOf(10.0), Instant.now()));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        calculator.writeSnapshot(new DataOutputStream(bytes));
+
+        ExponentialAverageCalculator restored = new ExponentialAverageCalculator(3, BigDecimal.valueOf(0.75), MathContext.DECIMAL64);
+        restored.readSnapshot(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEqualsBigDecimal(BigDecimal.valueOf(16.875), restored.calculate(new Tick(BigDecimal.valueOf(20.0), Instant.now())));
+
+        ExponentialAverageCalculator exact = new ExponentialAverageCalculator(3, BigDecimal.valueOf(0.75));
+        assertThrows(IOException.class, () -> exact.readSnapshot(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+    }
+
+    @Test
+    void boundedPrecisionStaysCloseToExactWindowedEmaAtLargeWindows() {
+        int windowSize = 10_000;
+        BigDecimal alpha = new BigDecimal("0.001");
+        calculator = new ExponentialAverageCalculator(windowSize, alpha, MathContext.DECIMAL64);
+
+        Random random = new Random(5);
+        BigDecimal[] prices = new BigDecimal[35_000];
+        Instant now = Instant.now();
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = BigDecimal.valueOf(9_000 + random.nextInt(2_000), 2);
+            BigDecimal ema = calculator.calculate(new Tick(prices[i], now.plusMillis(i)));
+
+            // Constant cost per tick: the EMA never carries more digits than the MathContext allows
+            assertTrue(ema.precision() <= MathContext.DECIMAL64.getPrecision(), "precision " + ema.precision());
+            if (i % 5_000 == 4_999) {
+                BigDecimal error = ema.subtract(exactWindowedEma(prices, i, windowSize, alpha)).abs();
+                assertTrue(error.compareTo(new BigDecimal("1e-10")) < 0, "tick " + i + " error " + error);
+            }
+        }
+    }
+
+    /**
+     * Sums α · (1 − α)^k · price(i − k) over the window ending at tick i, the definition the calculator implements.
+     */
+    private static BigDecimal exactWindowedEma(BigDecimal[] prices, int i, int windowSize, BigDecimal alpha) {
+        MathContext reference = new MathContext(60, RoundingMode.HALF_EVEN);
+        BigDecimal decay = BigDecimal.ONE.subtract(alpha);
+        BigDecimal weight = alpha;
+        BigDecimal ema = BigDecimal.ZERO;
+        for (int k = 0; k < windowSize && k <= i; k++) {
+            ema = ema.add(prices[i - k].multiply(weight), reference);
+            weight = weight.multiply(decay, reference);
+        }
+        return ema;
+    }
+}
@@ -0,0 +1,98 @@
+package com.manish.finance.calculators;
+
+import com.manish.finance.common.FixedPoint;
+import com.manish.finance.intf.TraceSink;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static com.manish.finance.testutils.TestUtilis.assertEqualsBigDecimal;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FixedPointMovingAverageCalculatorTest {
+
+    private static final int SCALE = 4;
+
+    @Test
+    void testCalculateWithPreciseValues() {
+        FixedPointMovingAverageCalculator calculator = new FixedPointMovingAverageCalculator(3, SCALE);
+        calculator.calculate(FixedPoint.toScaled(new BigDecimal("10.123"), SCALE), 0);
+        calculator.calculate(FixedPoint.toScaled(new BigDecimal("20.456"), SCALE), 1);
+        long result = calculator.calculate(FixedPoint.toScaled(new BigDecimal("30.789"), SCALE), 2);
+        assertEqualsBigDecimal(new BigDecimal("20.456"), FixedPoint.toBigDecimal(result, SCALE));
+    }
+
+    @Test
+    void testCalculateRoundsHalfUp() {
+        FixedPointMovingAverageCalculator calculator = new FixedPointMovingAverageCalculator(2, 0);
+        calculator.calculate(1, 0);
+        assertEquals(2, calculator.calculate(2, 1));
+        assertEquals(-2, new FixedPointMovingAverageCalculator(2, 0).calculate(-2, 0));
+    }
+
+    @Test
+    void testCalculateWithMoreTicksThanWindowSizeAndCancel() {
+        FixedPointMovingAverageCalculator calculator = new FixedPointMovingAverageCalculator(3, SCALE);
+        calculator.calculate(100_000, 0);
+        calculator.calculate(200_000, 1);
+        calculator.calculate(300_000, 2);
+        assertEquals(300_000, calculator.calculate(400_000, 3));
+        calculator.cancel();
+        assertEquals(0, calculator.calculate(400_000, 4));
+        calculator.resume();
+        assertEquals(500_000, calculator.calculate(500_000, 5));
+    }
+
+    @Test
+    void shouldTraceEvictionsAtScale() {
+        List<String> events = new ArrayList<>();
+        FixedPointMovingAverageCalculator calculator = new FixedPointMovingAverageCalculator(2, SCALE);
+        calculator.setTraceSink(new TraceSink() {
+            @Override
+            public boolean isEnabled(Level level) {
+                return level == Level.DEBUG;
+            }
+
+            @Override
+            public void trace(Level level, String source, String event, BigDecimal first, BigDecimal second) {
+                events.add(event + " " + first.toPlainString() + " " + second.toPlainString());
+            }
+        });
+
+        calculator.calculate(FixedPoint.toScaled(new BigDecimal("10.5"), SCALE), 0);
+        calculator.calculate(FixedPoint.toScaled(new BigDecimal("20.25"), SCALE), 1);
+        calculator.calculate(FixedPoint.toScaled(new BigDecimal("30"), SCALE), 2);
+
+        assertEquals(List.of("evict 10.5000 20.2500"), events);
+    }
+
+    @Test
+    void shouldCalculateBatchLikeSingleTicks() {
+        FixedPointMovingAverageCalculator single = new FixedPointMovingAverageCalculator(20, SCALE);
+        FixedPointMovingAverageCalculator batched = new FixedPointMovingAverageCalculator(20, SCALE);
+        SplittableRandom random = new SplittableRandom(7);
+        long[] prices = new long[1000];
+        long[] timestamps = new long[prices.length];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = 1_000_000 + random.nextInt(100_000);
+            timestamps[i] = i * 10L;
+        }
+        long[] results = new long[prices.length];
+        // batches shorter and longer than the window
+        int[] batchSizes = {1, 2, 7, 40, 300, 650};
+        int from = 0;
+        for (int size : batchSizes) {
+            long[] batchPrices = Arrays.copyOfRange(prices, from, from + size);
+            long[] batchTimestamps = Arrays.copyOfRange(timestamps, from, from + size);
+            batched.calculate(batchPrices, batchTimestamps, size, results);
+            for (int i = 0; i < size; i++) {
+                assertEquals(single.calculate(batchPrices[i], batchTimestamps[i]), results[i]);
+            }
+            from += size;
+        }
+    }
+}
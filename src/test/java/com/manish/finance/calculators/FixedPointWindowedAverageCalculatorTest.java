@@ -0,0 +1,31 @@
+package com.manish.finance.calculators;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FixedPointWindowedAverageCalculatorTest {
+
+    private static final long MINUTE = Duration.ofMinutes(1).toNanos();
+
+    @Test
+    void testCalculateWithMixedTicks() {
+        FixedPointWindowedAverageCalculator calculator = new FixedPointWindowedAverageCalculator(Duration.ofMinutes(5), 2);
+        calculator.calculate(1000, 0);
+        calculator.calculate(2000, 2 * MINUTE);
+        calculator.calculate(3000, 4 * MINUTE);
+        assertEquals(3000, calculator.calculate(4000, 6 * MINUTE));
+    }
+
+    @Test
+    void testCalculateWithMultipleTicksAndReset() {
+        FixedPointWindowedAverageCalculator calculator = new FixedPointWindowedAverageCalculator(Duration.ofMinutes(5), 2);
+        calculator.calculate(1000, 0);
+        calculator.calculate(2001, MINUTE);
+        assertEquals(1501, calculator.calculate(1501, 2 * MINUTE));
+        calculator.reset();
+        assertEquals(3000, calculator.calculate(3000, 3 * MINUTE));
+    }
+}
@@ -0,0 +1,75 @@
+package com.manish.finance.calculators;
+
+import com.manish.finance.common.Tick;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Random;
+
+import static com.manish.finance.testutils.TestUtilis.assertEqualsBigDecimal;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RollingMinMaxCalculatorTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-02T09:00:00Z");
+
+    private static Tick tick(int price, int second) {
+        return new Tick(BigDecimal.valueOf(price), NOW.plusSeconds(second));
+    }
+
+    @Test
+    void testCountWindowHigh() {
+        RollingMinMaxCalculator calculator = new RollingMinMaxCalculator(3, RollingMinMaxCalculator.Extreme.MAX);
+        assertEqualsBigDecimal(BigDecimal.valueOf(5), calculator.calculate(tick(5, 0)));
+        assertEqualsBigDecimal(BigDecimal.valueOf(9), calculator.calculate(tick(9, 1)));
+        assertEqualsBigDecimal(BigDecimal.valueOf(9), calculator.calculate(tick(7, 2)));
+        assertEqualsBigDecimal(BigDecimal.valueOf(9), calculator.calculate(tick(6, 3)));
+        // 9 leaves the window
+        assertEqualsBigDecimal(BigDecimal.valueOf(7), calculator.calculate(tick(4, 4)));
+    }
+
+    @Test
+    void testTimeWindowLow() {
+        RollingMinMaxCalculator calculator = new RollingMinMaxCalculator(Duration.ofSeconds(10), RollingMinMaxCalculator.Extreme.MIN);
+        calculator.calculate(tick(3, 0));
+        calculator.calculate(tick(8, 5));
+        assertEqualsBigDecimal(BigDecimal.valueOf(3), calculator.calculate(tick(6, 10)));
+        // the tick at 0 is older than 10 seconds now
+        assertEqualsBigDecimal(BigDecimal.valueOf(6), calculator.calculate(tick(7, 11)));
+    }
+
+    @Test
+    void testMatchesBruteForceWithDuplicates() {
+        int windowSize = 25;
+        RollingMinMaxCalculator low = new RollingMinMaxCalculator(windowSize, RollingMinMaxCalculator.Extreme.MIN);
+        RollingMinMaxCalculator high = new RollingMinMaxCalculator(windowSize, RollingMinMaxCalculator.Extreme.MAX);
+        Random random = new Random(11);
+        int[] prices = new int[2_000];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = random.nextInt(10);
+            Tick tick = tick(prices[i], i);
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            for (int j = Math.max(0, i - windowSize + 1); j <= i; j++) {
+                min = Math.min(min, prices[j]);
+                max = Math.max(max, prices[j]);
+            }
+            assertEquals(min, low.calculate(tick).intValueExact(), "tick " + i);
+            assertEquals(max, high.calculate(tick).intValueExact(), "tick " + i);
+        }
+    }
+
+    @Test
+    void testResetAndCancel() {
+        RollingMinMaxCalculator calculator = new RollingMinMaxCalculator(5, RollingMinMaxCalculator.Extreme.MAX);
+        calculator.calculate(tick(100, 0));
+        calculator.reset();
+        assertEqualsBigDecimal(BigDecimal.valueOf(10), calculator.calculate(tick(10, 1)));
+        calculator.cancel();
+        assertEqualsBigDecimal(BigDecimal.ZERO, calculator.calculate(tick(50, 2)));
+        calculator.resume();
+        assertEqualsBigDecimal(BigDecimal.valueOf(5), calculator.calculate(tick(5, 3)));
+    }
+}
@@ -0,0 +1,81 @@
+package com.manish.finance.calculators;
+
+import com.manish.finance.common.Tick;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Random;
+
+import static com.manish.finance.testutils.TestUtilis.assertEqualsBigDecimal;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RollingQuantileCalculatorTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-02T09:00:00Z");
+
+    private static Tick tick(int price, int second) {
+        return new Tick(BigDecimal.valueOf(price), NOW.plusSeconds(second));
+    }
+
+    @Test
+    void testMedian() {
+        RollingQuantileCalculator calculator = new RollingQuantileCalculator(5, 0.5);
+        calculator.calculate(tick(30, 0));
+        calculator.calculate(tick(10, 1));
+        assertEqualsBigDecimal(BigDecimal.valueOf(20), calculator.calculate(tick(20, 2)));
+        // lower median of 10, 20, 30, 40
+        assertEqualsBigDecimal(BigDecimal.valueOf(20), calculator.calculate(tick(40, 3)));
+    }
+
+    @Test
+    void testTimeWindowPercentile() {
+        RollingQuantileCalculator calculator = new RollingQuantileCalculator(Duration.ofSeconds(100), 0.95);
+        for (int i = 1; i < 100; i++) {
+            calculator.calculate(tick(i, i));
+        }
+        // window holds 1 to 100
+        assertEqualsBigDecimal(BigDecimal.valueOf(95), calculator.calculate(tick(100, 100)));
+        // 1 to 9 leave the window, rank 88 of 0 and 10 to 100
+        assertEqualsBigDecimal(BigDecimal.valueOf(96), calculator.calculate(tick(0, 110)));
+    }
+
+    @Test
+    void testMatchesSortedWindow() {
+        int windowSize = 40;
+        double[] quantiles = {0, 0.25, 0.5, 0.95, 1};
+        RollingQuantileCalculator[] calculators = new RollingQuantileCalculator[quantiles.length];
+        for (int q = 0; q < quantiles.length; q++) {
+            calculators[q] = new RollingQuantileCalculator(windowSize, quantiles[q]);
+        }
+        Random random = new Random(3);
+        int[] prices = new int[3_000];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = random.nextInt(50);
+            Tick tick = tick(prices[i], i);
+            int[] sorted = Arrays.copyOfRange(prices, Math.max(0, i - windowSize + 1), i + 1);
+            Arrays.sort(sorted);
+            for (int q = 0; q < quantiles.length; q++) {
+                int rank = Math.max(1, (int) Math.ceil(quantiles[q] * sorted.length));
+                assertEquals(sorted[rank - 1], calculators[q].calculate(tick).intValueExact(), "tick " + i + " quantile " + quantiles[q]);
+            }
+        }
+    }
+
+    @Test
+    void testReset() {
+        RollingQuantileCalculator calculator = new RollingQuantileCalculator(5, 0.5);
+        calculator.calculate(tick(100, 0));
+        calculator.calculate(tick(200, 1));
+        calculator.reset();
+        assertEqualsBigDecimal(BigDecimal.valueOf(7), calculator.calculate(tick(7, 2)));
+    }
+
+    @Test
+    void testRejectsInvalidQuantile() {
+        assertThrows(IllegalArgumentException.class, () -> new RollingQuantileCalculator(5, 1.5));
+    }
+}
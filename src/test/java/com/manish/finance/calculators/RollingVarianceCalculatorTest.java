@@ -0,0 +1,79 @@
+package com.manish.finance.calculators;
+
+import com.manish.finance.common.Tick;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static com.manish.finance.testutils.TestUtilis.assertEqualsBigDecimal;
+
+class RollingVarianceCalculatorTest {
+
+    private static final Instant NOW = Instant.now();
+
+    private static Tick tick(String price, int second) {
+        return new Tick(new BigDecimal(price), NOW.plusSeconds(second));
+    }
+
+    @Test
+    void testSingleTickHasNoVariance() {
+        RollingVarianceCalculator calculator = new RollingVarianceCalculator(3);
+        assertEqualsBigDecimal(BigDecimal.ZERO, calculator.calculate(tick("10", 0)));
+    }
+
+    @Test
+    void testVarianceOfWindow() {
+        RollingVarianceCalculator calculator = new RollingVarianceCalculator(4);
+        calculator.calculate(tick("2", 0));
+        calculator.calculate(tick("4", 1));
+        calculator.calculate(tick("4", 2));
+        // mean 3.75, squared deviations 3.0625 + 0.0625 + 0.0625 + 1.5625
+        assertEqualsBigDecimal(new BigDecimal("1.1875"), calculator.calculate(tick("5", 3)));
+    }
+
+    @Test
+    void testEvictedTicksNoLongerCount() {
+        RollingVarianceCalculator calculator = new RollingVarianceCalculator(2);
+        calculator.calculate(tick("100", 0));
+        calculator.calculate(tick("10", 1));
+        // window is 10, 12
+        assertEqualsBigDecimal(BigDecimal.ONE, calculator.calculate(tick("12", 2)));
+    }
+
+    @Test
+    void testStandardDeviation() {
+        RollingVarianceCalculator calculator = new RollingVarianceCalculator(8, true);
+        BigDecimal result = BigDecimal.ZERO;
+        String[] prices = {"2", "4", "4", "4", "5", "5", "7", "9"};
+        for (int i = 0; i < prices.length; i++) {
+            result = calculator.calculate(tick(prices[i], i));
+        }
+        assertEqualsBigDecimal(new BigDecimal("2"), result);
+    }
+
+    @Test
+    void testLargeOffsetDoesNotCancel() {
+        // the textbook formula loses everything in double here, the exact sums do not
+        RollingVarianceCalculator calculator = new RollingVarianceCalculator(3);
+        calculator.calculate(tick("1000000000.1", 0));
+        calculator.calculate(tick("1000000000.2", 1));
+        BigDecimal result = calculator.calculate(tick("1000000000.3", 2));
+        assertEqualsBigDecimal(new BigDecimal("0.00666667"), result);
+    }
+
+    @Test
+    void testResetAndCancel() {
+        RollingVarianceCalculator calculator = new RollingVarianceCalculator(3);
+        calculator.calculate(tick("10", 0));
+        calculator.calculate(tick("20", 1));
+        calculator.reset();
+        assertEqualsBigDecimal(BigDecimal.ZERO, calculator.calculate(tick("30", 2)));
+
+        calculator.cancel();
+        assertEqualsBigDecimal(BigDecimal.ZERO, calculator.calculate(tick("40", 3)));
+        calculator.resume();
+        calculator.calculate(tick("1", 4));
+        assertEqualsBigDecimal(new BigDecimal("0.25"), calculator.calculate(tick("2", 5)));
+    }
+}
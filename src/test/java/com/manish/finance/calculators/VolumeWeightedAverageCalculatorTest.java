@@ -0,0 +1,57 @@
+package com.manish.finance.calculators;
+
+import com.manish.finance.common.Tick;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static com.manish.finance.testutils.TestUtilis.assertEqualsBigDecimal;
+
+class VolumeWeightedAverageCalculatorTest {
+
+    private static final Instant NOW = Instant.now();
+
+    private static Tick tick(String price, String volume, int second) {
+        return new Tick(Tick.NO_INSTRUMENT, new BigDecimal(price), new BigDecimal(volume), NOW.plusSeconds(second));
+    }
+
+    @Test
+    void testVolumeWeighting() {
+        VolumeWeightedAverageCalculator calculator = new VolumeWeightedAverageCalculator(3);
+        calculator.calculate(tick("10", "100", 0));
+        BigDecimal result = calculator.calculate(tick("20", "300", 1));
+        assertEqualsBigDecimal(new BigDecimal("17.5"), result);
+    }
+
+    @Test
+    void testEviction() {
+        VolumeWeightedAverageCalculator calculator = new VolumeWeightedAverageCalculator(2);
+        calculator.calculate(tick("1000", "1000", 0));
+        calculator.calculate(tick("10", "1", 1));
+        BigDecimal result = calculator.calculate(tick("20", "3", 2));
+        assertEqualsBigDecimal(new BigDecimal("17.5"), result);
+    }
+
+    @Test
+    void testTicksWithoutVolumeGivePlainAverage() {
+        VolumeWeightedAverageCalculator calculator = new VolumeWeightedAverageCalculator(3);
+        calculator.calculate(new Tick(BigDecimal.valueOf(10), NOW));
+        BigDecimal result = calculator.calculate(new Tick(BigDecimal.valueOf(20), NOW.plusSeconds(1)));
+        assertEqualsBigDecimal(new BigDecimal("15"), result);
+    }
+
+    @Test
+    void testZeroVolume() {
+        VolumeWeightedAverageCalculator calculator = new VolumeWeightedAverageCalculator(3);
+        assertEqualsBigDecimal(BigDecimal.ZERO, calculator.calculate(tick("10", "0", 0)));
+    }
+
+    @Test
+    void testReset() {
+        VolumeWeightedAverageCalculator calculator = new VolumeWeightedAverageCalculator(3);
+        calculator.calculate(tick("10", "5", 0));
+        calculator.reset();
+        assertEqualsBigDecimal(new BigDecimal("30"), calculator.calculate(tick("30", "2", 1)));
+    }
+}
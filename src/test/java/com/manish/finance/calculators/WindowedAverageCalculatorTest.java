@@ -4,11 +4,20 @@ import com.manish.finance.common.Tick;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 
 import static com.manish.finance.testutils.TestUtilis.assertEqualsBigDecimal;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 class WindowedAverageCalculatorTest {
 
@@ -82,4 +91,97 @@ class WindowedAverageCalculatorTest {
         assertEqualsBigDecimal(BigDecimal.valueOf(30.00), result);
     }
 
+    @Test
+    void testLateTickIsInsertedInOrderWithWatermark() {
+        Instant now = Instant.now();
+        calculator = new WindowedAverageCalculator(Duration.ofSeconds(10), Duration.ofMillis(5), null);
+        calculator.calculate(new Tick(BigDecimal.valueOf(10.0), now));
+        calculator.calculate(new Tick(BigDecimal.valueOf(20.0), now.plusSeconds(5)));
+        // 3ms late, allowed
+        assertEqualsBigDecimal(BigDecimal.valueOf(20.00), calculator.calculate(new Tick(BigDecimal.valueOf(30.0), now.plusSeconds(5).minusMillis(3))));
+        // the late tick did not move the window back, at 10s after the first tick it is still in the window
+        assertEqualsBigDecimal(BigDecimal.valueOf(25.00), calculator.calculate(new Tick(BigDecimal.valueOf(40.0), now.plusSeconds(10))));
+        // one ms later the first tick leaves the window, the late tick stays in order behind it
+        assertEqualsBigDecimal(BigDecimal.valueOf(32.50), calculator.calculate(new Tick(BigDecimal.valueOf(40.0), now.plusSeconds(10).plusMillis(1))));
+        assertEquals(0, calculator.getDroppedTickCount());
+    }
+
+    @Test
+    void testTooLateTickIsDroppedWithWatermark() {
+        Instant now = Instant.now();
+        List<Tick> dropped = new ArrayList<>();
+        calculator = new WindowedAverageCalculator(Duration.ofSeconds(10), Duration.ofMillis(5), dropped::add);
+        calculator.calculate(new Tick(BigDecimal.valueOf(10.0), now));
+        calculator.calculate(new Tick(BigDecimal.valueOf(20.0), now.plusSeconds(1)));
+        Tick late = new Tick(BigDecimal.valueOf(1000.0), now.plusSeconds(1).minusMillis(6));
+        assertEqualsBigDecimal(BigDecimal.valueOf(15.00), calculator.calculate(late));
+        assertEquals(1, calculator.getDroppedTickCount());
+        assertEquals(List.of(late), dropped);
+    }
+
+    @Test
+    void testWatermarkSurvivesExpiryOfWholeWindow() {
+        Instant now = Instant.parse("2024-01-02T10:00:00Z");
+        List<Tick> dropped = new ArrayList<>();
+        calculator = new WindowedAverageCalculator(Duration.ofSeconds(1), Duration.ofMillis(100), dropped::add);
+        calculator.calculate(new Tick(BigDecimal.valueOf(10.0), now));
+        assertEqualsBigDecimal(BigDecimal.ZERO, calculator.expire(now.plusSeconds(2)));
+
+        Tick late = new Tick(BigDecimal.valueOf(1000.0), now.minusSeconds(30));
+        assertEqualsBigDecimal(BigDecimal.ZERO, calculator.calculate(late));
+        assertEquals(List.of(late), dropped);
+        assertEqualsBigDecimal(BigDecimal.valueOf(20.0), calculator.calculate(new Tick(BigDecimal.valueOf(20.0), now.minusMillis(50))));
+
+        calculator.reset();
+        assertEqualsBigDecimal(BigDecimal.valueOf(30.0), calculator.calculate(new Tick(BigDecimal.valueOf(30.0), now.minusSeconds(30))));
+        assertEquals(1, calculator.getDroppedTickCount());
+    }
+
+    @Test
+    void testSnapshotKeepsWatermarkAndDroppedTicksOfExpiredWindow() throws IOException {
+        Instant now = Instant.parse("2024-01-02T10:00:00Z");
+        calculator = new WindowedAverageCalculator(Duration.ofSeconds(1), Duration.ofMillis(100), null);
+        calculator.calculate(new Tick(BigDecimal.valueOf(10.0), now));
+        calculator.calculate(new Tick(BigDecimal.valueOf(1000.0), now.minusSeconds(30)));
+        calculator.expire(now.plusSeconds(2));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        calculator.writeSnapshot(new DataOutputStream(bytes));
+        WindowedAverageCalculator restored = new WindowedAverageCalculator(Duration.ofSeconds(1), Duration.ofMillis(100), null);
+        restored.readSnapshot(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(1, restored.getDroppedTickCount());
+        assertEqualsBigDecimal(BigDecimal.ZERO, restored.calculate(new Tick(BigDecimal.valueOf(1000.0), now.minusSeconds(30))));
+        assertEquals(2, restored.getDroppedTickCount());
+    }
+
+    @Test
+    void testLateTicksWithoutWatermarkMatchSortedTicksWithWatermark() {
+        Instant now = Instant.now();
+        WindowedAverageCalculator sorted = new WindowedAverageCalculator(Duration.ofSeconds(1));
+        calculator = new WindowedAverageCalculator(Duration.ofSeconds(1), Duration.ofMillis(10), null);
+        // pairs of ticks swapped by 4ms, the average after each pair equals the one of the sorted feed
+        for (int i = 0; i < 200; i++) {
+            Tick first = new Tick(BigDecimal.valueOf(i), now.plusMillis(20L * i));
+            Tick second = new Tick(BigDecimal.valueOf(1000 - i), now.plusMillis(20L * i + 4));
+            calculator.calculate(second);
+            BigDecimal shuffled = calculator.calculate(first);
+            sorted.calculate(first);
+            assertEqualsBigDecimal(sorted.calculate(second), shuffled);
+        }
+    }
+
+    @Test
+    void testExpireEvictsTicksOlderThanWindow() {
+        Instant start = Instant.parse("2024-01-02T10:00:00Z");
+        calculator.calculate(new Tick(BigDecimal.valueOf(10.0), start));
+        calculator.calculate(new Tick(BigDecimal.valueOf(20.0), start.plus(Duration.ofMinutes(2))));
+
+        assertEquals(start.plus(WINDOW_DURATION).plusNanos(1), calculator.nextExpiry());
+        assertNull(calculator.expire(start.plus(WINDOW_DURATION)));
+        assertEqualsBigDecimal(BigDecimal.valueOf(20.0), calculator.expire(start.plus(Duration.ofMinutes(6))));
+        assertEquals(start.plus(Duration.ofMinutes(7)).plusNanos(1), calculator.nextExpiry());
+        assertEqualsBigDecimal(BigDecimal.ZERO, calculator.expire(start.plus(Duration.ofMinutes(10))));
+        assertNull(calculator.nextExpiry());
+    }
 }
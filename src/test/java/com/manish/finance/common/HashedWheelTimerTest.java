@@ -0,0 +1,69 @@
+package com.manish.finance.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashedWheelTimerTest {
+
+    @Test
+    void shouldRunTaskAfterDelay() throws Exception {
+        try (HashedWheelTimer timer = new HashedWheelTimer(Duration.ofMillis(1), 64)) {
+            CountDownLatch fired = new CountDownLatch(1);
+            long start = System.nanoTime();
+            timer.schedule(fired::countDown, Duration.ofMillis(20));
+
+            assertTrue(fired.await(5, TimeUnit.SECONDS));
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+        }
+    }
+
+    @Test
+    void shouldRunTimeoutsBeyondOneRoundOfTheWheel() throws Exception {
+        // 4 slots of 1ms, a 30ms delay goes round the wheel several times before firing
+        try (HashedWheelTimer timer = new HashedWheelTimer(Duration.ofMillis(1), 4)) {
+            CountDownLatch fired = new CountDownLatch(1);
+            long start = System.nanoTime();
+            timer.schedule(fired::countDown, Duration.ofMillis(30));
+
+            assertTrue(fired.await(5, TimeUnit.SECONDS));
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(30));
+        }
+    }
+
+    @Test
+    void shouldNotRunCancelledTask() throws Exception {
+        try (HashedWheelTimer timer = new HashedWheelTimer(Duration.ofMillis(1), 64)) {
+            AtomicBoolean cancelledRan = new AtomicBoolean();
+            HashedWheelTimer.Timeout timeout = timer.schedule(() -> cancelledRan.set(true), Duration.ofMillis(10));
+            timeout.cancel();
+            CountDownLatch later = new CountDownLatch(1);
+            timer.schedule(later::countDown, Duration.ofMillis(30));
+
+            assertTrue(later.await(5, TimeUnit.SECONDS));
+            assertTrue(timeout.isCancelled());
+            assertFalse(cancelledRan.get());
+        }
+    }
+
+    @Test
+    void shouldCountFailedTasksAndKeepRunning() throws Exception {
+        try (HashedWheelTimer timer = new HashedWheelTimer(Duration.ofMillis(1), 64)) {
+            timer.schedule(() -> {
+                throw new IllegalStateException("boom");
+            }, Duration.ZERO);
+            CountDownLatch fired = new CountDownLatch(1);
+            timer.schedule(fired::countDown, Duration.ofMillis(10));
+
+            assertTrue(fired.await(5, TimeUnit.SECONDS));
+            assertEquals(1, timer.getFailedTaskCount());
+        }
+    }
+}
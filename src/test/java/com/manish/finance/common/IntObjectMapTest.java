@@ -0,0 +1,43 @@
+package com.manish.finance.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IntObjectMapTest {
+
+    @Test
+    void shouldKeepAllEntriesWhileGrowing() {
+        IntObjectMap<String> map = new IntObjectMap<>(2);
+        for (int key = -500; key < 500; key++) {
+            assertNull(map.put(key * 64, "v" + key));
+        }
+
+        assertEquals(1000, map.size());
+        for (int key = -500; key < 500; key++) {
+            assertEquals("v" + key, map.get(key * 64));
+        }
+        assertNull(map.get(1));
+        assertNull(map.get(500 * 64));
+    }
+
+    @Test
+    void shouldReplaceValuesAndVisitEachEntryOnce() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        map.put(0, "zero");
+        map.put(7, "seven");
+        assertEquals("zero", map.put(0, "nought"));
+        assertThrows(NullPointerException.class, () -> map.put(3, null));
+
+        List<String> values = new ArrayList<>();
+        map.forEach(values::add);
+        values.sort(null);
+        assertEquals(List.of("nought", "seven"), values);
+        assertEquals(2, map.size());
+    }
+}
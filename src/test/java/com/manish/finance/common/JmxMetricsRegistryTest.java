@@ -0,0 +1,45 @@
+package com.manish.finance.common;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JmxMetricsRegistryTest {
+
+    private final MBeanServer server = MBeanServerFactory.newMBeanServer();
+
+    @Test
+    void shouldExposeMetricsAsMBeans() throws Exception {
+        AtomicLong ticks = new AtomicLong();
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(7);
+        try (JmxMetricsRegistry registry = new JmxMetricsRegistry("test", server)) {
+            registry.registerCounter("prices.ticks", ticks::get);
+            registry.registerGauge("prices.EMA.windowOccupancy", () -> 42);
+            registry.registerHistogram("prices.EMA.calculateNanos", histogram);
+            ticks.set(10);
+
+            assertEquals(10L, server.getAttribute(registry.objectName("Counter", "prices.ticks"), "Count"));
+            assertTrue((Double) server.getAttribute(registry.objectName("Counter", "prices.ticks"), "RatePerSecond") > 0);
+            assertEquals(42L, server.getAttribute(registry.objectName("Gauge", "prices.EMA.windowOccupancy"), "Value"));
+            assertEquals(1L, server.getAttribute(registry.objectName("Histogram", "prices.EMA.calculateNanos"), "Count"));
+            assertEquals(7L, server.getAttribute(registry.objectName("Histogram", "prices.EMA.calculateNanos"), "99thPercentile"));
+        }
+        assertFalse(server.queryNames(null, null).stream().anyMatch(name -> name.getDomain().equals("test")));
+    }
+
+    @Test
+    void shouldRejectDuplicateNames() {
+        try (JmxMetricsRegistry registry = new JmxMetricsRegistry("test", server)) {
+            registry.registerGauge("queue", () -> 1);
+            assertThrows(IllegalStateException.class, () -> registry.registerGauge("queue", () -> 2));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.manish.finance.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PairRingBufferTest {
+
+    @Test
+    void shouldKeepPricesAndTimestampsTogetherWhenGrowingAfterWrapAround() {
+        DoubleRingBuffer doubles = new DoubleRingBuffer(3);
+        LongRingBuffer longs = new LongRingBuffer(3);
+        for (int i = 0; i < 5; i++) {
+            if (doubles.size() == 3) {
+                assertEquals(i - 3, doubles.removeFirst());
+                assertEquals(i - 3, longs.removeFirst());
+            }
+            doubles.addLast(i, 100L * i);
+            longs.addLast(i, 100L * i);
+        }
+        for (int i = 5; i < 9; i++) {
+            doubles.addLast(i, 100L * i);
+            longs.addLast(i, 100L * i);
+        }
+
+        assertEquals(12, doubles.capacity());
+        assertEquals(7, doubles.size());
+        for (int i = 0; i < 7; i++) {
+            assertEquals(i + 2, doubles.priceAt(i));
+            assertEquals(100L * (i + 2), doubles.timestampAt(i));
+            assertEquals(i + 2, longs.priceAt(i));
+            assertEquals(100L * (i + 2), longs.timestampAt(i));
+        }
+    }
+
+    @Test
+    void shouldRemoveSeveralEntriesAndRejectInvalidAccess() {
+        LongRingBuffer buffer = new LongRingBuffer(4);
+        buffer.addAll(new long[]{1, 2, 3, 4}, new long[]{10, 20, 30, 40}, 0, 4);
+        buffer.removeFirst(3);
+
+        assertEquals(4, buffer.firstPrice());
+        assertEquals(40, buffer.firstTimestamp());
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.priceAt(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.removeFirst(2));
+
+        buffer.clear();
+        assertTrue(buffer.isEmpty());
+        assertThrows(NoSuchElementException.class, buffer::firstTimestamp);
+        assertThrows(NoSuchElementException.class, buffer::removeFirst);
+    }
+}
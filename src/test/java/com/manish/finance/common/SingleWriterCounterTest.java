@@ -0,0 +1,42 @@
+package com.manish.finance.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleWriterCounterTest {
+
+    @Test
+    void shouldCountIncrementsAndAdditions() {
+        SingleWriterCounter counter = new SingleWriterCounter();
+        counter.increment();
+        counter.add(41);
+        assertEquals(42, counter.get());
+        counter.set(7);
+        assertEquals(7, counter.get());
+    }
+
+    @Test
+    void shouldPublishUpdatesToReaders() throws Exception {
+        SingleWriterCounter counter = new SingleWriterCounter();
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 1_000_000; i++) {
+                counter.increment();
+            }
+        });
+        writer.start();
+
+        long previous = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (previous < 1_000_000 && System.nanoTime() < deadline) {
+            long current = counter.get();
+            assertTrue(current >= previous, "count went back from " + previous + " to " + current);
+            previous = current;
+        }
+        writer.join();
+        assertEquals(1_000_000, counter.get());
+    }
+}
@@ -0,0 +1,209 @@
+package com.manish.finance.common;
+
+import com.manish.finance.calculators.ExponentialAverageCalculator;
+import com.manish.finance.calculators.MovingAverageCalculator;
+import com.manish.finance.calculators.WindowedAverageCalculator;
+import com.manish.finance.intf.Calculator;
+import com.manish.finance.quants.TickManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TickHistoryTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-02T09:00:00Z");
+
+    private static Tick tick(int price, int second) {
+        return new Tick(BigDecimal.valueOf(price), NOW.plusSeconds(second));
+    }
+
+    @Test
+    void testViewsReadTheirOwnWindow() {
+        TickHistory history = new TickHistory();
+        TickHistory.View small = history.newView();
+        TickHistory.View large = history.newView();
+        for (int i = 0; i < 5; i++) {
+            Tick tick = tick(i, i);
+            history.append(tick);
+            small.addLast(tick);
+            large.addLast(tick);
+            if (small.size() > 2) {
+                small.removeFirst();
+            }
+        }
+        assertEquals(2, small.size());
+        assertEquals(BigDecimal.valueOf(3), small.getFirst().getPrice());
+        assertEquals(5, large.size());
+        assertEquals(BigDecimal.valueOf(4), large.get(4).getPrice());
+    }
+
+    @Test
+    void testRetainsOnlyTheLargestWindow() {
+        TickHistory history = new TickHistory();
+        TickHistory.View view = history.newView();
+        for (int i = 0; i < 10_000; i++) {
+            Tick tick = tick(i, i);
+            history.append(tick);
+            view.addLast(tick);
+            if (view.size() > 100) {
+                view.removeFirst();
+            }
+        }
+        assertEquals(10_000, history.nextSequence());
+        assertTrue(history.retained() <= 128, "retained " + history.retained());
+        assertSame(view.getFirst(), history.get(9_900));
+    }
+
+    @Test
+    void testClearedViewDoesNotPinHistory() {
+        TickHistory history = new TickHistory();
+        TickHistory.View view = history.newView();
+        Tick first = tick(1, 0);
+        history.append(first);
+        view.addLast(first);
+        view.clear();
+        for (int i = 1; i < 1_000; i++) {
+            history.append(tick(i, i));
+        }
+        assertTrue(history.retained() <= 64, "retained " + history.retained());
+
+        // anchored again at the next tick
+        Tick next = tick(5, 1_000);
+        history.append(next);
+        view.addLast(next);
+        assertEquals(1, view.size());
+        assertSame(next, view.getFirst());
+    }
+
+    @Test
+    void testCancelledCalculatorDoesNotPinHistory() {
+        TickHistory history = new TickHistory();
+        Map<String, Calculator> calculators = new LinkedHashMap<>();
+        calculators.put("SMA", new MovingAverageCalculator(history, 50));
+        calculators.put("EMA", new ExponentialAverageCalculator(history, 20, new BigDecimal("0.25")));
+        TickManager tickManager = new TickManager(calculators, history);
+        Map<String, BigDecimal> averages = new LinkedHashMap<>();
+        tickManager.addListener("SMA", averages::put);
+
+        for (int i = 0; i < 100; i++) {
+            tickManager.onTick(tick(100, i));
+        }
+        tickManager.onCancel();
+        for (int i = 100; i < 100_100; i++) {
+            tickManager.onTick(tick(100 + i % 7, i));
+        }
+        assertTrue(history.retained() <= 128, "retained " + history.retained());
+
+        tickManager.onResume();
+        tickManager.onTick(tick(42, 100_100));
+        assertEquals(0, new BigDecimal("42").compareTo(averages.get("SMA")));
+    }
+
+    @Test
+    void testViewRestartsAfterSkippedTicks() {
+        TickHistory history = new TickHistory();
+        TickHistory.View view = history.newView();
+        Tick first = tick(1, 0);
+        history.append(first);
+        view.addLast(first);
+        Tick skipped = tick(2, 1);
+        history.append(skipped);
+        Tick third = tick(3, 2);
+        history.append(third);
+
+        assertFalse(view.follows(third));
+        view.addLast(third);
+        assertEquals(1, view.size());
+        assertSame(third, view.getFirst());
+
+        // a calculator restarts its window instead of averaging over the gap
+        MovingAverageCalculator calculator = new MovingAverageCalculator(history, 10);
+        for (int i = 3; i < 6; i++) {
+            Tick tick = tick(10, i);
+            history.append(tick);
+            calculator.calculate(tick);
+        }
+        history.append(tick(1_000, 6));
+        Tick after = tick(40, 7);
+        history.append(after);
+        assertEquals(0, BigDecimal.valueOf(40).compareTo(calculator.calculate(after)));
+    }
+
+    @Test
+    void testRejectsTicksNotAppended() {
+        TickHistory history = new TickHistory();
+        TickHistory.View view = history.newView();
+        assertThrows(IllegalStateException.class, () -> view.addLast(tick(1, 0)));
+
+        Tick appended = tick(1, 0);
+        history.append(appended);
+        view.addLast(appended);
+        history.append(tick(2, 1));
+        assertThrows(IllegalStateException.class, () -> view.addLast(tick(2, 1)));
+    }
+
+    @Test
+    void testSharedCalculatorsMatchOwnedCalculators() {
+        TickHistory history = new TickHistory();
+        Map<String, Calculator> shared = new LinkedHashMap<>();
+        shared.put("SMA", new MovingAverageCalculator(history, 50));
+        shared.put("EMA", new ExponentialAverageCalculator(history, 20, new BigDecimal("0.25")));
+        shared.put("WMA", new WindowedAverageCalculator(history, Duration.ofSeconds(30)));
+        Map<String, Calculator> owned = new LinkedHashMap<>();
+        owned.put("SMA", new MovingAverageCalculator(50));
+        owned.put("EMA", new ExponentialAverageCalculator(20, new BigDecimal("0.25")));
+        owned.put("WMA", new WindowedAverageCalculator(Duration.ofSeconds(30)));
+
+        Map<String, BigDecimal> sharedAverages = new LinkedHashMap<>();
+        Map<String, BigDecimal> ownedAverages = new LinkedHashMap<>();
+        TickManager sharedManager = new TickManager(shared, history);
+        TickManager ownedManager = new TickManager(owned);
+        for (String type : shared.keySet()) {
+            sharedManager.addListener(type, sharedAverages::put);
+            ownedManager.addListener(type, ownedAverages::put);
+        }
+
+        Random random = new Random(7);
+        for (int i = 0; i < 500; i++) {
+            Tick tick = tick(100 + random.nextInt(20), i);
+            if (i == 200) {
+                sharedManager.onCancel();
+                ownedManager.onCancel();
+            } else if (i == 260) {
+                sharedManager.onResume();
+                ownedManager.onResume();
+            } else if (i == 400) {
+                sharedManager.onReset();
+                ownedManager.onReset();
+            }
+            sharedManager.onTick(tick);
+            ownedManager.onTick(tick);
+            assertEquals(ownedAverages, sharedAverages, "tick " + i);
+        }
+        assertTrue(history.retained() <= 128, "retained " + history.retained());
+    }
+
+    @Test
+    void testSharedCalculatorsDoNotSupportSnapshots(@TempDir Path directory) {
+        TickHistory history = new TickHistory();
+        Map<String, Calculator> calculators = Map.of("SMA", new MovingAverageCalculator(history, 5));
+        TickManager tickManager = new TickManager(calculators, history);
+        tickManager.onTick(tick(1, 0));
+        Path file = directory.resolve("calculators.ckpt");
+        assertThrows(IOException.class, () -> tickManager.checkpoint(file));
+    }
+}
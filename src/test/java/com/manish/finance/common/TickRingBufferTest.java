@@ -0,0 +1,76 @@
+package com.manish.finance.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TickRingBufferTest {
+
+    private static Tick tick(int price) {
+        return new Tick(BigDecimal.valueOf(price), Instant.EPOCH.plusSeconds(price));
+    }
+
+    @Test
+    void shouldKeepInsertionOrderWhenWrappingAround() {
+        TickRingBuffer buffer = new TickRingBuffer(3);
+        for (int i = 0; i < 10; i++) {
+            if (buffer.size() == 3) {
+                assertEquals(BigDecimal.valueOf(i - 3), buffer.removeFirst().getPrice());
+            }
+            buffer.addLast(tick(i));
+        }
+        assertEquals(3, buffer.capacity());
+        assertEquals(BigDecimal.valueOf(7), buffer.get(0).getPrice());
+        assertEquals(BigDecimal.valueOf(9), buffer.get(2).getPrice());
+    }
+
+    @Test
+    void shouldGrowWhenFull() {
+        TickRingBuffer buffer = new TickRingBuffer(2);
+        buffer.addLast(tick(0));
+        buffer.addLast(tick(1));
+        buffer.removeFirst();
+        Tick last = tick(3);
+        buffer.addLast(tick(2));
+        buffer.addLast(last);
+        assertEquals(4, buffer.capacity());
+        assertEquals(3, buffer.size());
+        assertEquals(BigDecimal.valueOf(1), buffer.getFirst().getPrice());
+        assertSame(last, buffer.get(2));
+    }
+
+    @Test
+    void shouldBeEmptyAfterClear() {
+        TickRingBuffer buffer = new TickRingBuffer(2);
+        buffer.addLast(tick(0));
+        buffer.clear();
+        assertTrue(buffer.isEmpty());
+        assertThrows(java.util.NoSuchElementException.class, buffer::removeFirst);
+    }
+
+    @Test
+    void shouldInsertInTheMiddleWhenWrappedAround() {
+        TickRingBuffer buffer = new TickRingBuffer(4);
+        buffer.addLast(tick(0));
+        buffer.addLast(tick(0));
+        buffer.removeFirst();
+        buffer.removeFirst();
+        buffer.addLast(tick(1));
+        buffer.addLast(tick(3));
+        buffer.addLast(tick(4));
+        buffer.add(1, tick(2));
+        buffer.add(4, tick(5));
+        assertEquals(5, buffer.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(BigDecimal.valueOf(i + 1), buffer.get(i).getPrice());
+        }
+        assertEquals(BigDecimal.valueOf(5), buffer.removeLast().getPrice());
+        assertEquals(BigDecimal.valueOf(4), buffer.getLast().getPrice());
+    }
+}
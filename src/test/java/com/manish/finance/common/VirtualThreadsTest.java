@@ -0,0 +1,32 @@
+package com.manish.finance.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VirtualThreadsTest {
+
+    @Test
+    void shouldDetectSupportFromTheRuntimeVersion() {
+        assertEquals(Runtime.version().feature() >= 21, VirtualThreads.isSupported());
+    }
+
+    @Test
+    void shouldCreateNamedRunnableThreads() throws Exception {
+        ThreadFactory factory = VirtualThreads.newFactory("worker");
+        AtomicReference<String> ranOn = new AtomicReference<>();
+
+        Thread first = factory.newThread(() -> ranOn.set(Thread.currentThread().getName()));
+        Thread second = factory.newThread(() -> { });
+        first.start();
+        first.join();
+
+        assertEquals("worker-0", ranOn.get());
+        assertEquals("worker-1", second.getName());
+        assertTrue(first.isDaemon());
+    }
+}
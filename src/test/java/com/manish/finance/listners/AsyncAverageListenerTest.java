@@ -0,0 +1,88 @@
+package com.manish.finance.listners;
+
+import com.manish.finance.intf.AverageListener;
+import com.manish.finance.listners.AsyncAverageListener.OverflowPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncAverageListenerTest {
+
+    /**
+     * Records averages as "type=value", blocking on the first one until released.
+     */
+    private static class GatedListener implements AverageListener {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> received = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onAverage(String type, BigDecimal avg) {
+            received.add(type + "=" + avg);
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Test
+    void shouldDeliverEverythingInOrderWhenBlocking() throws Exception {
+        GatedListener delegate = new GatedListener();
+        delegate.release.countDown();
+        AsyncAverageListener listener = new AsyncAverageListener(delegate, 2, OverflowPolicy.BLOCK);
+        for (int i = 0; i < 100; i++) {
+            listener.onAverage("SMA", BigDecimal.valueOf(i));
+        }
+        listener.close();
+
+        assertEquals(100, delegate.received.size());
+        assertEquals("SMA=99", delegate.received.get(99));
+        assertEquals(100, listener.getDeliveredCount());
+        assertEquals(0, listener.getDroppedCount());
+    }
+
+    @Test
+    void shouldDropOldestWhenFull() throws Exception {
+        GatedListener delegate = new GatedListener();
+        AsyncAverageListener listener = new AsyncAverageListener(delegate, 2, OverflowPolicy.DROP_OLDEST);
+        listener.onAverage("SMA", BigDecimal.valueOf(0));
+        delegate.started.await(); // consumer is now stuck delivering 0
+        for (int i = 1; i <= 5; i++) {
+            listener.onAverage("SMA", BigDecimal.valueOf(i));
+        }
+        assertEquals(2, listener.getQueueSize());
+        delegate.release.countDown();
+        listener.close();
+
+        assertEquals(List.of("SMA=0", "SMA=4", "SMA=5"), delegate.received);
+        assertEquals(3, listener.getDroppedCount());
+        assertTrue(listener.getMaxLagNanos() > 0);
+    }
+
+    @Test
+    void shouldConflateToLatestPerType() throws Exception {
+        GatedListener delegate = new GatedListener();
+        AsyncAverageListener listener = new AsyncAverageListener(delegate, 8, OverflowPolicy.CONFLATE);
+        listener.onAverage("SMA", BigDecimal.valueOf(0));
+        delegate.started.await();
+        for (int i = 1; i <= 5; i++) {
+            listener.onAverage("SMA", BigDecimal.valueOf(i));
+            listener.onAverage("EMA", BigDecimal.valueOf(i * 10));
+        }
+        delegate.release.countDown();
+        listener.close();
+
+        assertEquals(List.of("SMA=0", "SMA=5", "EMA=50"), delegate.received);
+        assertEquals(8, listener.getConflatedCount());
+        assertEquals(0, listener.getDroppedCount());
+    }
+}
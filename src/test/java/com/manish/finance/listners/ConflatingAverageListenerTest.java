@@ -0,0 +1,113 @@
+package com.manish.finance.listners;
+
+import com.manish.finance.calculators.MovingAverageCalculator;
+import com.manish.finance.common.Tick;
+import com.manish.finance.intf.AverageListener;
+import com.manish.finance.intf.Calculator;
+import com.manish.finance.quants.TickManager;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConflatingAverageListenerTest {
+
+    private static final String MOVING_AVERAGE = "MovingAverage";
+
+    @Test
+    void shouldPublishLatestAverageEveryNUpdates() {
+        List<String> received = new CopyOnWriteArrayList<>();
+        AverageListener delegate = (type, avg) -> received.add(type + "=" + avg.stripTrailingZeros().toPlainString());
+        Map<String, Calculator> calculators = Map.of(MOVING_AVERAGE, new MovingAverageCalculator(1));
+        TickManager tickManager = new TickManager(calculators);
+        ConflatingAverageListener listener = new ConflatingAverageListener(delegate, 4);
+        tickManager.addListener(MOVING_AVERAGE, listener);
+
+        for (int i = 1; i <= 10; i++) {
+            tickManager.onTick(new Tick(BigDecimal.valueOf(i), Instant.now()));
+        }
+        assertEquals(List.of("MovingAverage=4", "MovingAverage=8"), received);
+        listener.close();
+        assertEquals(List.of("MovingAverage=4", "MovingAverage=8", "MovingAverage=10"), received);
+    }
+
+    @Test
+    void shouldPublishOnTimerOnlyWhenUpdated() throws Exception {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            List<String> received = new CopyOnWriteArrayList<>();
+            CountDownLatch published = new CountDownLatch(1);
+            String last = "7:" + MOVING_AVERAGE + "=1000";
+            AverageListener delegate = new AverageListener() {
+                @Override
+                public void onAverage(String type, BigDecimal avg) {
+                    throw new AssertionError("Instrument aware callback expected");
+                }
+
+                @Override
+                public void onAverage(int instrumentId, String type, BigDecimal avg) {
+                    String update = instrumentId + ":" + type + "=" + avg;
+                    received.add(update);
+                    if (update.equals(last)) {
+                        published.countDown();
+                    }
+                }
+            };
+            ConflatingAverageListener listener = new ConflatingAverageListener(delegate, scheduler, Duration.ofMillis(20));
+            for (int i = 1; i <= 1000; i++) {
+                listener.onAverage(7, MOVING_AVERAGE, BigDecimal.valueOf(i));
+            }
+            assertTrue(published.await(5, TimeUnit.SECONDS));
+            int publications = received.size();
+            Thread.sleep(100); // further timer runs have nothing new to publish
+            listener.close();
+
+            assertEquals(publications, received.size());
+            assertTrue(publications < 1000, "Expected conflated updates but got " + publications);
+            assertEquals(last, received.get(publications - 1));
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldKeepPublishingOnTimerAfterDelegateFailed() throws Exception {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            List<BigDecimal> received = new CopyOnWriteArrayList<>();
+            CountDownLatch published = new CountDownLatch(1);
+            AverageListener delegate = (type, avg) -> {
+                if (avg.signum() < 0) {
+                    throw new IllegalArgumentException("Negative average " + avg);
+                }
+                received.add(avg);
+                published.countDown();
+            };
+            ConflatingAverageListener listener = new ConflatingAverageListener(delegate, scheduler, Duration.ofMillis(10));
+            listener.onAverage(MOVING_AVERAGE, BigDecimal.valueOf(-1));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (listener.getFailedCount() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            listener.onAverage(MOVING_AVERAGE, BigDecimal.valueOf(42));
+
+            assertTrue(published.await(5, TimeUnit.SECONDS));
+            listener.close();
+            assertEquals(1, listener.getFailedCount());
+            assertEquals(List.of(BigDecimal.valueOf(42)), received);
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.manish.finance.quants;
+
+import com.manish.finance.calculators.DoubleExponentialAverageCalculator;
+import com.manish.finance.calculators.DoubleMovingAverageCalculator;
+import com.manish.finance.common.MutableTick;
+import com.manish.finance.common.Tick;
+import com.manish.finance.intf.PrimitiveCalculator;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchTickManagerTest {
+
+    private static final String MOVING_AVERAGE = "MovingAverage";
+    private static final String EXPONENTIAL_AVERAGE = "ExponentialMovingAverage";
+
+    @Test
+    void shouldDeliverOneCallbackPerCalculatorAndBatch() {
+        Map<String, PrimitiveCalculator> calculators = new LinkedHashMap<>();
+        calculators.put(MOVING_AVERAGE, new DoubleMovingAverageCalculator(2));
+        calculators.put(EXPONENTIAL_AVERAGE, new DoubleExponentialAverageCalculator(3, 0.75));
+        BatchTickManager manager = new BatchTickManager(calculators);
+
+        List<String> calls = new ArrayList<>();
+        List<double[]> received = new ArrayList<>();
+        manager.addListener(MOVING_AVERAGE, (type, averages, length) -> {
+            calls.add(type);
+            received.add(Arrays.copyOf(averages, length));
+        });
+        manager.addListener(EXPONENTIAL_AVERAGE, (type, averages, length) -> calls.add(type));
+
+        manager.onTicks(new double[]{10, 20, 30, 40}, new long[]{0, 1, 2, 3}, 4);
+        manager.onTicks(new Tick[]{new Tick(BigDecimal.valueOf(50), Instant.now())});
+
+        // in the order of the type names, not of the map
+        assertEquals(List.of(EXPONENTIAL_AVERAGE, MOVING_AVERAGE, EXPONENTIAL_AVERAGE, MOVING_AVERAGE), calls);
+        assertArrayEquals(new double[]{10, 15, 25, 35}, received.get(0), 0.00001);
+        assertArrayEquals(new double[]{45}, received.get(1), 0.00001);
+    }
+
+    @Test
+    void shouldIngestReusedTickViewWithoutAllocating() {
+        Map<String, PrimitiveCalculator> calculators = new LinkedHashMap<>();
+        calculators.put(MOVING_AVERAGE, new DoubleMovingAverageCalculator(100));
+        BatchTickManager manager = new BatchTickManager(calculators);
+        double[] last = new double[1];
+        manager.addListener(MOVING_AVERAGE, (type, averages, length) -> last[0] = averages[length - 1]);
+
+        MutableTick tick = new MutableTick(2);
+        for (int i = 0; i < 10_000; i++) {
+            manager.onTick(tick.set(1, 10_000 + i % 100, 100, i));
+        }
+        assertEquals(100.495, last[0], 0.00001);
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 10_000; i++) {
+            manager.onTick(tick.set(1, 10_000 + i % 100, 100, i));
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        assertTrue(allocated < 1024, "allocated " + allocated + " bytes for 10000 ticks");
+    }
+
+    @Test
+    void shouldHandleSingleTickWithoutAllocatingABatch() {
+        BatchTickManager manager = new BatchTickManager(Map.of(MOVING_AVERAGE, new DoubleMovingAverageCalculator(2)));
+        double[] last = new double[1];
+        manager.addListener(MOVING_AVERAGE, (type, averages, length) -> last[0] = averages[length - 1]);
+        Tick tick = new Tick(BigDecimal.valueOf(10_050, 2), Instant.now());
+        for (int i = 0; i < 10_000; i++) {
+            manager.onTick(tick);
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 10_000; i++) {
+            manager.onTick(tick);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        assertTrue(allocated < 1024, "allocated " + allocated + " bytes for 10000 ticks");
+        assertEquals(100.5, last[0], 0.00001);
+    }
+}
@@ -0,0 +1,192 @@
+package com.manish.finance.quants;
+
+import com.manish.finance.calculators.MovingAverageCalculator;
+import com.manish.finance.calculators.WindowedAverageCalculator;
+import com.manish.finance.common.HashedWheelTimer;
+import com.manish.finance.common.Tick;
+import com.manish.finance.intf.AverageListener;
+import com.manish.finance.intf.Calculator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.manish.finance.testutils.TestUtilis.assertEqualsBigDecimal;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentTickManagerTest {
+
+    private static final String MOVING_AVERAGE = "MovingAverage";
+    private static final String WINDOWED_AVERAGE = "WindowedAverage";
+
+    @Test
+    void shouldProcessTicksFromManyProducers() throws Exception {
+        int producers = 4;
+        int ticksPerProducer = 10_000;
+        Map<String, Calculator> calculators = Map.of(MOVING_AVERAGE, new MovingAverageCalculator(producers * ticksPerProducer));
+        List<BigDecimal> averages = new ArrayList<>(); // only written by the consumer thread
+
+        try (ConcurrentTickManager manager = new ConcurrentTickManager(new TickManager(calculators), 64)) {
+            manager.addListener(MOVING_AVERAGE, (type, avg) -> averages.add(avg));
+
+            List<Thread> threads = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                Thread thread = new Thread(() -> {
+                    for (int i = 0; i < ticksPerProducer; i++) {
+                        manager.onTick(new Tick(BigDecimal.valueOf(i % 2 == 0 ? 10 : 20), Instant.now()));
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            manager.flush();
+
+            assertEquals(producers * ticksPerProducer, averages.size());
+            assertEqualsBigDecimal(BigDecimal.valueOf(15), averages.get(averages.size() - 1));
+        }
+    }
+
+    @Test
+    void shouldCountFailingEventsAndCarryOn() throws Exception {
+        Map<String, Calculator> calculators = Map.of(MOVING_AVERAGE, new MovingAverageCalculator(1));
+        List<BigDecimal> averages = new ArrayList<>(); // only written by the consumer thread
+
+        try (ConcurrentTickManager manager = new ConcurrentTickManager(new TickManager(calculators), 8)) {
+            manager.addListener(MOVING_AVERAGE, (type, avg) -> {
+                if (avg.intValue() % 10 == 0) {
+                    throw new IllegalStateException("listener failed on " + avg);
+                }
+                averages.add(avg);
+            });
+            for (int i = 1; i <= 100; i++) {
+                manager.onTick(new Tick(BigDecimal.valueOf(i), Instant.now()));
+            }
+            manager.flush();
+
+            assertEquals(10, manager.getFailedEventCount());
+            assertEquals(90, averages.size());
+        }
+    }
+
+    @Test
+    void shouldFailFastOnceTheConsumerThreadDied() throws Exception {
+        Map<String, Calculator> calculators = Map.of(MOVING_AVERAGE, new MovingAverageCalculator(1));
+        ConcurrentTickManager manager = new ConcurrentTickManager(new TickManager(calculators), 8);
+        manager.addListener(MOVING_AVERAGE, (type, avg) -> {
+            throw new StackOverflowError("not recoverable");
+        });
+        manager.onTick(new Tick(BigDecimal.ONE, Instant.now()));
+
+        assertThrows(IllegalStateException.class, manager::flush);
+        assertThrows(IllegalStateException.class, () -> {
+            for (int i = 0; i < 100; i++) {
+                manager.onTick(new Tick(BigDecimal.ONE, Instant.now()));
+            }
+        });
+        manager.close();
+    }
+
+    @Test
+    void shouldOrderControlSignalsWithTicks() throws Exception {
+        Map<String, Calculator> calculators = Map.of(MOVING_AVERAGE, new MovingAverageCalculator(3));
+        List<BigDecimal> averages = new ArrayList<>();
+
+        try (ConcurrentTickManager manager = new ConcurrentTickManager(new TickManager(calculators), 16)) {
+            manager.addListener(MOVING_AVERAGE, (type, avg) -> averages.add(avg));
+            manager.onTick(new Tick(BigDecimal.valueOf(10), Instant.now()));
+            manager.onCancel();
+            manager.onTick(new Tick(BigDecimal.valueOf(20), Instant.now()));
+            manager.onResume();
+            manager.onTick(new Tick(BigDecimal.valueOf(30), Instant.now()));
+            manager.onTick(new Tick(BigDecimal.valueOf(40), Instant.now()));
+            manager.onReset();
+            manager.onTick(new Tick(BigDecimal.valueOf(50), Instant.now()));
+            manager.flush();
+        }
+
+        assertEquals(5, averages.size());
+        assertEqualsBigDecimal(BigDecimal.valueOf(10), averages.get(0));
+        assertEqualsBigDecimal(BigDecimal.ZERO, averages.get(1));
+        assertEqualsBigDecimal(BigDecimal.valueOf(30), averages.get(2));
+        assertEqualsBigDecimal(BigDecimal.valueOf(35), averages.get(3));
+        assertEqualsBigDecimal(BigDecimal.valueOf(50), averages.get(4));
+    }
+
+    @Test
+    void shouldRepublishAverageWhenTicksExpireWithoutNewTicks() throws Exception {
+        Map<String, Calculator> calculators = Map.of(WINDOWED_AVERAGE, new WindowedAverageCalculator(Duration.ofMillis(100)));
+        List<BigDecimal> averages = new CopyOnWriteArrayList<>();
+
+        try (HashedWheelTimer timer = new HashedWheelTimer(Duration.ofMillis(5), 64);
+             ConcurrentTickManager manager = new ConcurrentTickManager(new TickManager(calculators), 16)) {
+            manager.addListener(WINDOWED_AVERAGE, (type, avg) -> averages.add(avg));
+            manager.enableExpiry(timer, Clock.systemUTC());
+            manager.onTick(new Tick(BigDecimal.valueOf(10), Instant.now()));
+            manager.onTick(new Tick(BigDecimal.valueOf(20), Instant.now()));
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (averages.size() < 3 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+        }
+
+        assertEquals(3, averages.size());
+        assertEqualsBigDecimal(BigDecimal.valueOf(15), averages.get(1));
+        assertEqualsBigDecimal(BigDecimal.ZERO, averages.get(2));
+    }
+
+    @Test
+    void shouldNotBlockTheTimerThreadWhileTheQueueIsFull() throws Exception {
+        Map<String, Calculator> calculators = Map.of(WINDOWED_AVERAGE, new WindowedAverageCalculator(Duration.ofMillis(50)));
+        CountDownLatch consumerBlocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<BigDecimal> averages = new CopyOnWriteArrayList<>();
+
+        try (HashedWheelTimer timer = new HashedWheelTimer(Duration.ofMillis(5), 64);
+             ConcurrentTickManager manager = new ConcurrentTickManager(new TickManager(calculators), 2)) {
+            manager.addListener(WINDOWED_AVERAGE, (type, avg) -> {
+                averages.add(avg);
+                if (averages.size() == 2) {
+                    consumerBlocked.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            manager.enableExpiry(timer, Clock.systemUTC());
+            manager.onTick(new Tick(BigDecimal.valueOf(10), Instant.now()));
+            manager.onTick(new Tick(BigDecimal.valueOf(20), Instant.now()));
+            assertTrue(consumerBlocked.await(5, TimeUnit.SECONDS));
+            manager.onTick(new Tick(BigDecimal.valueOf(30), Instant.now()));
+            manager.onTick(new Tick(BigDecimal.valueOf(40), Instant.now()));
+
+            // the expiry of the first tick fires while the queue is full, later timer tasks must still run
+            CountDownLatch timerAlive = new CountDownLatch(1);
+            timer.schedule(timerAlive::countDown, Duration.ofMillis(200));
+            assertTrue(timerAlive.await(5, TimeUnit.SECONDS));
+            release.countDown();
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!averages.get(averages.size() - 1).equals(BigDecimal.ZERO) && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+        }
+
+        assertEqualsBigDecimal(BigDecimal.ZERO, averages.get(averages.size() - 1));
+    }
+}
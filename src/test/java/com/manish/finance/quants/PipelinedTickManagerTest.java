@@ -0,0 +1,173 @@
+package com.manish.finance.quants;
+
+import com.manish.finance.calculators.MovingAverageCalculator;
+import com.manish.finance.common.Tick;
+import com.manish.finance.common.VirtualThreads;
+import com.manish.finance.intf.AverageListener;
+import com.manish.finance.intf.Calculator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import static com.manish.finance.testutils.TestUtilis.assertEqualsBigDecimal;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+class PipelinedTickManagerTest {
+
+    private static final String MOVING_AVERAGE = "MovingAverage";
+
+    /**
+     * Records every average it receives, as "instrument:average", and the threads it was called on.
+     */
+    private static class RecordingListener implements AverageListener {
+        final List<String> received = new CopyOnWriteArrayList<>();
+        final List<BigDecimal> averages = new CopyOnWriteArrayList<>();
+        final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void onAverage(String type, BigDecimal avg) {
+            throw new AssertionError("Instrument aware callback expected");
+        }
+
+        @Override
+        public void onAverage(int instrumentId, String type, BigDecimal avg) {
+            received.add(instrumentId + ":" + avg.stripTrailingZeros().toPlainString());
+            averages.add(avg);
+            threads.add(Thread.currentThread());
+        }
+    }
+
+    @Test
+    void shouldRunEveryInstrumentInItsOwnPipeline() throws Exception {
+        Map<String, Supplier<Calculator>> templates = Map.of(MOVING_AVERAGE, () -> new MovingAverageCalculator(2));
+        RecordingListener all = new RecordingListener();
+        RecordingListener msftOnly = new RecordingListener();
+
+        try (PipelinedTickManager manager = new PipelinedTickManager(templates)) {
+            manager.addListener(MOVING_AVERAGE, all);
+            manager.addListener(2, MOVING_AVERAGE, msftOnly);
+
+            Instant now = Instant.now();
+            manager.onTick(new Tick(1, BigDecimal.valueOf(10), now));
+            manager.onTick(new Tick(2, BigDecimal.valueOf(100), now));
+            manager.onTick(new Tick(1, BigDecimal.valueOf(20), now));
+            manager.onTick(new Tick(2, BigDecimal.valueOf(200), now));
+            manager.flush();
+
+            assertEquals(2, manager.instrumentCount());
+            assertEquals(4, all.received.size());
+            assertEquals(2, all.threads.size());
+            assertEquals(List.of("2:100", "2:150"), msftOnly.received);
+            assertEqualsBigDecimal(BigDecimal.valueOf(150), msftOnly.averages.get(1));
+        }
+    }
+
+    @Test
+    void shouldKeepSignalsInOrderWithTicksAndApplyThemToLaterInstruments() throws Exception {
+        Map<String, Supplier<Calculator>> templates = Map.of(MOVING_AVERAGE, () -> new MovingAverageCalculator(2));
+        RecordingListener all = new RecordingListener();
+
+        try (PipelinedTickManager manager = new PipelinedTickManager(templates)) {
+            manager.addListener(MOVING_AVERAGE, all);
+            manager.onTick(new Tick(1, BigDecimal.valueOf(10), Instant.now()));
+            manager.onCancel();
+            manager.onTick(new Tick(7, BigDecimal.valueOf(10), Instant.now()));
+            manager.onResume();
+            manager.onTick(new Tick(7, BigDecimal.valueOf(30), Instant.now()));
+            manager.onReset(1);
+            manager.onTick(new Tick(1, BigDecimal.valueOf(40), Instant.now()));
+            manager.flush();
+
+            assertEquals(List.of("1:10", "1:40"), all.received.stream().filter(r -> r.startsWith("1:")).toList());
+            assertEquals(List.of("7:0", "7:30"), all.received.stream().filter(r -> r.startsWith("7:")).toList());
+        }
+    }
+
+    @Test
+    void shouldCarryOnAfterFailingListener() throws Exception {
+        Map<String, Supplier<Calculator>> templates = Map.of(MOVING_AVERAGE, () -> new MovingAverageCalculator(2));
+        RecordingListener all = new RecordingListener();
+
+        try (PipelinedTickManager manager = new PipelinedTickManager(templates)) {
+            manager.addListener(1, MOVING_AVERAGE, (type, avg) -> {
+                throw new IllegalStateException("listener failed");
+            });
+            manager.addListener(MOVING_AVERAGE, all);
+            manager.onTick(new Tick(1, BigDecimal.valueOf(10), Instant.now()));
+            manager.onTick(new Tick(1, BigDecimal.valueOf(20), Instant.now()));
+            manager.flush();
+
+            assertEquals(2, manager.getFailedEventCount());
+            assertEquals(List.of("1:10", "1:15"), all.received);
+        }
+    }
+
+    @Test
+    void shouldServeThousandsOfInstruments() throws Exception {
+        Map<String, Supplier<Calculator>> templates = Map.of(MOVING_AVERAGE, () -> new MovingAverageCalculator(4));
+        RecordingListener all = new RecordingListener();
+        int instruments = PipelinedTickManager.PLATFORM_THREAD_INSTRUMENT_LIMIT;
+
+        try (PipelinedTickManager manager = new PipelinedTickManager(templates)) {
+            manager.addListener(MOVING_AVERAGE, all);
+            Instant now = Instant.now();
+            for (int round = 1; round <= 4; round++) {
+                for (int instrument = 0; instrument < instruments; instrument++) {
+                    manager.onTick(new Tick(instrument, BigDecimal.valueOf(round), now));
+                }
+            }
+            manager.flush();
+
+            assertEquals(instruments, manager.instrumentCount());
+            assertEquals(4 * instruments, all.received.size());
+            assertTrue(all.received.contains((instruments - 1) + ":2.5"));
+        }
+    }
+
+    @Test
+    void shouldRejectInstrumentsBeyondTheLimit() throws Exception {
+        Map<String, Supplier<Calculator>> templates = Map.of(MOVING_AVERAGE, () -> new MovingAverageCalculator(2));
+
+        try (PipelinedTickManager manager = new PipelinedTickManager(templates, VirtualThreads.newFactory("test-pipeline"), 16, 2)) {
+            manager.onTick(new Tick(1, BigDecimal.ONE, Instant.now()));
+            manager.onTick(new Tick(2, BigDecimal.ONE, Instant.now()));
+            manager.onTick(new Tick(1, BigDecimal.TEN, Instant.now()));
+
+            assertThrows(IllegalStateException.class, () -> manager.onTick(new Tick(3, BigDecimal.ONE, Instant.now())));
+            assertEquals(2, manager.instrumentCount());
+        }
+    }
+
+    @Test
+    void shouldCapPlatformThreadPipelinesByDefault() throws Exception {
+        assumeFalse(VirtualThreads.isSupported());
+        Map<String, Supplier<Calculator>> templates = Map.of(MOVING_AVERAGE, () -> new MovingAverageCalculator(2));
+
+        try (PipelinedTickManager manager = new PipelinedTickManager(templates)) {
+            for (int instrument = 0; instrument < PipelinedTickManager.PLATFORM_THREAD_INSTRUMENT_LIMIT; instrument++) {
+                manager.onTick(new Tick(instrument, BigDecimal.ONE, Instant.now()));
+            }
+            assertThrows(IllegalStateException.class, () -> manager.onTick(new Tick(-1, BigDecimal.ONE, Instant.now())));
+        }
+    }
+
+    @Test
+    void shouldRejectTicksOnceClosed() throws Exception {
+        PipelinedTickManager manager = new PipelinedTickManager(Map.of(MOVING_AVERAGE, () -> new MovingAverageCalculator(2)));
+        manager.onTick(new Tick(1, BigDecimal.ONE, Instant.now()));
+        manager.close();
+
+        assertThrows(IllegalStateException.class, () -> manager.onTick(new Tick(1, BigDecimal.ONE, Instant.now())));
+        assertThrows(IllegalStateException.class, () -> manager.onTick(new Tick(2, BigDecimal.ONE, Instant.now())));
+    }
+}
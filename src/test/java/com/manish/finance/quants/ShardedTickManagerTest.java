@@ -0,0 +1,201 @@
+package com.manish.finance.quants;
+
+import com.manish.finance.calculators.MovingAverageCalculator;
+import com.manish.finance.calculators.WindowedAverageCalculator;
+import com.manish.finance.common.HashedWheelTimer;
+import com.manish.finance.common.InstrumentRegistry;
+import com.manish.finance.common.Tick;
+import com.manish.finance.intf.AverageListener;
+import com.manish.finance.intf.Calculator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static com.manish.finance.testutils.TestUtilis.assertEqualsBigDecimal;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardedTickManagerTest {
+
+    private static final String MOVING_AVERAGE = "MovingAverage";
+    private static final String WINDOWED_AVERAGE = "WindowedAverage";
+
+    /**
+     * Records every average it receives, as "instrument:average".
+     */
+    private static class RecordingListener implements AverageListener {
+        final List<String> received = new CopyOnWriteArrayList<>();
+        final List<BigDecimal> averages = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onAverage(String type, BigDecimal avg) {
+            throw new AssertionError("Instrument aware callback expected");
+        }
+
+        @Override
+        public void onAverage(int instrumentId, String type, BigDecimal avg) {
+            received.add(instrumentId + ":" + avg.stripTrailingZeros().toPlainString());
+            averages.add(avg);
+        }
+    }
+
+    @Test
+    void shouldKeepSeparateCalculatorsPerInstrument() throws Exception {
+        InstrumentRegistry registry = new InstrumentRegistry();
+        int ibm = registry.intern("IBM");
+        int msft = registry.intern("MSFT");
+        assertEquals(ibm, registry.intern("IBM"));
+        assertEquals("MSFT", registry.symbol(msft));
+
+        Map<String, Supplier<Calculator>> templates = Map.of(MOVING_AVERAGE, () -> new MovingAverageCalculator(2));
+        RecordingListener all = new RecordingListener();
+        RecordingListener msftOnly = new RecordingListener();
+
+        try (ShardedTickManager manager = new ShardedTickManager(templates, 4)) {
+            manager.addListener(MOVING_AVERAGE, all);
+            manager.addListener(msft, MOVING_AVERAGE, msftOnly);
+
+            Instant now = Instant.now();
+            manager.onTick(new Tick(ibm, BigDecimal.valueOf(10), now));
+            manager.onTick(new Tick(msft, BigDecimal.valueOf(100), now));
+            manager.onTick(new Tick(ibm, BigDecimal.valueOf(20), now));
+            manager.onTick(new Tick(msft, BigDecimal.valueOf(200), now));
+            manager.flush();
+
+            assertEquals(2, manager.instrumentCount());
+            assertEquals(4, all.received.size());
+            assertEquals(List.of(msft + ":100", msft + ":150"), msftOnly.received);
+            assertEqualsBigDecimal(BigDecimal.valueOf(150), msftOnly.averages.get(1));
+        }
+    }
+
+    @Test
+    void shouldNotifyInstrumentListenerAddedAfterTheInstrumentWasCreated() throws Exception {
+        Map<String, Supplier<Calculator>> templates = Map.of(MOVING_AVERAGE, () -> new MovingAverageCalculator(2));
+        RecordingListener late = new RecordingListener();
+
+        try (ShardedTickManager manager = new ShardedTickManager(templates, 2)) {
+            Instant now = Instant.now();
+            manager.onTick(new Tick(5, BigDecimal.valueOf(10), now));
+            manager.flush();
+            manager.addListener(5, MOVING_AVERAGE, late);
+            manager.onTick(new Tick(5, BigDecimal.valueOf(20), now));
+            manager.onTick(new Tick(6, BigDecimal.valueOf(99), now));
+            manager.flush();
+        }
+
+        assertEquals(List.of("5:15"), late.received);
+    }
+
+    @Test
+    void shouldApplyCancelToInstrumentsCreatedLater() throws Exception {
+        Map<String, Supplier<Calculator>> templates = Map.of(MOVING_AVERAGE, () -> new MovingAverageCalculator(2));
+        RecordingListener all = new RecordingListener();
+
+        try (ShardedTickManager manager = new ShardedTickManager(templates, 2)) {
+            manager.addListener(MOVING_AVERAGE, all);
+            manager.onCancel();
+            manager.onTick(new Tick(7, BigDecimal.valueOf(10), Instant.now()));
+            manager.onResume();
+            manager.onTick(new Tick(7, BigDecimal.valueOf(30), Instant.now()));
+            manager.flush();
+
+            assertEquals(List.of("7:0", "7:30"), all.received);
+        }
+    }
+
+    @Test
+    void shouldBlockProducerWhileShardQueueIsFull() throws Exception {
+        Map<String, Supplier<Calculator>> templates = Map.of(MOVING_AVERAGE, () -> new MovingAverageCalculator(2));
+        RecordingListener all = new RecordingListener();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ShardedTickManager manager = new ShardedTickManager(templates, 1, 1)) {
+            manager.addListener(MOVING_AVERAGE, (type, avg) -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            manager.addListener(MOVING_AVERAGE, all);
+            Thread producer = new Thread(() -> {
+                for (int i = 1; i <= 3; i++) {
+                    manager.onTick(new Tick(1, BigDecimal.valueOf(i), Instant.now()));
+                }
+            });
+            producer.start();
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (producer.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(Thread.State.WAITING, producer.getState());
+
+            release.countDown();
+            producer.join();
+            manager.flush();
+            assertEquals(List.of("1:1", "1:1.5", "1:2.5"), all.received);
+        }
+    }
+
+    @Test
+    void shouldCountFailingEventsAndCarryOn() throws Exception {
+        Map<String, Supplier<Calculator>> templates = Map.of(MOVING_AVERAGE, () -> new MovingAverageCalculator(2));
+        RecordingListener all = new RecordingListener();
+
+        try (ShardedTickManager manager = new ShardedTickManager(templates, 1)) {
+            manager.addListener(MOVING_AVERAGE, all);
+            manager.addListener(1, MOVING_AVERAGE, new AverageListener() {
+                @Override
+                public void onAverage(String type, BigDecimal avg) {
+                }
+
+                @Override
+                public void onAverage(int instrumentId, String type, BigDecimal avg) {
+                    throw new IllegalStateException("listener failed");
+                }
+            });
+            manager.onTick(new Tick(1, BigDecimal.valueOf(10), Instant.now()));
+            manager.onTick(new Tick(2, BigDecimal.valueOf(20), Instant.now()));
+            manager.flush();
+
+            assertEquals(1, manager.getFailedEventCount());
+            assertEquals(List.of("1:10", "2:20"), all.received);
+        }
+    }
+
+    @Test
+    void shouldExpireTicksOfQuietInstrument() throws Exception {
+        Map<String, Supplier<Calculator>> templates = Map.of(WINDOWED_AVERAGE, () -> new WindowedAverageCalculator(Duration.ofMillis(100)));
+        RecordingListener all = new RecordingListener();
+
+        try (HashedWheelTimer timer = new HashedWheelTimer(Duration.ofMillis(5), 64);
+             ShardedTickManager manager = new ShardedTickManager(templates, 2)) {
+            manager.addListener(WINDOWED_AVERAGE, all);
+            manager.enableExpiry(timer, Clock.systemUTC());
+            manager.onTick(new Tick(3, BigDecimal.valueOf(10), Instant.now()));
+            manager.onTick(new Tick(4, BigDecimal.valueOf(20), Instant.now()));
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (all.received.size() < 4 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+
+            assertEquals(4, all.received.size());
+            assertTrue(all.received.containsAll(List.of("3:10", "4:20", "3:0", "4:0")));
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.manish.finance.quants;
+
+import com.manish.finance.calculators.MovingAverageCalculator;
+import com.manish.finance.common.Average;
+import com.manish.finance.common.Tick;
+import com.manish.finance.intf.Calculator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import static com.manish.finance.testutils.TestUtilis.assertEqualsBigDecimal;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TickManagerProcessorTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-02T10:00:00Z");
+
+    /**
+     * A publisher which records the demand and only emits ticks when told to.
+     */
+    private static class ManualPublisher implements Flow.Publisher<Tick>, Flow.Subscription {
+        final List<Long> requests = new ArrayList<>();
+        Flow.Subscriber<? super Tick> subscriber;
+        boolean cancelled;
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super Tick> subscriber) {
+            this.subscriber = subscriber;
+            subscriber.onSubscribe(this);
+        }
+
+        @Override
+        public void request(long n) {
+            requests.add(n);
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        void emit(int count) {
+            for (int i = 0; i < count; i++) {
+                subscriber.onNext(new Tick(1, BigDecimal.valueOf(10 * (i + 1)), NOW.plusSeconds(i)));
+            }
+        }
+
+        long requestedTicks() {
+            return requests.stream().mapToLong(Long::longValue).sum();
+        }
+    }
+
+    /**
+     * Records averages and the terminal signal, requesting only what the test asks for.
+     */
+    private static class RecordingSubscriber implements Flow.Subscriber<Average> {
+        final List<Average> averages = new CopyOnWriteArrayList<>();
+        final CountDownLatch terminated = new CountDownLatch(1);
+        volatile Throwable error;
+        Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Average item) {
+            averages.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            terminated.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            terminated.countDown();
+        }
+    }
+
+    private static TickManager twoCalculators() {
+        Map<String, Calculator> calculators = new LinkedHashMap<>();
+        calculators.put("Fast", new MovingAverageCalculator(2));
+        calculators.put("Slow", new MovingAverageCalculator(4));
+        return new TickManager(calculators);
+    }
+
+    @Test
+    void shouldRequestOnlyTheTicksCoveringTheDemand() {
+        ManualPublisher ticks = new ManualPublisher();
+        TickManagerProcessor processor = new TickManagerProcessor(twoCalculators(), 64);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        ticks.subscribe(processor);
+        processor.subscribe(subscriber);
+        assertEquals(List.of(), ticks.requests);
+
+        subscriber.subscription.request(3);
+        assertEquals(List.of(2L), ticks.requests);
+
+        ticks.emit(2);
+        assertEquals(3, subscriber.averages.size());
+        assertEquals(List.of(2L), ticks.requests); // the fourth average is buffered, nothing more demanded
+
+        subscriber.subscription.request(1);
+        assertEquals(4, subscriber.averages.size());
+        assertEquals(List.of(2L), ticks.requests);
+
+        Average last = subscriber.averages.get(3);
+        assertEquals(1, last.getInstrumentId());
+        assertEquals("Slow", last.getType());
+        assertEquals(NOW.plusSeconds(1), last.getTimestamp());
+        assertEqualsBigDecimal(BigDecimal.valueOf(15), last.getValue());
+    }
+
+    @Test
+    void shouldBatchUpstreamRequestsForUnboundedDemand() {
+        ManualPublisher ticks = new ManualPublisher();
+        TickManagerProcessor processor = new TickManagerProcessor(twoCalculators(), 8);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        ticks.subscribe(processor);
+        processor.subscribe(subscriber);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(List.of(8L), ticks.requests);
+
+        ticks.emit(3);
+        assertEquals(List.of(8L), ticks.requests);
+        ticks.emit(1);
+        assertEquals(List.of(8L, 4L), ticks.requests);
+        assertEquals(8, subscriber.averages.size());
+    }
+
+    @Test
+    void shouldCarryTicksFromSubmissionPublisherToCompletion() throws Exception {
+        TickManagerProcessor processor = new TickManagerProcessor(twoCalculators(), 4);
+        RecordingSubscriber subscriber = new RecordingSubscriber() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                super.onSubscribe(subscription);
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(Average item) {
+                super.onNext(item);
+                subscription.request(1);
+            }
+        };
+        processor.subscribe(subscriber);
+
+        try (SubmissionPublisher<Tick> publisher = new SubmissionPublisher<>()) {
+            publisher.subscribe(processor);
+            for (int i = 1; i <= 100; i++) {
+                publisher.submit(new Tick(BigDecimal.valueOf(i), NOW));
+            }
+        }
+
+        assertTrue(subscriber.terminated.await(5, TimeUnit.SECONDS));
+        assertEquals(null, subscriber.error);
+        assertEquals(200, subscriber.averages.size());
+        assertEqualsBigDecimal(BigDecimal.valueOf(99.5), subscriber.averages.get(198).getValue());
+        assertEqualsBigDecimal(BigDecimal.valueOf(98.5), subscriber.averages.get(199).getValue());
+    }
+
+    @Test
+    void shouldFailOnNonPositiveRequestAndCancelUpstream() {
+        ManualPublisher ticks = new ManualPublisher();
+        TickManagerProcessor processor = new TickManagerProcessor(twoCalculators());
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        ticks.subscribe(processor);
+        processor.subscribe(subscriber);
+
+        subscriber.subscription.request(0);
+
+        assertTrue(ticks.cancelled);
+        assertInstanceOf(IllegalArgumentException.class, subscriber.error);
+    }
+
+    @Test
+    void shouldRejectSecondSubscriber() {
+        TickManagerProcessor processor = new TickManagerProcessor(twoCalculators());
+        processor.subscribe(new RecordingSubscriber());
+        RecordingSubscriber second = new RecordingSubscriber();
+
+        processor.subscribe(second);
+
+        assertInstanceOf(IllegalStateException.class, second.error);
+    }
+
+    @Test
+    void shouldRemoveItsListenersFromTheTickManagerOnCancel() {
+        TickManager tickManager = twoCalculators();
+        TickManagerProcessor processor = new TickManagerProcessor(tickManager);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        processor.subscribe(subscriber);
+        subscriber.subscription.cancel();
+        List<String> calls = new ArrayList<>();
+        tickManager.addListener("Fast", (type, avg) -> calls.add(type));
+
+        // a listener left behind would fail on the Tick the processor never saw
+        tickManager.onTick(new Tick(1, BigDecimal.TEN, NOW));
+
+        assertEquals(List.of("Fast"), calls);
+    }
+
+    @Test
+    void shouldRejectNullSignals() {
+        TickManagerProcessor processor = new TickManagerProcessor(twoCalculators());
+
+        assertThrows(NullPointerException.class, () -> processor.subscribe(null));
+        assertThrows(NullPointerException.class, () -> processor.onSubscribe(null));
+        assertThrows(NullPointerException.class, () -> processor.onNext(null));
+        assertThrows(NullPointerException.class, () -> processor.onError(null));
+    }
+}
@@ -3,17 +3,33 @@ package com.manish.finance.quants;
 import com.manish.finance.calculators.ExponentialAverageCalculator;
 import com.manish.finance.calculators.MovingAverageCalculator;
 import com.manish.finance.calculators.WindowedAverageCalculator;
+import com.manish.finance.common.LatencyHistogram;
 import com.manish.finance.common.Tick;
+import com.manish.finance.intf.AverageListener;
 import com.manish.finance.intf.Calculator;
+import com.manish.finance.intf.MetricsRegistry;
 import com.manish.finance.listners.SampleListener1;
 import com.manish.finance.listners.SampleListener2;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.LongSupplier;
+
+import static com.manish.finance.testutils.TestUtilis.assertEqualsBigDecimal;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class TickManagerTest {
 
@@ -64,6 +80,153 @@ class TickManagerTest {
 
     }
 
+    private static Map<String, Calculator> newCalculators(int windowSize) {
+        Map<String, Calculator> calculators = new HashMap<>();
+        calculators.put("MovingAverage", new MovingAverageCalculator(windowSize));
+        calculators.put("ExponentialMovingAverage", new ExponentialAverageCalculator(windowSize, BigDecimal.valueOf(0.75)));
+        calculators.put("WindowedAverage", new WindowedAverageCalculator(Duration.ofMinutes(5)));
+        return calculators;
+    }
+
+    private static Map<String, BigDecimal> lastAverages(TickManager tickManager, Tick tick) {
+        Map<String, BigDecimal> averages = new HashMap<>();
+        for (String type : List.of("MovingAverage", "ExponentialMovingAverage", "WindowedAverage")) {
+            tickManager.addListener(type, averages::put);
+        }
+        tickManager.onTick(tick);
+        return averages;
+    }
+
+    @Test
+    void shouldRestoreCheckpointIntoFreshCalculators(@TempDir Path directory) throws IOException {
+        Instant now = Instant.now();
+        TickManager original = new TickManager(newCalculators(3));
+        for (int i = 0; i < 5; i++) {
+            original.onTick(new Tick(BigDecimal.valueOf(100 + i * 10), now.plusSeconds(i * 60)));
+        }
+        Path checkpoint = directory.resolve("calculators.ckpt");
+        original.checkpoint(checkpoint);
+
+        TickManager restored = new TickManager(newCalculators(3));
+        restored.restore(checkpoint);
+
+        Tick next = new Tick(BigDecimal.valueOf(105), now.plusSeconds(300));
+        Map<String, BigDecimal> expected = lastAverages(original, next);
+        Map<String, BigDecimal> actual = lastAverages(restored, next);
+        assertEquals(expected.keySet(), actual.keySet());
+        for (String type : expected.keySet()) {
+            assertEqualsBigDecimal(expected.get(type), actual.get(type));
+        }
+    }
+
+    @Test
+    void shouldRollBackWhenCheckpointDoesNotMatch(@TempDir Path directory) throws IOException {
+        Instant now = Instant.now();
+        TickManager original = new TickManager(newCalculators(3));
+        original.onTick(new Tick(BigDecimal.valueOf(100), now));
+        Path checkpoint = directory.resolve("calculators.ckpt");
+        original.checkpoint(checkpoint);
+
+        // Same types but a larger moving average window: the windowed average restores, the SMA is rejected
+        TickManager other = new TickManager(newCalculators(4));
+        other.onTick(new Tick(BigDecimal.valueOf(50), now));
+        assertThrows(IOException.class, () -> other.restore(checkpoint));
+
+        List<BigDecimal> averages = new ArrayList<>();
+        other.addListener("WindowedAverage", (type, avg) -> averages.add(avg));
+        other.onTick(new Tick(BigDecimal.valueOf(150), now.plusSeconds(1)));
+        assertEqualsBigDecimal(BigDecimal.valueOf(100), averages.get(0));
+    }
+
+    @Test
+    void shouldRecordMetricsOnceEnabled() {
+        RecordingMetricsRegistry registry = new RecordingMetricsRegistry();
+        TickManager tickManager = new TickManager(Map.of("MovingAverage", new MovingAverageCalculator(3)));
+        tickManager.onTick(new Tick(BigDecimal.valueOf(100), Instant.now()));
+        tickManager.enableMetrics(registry, "prices");
+
+        for (int i = 0; i < 5; i++) {
+            tickManager.onTick(new Tick(BigDecimal.valueOf(100 + i), Instant.now()));
+        }
+        tickManager.onTicks(new Tick[]{new Tick(BigDecimal.TEN, Instant.now()), new Tick(BigDecimal.ONE, Instant.now())});
+
+        assertEquals(7, registry.counters.get("prices.ticks").getAsLong());
+        assertEquals(3, registry.gauges.get("prices.MovingAverage.windowOccupancy").getAsLong());
+        assertEquals(5, registry.counters.get("prices.MovingAverage.evictions").getAsLong());
+        assertEquals(7, registry.histograms.get("prices.MovingAverage.calculateNanos").getCount());
+        assertEquals(6, registry.histograms.get("prices.MovingAverage.dispatchNanos").getCount());
+    }
+
+    @Test
+    void shouldDispatchInTypeOrderWhateverTheMapOrder() {
+        Map<String, Calculator> calculators = new LinkedHashMap<>();
+        calculators.put("WindowedAverage", new WindowedAverageCalculator(Duration.ofMinutes(5)));
+        calculators.put("EMA", new ExponentialAverageCalculator(3, new BigDecimal("0.5")));
+        calculators.put("MovingAverage", new MovingAverageCalculator(3));
+        TickManager tickManager = new TickManager(calculators);
+        List<String> calls = new ArrayList<>();
+        for (String type : calculators.keySet()) {
+            tickManager.addListener(type, (t, avg) -> calls.add(t + "#1"));
+            tickManager.addListener(type, (t, avg) -> calls.add(t + "#2"));
+        }
+
+        tickManager.onTick(new Tick(BigDecimal.TEN, Instant.now()));
+
+        assertEquals(List.of("EMA#1", "EMA#2", "MovingAverage#1", "MovingAverage#2", "WindowedAverage#1", "WindowedAverage#2"), calls);
+        assertThrows(IllegalArgumentException.class, () -> tickManager.addListener("VWAP", (t, avg) -> { }));
+    }
+
+    @Test
+    void shouldDeliverToListenerAddedDuringDispatchFromNextTick() {
+        TickManager tickManager = new TickManager(Map.of("MovingAverage", new MovingAverageCalculator(3)));
+        List<BigDecimal> late = new ArrayList<>();
+        tickManager.addListener("MovingAverage", (type, avg) -> {
+            if (late.isEmpty()) {
+                tickManager.addListener("MovingAverage", (t, a) -> late.add(a));
+            }
+        });
+
+        tickManager.onTick(new Tick(BigDecimal.valueOf(10), Instant.now()));
+        assertEquals(0, late.size());
+        tickManager.onTick(new Tick(BigDecimal.valueOf(20), Instant.now()));
+        assertEquals(1, late.size());
+        assertEqualsBigDecimal(BigDecimal.valueOf(15), late.get(0));
+    }
+
+    @Test
+    void shouldStopDeliveringToRemovedListener() {
+        TickManager tickManager = new TickManager(Map.of("MovingAverage", new MovingAverageCalculator(3)));
+        List<String> calls = new ArrayList<>();
+        AverageListener first = (type, avg) -> calls.add("first");
+        tickManager.addListener("MovingAverage", first);
+        tickManager.addListener("MovingAverage", (type, avg) -> calls.add("second"));
+
+        assertTrue(tickManager.removeListener("MovingAverage", first));
+        assertFalse(tickManager.removeListener("MovingAverage", first));
+        tickManager.onTick(new Tick(BigDecimal.TEN, Instant.now()));
+
+        assertEquals(List.of("second"), calls);
+        assertThrows(IllegalArgumentException.class, () -> tickManager.removeListener("VWAP", first));
+    }
+
+    private static class RecordingMetricsRegistry implements MetricsRegistry {
+        final Map<String, LongSupplier> counters = new HashMap<>();
+        final Map<String, LongSupplier> gauges = new HashMap<>();
+        final Map<String, LatencyHistogram> histograms = new HashMap<>();
 
+        @Override
+        public void registerCounter(String name, LongSupplier count) {
+            counters.put(name, count);
+        }
+
+        @Override
+        public void registerGauge(String name, LongSupplier value) {
+            gauges.put(name, value);
+        }
 
-}
\ No newline at end of file
+        @Override
+        public void registerHistogram(String name, LatencyHistogram histogram) {
+            histograms.put(name, histogram);
+        }
+    }
+}
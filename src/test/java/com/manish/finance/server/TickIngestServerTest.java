@@ -0,0 +1,197 @@
+package com.manish.finance.server;
+
+import com.manish.finance.calculators.MovingAverageCalculator;
+import com.manish.finance.calculators.VolumeWeightedAverageCalculator;
+import com.manish.finance.common.Average;
+import com.manish.finance.common.Tick;
+import com.manish.finance.intf.Calculator;
+import com.manish.finance.quants.TickManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.manish.finance.testutils.TestUtilis.assertEqualsBigDecimal;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TickIngestServerTest {
+
+    private static final String MOVING_AVERAGE = "MovingAverage";
+
+    @TempDir
+    Path directory;
+
+    private static TickManager newTickManager() {
+        Map<String, Calculator> calculators = Map.of(MOVING_AVERAGE, new MovingAverageCalculator(3));
+        return new TickManager(calculators);
+    }
+
+    @Test
+    void shouldPublishAveragesOfTicksFromAnotherConnection() throws Exception {
+        InetSocketAddress loopback = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        try (TickIngestServer server = new TickIngestServer(id -> newTickManager(), loopback, 4);
+             TickFeedClient subscriber = new TickFeedClient(server.getLocalAddress());
+             TickFeedClient feed = new TickFeedClient(server.getLocalAddress())) {
+            assertEquals(4, feed.getScale());
+            subscriber.subscribe();
+
+            Instant now = Instant.now();
+            feed.sendTick(new Tick(1, new BigDecimal("10.5"), now));
+            feed.sendTick(new Tick(1, new BigDecimal("20.5"), now.plusMillis(1)));
+            feed.sendTick(new Tick(1, new BigDecimal("30.5"), now.plusMillis(2)));
+            feed.sendTick(new Tick(7, new BigDecimal("40"), now.plusMillis(3)));
+            feed.sendReset();
+            feed.sendTick(new Tick(1, new BigDecimal("50"), now.plusMillis(4)));
+            feed.flush();
+
+            List<Average> averages = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                averages.add(subscriber.receiveAverage());
+            }
+            assertEquals(MOVING_AVERAGE, averages.get(0).getType());
+            assertEqualsBigDecimal(new BigDecimal("10.5"), averages.get(0).getValue());
+            assertEqualsBigDecimal(new BigDecimal("15.5"), averages.get(1).getValue());
+            assertEqualsBigDecimal(new BigDecimal("20.5"), averages.get(2).getValue());
+            assertEquals(1, averages.get(2).getInstrumentId());
+            assertEquals(now.plusMillis(2), averages.get(2).getTimestamp());
+            assertEqualsBigDecimal(new BigDecimal("40"), averages.get(3).getValue());
+            assertEquals(7, averages.get(3).getInstrumentId());
+            assertEquals(now.plusMillis(3), averages.get(3).getTimestamp());
+            assertEqualsBigDecimal(new BigDecimal("50"), averages.get(4).getValue());
+            assertEquals(1, averages.get(4).getInstrumentId());
+        }
+    }
+
+    @Test
+    void shouldCarryTheVolumeOfTicksToTheCalculators() throws Exception {
+        Map<String, Calculator> calculators = Map.of("VWAP", new VolumeWeightedAverageCalculator(3));
+        InetSocketAddress loopback = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        try (TickIngestServer server = new TickIngestServer(new TickManager(calculators), loopback, 4);
+             TickFeedClient feed = new TickFeedClient(server.getLocalAddress())) {
+            feed.subscribe();
+            Instant now = Instant.now();
+            feed.sendTick(new Tick(1, new BigDecimal("10"), new BigDecimal("3"), now));
+            feed.sendTick(new Tick(1, new BigDecimal("20"), new BigDecimal("1.5"), now.plusMillis(1)));
+            feed.flush();
+
+            assertEqualsBigDecimal(new BigDecimal("10"), feed.receiveAverage().getValue());
+            assertEqualsBigDecimal(new BigDecimal("13.3333"), feed.receiveAverage().getValue());
+        }
+    }
+
+    @Test
+    void shouldIngestGeneratedLoadOverUnixDomainSocket() throws Exception {
+        Path socket = directory.resolve("ingest.sock");
+        int ticks = 20_000;
+        try (TickIngestServer server = new TickIngestServer(id -> newTickManager(), UnixDomainSocketAddress.of(socket), 4)) {
+            try (TickFeedClient subscriber = new TickFeedClient(server.getLocalAddress());
+                 TickFeedClient feed = new TickFeedClient(server.getLocalAddress())) {
+                subscriber.subscribe();
+                feed.generateLoad(ticks, 10, 7);
+
+                int[] received = new int[1];
+                subscriber.receiveAverages(ticks, (type, avg) -> received[0]++);
+                assertEquals(ticks, received[0]);
+                assertEquals(ticks, server.getTicksReceived());
+            }
+        }
+        assertFalse(Files.exists(socket));
+    }
+
+    @Test
+    void shouldDisconnectOnlyTheConnectionWhoseTicksFail() throws Exception {
+        Map<String, Calculator> calculators = Map.of(MOVING_AVERAGE, new MovingAverageCalculator(3) {
+            @Override
+            public BigDecimal calculate(Tick tick) {
+                if (tick.getPrice().signum() < 0) {
+                    throw new IllegalArgumentException("Negative price " + tick.getPrice());
+                }
+                return super.calculate(tick);
+            }
+        });
+        InetSocketAddress loopback = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        try (TickIngestServer server = new TickIngestServer(id -> new TickManager(calculators), loopback, 4);
+             TickFeedClient subscriber = new TickFeedClient(server.getLocalAddress());
+             TickFeedClient broken = new TickFeedClient(server.getLocalAddress());
+             TickFeedClient feed = new TickFeedClient(server.getLocalAddress())) {
+            subscriber.subscribe();
+            broken.sendTick(new Tick(2, new BigDecimal("-1"), Instant.now()));
+            broken.flush();
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (server.getFailedConnections() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(1, server.getFailedConnections());
+            assertInstanceOf(IllegalArgumentException.class, server.getLastFailure());
+
+            feed.sendTick(new Tick(1, new BigDecimal("12"), Instant.now()));
+            feed.flush();
+            Average average = subscriber.receiveAverage();
+            assertEquals(1, average.getInstrumentId());
+            assertEqualsBigDecimal(new BigDecimal("12"), average.getValue());
+        }
+    }
+
+    @Test
+    void shouldRejectTicksOfAnotherInstrumentOnASingleInstrumentServer() throws Exception {
+        InetSocketAddress loopback = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        try (TickIngestServer server = new TickIngestServer(newTickManager(), loopback, 4);
+             TickFeedClient feed = new TickFeedClient(server.getLocalAddress());
+             TickFeedClient other = new TickFeedClient(server.getLocalAddress())) {
+            feed.subscribe();
+            feed.sendTick(new Tick(3, new BigDecimal("10"), Instant.now()));
+            feed.flush();
+            assertEquals(3, feed.receiveAverage().getInstrumentId());
+
+            other.sendTick(new Tick(4, new BigDecimal("20"), Instant.now()));
+            other.flush();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (server.getFailedConnections() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(1, server.getFailedConnections());
+            assertInstanceOf(IllegalArgumentException.class, server.getLastFailure());
+
+            feed.sendTick(new Tick(3, new BigDecimal("30"), Instant.now()));
+            feed.flush();
+            assertEqualsBigDecimal(new BigDecimal("20"), feed.receiveAverage().getValue());
+        }
+    }
+
+    @Test
+    void shouldDisconnectSubscriberWhichDoesNotRead() throws Exception {
+        InetSocketAddress loopback = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        try (TickIngestServer server = new TickIngestServer(newTickManager(), loopback, 4, 512);
+             TickFeedClient slow = new TickFeedClient(server.getLocalAddress())) {
+            slow.subscribe();
+            // the slow subscriber sends a large batch on its own connection and never reads the averages
+            try {
+                slow.generateLoad(100_000, 1, 1);
+            } catch (IOException e) {
+                // disconnected while still sending
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (server.getSlowSubscriberDisconnects() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(1, server.getSlowSubscriberDisconnects());
+            assertThrows(IOException.class, () -> slow.receiveAverages(100_000, (type, avg) -> { }));
+        }
+    }
+}
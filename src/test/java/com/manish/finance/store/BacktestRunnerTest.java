@@ -0,0 +1,150 @@
+package com.manish.finance.store;
+
+import com.manish.finance.calculators.DoubleMovingAverageCalculator;
+import com.manish.finance.calculators.DoubleWindowedAverageCalculator;
+import com.manish.finance.calculators.ExponentialAverageCalculator;
+import com.manish.finance.calculators.MovingAverageCalculator;
+import com.manish.finance.calculators.WindowedAverageCalculator;
+import com.manish.finance.common.Tick;
+import com.manish.finance.intf.Calculator;
+import com.manish.finance.intf.PrimitiveCalculator;
+import com.manish.finance.quants.TickManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BacktestRunnerTest {
+
+    private static final Instant START = Instant.parse("2024-01-02T14:30:00Z");
+
+    @TempDir
+    Path directory;
+
+    private static Map<String, Supplier<Calculator>> templates() {
+        Map<String, Supplier<Calculator>> templates = new LinkedHashMap<>();
+        templates.put("MovingAverage", () -> new MovingAverageCalculator(20));
+        templates.put("EMA", () -> new ExponentialAverageCalculator(20, new BigDecimal("0.1")));
+        templates.put("WindowedAverage", () -> new WindowedAverageCalculator(Duration.ofSeconds(30)));
+        return templates;
+    }
+
+    private static List<Tick> randomTicks(int count, int instruments) {
+        Random random = new Random(42);
+        List<Tick> ticks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            // skewed, the first instrument gets about half of the ticks
+            int instrument = random.nextBoolean() ? 1 : 2 + random.nextInt(instruments - 1);
+            ticks.add(new Tick(instrument, BigDecimal.valueOf(10_000 + random.nextInt(1_000), 2), START.plusMillis(250L * i)));
+        }
+        return ticks;
+    }
+
+    /**
+     * The reference: one TickManager per instrument fed sequentially through onTick.
+     */
+    private static List<BigDecimal> sequentialAverages(List<Tick> ticks, int instrumentId, String type) {
+        Map<String, Calculator> calculators = new LinkedHashMap<>();
+        templates().forEach((key, template) -> calculators.put(key, template.get()));
+        TickManager tickManager = new TickManager(calculators);
+        List<BigDecimal> averages = new ArrayList<>();
+        tickManager.addListener(type, (t, avg) -> averages.add(avg));
+        for (Tick tick : ticks) {
+            if (tick.getInstrumentId() == instrumentId) {
+                tickManager.onTick(tick);
+            }
+        }
+        return averages;
+    }
+
+    @Test
+    void shouldMatchSequentialReplayOfEachInstrument() {
+        List<Tick> ticks = randomTicks(5_000, 8);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Map<Integer, BacktestRunner.InstrumentAverages> results = new BacktestRunner(templates(), pool).run(ticks);
+
+            assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8), new ArrayList<>(results.keySet()));
+            for (BacktestRunner.InstrumentAverages result : results.values()) {
+                for (String type : templates().keySet()) {
+                    assertEquals(sequentialAverages(ticks, result.getInstrumentId(), type), result.getAverages(type));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void shouldReplayTickStoreFile() throws IOException {
+        List<Tick> ticks = randomTicks(2_000, 3);
+        Path file = directory.resolve("ticks.bin");
+        try (TickStoreWriter writer = new TickStoreWriter(file, 2)) {
+            for (Tick tick : ticks) {
+                writer.write(tick);
+            }
+        }
+
+        try (TickStoreReader reader = new TickStoreReader(file)) {
+            Map<Integer, BacktestRunner.InstrumentAverages> results = new BacktestRunner(templates()).run(reader);
+
+            assertEquals(3, results.size());
+            Map<Integer, BacktestRunner.InstrumentAverages> fromList = new BacktestRunner(templates()).run(ticks);
+            for (int instrument : results.keySet()) {
+                for (String type : templates().keySet()) {
+                    assertEquals(fromList.get(instrument).getAverages(type).size(), results.get(instrument).getAverages(type).size());
+                    assertEquals(0, fromList.get(instrument).getLastAverage(type).compareTo(results.get(instrument).getLastAverage(type)));
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldReplayTickStoreFileThroughPrimitiveCalculators() throws IOException {
+        List<Tick> ticks = randomTicks(2_000, 3);
+        Path file = directory.resolve("ticks.bin");
+        try (TickStoreWriter writer = new TickStoreWriter(file, 2)) {
+            for (Tick tick : ticks) {
+                writer.write(tick);
+            }
+        }
+        Map<String, Supplier<PrimitiveCalculator>> calculators = new LinkedHashMap<>();
+        calculators.put("MovingAverage", () -> new DoubleMovingAverageCalculator(20));
+        calculators.put("WindowedAverage", () -> new DoubleWindowedAverageCalculator(Duration.ofSeconds(30)));
+
+        try (TickStoreReader reader = new TickStoreReader(file)) {
+            Map<Integer, BacktestRunner.PrimitiveAverages> results = new BacktestRunner(templates()).run(reader, calculators);
+
+            assertEquals(List.of(1, 2, 3), new ArrayList<>(results.keySet()));
+            for (BacktestRunner.PrimitiveAverages result : results.values()) {
+                for (Map.Entry<String, Supplier<PrimitiveCalculator>> calculator : calculators.entrySet()) {
+                    PrimitiveCalculator sequential = calculator.getValue().get();
+                    List<Double> expected = new ArrayList<>();
+                    for (long i = 0; i < reader.size(); i++) {
+                        if (reader.instrumentAt(i) == result.getInstrumentId()) {
+                            expected.add(sequential.calculate(reader.priceAt(i), reader.timestampAt(i)));
+                        }
+                    }
+                    double[] averages = result.getAverages(calculator.getKey());
+                    assertEquals(expected.size(), averages.length);
+                    for (int i = 0; i < averages.length; i++) {
+                        assertEquals(expected.get(i), averages[i], 1e-9); // batched sums may round differently
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.manish.finance.store;
+
+import com.manish.finance.common.Tick;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static com.manish.finance.testutils.TestUtilis.assertEqualsBigDecimal;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TickRecordViewTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldReadRecordsInPlace() {
+        ByteBuffer feed = ByteBuffer.allocate(3 * TickRecordView.RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < 3; i++) {
+            TickRecordView.write(feed, i * TickRecordView.RECORD_BYTES, 7 + i, 1_234_500 + i, 50_000 * (i + 1), 1_000L * i);
+        }
+        TickRecordView view = new TickRecordView(4);
+
+        view.wrap(feed, 2 * TickRecordView.RECORD_BYTES);
+        assertEquals(9, view.instrumentId());
+        assertEquals(1_234_502, view.scaledPrice());
+        assertEquals(123.4502, view.price(), 1e-9);
+        assertEquals(150_000, view.scaledVolume());
+        assertEquals(2_000, view.timestampNanos());
+
+        Tick tick = view.wrap(feed, 0).toTick();
+        assertEquals(7, tick.getInstrumentId());
+        assertEqualsBigDecimal(new BigDecimal("123.45"), tick.getPrice());
+        assertEqualsBigDecimal(new BigDecimal("5"), tick.getVolume());
+        assertEquals(Instant.EPOCH, tick.getTimestamp());
+    }
+
+    @Test
+    void shouldRejectBufferOfWrongOrderOrSize() {
+        TickRecordView view = new TickRecordView(4);
+        assertThrows(IllegalArgumentException.class, () -> view.wrap(ByteBuffer.allocate(64), 0));
+        ByteBuffer small = ByteBuffer.allocate(TickRecordView.RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        assertThrows(IndexOutOfBoundsException.class, () -> view.wrap(small, 1));
+    }
+
+    @Test
+    void shouldViewTicksOfStoreFile() throws IOException {
+        Path file = directory.resolve("ticks.bin");
+        Instant start = Instant.parse("2024-01-02T14:30:00Z");
+        try (TickStoreWriter writer = new TickStoreWriter(file, 2)) {
+            for (int i = 0; i < 10; i++) {
+                writer.write(new Tick(i % 3, BigDecimal.valueOf(1000 + i, 2), start.plusSeconds(i)));
+            }
+        }
+        try (TickStoreReader reader = new TickStoreReader(file)) {
+            TickRecordView view = new TickRecordView(2);
+            for (int i = 0; i < 10; i++) {
+                reader.viewAt(i, view);
+                assertEquals(reader.instrumentAt(i), view.instrumentId());
+                assertEquals(reader.scaledPriceAt(i), view.scaledPrice());
+                assertEquals(reader.scaledVolumeAt(i), view.scaledVolume());
+                assertEquals(reader.timestampAt(i), view.timestampNanos());
+            }
+            assertThrows(IllegalArgumentException.class, () -> reader.viewAt(0, new TickRecordView(4)));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.manish.finance.store;
+
+import com.manish.finance.calculators.DoubleWindowedAverageCalculator;
+import com.manish.finance.calculators.FixedPointMovingAverageCalculator;
+import com.manish.finance.common.FixedPoint;
+import com.manish.finance.common.Tick;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+import static com.manish.finance.testutils.TestUtilis.assertEqualsBigDecimal;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TickStoreTest {
+
+    private static final int SCALE = 4;
+    private static final Instant START = Instant.parse("2024-01-02T14:30:00Z");
+
+    @TempDir
+    Path directory;
+
+    private Path writeTicks(int count) throws IOException {
+        Path file = directory.resolve("ticks.bin");
+        try (TickStoreWriter writer = new TickStoreWriter(file, SCALE)) {
+            for (int i = 0; i < count; i++) {
+                writer.write(new Tick(i % 2 + 1, BigDecimal.valueOf(100 + i, 2), BigDecimal.valueOf(i % 7 + 1, 1), START.plusSeconds(i)));
+            }
+        }
+        return file;
+    }
+
+    @Test
+    void shouldReadBackWrittenTicks() throws IOException {
+        try (TickStoreReader reader = new TickStoreReader(writeTicks(10_000))) {
+            assertEquals(10_000, reader.size());
+            assertEquals(SCALE, reader.getScale());
+            Tick tick = reader.tickAt(9_999);
+            assertEquals(2, tick.getInstrumentId());
+            assertEqualsBigDecimal(new BigDecimal("100.99"), tick.getPrice());
+            assertEqualsBigDecimal(new BigDecimal("0.4"), tick.getVolume());
+            assertEquals(START.plusSeconds(9_999), tick.getTimestamp());
+        }
+    }
+
+    @Test
+    void shouldSeekToTimestampAndWarmUpWindowFromTail() throws IOException {
+        try (TickStoreReader reader = new TickStoreReader(writeTicks(1_000))) {
+            assertEquals(0, reader.seek(START.minusSeconds(1)));
+            assertEquals(500, reader.seek(START.plusMillis(499_500)));
+            assertEquals(1_000, reader.seek(START.plusSeconds(5_000)));
+
+            // Replaying only the last five minutes gives the same average as replaying everything
+            Duration window = Duration.ofMinutes(5);
+            Instant last = FixedPoint.toInstant(reader.timestampAt(reader.size() - 1));
+            double fromTail = reader.replay(reader.seek(last.minus(window)), TickStoreReader.ALL_INSTRUMENTS,
+                    new DoubleWindowedAverageCalculator(window));
+            double fromStart = reader.replay(0, TickStoreReader.ALL_INSTRUMENTS, new DoubleWindowedAverageCalculator(window));
+            assertEquals(fromStart, fromTail, 0.00001);
+        }
+    }
+
+    @Test
+    void shouldReplaySingleInstrumentIntoFixedPointCalculator() throws IOException {
+        try (TickStoreReader reader = new TickStoreReader(writeTicks(10))) {
+            // instrument 1 has the even ticks: 1.00, 1.02, ... 1.08 (scaled by 10^4)
+            long average = reader.replay(0, 1, new FixedPointMovingAverageCalculator(5, SCALE));
+            assertEquals(10_400, average);
+            assertThrows(IllegalArgumentException.class,
+                    () -> reader.replay(0, 1, new FixedPointMovingAverageCalculator(5, 2)));
+        }
+    }
+
+    @Test
+    void shouldRejectTicksOutOfOrder() throws IOException {
+        try (TickStoreWriter writer = new TickStoreWriter(directory.resolve("unordered.bin"), SCALE)) {
+            writer.write(1, 100, 1, 10);
+            assertThrows(IllegalArgumentException.class, () -> writer.write(1, 100, 1, 9));
+        }
+    }
+}